@@ -0,0 +1,189 @@
+#!/usr/bin/env bash
+
+#########################################################################
+#Name:     AppCdsArchiveGenerator.sh                                    #
+#Function: Creates an Application Class Data Sharing (AppCDS) archive   #
+#          for the shaded jar through a training run, so that the       #
+#          classes (JVM, Apache Jena & vibe) do not need to be loaded   #
+#          and verified from the jar on every start (see FastStart.sh). #
+#                                                                       #
+#Usage:    AppCdsArchiveGenerator.sh                                    #
+#########################################################################
+
+# Defines error echo.
+errcho() { echo -e "$@" 1>&2; }
+
+# Base path (to script).
+readonly BASE_PATH=$(sed 's/AppCdsArchiveGenerator.sh$//' <<< $0 | sed -e 's/^$/.\//g')
+
+# Describes usage.
+readonly USAGE="Usage: AppCdsArchiveGenerator.sh [-h] [-j <FILE>] [-t <DIR>] [-w <FILE>] [-p <HPO ID>]... [-b <NUMBER>]
+Description: Creates an AppCDS archive (<jar name>.jsa next to the jar) through a training run of the jar.
+Arguments:
+-h --help           Shows this help message.
+-j --jar            The shaded jar (default: ${BASE_PATH}target/vibe-with-dependencies.jar).
+-t --tdb            The DisGeNET TDB used for the training run (default: the mini TDB from the test resources).
+-w --hpo            The HPO .owl file used for the training run (default: the HPO from the test resources).
+                    Use 'none' to train without the ontology.
+-p --phenotype      A phenotype used for the training run (default: hp:0001377 and hp:0005060, which are present in
+                    the test resources). Must be present in the TDB/HPO used.
+-b --benchmark      After creating the archive, compares the startup time of the jar with and without the archive
+                    by running the training run this number of times each.
+
+IMPORTANT:  Requires Java 11 or higher (AppCDS for application classes is not available in OpenJDK 8). The jar
+            itself targets Java 8, so it can be run on a newer version. The archive can only be used with the exact
+            same Java version and jar it was created with (FastStart.sh falls back to a normal start otherwise).
+            The test resources can be prepared using TestNGPreprocessing.sh.
+"
+
+# Side of text for echo when displaying which phase is executed.
+readonly SEP_SIDE='######## ######## ########'
+
+# Phenotypes used for the training run by default (present in the mini DisGeNET dataset).
+readonly DEFAULT_TRAINING_PHENOTYPES="-p hp:0001377 -p hp:0005060"
+
+main() {
+	digestCommandLine "$@"
+	checkJavaVersion
+	createArchive
+	if [[ ${BENCHMARK_RUNS+isset} == isset ]]; then runBenchmark; fi
+}
+
+digestCommandLine() {
+	# Default values.
+	JAR="${BASE_PATH}target/vibe-with-dependencies.jar"
+	TDB="${BASE_PATH}src/test/resources/disgenet_mini_tdb/"
+	HPO="${BASE_PATH}src/test/resources/hpo/hp.owl"
+
+	#Digests the command line arguments.
+	while [[ $# -gt 0 ]]
+	do
+		key="$1"
+		case $key in
+			-j|--jar)
+			JAR="$2"
+			shift # argument
+			shift # value
+			;;
+			-t|--tdb)
+			TDB="$2"
+			shift # argument
+			shift # value
+			;;
+			-w|--hpo)
+			HPO="$2"
+			shift # argument
+			shift # value
+			;;
+			-p|--phenotype)
+			TRAINING_PHENOTYPES="$TRAINING_PHENOTYPES -p $2"
+			shift # argument
+			shift # value
+			;;
+			-b|--benchmark)
+			BENCHMARK_RUNS="$2"
+			shift # argument
+			shift # value
+			;;
+			-h|--help)
+			local help=TRUE
+			shift # argument
+			;;
+			*)    # unknown option
+			shift # argument
+			;;
+		esac
+	done
+
+	# Checks if usage is requested.
+	if [[ ${help} == TRUE ]]; then echo "$USAGE"; exit 0; fi
+
+	# Checks the given arguments.
+	if [ ! -f "$JAR" ]; then errcho "Jar not found: $JAR (use 'mvn package' to create it).\n\n$USAGE"; exit 1; fi
+	if [ ! -d "$TDB" ]; then errcho "TDB not an existing directory: $TDB\n\n$USAGE"; exit 1; fi
+	if [[ "$HPO" != "none" && ! -f "$HPO" ]]; then errcho "HPO not an existing file: $HPO\n\n$USAGE"; exit 1; fi
+	if [[ ${BENCHMARK_RUNS+isset} == isset && ! "$BENCHMARK_RUNS" =~ ^[1-9][0-9]*$ ]]; then errcho "Benchmark runs must be a positive number.\n\n$USAGE"; exit 1; fi
+
+	if [[ -z "$TRAINING_PHENOTYPES" ]]; then TRAINING_PHENOTYPES="$DEFAULT_TRAINING_PHENOTYPES"; fi
+	readonly TRAINING_PHENOTYPES
+
+	# The archive stores the jar path, so it must be absolute to be usable from any working directory.
+	readonly JAR="$(cd "$(dirname "$JAR")" && pwd)/$(basename "$JAR")"
+	readonly ARCHIVE="${JAR%.jar}.jsa"
+	readonly CLASS_LIST="${JAR%.jar}.classlist"
+}
+
+checkJavaVersion() {
+	# "1.8.0_392" -> 8, "17.0.9" -> 17
+	JAVA_VERSION=$(java -version 2>&1 | head -n 1 | sed -E 's/^[^"]*"(1\.)?([0-9]+).*$/\2/')
+	if [[ ! "$JAVA_VERSION" =~ ^[0-9]+$ || $JAVA_VERSION -lt 11 ]]
+	then
+		errcho "Java 11 or higher is required to create an AppCDS archive (found: $(java -version 2>&1 | head -n 1))."
+		exit 1
+	fi
+}
+
+# Runs the jar on the training data (all prioritizers, so that their classes are included as well).
+# Arguments: JVM options to be used.
+runTraining() {
+	declare -r output_dir=$(mktemp -d)
+	if [[ "$HPO" == "none" ]]
+	then
+		java "$@" -jar "$JAR" -t "$TDB" -s gda_max -s dsi -s dpi -o "${output_dir}/results.tsv" $TRAINING_PHENOTYPES > /dev/null
+	else
+		java "$@" -jar "$JAR" -t "$TDB" -w "$HPO" -n children -m 1 -s gda_max -s dsi -s dpi -s resnik -o "${output_dir}/results.tsv" $TRAINING_PHENOTYPES > /dev/null
+	fi
+	# Errors are only printed (the exit code is always 0), so checks whether the output was written.
+	declare -i exit_code=0
+	if [ ! -s "${output_dir}/results_gda_max.tsv" ]; then exit_code=1; fi
+	rm -r "$output_dir"
+	return $exit_code
+}
+
+createArchive() {
+	echo -e "\n$SEP_SIDE Creating AppCDS archive (Java $JAVA_VERSION) $SEP_SIDE\n"
+	rm -f "$ARCHIVE"
+
+	if [[ $JAVA_VERSION -ge 13 ]]
+	then
+		# Dynamic archive: stores the classes loaded during the training run when the JVM exits.
+		runTraining -XX:ArchiveClassesAtExit="$ARCHIVE" || { errcho "Training run failed."; exit 1; }
+	else
+		# Static archive: records the loaded classes during the training run and dumps them afterwards.
+		runTraining -Xshare:off -XX:DumpLoadedClassList="$CLASS_LIST" || { errcho "Training run failed."; exit 1; }
+		java -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" > /dev/null || { errcho "Creating archive failed."; exit 1; }
+		rm -f "$CLASS_LIST"
+	fi
+
+	if [ ! -f "$ARCHIVE" ]; then errcho "Creating archive failed."; exit 1; fi
+	echo "Created: $ARCHIVE ($(du -h "$ARCHIVE" | cut -f 1))"
+}
+
+# Prints the mean wall-clock time of the training run in seconds.
+# Arguments: JVM options to be used.
+# Runs in a command substitution, so its exit status must be checked by the caller.
+meanRunTime() {
+	declare -i total=0
+	for ((i = 0; i < BENCHMARK_RUNS; i++))
+	do
+		declare -i start=$(date +%s%N)
+		runTraining "$@" || { errcho "Benchmark run failed."; exit 1; }
+		total+=$(( $(date +%s%N) - start ))
+	done
+	awk "BEGIN { printf \"%.3f\", $total / $BENCHMARK_RUNS / 1000000000 }"
+}
+
+runBenchmark() {
+	echo -e "\n$SEP_SIDE Comparing startup time ($BENCHMARK_RUNS runs each) $SEP_SIDE\n"
+	# Warms up the file system cache, so that the first measured run is not penalized.
+	runTraining -Xshare:auto || { errcho "Benchmark run failed."; exit 1; }
+
+	# Declared separately, as declare itself would hide the exit status of the command substitution.
+	declare plain archived
+	plain=$(meanRunTime -Xshare:auto) || exit 1
+	archived=$(meanRunTime -Xshare:on -XX:SharedArchiveFile="$ARCHIVE") || exit 1
+	echo "Without archive: ${plain} s"
+	echo "With archive:    ${archived} s"
+}
+
+main "$@"
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+
+#########################################################################
+#Name:     FastStart.sh                                                 #
+#Function: Runs the shaded jar using the AppCDS archive created by      #
+#          AppCdsArchiveGenerator.sh (if available and up-to-date),     #
+#          which reduces the startup time of short runs.                #
+#                                                                       #
+#Usage:    FastStart.sh <vibe arguments>                                #
+#########################################################################
+
+# Defines error echo.
+errcho() { echo -e "$@" 1>&2; }
+
+# Base path (to script).
+readonly BASE_PATH=$(sed 's/FastStart.sh$//' <<< $0 | sed -e 's/^$/.\//g')
+
+# The jar to run (can be overridden through the environment), with the archive next to it.
+readonly JAR="${VIBE_JAR:-${BASE_PATH}target/vibe-with-dependencies.jar}"
+readonly ARCHIVE="${JAR%.jar}.jsa"
+
+main() {
+	if [ ! -f "$JAR" ]; then errcho "Jar not found: $JAR (use 'mvn package' to create it)."; exit 1; fi
+
+	declare -a jvm_options=()
+	if [ ! -f "$ARCHIVE" ]
+	then
+		errcho "No AppCDS archive found (see AppCdsArchiveGenerator.sh), starting without it."
+	elif [ "$JAR" -nt "$ARCHIVE" ]
+	then
+		errcho "AppCDS archive is older than the jar (rerun AppCdsArchiveGenerator.sh), starting without it."
+	else
+		# Falls back to a normal start if the archive does not match the Java version.
+		jvm_options=(-Xshare:auto -XX:SharedArchiveFile="$ARCHIVE")
+	fi
+
+	# JAVA_OPTS allows for additional JVM options (such as -Xmx).
+	exec java "${jvm_options[@]}" $JAVA_OPTS -jar "$JAR" "$@"
+}
+
+main "$@"
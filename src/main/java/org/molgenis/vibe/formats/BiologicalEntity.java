@@ -97,7 +97,7 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
         this.uri = uri;
         String uriString = this.uri.toString();
         validateUri(uriString);
-        id = uriString.split(getUriPrefix())[1];
+        id = uriString.substring(getUriPrefix().length());
     }
 
     public BiologicalEntity(String id, String name) {
@@ -170,7 +170,8 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        // Same value as Objects.hash(id) without creating an array on each call.
+        return 31 + Objects.hashCode(id);
     }
 
     @Override
@@ -43,19 +43,19 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
     /**
      * Get all {@link T3} belonging to a single {@link T1}.
      * @param t1
-     * @return all {@link T3} belonging to {@code t1}
+     * @return all {@link T3} belonging to {@code t1} (an empty {@link Set} if there are none)
      */
     public Set<T3> getByT1(T1 t1) {
-        return Collections.unmodifiableSet(combinationsByT1.get(t1));
+        return Collections.unmodifiableSet(combinationsByT1.getOrDefault(t1, Collections.emptySet()));
     }
 
     /**
      * Get all {@link T3} belonging to a single {@link T2}.
      * @param t2
-     * @return all {@link T3} belonging to {@code t2}
+     * @return all {@link T3} belonging to {@code t2} (an empty {@link Set} if there are none)
      */
     public Set<T3> getByT2(T2 t2) {
-        return Collections.unmodifiableSet(combinationsByT2.get(t2));
+        return Collections.unmodifiableSet(combinationsByT2.getOrDefault(t2, Collections.emptySet()));
     }
 
     public BiologicalEntityCollection() {
@@ -127,12 +127,23 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
     @Override
     public boolean remove(Object o) {
         // Removes item from general collection.
-        Object object = combinationsMap.remove(o);
-        // Goes through the set of every key to remove the item.
-        combinationsByT1.values().forEach(s->s.remove(o));
-        combinationsByT2.values().forEach(s->s.remove(o));
-        // object is null if combinationsMap.remove(o) did NOT remove something.
-        return !Objects.isNull(object);
+        T3 t3 = combinationsMap.remove(o);
+        // t3 is null if combinationsMap.remove(o) did NOT remove something.
+        if(Objects.isNull(t3)) {
+            return false;
+        }
+        // Removes the item from the sets belonging to its keys (and the keys themselves if no items remain).
+        removeCombinationFromKeyMap(t3, t3.getT1(), combinationsByT1);
+        removeCombinationFromKeyMap(t3, t3.getT2(), combinationsByT2);
+        return true;
+    }
+
+    private void removeCombinationFromKeyMap(T3 t3, BiologicalEntity key, Map<? extends BiologicalEntity, Set<T3>> combinationsByKey) {
+        Set<T3> valueSet = combinationsByKey.get(key);
+        valueSet.remove(t3);
+        if(valueSet.isEmpty()) {
+            combinationsByKey.remove(key);
+        }
     }
 
     @Override
@@ -179,11 +190,7 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
     }
 
     private void removeEmptySets(Map<? extends BiologicalEntity, Set<T3>> combinationsByKey) {
-        for(BiologicalEntity key:combinationsByKey.keySet()) {
-            if(combinationsByKey.get(key).isEmpty()) {
-                combinationsByKey.remove(key);
-            }
-        }
+        combinationsByKey.values().removeIf(Set::isEmpty);
     }
 
     @Override
@@ -58,6 +58,7 @@ public abstract class BiologicalEntityCombination<T1 extends BiologicalEntity, T
 
     @Override
     public int hashCode() {
-        return Objects.hash(t1, t2);
+        // Same value as Objects.hash(t1, t2) without creating an array on each call.
+        return 31 * (31 + t1.hashCode()) + t2.hashCode();
     }
 }
@@ -0,0 +1,102 @@
+package org.molgenis.vibe.formats;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how a collection of {@link BiologicalEntity} subclass objects changed due to a single operation: which
+ * items were added and which items were removed.
+ * @param <T> the {@link BiologicalEntity} subclass type
+ */
+public class BiologicalEntityDelta<T extends BiologicalEntity> {
+    /**
+     * The items that were added.
+     */
+    private Set<T> added;
+
+    /**
+     * The items that were removed.
+     */
+    private Set<T> removed;
+
+    /**
+     * @return an unmodifiable {@link Set} containing the added items
+     */
+    public Set<T> getAdded() {
+        return Collections.unmodifiableSet(added);
+    }
+
+    /**
+     * @return an unmodifiable {@link Set} containing the removed items
+     */
+    public Set<T> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * @return {@code true} if nothing was added or removed, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    public BiologicalEntityDelta() {
+        this(new HashSet<>(), new HashSet<>());
+    }
+
+    /**
+     * @param added the items that were added
+     * @param removed the items that were removed
+     */
+    public BiologicalEntityDelta(Set<T> added, Set<T> removed) {
+        this.added = requireNonNull(added);
+        this.removed = requireNonNull(removed);
+    }
+
+    /**
+     * Combines this delta with a delta that happened afterwards. Items removed in one and added in the other cancel each
+     * other out.
+     * @param next the {@link BiologicalEntityDelta} that happened after this one
+     * @return a new {@link BiologicalEntityDelta} describing both changes together
+     */
+    public BiologicalEntityDelta<T> merge(BiologicalEntityDelta<T> next) {
+        Set<T> mergedAdded = new HashSet<>(added);
+        Set<T> mergedRemoved = new HashSet<>(removed);
+
+        for(T t : next.removed) {
+            if(!mergedAdded.remove(t)) {
+                mergedRemoved.add(t);
+            }
+        }
+        for(T t : next.added) {
+            if(!mergedRemoved.remove(t)) {
+                mergedAdded.add(t);
+            }
+        }
+
+        return new BiologicalEntityDelta<>(mergedAdded, mergedRemoved);
+    }
+
+    @Override
+    public String toString() {
+        return "BiologicalEntityDelta{" +
+                "added=" + added +
+                ", removed=" + removed +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BiologicalEntityDelta<?> that = (BiologicalEntityDelta<?>) o;
+        return Objects.equals(added, that.added) &&
+                Objects.equals(removed, that.removed);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(added, removed);
+    }
+}
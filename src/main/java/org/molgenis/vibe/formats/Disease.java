@@ -37,6 +37,10 @@ public class Disease extends BiologicalEntity {
         super(id);
     }
 
+    public Disease(URI uri) {
+        super(uri);
+    }
+
     public Disease(String id, String name, URI uri) throws InvalidStringFormatException {
         super(id, name, uri);
     }
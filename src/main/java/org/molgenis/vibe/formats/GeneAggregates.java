@@ -0,0 +1,177 @@
+package org.molgenis.vibe.formats;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Statistics per {@link Gene} aggregated over all its gene-disease combinations, calculated in a single pass over a
+ * {@link GeneDiseaseCollectionView}. The values are stored in primitive arrays indexed by the position of the
+ * {@link Gene} within {@link #getGenes()}, so that prioritizers and writers can use them without repeatedly going
+ * through the gene-disease combinations or unboxing values.
+ */
+public class GeneAggregates {
+    /**
+     * The gene-disease combinations the statistics were calculated from.
+     */
+    private GeneDiseaseCollectionView geneDiseaseCollection;
+
+    /**
+     * The {@link Gene}{@code s} (the position defines the index used for all other arrays).
+     */
+    private List<Gene> genes;
+
+    /**
+     * The index of each {@link Gene}.
+     */
+    private Map<Gene, Integer> geneIndices = new HashMap<>();
+
+    /**
+     * Highest DisGeNET score per {@link Gene}.
+     */
+    private double[] maxScores;
+
+    /**
+     * Sum of DisGeNET scores per {@link Gene}.
+     */
+    private double[] sumScores;
+
+    /**
+     * Number of gene-disease combinations per {@link Gene}.
+     */
+    private int[] gdaCounts;
+
+    /**
+     * The {@link Source}{@code s} found among all gene-disease combinations with their index in {@link #sourceCounts}.
+     */
+    private Map<Source, Integer> sourceIndices = new HashMap<>();
+
+    /**
+     * Per {@link Source} the summed {@link GeneDiseaseCombination#getCountForSource(Source)} per {@link Gene}.
+     */
+    private List<int[]> sourceCounts = new ArrayList<>();
+
+    public GeneAggregates(GeneDiseaseCollectionView geneDiseaseCollection) {
+        this.geneDiseaseCollection = requireNonNull(geneDiseaseCollection);
+        genes = new ArrayList<>(geneDiseaseCollection.getGenes());
+        for(int i = 0; i < genes.size(); i++) {
+            geneIndices.put(genes.get(i), i);
+        }
+
+        maxScores = new double[genes.size()];
+        sumScores = new double[genes.size()];
+        gdaCounts = new int[genes.size()];
+
+        GeneDiseaseCombinationCursor cursor = geneDiseaseCollection.cursor();
+        while(cursor.next()) {
+            int geneIndex = geneIndices.get(cursor.getGene());
+            double score = cursor.getDisgenetScore();
+
+            if(score > maxScores[geneIndex]) {
+                maxScores[geneIndex] = score;
+            }
+            sumScores[geneIndex] += score;
+            gdaCounts[geneIndex]++;
+
+            for(int i = 0; i < cursor.getSourceCount(); i++) {
+                int[] countsForSource = getOrCreateSourceCounts(cursor.getSource(i));
+                countsForSource[geneIndex] += cursor.getCountForSource(i);
+            }
+        }
+    }
+
+    private int[] getOrCreateSourceCounts(Source source) {
+        Integer sourceIndex = sourceIndices.get(source);
+        if(sourceIndex == null) {
+            sourceIndex = sourceCounts.size();
+            sourceIndices.put(source, sourceIndex);
+            sourceCounts.add(new int[genes.size()]);
+        }
+        return sourceCounts.get(sourceIndex);
+    }
+
+    public GeneDiseaseCollectionView getGeneDiseaseCollection() {
+        return geneDiseaseCollection;
+    }
+
+    /**
+     * @return an unmodifiable {@link List} of all {@link Gene}{@code s} (in index order)
+     */
+    public List<Gene> getGenes() {
+        return Collections.unmodifiableList(genes);
+    }
+
+    /**
+     * @return the number of {@link Gene}{@code s}
+     */
+    public int size() {
+        return genes.size();
+    }
+
+    public Gene getGene(int geneIndex) {
+        return genes.get(geneIndex);
+    }
+
+    /**
+     * @param gene the {@link Gene} to retrieve the index for
+     * @return the index of the {@code gene}, or {@code -1} if not present
+     */
+    public int indexOf(Gene gene) {
+        Integer index = geneIndices.get(gene);
+        return index == null ? -1 : index;
+    }
+
+    public double getMaxScore(int geneIndex) {
+        return maxScores[geneIndex];
+    }
+
+    public double getSumScore(int geneIndex) {
+        return sumScores[geneIndex];
+    }
+
+    /**
+     * @param geneIndex the index of the {@link Gene}
+     * @return the mean DisGeNET score, or {@code 0} if the {@link Gene} has no gene-disease combinations
+     */
+    public double getMeanScore(int geneIndex) {
+        return gdaCounts[geneIndex] == 0 ? 0 : sumScores[geneIndex] / gdaCounts[geneIndex];
+    }
+
+    public int getGdaCount(int geneIndex) {
+        return gdaCounts[geneIndex];
+    }
+
+    /**
+     * As each gene-disease combination is unique, the number of distinct {@link Disease}{@code s} is equal to
+     * {@link #getGdaCount(int)}.
+     * @param geneIndex the index of the {@link Gene}
+     * @return the number of distinct {@link Disease}{@code s}
+     */
+    public int getDiseaseCount(int geneIndex) {
+        return gdaCounts[geneIndex];
+    }
+
+    /**
+     * @return an unmodifiable {@link Set} of all {@link Source}{@code s} found
+     */
+    public Set<Source> getSources() {
+        return Collections.unmodifiableSet(sourceIndices.keySet());
+    }
+
+    /**
+     * @param geneIndex the index of the {@link Gene}
+     * @param source the {@link Source}
+     * @return how often the {@link Gene} was found in the {@code source} over all its gene-disease combinations
+     */
+    public int getSourceCount(int geneIndex, Source source) {
+        Integer sourceIndex = sourceIndices.get(source);
+        return sourceIndex == null ? 0 : sourceCounts.get(sourceIndex)[geneIndex];
+    }
+
+    /**
+     * @return a copy of the highest DisGeNET score per {@link Gene} (in index order)
+     */
+    public double[] getMaxScores() {
+        return maxScores.clone();
+    }
+}
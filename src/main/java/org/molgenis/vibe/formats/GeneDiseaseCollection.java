@@ -5,12 +5,14 @@ import java.util.Set;
 /**
  * A collection of {@link GeneDiseaseCombination}{@code s}.
  */
-public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Disease, GeneDiseaseCombination> {
+public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Disease, GeneDiseaseCombination>
+        implements GeneDiseaseCollectionView {
 
     /**
      * @return all {@link Gene}{@code s}.
      * @see #getT1()
      */
+    @Override
     public Set<Gene> getGenes() {
         return getT1();
     }
@@ -19,6 +21,7 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
      * @return all {@link Disease}{@code s}.
      * @see #getT2()
      */
+    @Override
     public Set<Disease> getDiseases() {
         return getT2();
     }
@@ -51,6 +54,16 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
         return getByT2(disease);
     }
 
+    @Override
+    public GeneDiseaseCombinationCursor cursor() {
+        return new GeneDiseaseCombinationIteratorCursor(iterator());
+    }
+
+    @Override
+    public GeneDiseaseCombinationCursor cursorByGene(Gene gene) {
+        return new GeneDiseaseCombinationIteratorCursor(getByGene(gene).iterator());
+    }
+
     public GeneDiseaseCollection() {
     }
 
@@ -0,0 +1,37 @@
+package org.molgenis.vibe.formats;
+
+import java.util.Set;
+
+/**
+ * Read-only access to gene-disease associations, independent of how these are stored. Both the regular on-heap
+ * {@link GeneDiseaseCollection} and the {@link OffHeapGeneDiseaseCollection} implement this interface, so that
+ * prioritizers and writers can process either of them.
+ */
+public interface GeneDiseaseCollectionView {
+    /**
+     * @return all {@link Gene}{@code s}
+     */
+    Set<Gene> getGenes();
+
+    /**
+     * @return all {@link Disease}{@code s}
+     */
+    Set<Disease> getDiseases();
+
+    /**
+     * @return the number of gene-disease combinations
+     */
+    int size();
+
+    /**
+     * @return a {@link GeneDiseaseCombinationCursor} over all gene-disease combinations
+     */
+    GeneDiseaseCombinationCursor cursor();
+
+    /**
+     * @param gene the {@link Gene} to retrieve the gene-disease combinations for
+     * @return a {@link GeneDiseaseCombinationCursor} over the gene-disease combinations belonging to {@code gene} (no
+     * results if {@code gene} is not present)
+     */
+    GeneDiseaseCombinationCursor cursorByGene(Gene gene);
+}
@@ -0,0 +1,57 @@
+package org.molgenis.vibe.formats;
+
+import java.net.URI;
+
+/**
+ * A flyweight over gene-disease combinations: the same {@link GeneDiseaseCombinationCursor} instance represents a
+ * different gene-disease combination after each call of {@link #next()}, so no object is needed per combination.
+ * Values retrieved before calling {@link #next()} again should therefore not be expected to still describe the same
+ * combination afterwards.
+ *
+ * The {@link Source}{@code s} of the current combination are accessed through an index ranging from {@code 0} (inclusive)
+ * till {@link #getSourceCount()} (exclusive).
+ */
+public interface GeneDiseaseCombinationCursor {
+    /**
+     * Moves the cursor to the next gene-disease combination. Must be called before retrieving the first combination.
+     * @return {@code true} if the cursor points to a gene-disease combination, {@code false} if there are no more
+     */
+    boolean next();
+
+    Gene getGene();
+
+    Disease getDisease();
+
+    double getDisgenetScore();
+
+    /**
+     * @return the number of different {@link Source}{@code s} of the current gene-disease combination
+     */
+    int getSourceCount();
+
+    /**
+     * @param sourceIndex the index of the {@link Source}
+     * @return the {@link Source}
+     */
+    Source getSource(int sourceIndex);
+
+    /**
+     * @param sourceIndex the index of the {@link Source}
+     * @return how often the current gene-disease combination was found in the {@link Source}
+     * @see GeneDiseaseCombination#getCountForSource(Source)
+     */
+    int getCountForSource(int sourceIndex);
+
+    /**
+     * @param sourceIndex the index of the {@link Source}
+     * @return the number of evidence {@link URI}{@code s} for the {@link Source}
+     */
+    int getEvidenceCount(int sourceIndex);
+
+    /**
+     * @param sourceIndex the index of the {@link Source}
+     * @param evidenceIndex the index of the evidence (from {@code 0} till {@link #getEvidenceCount(int)})
+     * @return the evidence {@link URI}
+     */
+    URI getEvidence(int sourceIndex, int evidenceIndex);
+}
@@ -0,0 +1,110 @@
+package org.molgenis.vibe.formats;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link GeneDiseaseCombinationCursor} over on-heap {@link GeneDiseaseCombination}{@code s}.
+ */
+class GeneDiseaseCombinationIteratorCursor implements GeneDiseaseCombinationCursor {
+    /**
+     * The {@link GeneDiseaseCombination}{@code s} to go through.
+     */
+    private Iterator<GeneDiseaseCombination> iterator;
+
+    /**
+     * The current {@link GeneDiseaseCombination}.
+     */
+    private GeneDiseaseCombination current;
+
+    /**
+     * The {@link Source}{@code s} of {@link #current} (only the first {@link #sourceCount} are valid). Reused between
+     * combinations.
+     */
+    private Source[] sources = new Source[8];
+
+    /**
+     * The number of {@link Source}{@code s} of {@link #current}.
+     */
+    private int sourceCount;
+
+    GeneDiseaseCombinationIteratorCursor(Iterator<GeneDiseaseCombination> iterator) {
+        this.iterator = requireNonNull(iterator);
+    }
+
+    @Override
+    public boolean next() {
+        if(!iterator.hasNext()) {
+            current = null;
+            sourceCount = 0;
+            return false;
+        }
+
+        current = iterator.next();
+        sourceCount = 0;
+        for(Source source : current.getSourcesWithCount()) {
+            if(sourceCount == sources.length) {
+                Source[] grown = new Source[sources.length * 2];
+                System.arraycopy(sources, 0, grown, 0, sources.length);
+                sources = grown;
+            }
+            sources[sourceCount++] = source;
+        }
+        return true;
+    }
+
+    @Override
+    public Gene getGene() {
+        return current.getGene();
+    }
+
+    @Override
+    public Disease getDisease() {
+        return current.getDisease();
+    }
+
+    @Override
+    public double getDisgenetScore() {
+        return current.getDisgenetScore();
+    }
+
+    @Override
+    public int getSourceCount() {
+        return sourceCount;
+    }
+
+    @Override
+    public Source getSource(int sourceIndex) {
+        checkSourceIndex(sourceIndex);
+        return sources[sourceIndex];
+    }
+
+    @Override
+    public int getCountForSource(int sourceIndex) {
+        return current.getCountForSource(getSource(sourceIndex));
+    }
+
+    @Override
+    public int getEvidenceCount(int sourceIndex) {
+        List<URI> evidence = current.getEvidenceForSource(getSource(sourceIndex));
+        return evidence == null ? 0 : evidence.size();
+    }
+
+    @Override
+    public URI getEvidence(int sourceIndex, int evidenceIndex) {
+        List<URI> evidence = current.getEvidenceForSource(getSource(sourceIndex));
+        if(evidence == null) {
+            throw new IndexOutOfBoundsException("Index: " + evidenceIndex + ", Size: 0");
+        }
+        return evidence.get(evidenceIndex);
+    }
+
+    private void checkSourceIndex(int sourceIndex) {
+        if(sourceIndex < 0 || sourceIndex >= sourceCount) {
+            throw new IndexOutOfBoundsException("Index: " + sourceIndex + ", Size: " + sourceCount);
+        }
+    }
+}
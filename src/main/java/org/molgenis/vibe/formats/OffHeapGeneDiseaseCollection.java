@@ -0,0 +1,598 @@
+package org.molgenis.vibe.formats;
+
+import java.net.URI;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-only {@link GeneDiseaseCollectionView} that stores the gene-disease associations outside of the Java heap.
+ * Only the (comparatively few) {@link Gene}, {@link Disease} and {@link Source} objects are kept on the heap. The
+ * gene-disease associations, their sources and evidence are stored as fixed-width records in direct
+ * {@link ByteBuffer}{@code s}, and the evidence {@link URI}{@code s} are stored as UTF-8 bytes in a string table. This
+ * greatly reduces the number of objects the garbage collector has to go through for large results.
+ *
+ * The records are grouped by {@link Gene}, so that {@link #cursorByGene(Gene)} only has to go through a continuous
+ * range of records. Data is accessed through a flyweight {@link GeneDiseaseCombinationCursor}. Note that evidence
+ * {@link URI}{@code s} are decoded from the string table on each request.
+ *
+ * Instances are created using a {@link Builder}.
+ */
+public class OffHeapGeneDiseaseCollection implements GeneDiseaseCollectionView {
+    /**
+     * Bytes per gene-disease association record: gene index (int), disease index (int), score (double), first source
+     * entry (int) and number of source entries (int).
+     */
+    private static final int GDA_BYTES = 24;
+
+    /**
+     * Bytes per source entry: source index (int), count (int), first evidence entry (int) and number of evidence
+     * entries (int).
+     */
+    private static final int SOURCE_ENTRY_BYTES = 16;
+
+    /**
+     * Bytes per evidence entry: string table index (int).
+     */
+    private static final int EVIDENCE_BYTES = 4;
+
+    /**
+     * The {@link Gene}{@code s} by their index as used within the records.
+     */
+    private final Gene[] genes;
+
+    /**
+     * The {@link Disease}{@code s} by their index as used within the records.
+     */
+    private final Disease[] diseases;
+
+    /**
+     * The {@link Source}{@code s} by their index as used within the records.
+     */
+    private final Source[] sources;
+
+    /**
+     * The index of each {@link Gene}.
+     */
+    private final Map<Gene, Integer> geneIndices;
+
+    /**
+     * All {@link Disease}{@code s}.
+     */
+    private final Set<Disease> diseaseSet;
+
+    /**
+     * For each gene index the first gene-disease association record. The records of gene index {@code i} range from
+     * {@code geneStarts[i]} (inclusive) till {@code geneStarts[i+1]} (exclusive).
+     */
+    private final int[] geneStarts;
+
+    /**
+     * The gene-disease association records.
+     */
+    private final ByteBuffer gdas;
+
+    /**
+     * The source entry records.
+     */
+    private final ByteBuffer sourceEntries;
+
+    /**
+     * The evidence entry records.
+     */
+    private final ByteBuffer evidence;
+
+    /**
+     * The UTF-8 bytes of all evidence {@link URI}{@code s}.
+     */
+    private final ByteBuffer stringBytes;
+
+    /**
+     * For each string table index its starting position within {@link #stringBytes} (with an additional last value
+     * containing the end of the last string).
+     */
+    private final ByteBuffer stringOffsets;
+
+    /**
+     * The number of gene-disease associations.
+     */
+    private final int size;
+
+    private OffHeapGeneDiseaseCollection(Gene[] genes, Disease[] diseases, Source[] sources, int[] geneStarts,
+                                         ByteBuffer gdas, ByteBuffer sourceEntries, ByteBuffer evidence,
+                                         ByteBuffer stringBytes, ByteBuffer stringOffsets, int size) {
+        this.genes = genes;
+        this.diseases = diseases;
+        this.sources = sources;
+        this.geneStarts = geneStarts;
+        this.gdas = gdas;
+        this.sourceEntries = sourceEntries;
+        this.evidence = evidence;
+        this.stringBytes = stringBytes;
+        this.stringOffsets = stringOffsets;
+        this.size = size;
+
+        geneIndices = new HashMap<>();
+        for(int i = 0; i < genes.length; i++) {
+            geneIndices.put(genes[i], i);
+        }
+        diseaseSet = new HashSet<>(Arrays.asList(diseases));
+    }
+
+    @Override
+    public Set<Gene> getGenes() {
+        return Collections.unmodifiableSet(geneIndices.keySet());
+    }
+
+    @Override
+    public Set<Disease> getDiseases() {
+        return Collections.unmodifiableSet(diseaseSet);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public GeneDiseaseCombinationCursor cursor() {
+        return new RecordCursor(0, size);
+    }
+
+    @Override
+    public GeneDiseaseCombinationCursor cursorByGene(Gene gene) {
+        Integer geneIndex = geneIndices.get(gene);
+        if(geneIndex == null) {
+            return new RecordCursor(0, 0);
+        }
+        return new RecordCursor(geneStarts[geneIndex], geneStarts[geneIndex + 1]);
+    }
+
+    /**
+     * @return the number of bytes stored outside of the Java heap
+     */
+    public long getOffHeapBytes() {
+        return (long) gdas.capacity() + sourceEntries.capacity() + evidence.capacity() +
+                stringBytes.capacity() + stringOffsets.capacity();
+    }
+
+    /**
+     * Decodes an evidence {@link URI} from the string table.
+     * @param stringIndex the string table index
+     * @return the {@link URI}
+     */
+    private URI readEvidenceUri(int stringIndex) {
+        int start = stringOffsets.getInt(stringIndex * 4);
+        int end = stringOffsets.getInt((stringIndex + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = stringBytes.get(start + i);
+        }
+        return URI.create(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A {@link GeneDiseaseCombinationCursor} over a range of gene-disease association records.
+     */
+    private class RecordCursor implements GeneDiseaseCombinationCursor {
+        /**
+         * The first record to go through.
+         */
+        private final int start;
+
+        /**
+         * The current record (starts before the first one).
+         */
+        private int current;
+
+        /**
+         * The record after the last one to go through.
+         */
+        private final int end;
+
+        private RecordCursor(int start, int end) {
+            this.start = start;
+            this.current = start - 1;
+            this.end = end;
+        }
+
+        @Override
+        public boolean next() {
+            if(current < end) {
+                current++;
+            }
+            return current < end;
+        }
+
+        @Override
+        public Gene getGene() {
+            return genes[gdas.getInt(position())];
+        }
+
+        @Override
+        public Disease getDisease() {
+            return diseases[gdas.getInt(position() + 4)];
+        }
+
+        @Override
+        public double getDisgenetScore() {
+            return gdas.getDouble(position() + 8);
+        }
+
+        @Override
+        public int getSourceCount() {
+            return gdas.getInt(position() + 20);
+        }
+
+        @Override
+        public Source getSource(int sourceIndex) {
+            return sources[sourceEntries.getInt(sourceEntryPosition(sourceIndex))];
+        }
+
+        @Override
+        public int getCountForSource(int sourceIndex) {
+            return sourceEntries.getInt(sourceEntryPosition(sourceIndex) + 4);
+        }
+
+        @Override
+        public int getEvidenceCount(int sourceIndex) {
+            return sourceEntries.getInt(sourceEntryPosition(sourceIndex) + 12);
+        }
+
+        @Override
+        public URI getEvidence(int sourceIndex, int evidenceIndex) {
+            int sourceEntryPosition = sourceEntryPosition(sourceIndex);
+            int evidenceCount = sourceEntries.getInt(sourceEntryPosition + 12);
+            if(evidenceIndex < 0 || evidenceIndex >= evidenceCount) {
+                throw new IndexOutOfBoundsException("Index: " + evidenceIndex + ", Size: " + evidenceCount);
+            }
+            int evidenceEntry = sourceEntries.getInt(sourceEntryPosition + 8) + evidenceIndex;
+            return readEvidenceUri(evidence.getInt(evidenceEntry * EVIDENCE_BYTES));
+        }
+
+        /**
+         * @return the position of the current record within {@link #gdas}
+         * @throws NoSuchElementException if the cursor does not point to a record
+         */
+        private int position() {
+            if(current < start || current >= end) {
+                throw new NoSuchElementException("cursor does not point to a gene-disease combination");
+            }
+            return current * GDA_BYTES;
+        }
+
+        /**
+         * @param sourceIndex the index of the {@link Source} within the current record
+         * @return the position of the source entry within {@link #sourceEntries}
+         */
+        private int sourceEntryPosition(int sourceIndex) {
+            int position = position();
+            int sourceCount = gdas.getInt(position + 20);
+            if(sourceIndex < 0 || sourceIndex >= sourceCount) {
+                throw new IndexOutOfBoundsException("Index: " + sourceIndex + ", Size: " + sourceCount);
+            }
+            return (gdas.getInt(position + 16) + sourceIndex) * SOURCE_ENTRY_BYTES;
+        }
+    }
+
+    /**
+     * Creates an {@link OffHeapGeneDiseaseCollection}. Each {@link #add(Gene, Disease, double, Source, String)} call
+     * represents a single database result (a gene-disease association found in a source, optionally with evidence) and
+     * is directly appended as a fixed-width row to a direct {@link ByteBuffer}. When calling {@link #build()}, the rows
+     * are grouped by gene, disease and source using counting sorts (keeping the order in which evidence was added)
+     * after which they are converted into the final records.
+     *
+     * A {@link Builder} can only be used to create a single {@link OffHeapGeneDiseaseCollection}.
+     */
+    public static class Builder {
+        /**
+         * Bytes per row: gene index (int), disease index (int), source index (int), string table index of the
+         * evidence or {@code -1} (int) and score (double).
+         */
+        private static final int ROW_BYTES = 24;
+
+        private static final int INITIAL_CAPACITY = 4096;
+
+        private final List<Gene> genes = new ArrayList<>();
+        private final Map<Gene, Integer> geneIndices = new HashMap<>();
+        private final List<Disease> diseases = new ArrayList<>();
+        private final Map<Disease, Integer> diseaseIndices = new HashMap<>();
+        private final List<Source> sources = new ArrayList<>();
+        private final Map<Source, Integer> sourceIndices = new HashMap<>();
+
+        private ByteBuffer rows = ByteBuffer.allocateDirect(INITIAL_CAPACITY * ROW_BYTES);
+        private int rowCount;
+
+        private ByteBuffer stringBytes = ByteBuffer.allocateDirect(INITIAL_CAPACITY * 32);
+        private ByteBuffer stringOffsets = ByteBuffer.allocateDirect(INITIAL_CAPACITY * 4);
+        private int stringCount;
+
+        /**
+         * Adds a single gene-disease association result.
+         * @param gene the {@link Gene}
+         * @param disease the {@link Disease}
+         * @param score the DisGeNET score of the gene-disease association
+         * @param source the {@link Source} the association was found in
+         * @param evidence the evidence {@link URI} (as {@link String}), or {@code null} if there is none
+         * @return this {@link Builder}
+         * @throws IllegalStateException if {@link #build()} was already called or if the data does not fit within
+         * the available buffers (2 GB each)
+         */
+        public Builder add(Gene gene, Disease disease, double score, Source source, String evidence) {
+            checkNotBuilt();
+            int geneIndex = index(requireNonNull(gene), genes, geneIndices);
+            int diseaseIndex = index(requireNonNull(disease), diseases, diseaseIndices);
+            int sourceIndex = index(requireNonNull(source), sources, sourceIndices);
+            int evidenceIndex = evidence == null ? -1 : addString(evidence);
+
+            rows = ensureCapacity(rows, rowCount, ROW_BYTES);
+            int position = rowCount * ROW_BYTES;
+            rows.putInt(position, geneIndex);
+            rows.putInt(position + 4, diseaseIndex);
+            rows.putInt(position + 8, sourceIndex);
+            rows.putInt(position + 12, evidenceIndex);
+            rows.putDouble(position + 16, score);
+            rowCount++;
+            return this;
+        }
+
+        /**
+         * Adds all data from an on-heap {@link GeneDiseaseCollection}.
+         * @param collection the {@link GeneDiseaseCollection} to add
+         * @return this {@link Builder}
+         */
+        public Builder addAll(GeneDiseaseCollection collection) {
+            for(GeneDiseaseCombination gdc : collection) {
+                for(Source source : gdc.getSourcesWithCount()) {
+                    List<URI> evidenceList = gdc.getEvidenceForSource(source);
+                    int evidenceCount = evidenceList == null ? 0 : evidenceList.size();
+                    for(int i = 0; i < gdc.getCountForSource(source); i++) {
+                        String evidence = i < evidenceCount ? evidenceList.get(i).toString() : null;
+                        add(gdc.getGene(), gdc.getDisease(), gdc.getDisgenetScore(), source, evidence);
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Creates the {@link OffHeapGeneDiseaseCollection}. Afterwards this {@link Builder} cannot be used anymore.
+         * @return an {@link OffHeapGeneDiseaseCollection} containing all added data
+         */
+        public OffHeapGeneDiseaseCollection build() {
+            checkNotBuilt();
+
+            // Groups the rows by gene, then disease and then source (least significant key first, stable sorts).
+            int[] order = new int[rowCount];
+            for(int i = 0; i < rowCount; i++) {
+                order[i] = i;
+            }
+            order = countingSort(order, 8, sources.size());
+            order = countingSort(order, 4, diseases.size());
+            order = countingSort(order, 0, genes.size());
+
+            // Counts the records so that the buffers can be allocated with their exact size.
+            int gdaCount = 0;
+            int sourceEntryCount = 0;
+            int evidenceCount = 0;
+            for(int i = 0; i < rowCount; i++) {
+                int position = order[i] * ROW_BYTES;
+                if(i == 0 || !sameKey(order[i - 1] * ROW_BYTES, position, 8)) {
+                    gdaCount++;
+                }
+                if(i == 0 || !sameKey(order[i - 1] * ROW_BYTES, position, 12)) {
+                    sourceEntryCount++;
+                }
+                if(rows.getInt(position + 12) >= 0) {
+                    evidenceCount++;
+                }
+            }
+
+            ByteBuffer gdaBuffer = allocate(gdaCount, GDA_BYTES);
+            ByteBuffer sourceEntryBuffer = allocate(sourceEntryCount, SOURCE_ENTRY_BYTES);
+            ByteBuffer evidenceBuffer = allocate(evidenceCount, EVIDENCE_BYTES);
+            int[] geneStarts = new int[genes.size() + 1];
+
+            // Writes the records.
+            int gda = -1;
+            int sourceEntry = -1;
+            int evidenceEntry = 0;
+            for(int i = 0; i < rowCount; i++) {
+                int position = order[i] * ROW_BYTES;
+                boolean newGda = i == 0 || !sameKey(order[i - 1] * ROW_BYTES, position, 8);
+                boolean newSourceEntry = newGda || !sameKey(order[i - 1] * ROW_BYTES, position, 12);
+
+                if(newGda) {
+                    gda++;
+                    int gdaPosition = gda * GDA_BYTES;
+                    gdaBuffer.putInt(gdaPosition, rows.getInt(position));
+                    gdaBuffer.putInt(gdaPosition + 4, rows.getInt(position + 4));
+                    gdaBuffer.putDouble(gdaPosition + 8, rows.getDouble(position + 16));
+                    gdaBuffer.putInt(gdaPosition + 16, sourceEntry + 1);
+                    gdaBuffer.putInt(gdaPosition + 20, 0);
+                    geneStarts[rows.getInt(position) + 1]++;
+                }
+                if(newSourceEntry) {
+                    sourceEntry++;
+                    int sourceEntryPosition = sourceEntry * SOURCE_ENTRY_BYTES;
+                    sourceEntryBuffer.putInt(sourceEntryPosition, rows.getInt(position + 8));
+                    sourceEntryBuffer.putInt(sourceEntryPosition + 4, 0);
+                    sourceEntryBuffer.putInt(sourceEntryPosition + 8, evidenceEntry);
+                    sourceEntryBuffer.putInt(sourceEntryPosition + 12, 0);
+                    incrementInt(gdaBuffer, gda * GDA_BYTES + 20);
+                }
+
+                int sourceEntryPosition = sourceEntry * SOURCE_ENTRY_BYTES;
+                incrementInt(sourceEntryBuffer, sourceEntryPosition + 4);
+                int stringIndex = rows.getInt(position + 12);
+                if(stringIndex >= 0) {
+                    evidenceBuffer.putInt(evidenceEntry * EVIDENCE_BYTES, stringIndex);
+                    evidenceEntry++;
+                    incrementInt(sourceEntryBuffer, sourceEntryPosition + 12);
+                }
+            }
+
+            // Converts the number of records per gene into starting positions.
+            for(int i = 1; i < geneStarts.length; i++) {
+                geneStarts[i] += geneStarts[i - 1];
+            }
+
+            // Finalizes the string table.
+            stringOffsets = ensureCapacity(stringOffsets, stringCount, 4);
+            stringOffsets.putInt(stringCount * 4, stringBytes.position());
+            ByteBuffer finalStringBytes = copy(stringBytes, stringBytes.position());
+            ByteBuffer finalStringOffsets = copy(stringOffsets, (stringCount + 1) * 4);
+
+            OffHeapGeneDiseaseCollection collection = new OffHeapGeneDiseaseCollection(
+                    genes.toArray(new Gene[0]), diseases.toArray(new Disease[0]), sources.toArray(new Source[0]),
+                    geneStarts, gdaBuffer, sourceEntryBuffer, evidenceBuffer, finalStringBytes, finalStringOffsets,
+                    gdaCount);
+
+            // Releases the builder buffers.
+            rows = null;
+            stringBytes = null;
+            stringOffsets = null;
+
+            return collection;
+        }
+
+        private void checkNotBuilt() {
+            if(rows == null) {
+                throw new IllegalStateException("build() was already called");
+            }
+        }
+
+        private <T> int index(T item, List<T> items, Map<T, Integer> indices) {
+            Integer index = indices.get(item);
+            if(index == null) {
+                index = items.size();
+                items.add(item);
+                indices.put(item, index);
+            }
+            return index;
+        }
+
+        /**
+         * Adds a {@link String} to the string table.
+         * @param string the {@link String} to add
+         * @return the string table index
+         */
+        private int addString(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringBytes = ensureRemaining(stringBytes, bytes.length);
+            stringOffsets = ensureCapacity(stringOffsets, stringCount, 4);
+            stringOffsets.putInt(stringCount * 4, stringBytes.position());
+            stringBytes.put(bytes);
+            return stringCount++;
+        }
+
+        /**
+         * Sorts the rows on a single int key (stable).
+         * @param order the current order of the rows
+         * @param keyOffset the position of the key within a row
+         * @param keyCount the number of different key values
+         * @return the new order of the rows
+         */
+        private int[] countingSort(int[] order, int keyOffset, int keyCount) {
+            int[] starts = new int[keyCount + 1];
+            for(int row : order) {
+                starts[rows.getInt(row * ROW_BYTES + keyOffset) + 1]++;
+            }
+            for(int i = 1; i < starts.length; i++) {
+                starts[i] += starts[i - 1];
+            }
+            int[] sorted = new int[order.length];
+            for(int row : order) {
+                sorted[starts[rows.getInt(row * ROW_BYTES + keyOffset)]++] = row;
+            }
+            return sorted;
+        }
+
+        /**
+         * @param position1 position of the first row
+         * @param position2 position of the second row
+         * @param keyBytes the number of bytes (starting from the row start) that should be equal
+         * @return {@code true} if the first {@code keyBytes} of both rows are equal
+         */
+        private boolean sameKey(int position1, int position2, int keyBytes) {
+            for(int i = 0; i < keyBytes; i += 4) {
+                if(rows.getInt(position1 + i) != rows.getInt(position2 + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void incrementInt(ByteBuffer buffer, int position) {
+            buffer.putInt(position, buffer.getInt(position) + 1);
+        }
+
+        /**
+         * Allocates a direct {@link ByteBuffer} for a number of fixed-width records.
+         * @throws IllegalStateException if the records do not fit within a single {@link ByteBuffer}
+         */
+        private static ByteBuffer allocate(int records, int recordBytes) {
+            try {
+                return ByteBuffer.allocateDirect(Math.multiplyExact(records, recordBytes));
+            } catch(ArithmeticException e) {
+                throw new IllegalStateException("too much data to be stored off-heap", e);
+            }
+        }
+
+        /**
+         * Ensures a buffer can store another record after {@code records} records.
+         * @return {@code buffer} or a larger copy of it
+         * @throws IllegalStateException if the buffer can not grow any further
+         */
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer, int records, int recordBytes) {
+            return ensureCapacity(buffer, ((long) records + 1) * recordBytes);
+        }
+
+        /**
+         * Ensures a buffer can store {@code bytes} more bytes after its current position.
+         * @return {@code buffer} or a larger copy of it
+         * @throws IllegalStateException if the buffer can not grow any further
+         */
+        private static ByteBuffer ensureRemaining(ByteBuffer buffer, int bytes) {
+            return ensureCapacity(buffer, (long) buffer.position() + bytes);
+        }
+
+        /**
+         * @return {@code buffer} or a larger copy of it (with the same position) that has at least {@code required}
+         * capacity
+         * @throws IllegalStateException if the buffer can not grow any further
+         */
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer, long required) {
+            if(required <= buffer.capacity()) {
+                return buffer;
+            }
+            if(required > Integer.MAX_VALUE) {
+                throw new IllegalStateException("too much data to be stored off-heap");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(Math.max(required, buffer.capacity() * 2L), Integer.MAX_VALUE));
+            ByteBuffer source = buffer.duplicate();
+            // Casts to Buffer so that the Java 8 methods are used when compiled with a newer JDK (ByteBuffer overrides
+            // these with covariant return types since Java 9, which do not exist on a Java 8 runtime).
+            ((Buffer) source).clear();
+            grown.put(source);
+            ((Buffer) grown).position(buffer.position());
+            return grown;
+        }
+
+        /**
+         * @return a direct {@link ByteBuffer} containing exactly the first {@code length} bytes of {@code buffer}
+         */
+        private static ByteBuffer copy(ByteBuffer buffer, int length) {
+            ByteBuffer source = buffer.duplicate();
+            ((Buffer) source).position(0);
+            ((Buffer) source).limit(length);
+            ByteBuffer copy = ByteBuffer.allocateDirect(length);
+            copy.put(source);
+            ((Buffer) copy).clear();
+            return copy;
+        }
+    }
+}
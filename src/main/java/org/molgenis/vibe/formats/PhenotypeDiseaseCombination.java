@@ -1,13 +1,32 @@
 package org.molgenis.vibe.formats;
 
-import org.apache.commons.lang3.NotImplementedException;
-
 /**
- * Currently unsupported.
+ * A combination of a {@link Phenotype} and a {@link Disease}. Describes that the {@link Disease} was found when
+ * querying for the {@link Phenotype} (either through a direct match or through a phenotype-disease association).
  */
 public class PhenotypeDiseaseCombination extends BiologicalEntityCombination<Phenotype, Disease> {
+    /**
+     * @return the {@link Phenotype}
+     * @see #getT1()
+     */
+    public Phenotype getPhenotype() {
+        return getT1();
+    }
+
+    /**
+     * @return the {@link Disease}
+     * @see #getT2()
+     */
+    public Disease getDisease() {
+        return getT2();
+    }
+
     public PhenotypeDiseaseCombination(Phenotype phenotype, Disease disease) {
         super(phenotype, disease);
-        throw new NotImplementedException("placeholder class");
+    }
+
+    @Override
+    public String toString() {
+        return "PhenotypeDiseaseCombination{} " + super.toString();
     }
 }
@@ -6,30 +6,61 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A network of {@link Phenotype}{@code s} with a single source {@link Phenotype} from which the network is created.
+ *
+ * To keep the memory footprint small (a network is kept per input {@link Phenotype} and can contain thousands of
+ * {@link Phenotype}{@code s}), the numeric part of the id is stored in a sorted {@code int} array (used for lookups)
+ * together with a parallel {@code short} array containing the distances. The added {@link Phenotype} instances are
+ * kept in a parallel array so they can be returned without creating new ones. The per-distance views are created on
+ * demand.
  */
 public class PhenotypeNetwork {
     /**
-     * A collection of all stored phenotypes with their distance from the source.
+     * Initial capacity of the arrays.
      */
-    private Map<Phenotype, Integer> items = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 16;
 
     /**
-     * The phenotypes stored per distance level.
+     * The source phenotype (distance 0).
      */
-    private Map<Integer, Set<Phenotype>> network = new HashMap<>();
+    private Phenotype source;
+
+    /**
+     * The numeric ids of all stored phenotypes (sorted ascending). Only the first {@link #size} items are in use.
+     */
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    /**
+     * The distance from the source for the phenotype stored at the same position in {@link #ids}.
+     */
+    private short[] distances = new short[INITIAL_CAPACITY];
+
+    /**
+     * The {@link Phenotype} (as first added) belonging to the id stored at the same position in {@link #ids}.
+     */
+    private Phenotype[] phenotypes = new Phenotype[INITIAL_CAPACITY];
+
+    /**
+     * The number of stored phenotypes.
+     */
+    private int size = 0;
 
     public PhenotypeNetwork(Phenotype phenotype) {
-        items.put(phenotype, 0);
-        Set<Phenotype> sourceSet = new HashSet<>();
-        sourceSet.add(requireNonNull(phenotype));
-        network.put(0, sourceSet);
+        source = requireNonNull(phenotype);
+        insert(0, phenotype, toIntId(phenotype), (short) 0);
     }
 
     /**
      * @return the source phenotype (the only {@link Phenotype} with {@code distance} 0)
      */
     public Phenotype getSource() {
-        return network.get(0).iterator().next();
+        return source;
+    }
+
+    /**
+     * @return the number of stored {@link Phenotype}{@code s} (including the {@code source})
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -37,32 +68,72 @@ public class PhenotypeNetwork {
      * @return all stored {@link Phenotype}{@code s}
      */
     public Set<Phenotype> getPhenotypes() {
-        return Collections.unmodifiableSet(items.keySet());
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(phenotypes).subList(0, size)));
     }
 
     /**
      * @return all {@code distances} for which {@link Phenotype}{@code s} are stored.
      */
     public Set<Integer> getDistances() {
-        return Collections.unmodifiableSet(network.keySet());
+        Set<Integer> distanceSet = new TreeSet<>();
+        for(int i = 0; i < size; i++) {
+            distanceSet.add((int) distances[i]);
+        }
+        return Collections.unmodifiableSet(distanceSet);
     }
 
     /**
      * Retrieves all {@link Phenotype}{@code s} that have the specified {@code distance}
      * @param distance value to be used for {@link Phenotype} retrieval
-     * @return all {@link Phenotype}{@code s} with the given {@code distance}
+     * @return all {@link Phenotype}{@code s} with the given {@code distance} (an empty {@link Set} if there are none)
      */
     public Set<Phenotype> getByDistance(int distance) {
-        return Collections.unmodifiableSet(network.get(distance));
+        Set<Phenotype> phenotypeSet = new HashSet<>();
+        for(int i = 0; i < size; i++) {
+            if(distances[i] == distance) {
+                phenotypeSet.add(phenotypes[i]);
+            }
+        }
+        return Collections.unmodifiableSet(phenotypeSet);
     }
 
     /**
      * Retrieve the stored {@code distance} belonging to a {@link Phenotype}
      * @param phenotype the {@link Phenotype} to retrieve the {@code distance} from
-     * @return the {@code distance} belonging to the {@code phenotype}
+     * @return the {@code distance} belonging to the {@code phenotype}, or {@code -1} if the {@code phenotype} is not
+     * stored within this network
      */
     public int getDistance(Phenotype phenotype) {
-        return items.get(phenotype);
+        int index = Arrays.binarySearch(ids, 0, size, toIntId(phenotype));
+        if(index < 0) {
+            return -1;
+        }
+        return distances[index];
+    }
+
+    /**
+     * Retrieves the {@link Phenotype} stored at a specific position. Positions are ordered by {@link Phenotype} id and
+     * range from {@code 0} (inclusive) to {@link #size()} (exclusive). Can be used together with
+     * {@link #getDistanceAt(int)} to walk through the network without creating intermediate collections.
+     * @param index the position
+     * @return the {@link Phenotype} at the given position
+     * @throws IndexOutOfBoundsException if {@code index} is negative or {@code >= size()}
+     */
+    public Phenotype getPhenotypeAt(int index) {
+        checkIndex(index);
+        return phenotypes[index];
+    }
+
+    /**
+     * Retrieves the {@code distance} of the {@link Phenotype} stored at a specific position.
+     * @param index the position
+     * @return the {@code distance} of the {@link Phenotype} at the given position
+     * @throws IndexOutOfBoundsException if {@code index} is negative or {@code >= size()}
+     * @see #getPhenotypeAt(int)
+     */
+    public int getDistanceAt(int index) {
+        checkIndex(index);
+        return distances[index];
     }
 
     public void add(Phenotype[] phenotypes, int distance) {
@@ -85,6 +156,8 @@ public class PhenotypeNetwork {
      * @param phenotype the {@link Phenotype} to be added to the {@code network}
      * @param distance the {@code distance} the {@link Phenotype} is from the {@code source}
      * @return {@code true} if added/distance is updated, otherwise {@code false}
+     * @throws IllegalArgumentException if {@code distance} is 0 while {@code phenotype} is not the {@code source}, or
+     * if {@code distance} is larger than {@link Short#MAX_VALUE}
      */
     public boolean add(Phenotype phenotype, int distance) {
         // Checks if the given distance is 0.
@@ -96,60 +169,87 @@ public class PhenotypeNetwork {
                 throw new IllegalArgumentException("The given phenotype with distance 0 does not equal the source phenotype.");
             }
         }
+        if(distance > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("The given distance exceeds the maximum supported distance: " + Short.MAX_VALUE);
+        }
 
-        // Tries to retrieve the distance of the given phenotype.
-        Integer retrievedPhenotypeDistance = items.get(phenotype);
+        // Tries to retrieve the position of the given phenotype.
+        int id = toIntId(phenotype);
+        int index = Arrays.binarySearch(ids, 0, size, id);
 
-        // If no distance was retrieved, phenotype was not yet stored and will be added.
-        if(retrievedPhenotypeDistance == null) {
-            items.put(phenotype, distance);
-            getPhenotypesForDistance(distance).add(phenotype);
+        // If no position was found, phenotype was not yet stored and will be added.
+        if(index < 0) {
+            insert(-(index + 1), phenotype, id, (short) distance);
             return true;
 
         } else { // If phenotype is already stored within the network.
             // If new distance is higher or equal to currently stored one, nothing happens.
-            if(retrievedPhenotypeDistance <= distance) {
+            if(distances[index] <= distance) {
                 return false;
             } else { // Adjusts the phenotype with the new distance if the new distance is closer.
-                items.put(phenotype, distance);
-                getPhenotypesForDistance(retrievedPhenotypeDistance).remove(phenotype);
-                getPhenotypesForDistance(distance).add(phenotype);
+                distances[index] = (short) distance;
                 return true;
             }
         }
     }
 
     /**
-     * Tries to retrieve all phenotypes belonging to the defined {@code distance}. Note that this functions differently
-     * than the {@code public} version ({@link #getByDistance(int)}) and should be used internally only. It mainly functions
-     * as a safe method for further processing as when a distance is not yet stored. Instead of returning {@code null} in
-     * such cases, a new {@link Set} is created and added to the {@code network} before returning a {@link Set} for further
-     * usage.
-     * @param distance the {@code distance} for which {@link Phenotype}{@code s} should be returned
-     * @return {@link Phenotype}{@code s} currently stored for that distance or an empty {@link Set} if no {@link Phenotype}{@code s}
-     * are stored for that {@code distance}
+     * Inserts a new phenotype/id/distance triple at the given position, shifting all following items by one.
+     * @param index position at which the item should be inserted
+     * @param phenotype the {@link Phenotype} to store
+     * @param id the numeric id of {@code phenotype}
+     * @param distance the distance belonging to {@code id}
      */
-    private Set<Phenotype> getPhenotypesForDistance(int distance) {
-        // Tries to retrieve the HashSet for that distance.
-        Set<Phenotype> distancePhenotypes = network.get(distance);
-
-        // Adds a HashSet for that distance if not already available.
-        if(distancePhenotypes == null) {
-            distancePhenotypes = new HashSet<>();
-            network.put(distance, distancePhenotypes);
+    private void insert(int index, Phenotype phenotype, int id, short distance) {
+        if(size == ids.length) {
+            int newCapacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, newCapacity);
+            distances = Arrays.copyOf(distances, newCapacity);
+            phenotypes = Arrays.copyOf(phenotypes, newCapacity);
         }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(distances, index, distances, index + 1, size - index);
+        System.arraycopy(phenotypes, index, phenotypes, index + 1, size - index);
+        ids[index] = id;
+        distances[index] = distance;
+        phenotypes[index] = phenotype;
+        size++;
+    }
 
-        return distancePhenotypes;
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
     }
 
     public boolean contains(Phenotype phenotype) {
-        return items.keySet().contains(phenotype);
+        return Arrays.binarySearch(ids, 0, size, toIntId(phenotype)) >= 0;
+    }
+
+    /**
+     * Converts a {@link Phenotype} to the numeric id used for storage.
+     * @param phenotype the {@link Phenotype} to convert
+     * @return the numeric part of {@link Phenotype#getId()}
+     */
+    private static int toIntId(Phenotype phenotype) {
+        return Integer.parseInt(phenotype.getId());
+    }
+
+    /**
+     * @return the {@link Phenotype}{@code s} grouped per distance (only used for {@link #toString()})
+     */
+    private Map<Integer, Set<Phenotype>> createDistanceMap() {
+        Map<Integer, Set<Phenotype>> network = new TreeMap<>();
+        for(Integer distance : getDistances()) {
+            network.put(distance, getByDistance(distance));
+        }
+        return network;
     }
 
     @Override
     public String toString() {
         return "PhenotypeNetwork{" +
-                "network=" + network +
+                "network=" + createDistanceMap() +
                 '}';
     }
 
@@ -158,11 +258,22 @@ public class PhenotypeNetwork {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PhenotypeNetwork that = (PhenotypeNetwork) o;
-        return Objects.equals(network, that.network);
+        if(size != that.size) return false;
+        for(int i = 0; i < size; i++) {
+            if(ids[i] != that.ids[i] || distances[i] != that.distances[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(network);
+        int result = 1;
+        for(int i = 0; i < size; i++) {
+            result = 31 * result + ids[i];
+            result = 31 * result + distances[i];
+        }
+        return result;
     }
 }
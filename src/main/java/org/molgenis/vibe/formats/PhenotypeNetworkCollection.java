@@ -4,20 +4,38 @@ import java.util.*;
 
 /**
  * A collection of {@link PhenotypeNetwork}{@code s}.
+ *
+ * For each {@link Phenotype} present in one or more {@link PhenotypeNetwork}{@code s}, the number of networks it is
+ * present in and the lowest distance among those networks are kept up-to-date. This way adding or removing a single
+ * {@link PhenotypeNetwork} only requires going through that network instead of through all stored networks, and the
+ * change to the combined {@link Phenotype}{@code s} can be returned as a {@link BiologicalEntityDelta}.
+ *
+ * Note that a {@link PhenotypeNetwork} should not be modified anymore after it has been added.
  */
 public class PhenotypeNetworkCollection {
     /**
-     * The individual {@link Phenotype}{@code s} collected among all {@link PhenotypeNetwork}{@code s}.
+     * The individual {@link Phenotype}{@code s} collected among all {@link PhenotypeNetwork}{@code s} with their
+     * reference count and minimum distance.
      */
-    private Set<Phenotype> phenotypes = new HashSet<>();
+    private Map<Phenotype, PhenotypeStatistics> phenotypes = new HashMap<>();
 
     /**
      * A collection of {@link PhenotypeNetwork}{@code s} stored by their source ({@link PhenotypeNetwork#getSource()}).
      */
     private Map<Phenotype, PhenotypeNetwork> phenotypeNetworks = new HashMap<>();
 
+    /**
+     * @return an unmodifiable {@link Set} of all {@link Phenotype}{@code s} present in at least one {@link PhenotypeNetwork}
+     */
     public Set<Phenotype> getPhenotypes() {
-        return phenotypes;
+        return Collections.unmodifiableSet(phenotypes.keySet());
+    }
+
+    /**
+     * @return an unmodifiable {@link Collection} of all stored {@link PhenotypeNetwork}{@code s}
+     */
+    public Collection<PhenotypeNetwork> getPhenotypeNetworks() {
+        return Collections.unmodifiableCollection(phenotypeNetworks.values());
     }
 
     /**
@@ -31,13 +49,51 @@ public class PhenotypeNetworkCollection {
     }
 
     /**
-     * Adds a {@link PhenotypeNetwork} to the {@link PhenotypeNetworkCollection}
+     * @param phenotype the {@link Phenotype} to retrieve the count for
+     * @return the number of stored {@link PhenotypeNetwork}{@code s} that contain the {@code phenotype}
+     */
+    public int getReferenceCount(Phenotype phenotype) {
+        PhenotypeStatistics statistics = phenotypes.get(phenotype);
+        return statistics == null ? 0 : statistics.getReferenceCount();
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the distance for
+     * @return the lowest {@code distance} of the {@code phenotype} among all stored {@link PhenotypeNetwork}{@code s},
+     * or {@code -1} if no stored {@link PhenotypeNetwork} contains the {@code phenotype}
+     */
+    public int getMinimumDistance(Phenotype phenotype) {
+        PhenotypeStatistics statistics = phenotypes.get(phenotype);
+        return statistics == null ? -1 : statistics.getMinimumDistance();
+    }
+
+    /**
+     * Adds a {@link PhenotypeNetwork} to the {@link PhenotypeNetworkCollection}. If a {@link PhenotypeNetwork} with the
+     * same {@link PhenotypeNetwork#getSource()} was already present, it is replaced.
      * @param network the {@link PhenotypeNetwork} to be added
+     * @return the {@link Phenotype}{@code s} that were not present before and (if a network was replaced) the ones that
+     * are not present anymore
      */
-    public void add(PhenotypeNetwork network) {
+    public BiologicalEntityDelta<Phenotype> add(PhenotypeNetwork network) {
+        BiologicalEntityDelta<Phenotype> replacedDelta = removeBySource(network.getSource());
+
         phenotypeNetworks.put(network.getSource(), network);
-        phenotypes.addAll(network.getPhenotypes());
 
+        Set<Phenotype> added = new HashSet<>();
+        for(int i = 0; i < network.size(); i++) {
+            Phenotype phenotype = network.getPhenotypeAt(i);
+            int distance = network.getDistanceAt(i);
+
+            PhenotypeStatistics statistics = phenotypes.get(phenotype);
+            if(statistics == null) {
+                statistics = new PhenotypeStatistics();
+                phenotypes.put(phenotype, statistics);
+                added.add(phenotype);
+            }
+            statistics.add(distance);
+        }
+
+        return replacedDelta.merge(new BiologicalEntityDelta<>(added, new HashSet<>()));
     }
 
     /**
@@ -46,26 +102,46 @@ public class PhenotypeNetworkCollection {
      * @return {@code true} if the {@code network} was removed, otherwise {@code false}
      */
     public boolean remove(PhenotypeNetwork network) {
-        boolean removed = phenotypeNetworks.values().remove(network);
-        generatePhenotypes();
-        return removed;
+        if(!network.equals(phenotypeNetworks.get(network.getSource()))) {
+            return false;
+        }
+        removeBySource(network.getSource());
+        return true;
     }
 
     /**
-     * Clears the {@link PhenotypeNetworkCollection}
+     * Removes the {@link PhenotypeNetwork} belonging to a {@code source} from the {@link PhenotypeNetworkCollection}.
+     * @param source the {@link PhenotypeNetwork#getSource()} of the network to be removed
+     * @return the {@link Phenotype}{@code s} that are not present anymore (empty if there was no {@link PhenotypeNetwork}
+     * for the {@code source})
      */
-    public void clear() {
-        phenotypes.clear();
-        phenotypeNetworks.clear();
+    public BiologicalEntityDelta<Phenotype> removeBySource(Phenotype source) {
+        PhenotypeNetwork network = phenotypeNetworks.remove(source);
+        Set<Phenotype> removed = new HashSet<>();
+        if(network == null) {
+            return new BiologicalEntityDelta<>(new HashSet<>(), removed);
+        }
+
+        for(int i = 0; i < network.size(); i++) {
+            Phenotype phenotype = network.getPhenotypeAt(i);
+            PhenotypeStatistics statistics = phenotypes.get(phenotype);
+
+            statistics.remove(network.getDistanceAt(i));
+            if(statistics.getReferenceCount() == 0) {
+                phenotypes.remove(phenotype);
+                removed.add(phenotype);
+            }
+        }
+
+        return new BiologicalEntityDelta<>(new HashSet<>(), removed);
     }
 
     /**
-     * Generates the {@code phenotypes} from all stored {@link PhenotypeNetwork}{@code s}.
+     * Clears the {@link PhenotypeNetworkCollection}
      */
-    private void generatePhenotypes() {
-        for(PhenotypeNetwork network : phenotypeNetworks.values()) {
-            phenotypes.addAll(network.getPhenotypes());
-        }
+    public void clear() {
+        phenotypes.clear();
+        phenotypeNetworks.clear();
     }
 
     @Override
@@ -87,4 +163,59 @@ public class PhenotypeNetworkCollection {
     public int hashCode() {
         return Objects.hash(phenotypeNetworks);
     }
+
+    /**
+     * The aggregated information of a single {@link Phenotype} over all stored {@link PhenotypeNetwork}{@code s}: the
+     * number of networks containing it per distance. As distances are small, this allows finding the new minimum
+     * distance after removing a network without going through the remaining networks.
+     */
+    private static class PhenotypeStatistics {
+        /**
+         * The number of {@link PhenotypeNetwork}{@code s} containing the {@link Phenotype} at the distance equal to
+         * the index (grown when needed).
+         */
+        private int[] distanceCounts = new int[2];
+
+        /**
+         * The number of {@link PhenotypeNetwork}{@code s} containing the {@link Phenotype}.
+         */
+        private int referenceCount = 0;
+
+        /**
+         * The lowest distance among those {@link PhenotypeNetwork}{@code s} ({@link Integer#MAX_VALUE} if none).
+         */
+        private int minimumDistance = Integer.MAX_VALUE;
+
+        int getReferenceCount() {
+            return referenceCount;
+        }
+
+        int getMinimumDistance() {
+            return minimumDistance;
+        }
+
+        void add(int distance) {
+            if(distance >= distanceCounts.length) {
+                distanceCounts = Arrays.copyOf(distanceCounts, distance + 1);
+            }
+            distanceCounts[distance]++;
+            referenceCount++;
+            if(distance < minimumDistance) {
+                minimumDistance = distance;
+            }
+        }
+
+        void remove(int distance) {
+            distanceCounts[distance]--;
+            referenceCount--;
+            if(referenceCount == 0) {
+                minimumDistance = Integer.MAX_VALUE;
+            } else if(distance == minimumDistance && distanceCounts[distance] == 0) {
+                // A higher distance with a count is always present as the reference count is not 0.
+                while(distanceCounts[minimumDistance] == 0) {
+                    minimumDistance++;
+                }
+            }
+        }
+    }
 }
@@ -3,7 +3,6 @@ package org.molgenis.vibe.formats;
 import org.molgenis.vibe.exceptions.InvalidStringFormatException;
 
 import java.net.URI;
-import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
@@ -16,6 +15,11 @@ public class Source implements ResourceUri {
      */
     private String name;
 
+    /**
+     * The short name of the {@link Source} (first word only).
+     */
+    private String shortName;
+
     /**
      * The {@link Source} level.
      */
@@ -31,7 +35,7 @@ public class Source implements ResourceUri {
      * @return the {@link Source} name
      */
     public String getName() {
-        return name.split(" ")[0];
+        return shortName;
     }
 
     /**
@@ -55,7 +59,7 @@ public class Source implements ResourceUri {
      * @param name
      */
     public Source(String name) {
-        this.name = requireNonNull(name);
+        setName(name);
     }
 
     /**
@@ -65,7 +69,7 @@ public class Source implements ResourceUri {
      * @param uri
      */
     public Source(String name, Level level, URI uri) {
-        this.name = requireNonNull(name);
+        setName(name);
         this.level = requireNonNull(level);
         this.uri = requireNonNull(uri);
     }
@@ -78,11 +82,17 @@ public class Source implements ResourceUri {
      * @throws InvalidStringFormatException if {@code level} could not be converted into an appropriate {@link Level}
      */
     public Source(String name, String level, URI uri) throws InvalidStringFormatException {
-        this.name = requireNonNull(name);
+        setName(name);
         this.level = Level.retrieveLevelByDisgenetVoidString(level);
         this.uri = requireNonNull(uri);
     }
 
+    private void setName(String name) {
+        this.name = requireNonNull(name);
+        int spaceIndex = name.indexOf(' ');
+        shortName = spaceIndex == -1 ? name : name.substring(0, spaceIndex);
+    }
+
     @Override
     public String toString() {
         return "Source{" +
@@ -97,12 +107,13 @@ public class Source implements ResourceUri {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Source source = (Source) o;
-        return Objects.equals(name, source.name);
+        return name.equals(source.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        // Same value as Objects.hash(name) without creating an array on each call.
+        return 31 + name.hashCode();
     }
 
     /**
@@ -123,6 +134,10 @@ public class Source implements ResourceUri {
          */
         private String disgenetVoidUri;
 
+        public String getReadableString() {
+            return readableString;
+        }
+
         Level(String readableString, String disgenetVoidUriEnd) {
             this.readableString = readableString;
             this.disgenetVoidUri = disgenetVoidUriEnd;
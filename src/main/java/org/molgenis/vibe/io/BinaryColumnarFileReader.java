@@ -0,0 +1,250 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.io.output.BinaryColumnarFileOutputWriter;
+import org.molgenis.vibe.io.output.BinaryColumnarFileOutputWriter.Section;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by {@link BinaryColumnarFileOutputWriter} by memory-mapping it. Values are read directly from the
+ * mapped file when requested, so opening a file is fast regardless of its size. Genes are referred to by their position
+ * in the priority order and diseases by their index within the disease table.
+ */
+public class BinaryColumnarFileReader {
+    private MappedByteBuffer buffer;
+
+    private int geneCount;
+
+    private int diseaseCount;
+
+    private int stringCount;
+
+    /**
+     * The offset of each {@link Section} (by ordinal).
+     */
+    private long[] sectionOffsets = new long[Section.values().length];
+
+    /**
+     * @param path the file to read
+     * @throws IOException if the file could not be read or is not a valid (supported) file (including files whose
+     * sections do not match the counts in the header, such as truncated files)
+     */
+    public BinaryColumnarFileReader(Path path) throws IOException {
+        long fileSize;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            if(fileSize < BinaryColumnarFileOutputWriter.HEADER_BYTES) {
+                throw new IOException(path.getFileName() + " is not a valid binary results file.");
+            }
+            if(fileSize > Integer.MAX_VALUE) {
+                throw new IOException(path.getFileName() + " is too large to be memory-mapped (" + fileSize + " bytes).");
+            }
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+
+        if(buffer.getInt(0) != BinaryColumnarFileOutputWriter.MAGIC_NUMBER) {
+            throw new IOException(path.getFileName() + " is not a valid binary results file.");
+        }
+        if(buffer.getInt(4) != BinaryColumnarFileOutputWriter.VERSION) {
+            throw new IOException(path.getFileName() + " has an unsupported version: " + buffer.getInt(4));
+        }
+        geneCount = buffer.getInt(8);
+        diseaseCount = buffer.getInt(12);
+        stringCount = buffer.getInt(16);
+        if(geneCount < 0 || diseaseCount < 0 || stringCount < 0) {
+            throw new IOException(path.getFileName() + " is not a valid binary results file: negative count in header.");
+        }
+        for(int i = 0; i < sectionOffsets.length; i++) {
+            sectionOffsets[i] = buffer.getLong(20 + i * 8);
+        }
+        validateSections(path, fileSize);
+    }
+
+    /**
+     * Checks that the sections directly follow each other (starting after the header and ending at the end of the file)
+     * with the sizes defined by the header counts, so that all accessors stay within the file.
+     * @throws IOException if a section does not match
+     */
+    private void validateSections(Path path, long fileSize) throws IOException {
+        long expectedOffset = BinaryColumnarFileOutputWriter.HEADER_BYTES;
+        for(Section section : Section.values()) {
+            long offset = sectionOffsets[section.ordinal()];
+            if(offset != expectedOffset) {
+                throw new IOException(path.getFileName() + " is not a valid binary results file: " + section +
+                        " starts at " + offset + " instead of " + expectedOffset + ".");
+            }
+            long length = getSectionLength(section);
+            if(length < 0 || offset + length > fileSize) {
+                throw new IOException(path.getFileName() + " is not a valid binary results file: " + section +
+                        " (" + length + " bytes from " + offset + ") exceeds the file size of " + fileSize + " bytes.");
+            }
+            expectedOffset = offset + length;
+        }
+        if(expectedOffset != fileSize) {
+            throw new IOException(path.getFileName() + " is not a valid binary results file: " + (fileSize - expectedOffset) +
+                    " bytes after the last section.");
+        }
+    }
+
+    /**
+     * @return the length in bytes of a {@link Section} (the preceding sections must be validated, as the lengths of
+     * {@link Section#DISEASE_LIST} and {@link Section#STRING_BYTES} are read from them)
+     */
+    private long getSectionLength(Section section) {
+        switch(section) {
+            case GENE_IDS:
+            case GENE_SYMBOLS:
+                return geneCount * 4L;
+            case HIGHEST_SCORES:
+            case DISEASE_SPECIFICITY_INDICES:
+            case DISEASE_PLEIOTROPY_INDICES:
+                return geneCount * 8L;
+            case DISEASE_LIST_STARTS:
+                return (geneCount + 1L) * 4;
+            case DISEASE_LIST:
+                return buffer.getInt(intPosition(Section.DISEASE_LIST_STARTS, geneCount)) * 4L;
+            case DISEASE_IDS:
+            case DISEASE_NAMES:
+                return diseaseCount * 4L;
+            case STRING_OFFSETS:
+                return (stringCount + 1L) * 4;
+            case STRING_BYTES:
+                return buffer.getInt(intPosition(Section.STRING_OFFSETS, stringCount));
+            default:
+                throw new IllegalStateException("unknown section: " + section);
+        }
+    }
+
+    /**
+     * @return the number of genes
+     */
+    public int getGeneCount() {
+        return geneCount;
+    }
+
+    /**
+     * @return the number of diseases in the disease table
+     */
+    public int getDiseaseCount() {
+        return diseaseCount;
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @return the NCBI gene id
+     */
+    public int getGeneId(int position) {
+        return buffer.getInt(intPosition(Section.GENE_IDS, checkGene(position)));
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @return the gene symbol, or {@code null} if not available
+     */
+    public String getGeneSymbol(int position) {
+        int stringIndex = buffer.getInt(intPosition(Section.GENE_SYMBOLS, checkGene(position)));
+        return stringIndex < 0 ? null : getString(stringIndex);
+    }
+
+    public double getHighestScore(int position) {
+        return buffer.getDouble(doublePosition(Section.HIGHEST_SCORES, checkGene(position)));
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @return the DSI, or {@link Double#NaN} if not available
+     */
+    public double getDiseaseSpecificityIndex(int position) {
+        return buffer.getDouble(doublePosition(Section.DISEASE_SPECIFICITY_INDICES, checkGene(position)));
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @return the DPI, or {@link Double#NaN} if not available
+     */
+    public double getDiseasePleiotropyIndex(int position) {
+        return buffer.getDouble(doublePosition(Section.DISEASE_PLEIOTROPY_INDICES, checkGene(position)));
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @return the number of diseases of the gene
+     */
+    public int getDiseaseCount(int position) {
+        checkGene(position);
+        return buffer.getInt(intPosition(Section.DISEASE_LIST_STARTS, position + 1)) -
+                buffer.getInt(intPosition(Section.DISEASE_LIST_STARTS, position));
+    }
+
+    /**
+     * @param position the position of the gene within the priority order
+     * @param diseaseNumber which disease of the gene (from {@code 0} to {@link #getDiseaseCount(int)})
+     * @return the index of the disease within the disease table
+     */
+    public int getDiseaseIndex(int position, int diseaseNumber) {
+        if(diseaseNumber < 0 || diseaseNumber >= getDiseaseCount(position)) {
+            throw new IndexOutOfBoundsException("disease number: " + diseaseNumber);
+        }
+        int start = buffer.getInt(intPosition(Section.DISEASE_LIST_STARTS, position));
+        return buffer.getInt(intPosition(Section.DISEASE_LIST, start + diseaseNumber));
+    }
+
+    /**
+     * @param diseaseIndex the index of the disease within the disease table
+     * @return the disease id (including prefix)
+     */
+    public String getDiseaseId(int diseaseIndex) {
+        return getString(buffer.getInt(intPosition(Section.DISEASE_IDS, checkDisease(diseaseIndex))));
+    }
+
+    /**
+     * @param diseaseIndex the index of the disease within the disease table
+     * @return the disease name, or {@code null} if not available
+     */
+    public String getDiseaseName(int diseaseIndex) {
+        int stringIndex = buffer.getInt(intPosition(Section.DISEASE_NAMES, checkDisease(diseaseIndex)));
+        return stringIndex < 0 ? null : getString(stringIndex);
+    }
+
+    private String getString(int stringIndex) {
+        if(stringIndex < 0 || stringIndex >= stringCount) {
+            throw new IndexOutOfBoundsException("string index: " + stringIndex);
+        }
+        int start = buffer.getInt(intPosition(Section.STRING_OFFSETS, stringIndex));
+        int end = buffer.getInt(intPosition(Section.STRING_OFFSETS, stringIndex + 1));
+        byte[] bytes = new byte[end - start];
+        int bytesStart = (int) sectionOffsets[Section.STRING_BYTES.ordinal()] + start;
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(bytesStart + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int checkGene(int position) {
+        if(position < 0 || position >= geneCount) {
+            throw new IndexOutOfBoundsException("gene position: " + position);
+        }
+        return position;
+    }
+
+    private int checkDisease(int diseaseIndex) {
+        if(diseaseIndex < 0 || diseaseIndex >= diseaseCount) {
+            throw new IndexOutOfBoundsException("disease index: " + diseaseIndex);
+        }
+        return diseaseIndex;
+    }
+
+    private int intPosition(Section section, int index) {
+        return (int) sectionOffsets[section.ordinal()] + index * 4;
+    }
+
+    private int doublePosition(Section section, int index) {
+        return (int) sectionOffsets[section.ordinal()] + index * 8;
+    }
+}
@@ -0,0 +1,82 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Reads a cohort manifest: a text file describing the {@link Phenotype}{@code s} of multiple patients. Each line
+ * contains a patient id followed by one or more HPO ids, separated by tabs, spaces or commas:</p>
+ * <pre>
+ * patient1	hp:0000001,hp:0000002
+ * patient2	hp:0000003
+ * </pre>
+ * <p>Empty lines and lines starting with {@code #} are ignored. As the patient id is used for naming output files, it
+ * may only contain letters, digits, {@code .}, {@code _} and {@code -} (and cannot start with a {@code .}).</p>
+ */
+public class CohortManifestReader {
+    private static final Pattern SEPARATOR = Pattern.compile("[\\t ,]+");
+
+    private static final Pattern PATIENT_ID = Pattern.compile("^[A-Za-z0-9_-][A-Za-z0-9._-]*$");
+
+    private Path manifest;
+
+    public CohortManifestReader(Path manifest) {
+        this.manifest = requireNonNull(manifest);
+    }
+
+    /**
+     * @return the {@link Phenotype}{@code s} per patient id (in manifest order)
+     * @throws IOException if the file could not be read or contains an invalid line
+     */
+    public Map<String, Set<Phenotype>> read() throws IOException {
+        Map<String, Set<Phenotype>> cohort = new LinkedHashMap<>();
+        try(BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = SEPARATOR.split(line);
+                String patientId = fields[0];
+                if(!PATIENT_ID.matcher(patientId).matches()) {
+                    throw new IOException(createErrorMessage(lineNumber, "invalid patient id: " + patientId));
+                }
+                if(fields.length == 1) {
+                    throw new IOException(createErrorMessage(lineNumber, "no phenotypes for patient " + patientId));
+                }
+                if(cohort.containsKey(patientId)) {
+                    throw new IOException(createErrorMessage(lineNumber, "duplicate patient id: " + patientId));
+                }
+
+                Set<Phenotype> phenotypes = new HashSet<>();
+                for(int i = 1; i < fields.length; i++) {
+                    try {
+                        phenotypes.add(new Phenotype(fields[i]));
+                    } catch(InvalidStringFormatException e) {
+                        throw new IOException(createErrorMessage(lineNumber, e.getMessage()), e);
+                    }
+                }
+                cohort.put(patientId, phenotypes);
+            }
+        }
+        return cohort;
+    }
+
+    private String createErrorMessage(int lineNumber, String message) {
+        return manifest.getFileName() + " line " + lineNumber + ": " + message;
+    }
+}
@@ -9,5 +9,19 @@ public interface ModelReader {
 
     Model getModel();
 
+    /**
+     * Prepares the current thread for reading the {@link #getModel()} when it is read from a different thread than the
+     * one that created this {@link ModelReader} (such as a worker thread). Should be followed by {@link #endRead()} on
+     * the same thread once done.
+     */
+    default void beginRead() {
+    }
+
+    /**
+     * Ends reading started with {@link #beginRead()} on the current thread.
+     */
+    default void endRead() {
+    }
+
     void close();
 }
@@ -25,6 +25,13 @@ public class TripleStoreDbReader implements ModelReader {
      */
     private Dataset dataset;
 
+    /**
+     * The number of {@link #beginRead()} calls per thread that did not start a transaction as the thread already was in
+     * one (such as the thread that created this {@link TripleStoreDbReader}), so that the matching {@link #endRead()}
+     * does not end it. Virtual threads have their own value, the same as platform threads.
+     */
+    private final ThreadLocal<int[]> nestedReads = ThreadLocal.withInitial(() -> new int[1]);
+
     @Override
     public Model getModel() {
         return model;
@@ -52,6 +59,36 @@ public class TripleStoreDbReader implements ModelReader {
         }
     }
 
+    /**
+     * Starts a read transaction for the current thread (TDB transactions are bound to a thread, the transaction started
+     * by the constructor is only valid for the thread that created this {@link TripleStoreDbReader}). If the current
+     * thread already is in a transaction, that transaction is used instead (TDB does not support nested transactions),
+     * so any thread (including short-lived virtual threads and the creating thread) can call this safely.
+     */
+    @Override
+    public void beginRead() {
+        if(dataset.isInTransaction()) {
+            nestedReads.get()[0]++;
+        } else {
+            dataset.begin(ReadWrite.READ);
+        }
+    }
+
+    /**
+     * Ends the transaction started by the matching {@link #beginRead()} (if it started one).
+     */
+    @Override
+    public void endRead() {
+        int[] nested = nestedReads.get();
+        if(nested[0] > 0) {
+            nested[0]--;
+        } else {
+            dataset.end();
+            // Prevents keeping a value per (possibly short-lived) thread.
+            nestedReads.remove();
+        }
+    }
+
     @Override
     public void close() {
         model.close();
@@ -0,0 +1,181 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.formats.Disease;
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.GeneDiseaseCombinationCursor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Writes the ordered {@link Gene}{@code s} to a compact binary file in which each field is stored as a separate column,
+ * so that downstream tools can read (or memory-map, see {@link org.molgenis.vibe.io.BinaryColumnarFileReader}) the
+ * values directly instead of parsing text.</p>
+ *
+ * <p>All numbers are big-endian. The file consists of:</p>
+ * <ul>
+ *     <li>header: {@code int} {@link #MAGIC_NUMBER}, {@code int} {@link #VERSION}, {@code int} gene count,
+ *     {@code int} disease count, {@code int} string count and per {@link Section} (in order) a {@code long} offset</li>
+ *     <li>{@link Section#GENE_IDS}: {@code int} NCBI gene id per gene</li>
+ *     <li>{@link Section#GENE_SYMBOLS}: {@code int} string index per gene (symbols are dictionary-encoded, {@code -1} if
+ *     not available)</li>
+ *     <li>{@link Section#HIGHEST_SCORES}, {@link Section#DISEASE_SPECIFICITY_INDICES},
+ *     {@link Section#DISEASE_PLEIOTROPY_INDICES}: {@code double} per gene ({@link Double#NaN} if not available)</li>
+ *     <li>{@link Section#DISEASE_LIST_STARTS}: {@code int} per gene + 1, the range of each gene within
+ *     {@link Section#DISEASE_LIST}</li>
+ *     <li>{@link Section#DISEASE_LIST}: {@code int} index within the disease table per gene-disease combination</li>
+ *     <li>{@link Section#DISEASE_IDS}, {@link Section#DISEASE_NAMES}: {@code int} string index per disease (the disease
+ *     table, {@code -1} if no name is available)</li>
+ *     <li>{@link Section#STRING_OFFSETS}: {@code int} per string + 1, the range of each string within
+ *     {@link Section#STRING_BYTES}</li>
+ *     <li>{@link Section#STRING_BYTES}: UTF-8 encoded strings</li>
+ * </ul>
+ * <p>The genes are stored in priority order. Note that a compressed file (see {@link #setCompression(OutputCompression)})
+ * needs to be decompressed before it can be memory-mapped.</p>
+ */
+public class BinaryColumnarFileOutputWriter extends FileOutputWriter {
+    /**
+     * "VIBE" in ASCII.
+     */
+    public static final int MAGIC_NUMBER = 0x56494245;
+
+    public static final int VERSION = 1;
+
+    /**
+     * The sections of the file (in order of occurrence).
+     */
+    public enum Section {
+        GENE_IDS, GENE_SYMBOLS, HIGHEST_SCORES, DISEASE_SPECIFICITY_INDICES, DISEASE_PLEIOTROPY_INDICES,
+        DISEASE_LIST_STARTS, DISEASE_LIST, DISEASE_IDS, DISEASE_NAMES, STRING_OFFSETS, STRING_BYTES
+    }
+
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_BYTES = 5 * 4 + Section.values().length * 8;
+
+    /**
+     * The data to be written.
+     */
+    private GeneAggregates geneAggregates;
+
+    /**
+     * The {@link Gene}{@code s} in priority order.
+     */
+    private Iterator<Gene> priority;
+
+    public BinaryColumnarFileOutputWriter(Path path, GeneAggregates geneAggregates, List<Gene> priority) {
+        this(path, geneAggregates, priority.iterator());
+    }
+
+    /**
+     * @param path path of file for data to be written to
+     * @param geneAggregates the data to be written
+     * @param priority the {@link Gene}{@code s} in priority order (consumed while writing)
+     */
+    public BinaryColumnarFileOutputWriter(Path path, GeneAggregates geneAggregates, Iterator<Gene> priority) {
+        super(path);
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.priority = requireNonNull(priority);
+    }
+
+    @Override
+    public void run() throws IOException {
+        Map<Section, ByteArrayOutputStream> sections = new EnumMap<>(Section.class);
+        Map<Section, DataOutputStream> sectionOutputs = new EnumMap<>(Section.class);
+        for(Section section : Section.values()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            sections.put(section, bytes);
+            sectionOutputs.put(section, new DataOutputStream(bytes));
+        }
+
+        // Strings & diseases are stored once and referred to by index.
+        Map<String, Integer> stringIndices = new HashMap<>();
+        Map<Disease, Integer> diseaseIndices = new HashMap<>();
+
+        int geneCount = 0;
+        int diseaseListSize = 0;
+        sectionOutputs.get(Section.DISEASE_LIST_STARTS).writeInt(0);
+        while(priority.hasNext()) {
+            Gene gene = priority.next();
+            geneCount++;
+            sectionOutputs.get(Section.GENE_IDS).writeInt(parseGeneId(gene));
+            sectionOutputs.get(Section.GENE_SYMBOLS).writeInt(gene.getSymbol() == null ? -1 :
+                    getStringIndex(gene.getSymbol(), stringIndices, sectionOutputs));
+            sectionOutputs.get(Section.HIGHEST_SCORES).writeDouble(geneAggregates.getMaxScore(geneAggregates.indexOf(gene)));
+            sectionOutputs.get(Section.DISEASE_SPECIFICITY_INDICES).writeDouble(toPrimitive(gene.getDiseaseSpecificityIndex()));
+            sectionOutputs.get(Section.DISEASE_PLEIOTROPY_INDICES).writeDouble(toPrimitive(gene.getDiseasePleiotropyIndex()));
+
+            GeneDiseaseCombinationCursor cursor = geneAggregates.getGeneDiseaseCollection().cursorByGene(gene);
+            while(cursor.next()) {
+                sectionOutputs.get(Section.DISEASE_LIST).writeInt(getDiseaseIndex(cursor.getDisease(), diseaseIndices,
+                        stringIndices, sectionOutputs));
+                diseaseListSize++;
+            }
+            sectionOutputs.get(Section.DISEASE_LIST_STARTS).writeInt(diseaseListSize);
+        }
+
+        // Closes the string offsets.
+        sectionOutputs.get(Section.STRING_OFFSETS).writeInt(sections.get(Section.STRING_BYTES).size());
+
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(openOutputStream(),
+                CharBufferWriter.DEFAULT_BUFFER_SIZE))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(VERSION);
+            output.writeInt(geneCount);
+            output.writeInt(diseaseIndices.size());
+            output.writeInt(stringIndices.size());
+            long offset = HEADER_BYTES;
+            for(Section section : Section.values()) {
+                output.writeLong(offset);
+                offset += sections.get(section).size();
+            }
+            for(Section section : Section.values()) {
+                sections.get(section).writeTo(output);
+            }
+        }
+    }
+
+    private static int parseGeneId(Gene gene) throws IOException {
+        try {
+            return Integer.parseInt(gene.getId());
+        } catch(NumberFormatException e) {
+            throw new IOException("gene id is not numeric: " + gene.getFormattedId(), e);
+        }
+    }
+
+    private static double toPrimitive(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private static int getDiseaseIndex(Disease disease, Map<Disease, Integer> diseaseIndices, Map<String, Integer> stringIndices,
+                                       Map<Section, DataOutputStream> sectionOutputs) throws IOException {
+        Integer index = diseaseIndices.get(disease);
+        if(index == null) {
+            index = diseaseIndices.size();
+            diseaseIndices.put(disease, index);
+            sectionOutputs.get(Section.DISEASE_IDS).writeInt(getStringIndex(disease.getFormattedId(), stringIndices, sectionOutputs));
+            sectionOutputs.get(Section.DISEASE_NAMES).writeInt(disease.getName() == null ? -1 :
+                    getStringIndex(disease.getName(), stringIndices, sectionOutputs));
+        }
+        return index;
+    }
+
+    private static int getStringIndex(String string, Map<String, Integer> stringIndices,
+                                      Map<Section, DataOutputStream> sectionOutputs) throws IOException {
+        Integer index = stringIndices.get(string);
+        if(index == null) {
+            index = stringIndices.size();
+            stringIndices.put(string, index);
+            DataOutputStream stringBytes = sectionOutputs.get(Section.STRING_BYTES);
+            sectionOutputs.get(Section.STRING_OFFSETS).writeInt(stringBytes.size());
+            stringBytes.write(string.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+}
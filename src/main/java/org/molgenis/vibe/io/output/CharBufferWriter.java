@@ -0,0 +1,225 @@
+package org.molgenis.vibe.io.output;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A buffered {@link Writer} that writes {@link String}{@code s}, characters and {@code double}{@code s} directly into a
+ * reusable {@code char} buffer, so that writing output does not create any objects (no concatenated {@link String}{@code s}
+ * or {@link Double#toString(double)} results).
+ */
+public class CharBufferWriter extends Writer {
+    /**
+     * Default size of the buffer (in characters).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /**
+     * Number of decimals used when formatting a {@code double} directly.
+     */
+    private static final int DOUBLE_DECIMALS = 10;
+
+    private static final long DOUBLE_DECIMALS_FACTOR = 10_000_000_000L;
+
+    /**
+     * Values within this range (and {@code 0}) are formatted directly. For these values a {@code double} can be
+     * represented exactly by at most {@link #DOUBLE_DECIMALS} decimals if its shortest representation has at most that
+     * many decimals, and {@link Double#toString(double)} does not use the computerized scientific notation.
+     */
+    private static final double DIRECT_DOUBLE_MIN = 1e-3;
+    private static final double DIRECT_DOUBLE_MAX = 1e3;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Where the buffer is flushed to.
+     */
+    private Writer out;
+
+    private char[] buffer;
+
+    /**
+     * The number of used characters in the {@link #buffer}.
+     */
+    private int position = 0;
+
+    /**
+     * Buffer used to write the digits of a number (in reverse).
+     */
+    private char[] digits = new char[20];
+
+    public CharBufferWriter(Writer out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out where the buffer should be flushed to
+     * @param bufferSize the size of the buffer (in characters)
+     * @throws IllegalArgumentException if {@code bufferSize} is lower than 1
+     */
+    public CharBufferWriter(Writer out, int bufferSize) {
+        if(bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be 1 or higher");
+        }
+        this.out = requireNonNull(out);
+        buffer = new char[bufferSize];
+    }
+
+    public int getBufferSize() {
+        return buffer.length;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if(position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        if(length >= buffer.length) {
+            // Larger than the buffer, so writes directly.
+            flushBuffer();
+            out.write(chars, offset, length);
+            return;
+        }
+        if(length > buffer.length - position) {
+            flushBuffer();
+        }
+        System.arraycopy(chars, offset, buffer, position, length);
+        position += length;
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        while(length > 0) {
+            if(position == buffer.length) {
+                flushBuffer();
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            string.getChars(offset, offset + chunk, buffer, position);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void write(String string) throws IOException {
+        write(string, 0, string.length());
+    }
+
+    /**
+     * Writes the separator character.
+     * @param separator the {@link ValuesSeparator} to write
+     * @throws IOException if flushing the buffer failed
+     */
+    public void write(ValuesSeparator separator) throws IOException {
+        write(separator.getCharacter());
+    }
+
+    /**
+     * Writes the system line separator.
+     * @throws IOException if flushing the buffer failed
+     */
+    public void newLine() throws IOException {
+        write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a {@code long} in decimal notation.
+     * @param value the number to write
+     * @throws IOException if flushing the buffer failed
+     */
+    public void writeLong(long value) throws IOException {
+        if(value < 0) {
+            write('-');
+            if(value == Long.MIN_VALUE) {
+                write(Long.toString(value).substring(1));
+                return;
+            }
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while(value > 0);
+        while(length > 0) {
+            write(digits[--length]);
+        }
+    }
+
+    /**
+     * Writes a {@code double} in the same notation as {@link Double#toString(double)}. Values that can be written with at
+     * most {@link #DOUBLE_DECIMALS} decimals and lie between {@link #DIRECT_DOUBLE_MIN} and {@link #DIRECT_DOUBLE_MAX}
+     * (or are {@code 0}) are formatted directly into the buffer, other values fall back to {@link Double#toString(double)}.
+     * @param value the number to write
+     * @throws IOException if flushing the buffer failed
+     */
+    public void writeDouble(double value) throws IOException {
+        double absolute = Math.abs(value);
+        if(absolute == 0) {
+            write(1 / value < 0 ? "-0.0" : "0.0");
+            return;
+        }
+        if(!(absolute >= DIRECT_DOUBLE_MIN && absolute < DIRECT_DOUBLE_MAX)) {
+            write(Double.toString(value)); // Also handles NaN and infinity.
+            return;
+        }
+
+        long scaled = Math.round(absolute * DOUBLE_DECIMALS_FACTOR);
+        if((double) scaled / DOUBLE_DECIMALS_FACTOR != absolute) {
+            write(Double.toString(value)); // Requires more decimals.
+            return;
+        }
+
+        if(value < 0) {
+            write('-');
+        }
+        writeLong(scaled / DOUBLE_DECIMALS_FACTOR);
+        write('.');
+
+        // Writes the decimals without trailing zeros (but at least 1 decimal).
+        long decimals = scaled % DOUBLE_DECIMALS_FACTOR;
+        int decimalCount = DOUBLE_DECIMALS;
+        while(decimalCount > 1 && decimals % 10 == 0) {
+            decimals /= 10;
+            decimalCount--;
+        }
+        for(int i = decimalCount - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + decimals % 10);
+            decimals /= 10;
+        }
+        write(digits, 0, decimalCount);
+    }
+
+    private void flushBuffer() throws IOException {
+        if(position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(buffer != null) {
+            try {
+                flushBuffer();
+            } finally {
+                out.close();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package org.molgenis.vibe.io.output;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * An output writer for files.
  */
 public abstract class FileOutputWriter {
+    /**
+     * Default for {@link #flushInterval}.
+     */
+    public static final int DEFAULT_FLUSH_INTERVAL = 1000;
+
     /**
      * Path to write output to.
      */
@@ -18,13 +26,42 @@ public abstract class FileOutputWriter {
     /**
      * Writer to be used for file writing.
      */
-    private BufferedWriter writer;
+    private CharBufferWriter writer;
+
+    /**
+     * After how many written items the output is flushed (the first item is always flushed directly), so that readers of
+     * the file can start processing before all items are written.
+     */
+    private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * If set, the output is written to this stream instead of the {@link #path}.
+     */
+    private OutputStream outputStream;
+
+    /**
+     * How the output is compressed.
+     */
+    private OutputCompression compression = OutputCompression.NONE;
+
+    /**
+     * The number of items written so far.
+     */
+    private int writtenItems = 0;
 
     public Path getPath() {
         return path;
     }
 
-    protected BufferedWriter getWriter() throws IOException {
+    /**
+     * @param outputStream the stream to write the output to instead of {@link #getPath()} (such as an HTTP response
+     *                     body), should be set before {@link #run()}. The stream is closed once all output is written.
+     */
+    public void setOutputStream(OutputStream outputStream) {
+        this.outputStream = requireNonNull(outputStream);
+    }
+
+    protected CharBufferWriter getWriter() throws IOException {
         if(writer == null) {
             prepareWriter();
         }
@@ -38,12 +75,65 @@ public abstract class FileOutputWriter {
         }
     }
 
+    public OutputCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression how the output should be compressed, should be set before {@link #run()}
+     */
+    public void setCompression(OutputCompression compression) {
+        this.compression = requireNonNull(compression);
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @param flushInterval after how many written items the output should be flushed
+     * @throws IllegalArgumentException if {@code flushInterval} is lower than 1
+     */
+    public void setFlushInterval(int flushInterval) {
+        if(flushInterval < 1) {
+            throw new IllegalArgumentException("flushInterval must be 1 or higher");
+        }
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Should be called after each written item (such as a line). Flushes the output after the first item and after each
+     * {@link #getFlushInterval()} items.
+     * @throws IOException if flushing failed
+     */
+    protected void itemWritten() throws IOException {
+        writtenItems++;
+        if(writtenItems == 1 || writtenItems % flushInterval == 0) {
+            getWriter().flush();
+        }
+    }
+
     public FileOutputWriter(Path path) {
         this.path = path;
     }
 
     protected void prepareWriter() throws IOException {
-        writer = Files.newBufferedWriter(path, Charset.forName("UTF-8"));
+        writer = new CharBufferWriter(new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return an {@link OutputStream} to the {@link #getPath()} (or the stream set through
+     * {@link #setOutputStream(OutputStream)}) that applies the {@link #getCompression()}
+     * @throws IOException if the file could not be opened
+     */
+    protected OutputStream openOutputStream() throws IOException {
+        OutputStream stream = outputStream != null ? outputStream : Files.newOutputStream(path);
+        try {
+            return compression.wrap(stream);
+        } catch(IOException e) {
+            stream.close();
+            throw e;
+        }
     }
 
     public abstract void run() throws IOException;
@@ -1,25 +1,78 @@
 package org.molgenis.vibe.io.output;
 
 
-import org.molgenis.vibe.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.GeneAggregates;
 import org.molgenis.vibe.query_output_digestion.prioritization.Prioritizer;
 
 import java.nio.file.Path;
 
-public enum FileOutputWriterFactory {
-    SIMPLE {
+/**
+ * Creates {@link FileOutputWriter}{@code s} that consume the {@link Prioritizer#getPriorityIterator()}, so that a streaming
+ * {@link Prioritizer} writes each gene as soon as it is selected.
+ */
+public enum FileOutputWriterFactory implements EnumTypeDefiner {
+    SIMPLE("simple", ".txt", "text/plain") {
         @Override
-        public FileOutputWriter create(Path path, GeneDiseaseCollection geneDiseaseCollection, Prioritizer prioritizer) {
-            return new OrderedGenesOutputWriter(path, prioritizer.getPriority(), ValuesSeparator.COMMA);
+        public FileOutputWriter create(Path path, GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer) {
+            return new OrderedGenesOutputWriter(path, prioritizer.getPriorityIterator(), ValuesSeparator.COMMA);
         }
     },
-    REGULAR {
+    REGULAR("regular", ".tsv", "text/tab-separated-values") {
         @Override
-        public FileOutputWriter create(Path path, GeneDiseaseCollection geneDiseaseCollection, Prioritizer prioritizer) {
-            return new ResultsPerGeneSeparatedValuesFileOutputWriter(path, geneDiseaseCollection, prioritizer.getPriority(),
+        public FileOutputWriter create(Path path, GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer) {
+            return new ResultsPerGeneSeparatedValuesFileOutputWriter(path, geneAggregates, prioritizer.getPriorityIterator(),
                     ValuesSeparator.TAB, ValuesSeparator.VERTICAL_LINE, ValuesSeparator.COLON, ValuesSeparator.COMMA);
         }
+    },
+    BINARY("binary", ".bin", "application/octet-stream") {
+        @Override
+        public FileOutputWriter create(Path path, GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer) {
+            return new BinaryColumnarFileOutputWriter(path, geneAggregates, prioritizer.getPriorityIterator());
+        }
+    },
+    JSON_LINES("json_lines", ".jsonl", "application/x-ndjson") {
+        @Override
+        public FileOutputWriter create(Path path, GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer) {
+            return new JsonLinesFileOutputWriter(path, geneAggregates, prioritizer.getPriorityIterator());
+        }
     };
 
-    public abstract FileOutputWriter create(Path path, GeneDiseaseCollection geneDiseaseCollection, Prioritizer prioritizer);
+    private String id;
+
+    /**
+     * The file extension used for files written by the created {@link FileOutputWriter}{@code s}.
+     */
+    private String fileExtension;
+
+    /**
+     * The media type of the output written by the created {@link FileOutputWriter}{@code s} (without charset).
+     */
+    private String contentType;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    FileOutputWriterFactory(String id, String fileExtension, String contentType) {
+        this.id = id;
+        this.fileExtension = fileExtension;
+        this.contentType = contentType;
+    }
+
+    public abstract FileOutputWriter create(Path path, GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer);
+
+    public static FileOutputWriterFactory retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, FileOutputWriterFactory.class);
+    }
 }
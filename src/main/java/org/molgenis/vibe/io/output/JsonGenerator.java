@@ -0,0 +1,218 @@
+package org.molgenis.vibe.io.output;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streaming JSON encoder that writes directly to a {@link CharBufferWriter}, so that no intermediate objects (such as a
+ * document tree or escaped {@link String}{@code s}) are created. The caller is responsible for producing a valid
+ * structure: a {@link #name(String)} should precede each value within an object, and each begin should have a matching
+ * end.
+ */
+public class JsonGenerator {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private CharBufferWriter writer;
+
+    /**
+     * Per nesting level whether a value has been written already (so that the next value requires a comma).
+     */
+    private boolean[] hasValue = new boolean[16];
+
+    private int depth = 0;
+
+    /**
+     * Whether the last written token was a name (so that the next value does not require a comma).
+     */
+    private boolean afterName = false;
+
+    public JsonGenerator(CharBufferWriter writer) {
+        this.writer = requireNonNull(writer);
+    }
+
+    public JsonGenerator beginObject() throws IOException {
+        return begin('{');
+    }
+
+    public JsonGenerator endObject() throws IOException {
+        return end('}');
+    }
+
+    public JsonGenerator beginArray() throws IOException {
+        return begin('[');
+    }
+
+    public JsonGenerator endArray() throws IOException {
+        return end(']');
+    }
+
+    /**
+     * @param name the name of the next value within the current object
+     * @return this {@link JsonGenerator}
+     * @throws IOException if writing failed
+     */
+    public JsonGenerator name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        writer.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * @param value the value to write ({@code null} is written as JSON {@code null})
+     * @return this {@link JsonGenerator}
+     * @throws IOException if writing failed
+     */
+    public JsonGenerator value(String value) throws IOException {
+        beforeValue();
+        if(value == null) {
+            writer.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonGenerator value(long value) throws IOException {
+        beforeValue();
+        writer.writeLong(value);
+        return this;
+    }
+
+    /**
+     * @param value the value to write ({@link Double#NaN} and infinity are written as JSON {@code null})
+     * @return this {@link JsonGenerator}
+     * @throws IOException if writing failed
+     */
+    public JsonGenerator value(double value) throws IOException {
+        beforeValue();
+        if(Double.isNaN(value) || Double.isInfinite(value)) {
+            writer.write("null");
+        } else {
+            writer.writeDouble(value);
+        }
+        return this;
+    }
+
+    /**
+     * @param value the value to write ({@code null} is written as JSON {@code null})
+     * @return this {@link JsonGenerator}
+     * @throws IOException if writing failed
+     */
+    public JsonGenerator value(Double value) throws IOException {
+        return value == null ? nullValue() : value(value.doubleValue());
+    }
+
+    public JsonGenerator value(boolean value) throws IOException {
+        beforeValue();
+        writer.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonGenerator nullValue() throws IOException {
+        beforeValue();
+        writer.write("null");
+        return this;
+    }
+
+    /**
+     * Ends the current top-level value with a line separator, after which a next top-level value can be written (as
+     * used by JSON lines).
+     * @return this {@link JsonGenerator}
+     * @throws IOException if writing failed
+     * @throws IllegalStateException if an object or array has not been ended yet
+     */
+    public JsonGenerator newLine() throws IOException {
+        if(depth > 0) {
+            throw new IllegalStateException("cannot end the line within an object or array");
+        }
+        writer.newLine();
+        hasValue[0] = false;
+        return this;
+    }
+
+    private JsonGenerator begin(char bracket) throws IOException {
+        beforeValue();
+        writer.write(bracket);
+        depth++;
+        if(depth == hasValue.length) {
+            hasValue = Arrays.copyOf(hasValue, hasValue.length * 2);
+        }
+        hasValue[depth] = false;
+        return this;
+    }
+
+    private JsonGenerator end(char bracket) throws IOException {
+        if(depth == 0) {
+            throw new IllegalStateException("no object or array to end");
+        }
+        depth--;
+        writer.write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if(afterName) {
+            afterName = false;
+        } else {
+            if(hasValue[depth]) {
+                writer.write(',');
+            }
+            hasValue[depth] = true;
+        }
+    }
+
+    /**
+     * Writes a quoted {@link String}. Characters that do not need escaping are written in chunks.
+     * @param string the {@link String} to write
+     * @throws IOException if writing failed
+     */
+    private void writeString(String string) throws IOException {
+        writer.write('"');
+        int chunkStart = 0;
+        for(int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if(c < 0x20 || c == '"' || c == '\\') {
+                writer.write(string, chunkStart, i - chunkStart);
+                writeEscaped(c);
+                chunkStart = i + 1;
+            }
+        }
+        writer.write(string, chunkStart, string.length() - chunkStart);
+        writer.write('"');
+    }
+
+    private void writeEscaped(char c) throws IOException {
+        writer.write('\\');
+        switch(c) {
+            case '"':
+            case '\\':
+                writer.write(c);
+                break;
+            case '\n':
+                writer.write('n');
+                break;
+            case '\r':
+                writer.write('r');
+                break;
+            case '\t':
+                writer.write('t');
+                break;
+            case '\b':
+                writer.write('b');
+                break;
+            case '\f':
+                writer.write('f');
+                break;
+            default:
+                writer.write('u');
+                writer.write(HEX_DIGITS[(c >> 12) & 0xF]);
+                writer.write(HEX_DIGITS[(c >> 8) & 0xF]);
+                writer.write(HEX_DIGITS[(c >> 4) & 0xF]);
+                writer.write(HEX_DIGITS[c & 0xF]);
+        }
+    }
+}
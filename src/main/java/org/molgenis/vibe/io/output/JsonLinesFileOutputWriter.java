@@ -0,0 +1,98 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.GeneDiseaseCombinationCursor;
+import org.molgenis.vibe.formats.Source;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Writes the ordered {@link Gene}{@code s} as <a href="http://jsonlines.org/">JSON lines</a>: one JSON object per
+ * {@link Gene} per line (in priority order). Besides the scores, each object contains the diseases of the gene with per
+ * {@link Source} the number of times the gene-disease combination was found and the evidence:</p>
+ * <pre>
+ * {"gene":"ncbigene:1","symbol":"A1BG","highestScore":0.6,"dsi":0.7,"dpi":0.3,"diseases":[{"id":"umls:C1",
+ * "name":"disease1","score":0.6,"sources":[{"name":"CTD_human","level":"curated","count":2,
+ * "evidence":["http://identifiers.org/pubmed/1"]}]}]}
+ * </pre>
+ * <p>Values that are not available are written as {@code null}.</p>
+ */
+public class JsonLinesFileOutputWriter extends FileOutputWriter {
+    /**
+     * The data to be written.
+     */
+    private GeneAggregates geneAggregates;
+
+    /**
+     * The {@link Gene}{@code s} in priority order.
+     */
+    private Iterator<Gene> priority;
+
+    public JsonLinesFileOutputWriter(Path path, GeneAggregates geneAggregates, List<Gene> priority) {
+        this(path, geneAggregates, priority.iterator());
+    }
+
+    /**
+     * @param path path of file for data to be written to
+     * @param geneAggregates the data to be written
+     * @param priority the {@link Gene}{@code s} in priority order (consumed while writing)
+     */
+    public JsonLinesFileOutputWriter(Path path, GeneAggregates geneAggregates, Iterator<Gene> priority) {
+        super(path);
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.priority = requireNonNull(priority);
+    }
+
+    @Override
+    public void run() throws IOException {
+        JsonGenerator json = new JsonGenerator(getWriter());
+
+        while(priority.hasNext()) {
+            Gene gene = priority.next();
+            json.beginObject()
+                    .name("gene").value(gene.getFormattedId())
+                    .name("symbol").value(gene.getSymbol())
+                    .name("highestScore").value(geneAggregates.getMaxScore(geneAggregates.indexOf(gene)))
+                    .name("dsi").value(gene.getDiseaseSpecificityIndex())
+                    .name("dpi").value(gene.getDiseasePleiotropyIndex())
+                    .name("diseases").beginArray();
+
+            GeneDiseaseCombinationCursor gdc = geneAggregates.getGeneDiseaseCollection().cursorByGene(gene);
+            while(gdc.next()) {
+                json.beginObject()
+                        .name("id").value(gdc.getDisease().getFormattedId())
+                        .name("name").value(gdc.getDisease().getName())
+                        .name("score").value(gdc.getDisgenetScore())
+                        .name("sources").beginArray();
+                for(int i = 0; i < gdc.getSourceCount(); i++) {
+                    writeSource(json, gdc, i);
+                }
+                json.endArray().endObject();
+            }
+
+            json.endArray().endObject().newLine();
+            itemWritten();
+        }
+
+        closeWriter();
+    }
+
+    private void writeSource(JsonGenerator json, GeneDiseaseCombinationCursor gdc, int sourceIndex) throws IOException {
+        Source source = gdc.getSource(sourceIndex);
+        json.beginObject()
+                .name("name").value(source.getName())
+                .name("level").value(source.getLevel() == null ? null : source.getLevel().getReadableString())
+                .name("count").value(gdc.getCountForSource(sourceIndex))
+                .name("evidence").beginArray();
+        for(int i = 0; i < gdc.getEvidenceCount(sourceIndex); i++) {
+            json.value(gdc.getEvidence(sourceIndex, i).toString());
+        }
+        json.endArray().endObject();
+    }
+}
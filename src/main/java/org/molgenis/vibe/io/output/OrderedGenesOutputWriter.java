@@ -2,9 +2,9 @@ package org.molgenis.vibe.io.output;
 
 import org.molgenis.vibe.formats.Gene;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -15,9 +15,9 @@ import static java.util.Objects.requireNonNull;
 public class OrderedGenesOutputWriter extends FileOutputWriter {
 
     /**
-     * The order of the {@link Gene}{@code s}.
+     * The {@link Gene}{@code s} in priority order.
      */
-    private List<Gene> priority;
+    private Iterator<Gene> priority;
 
     /**
      * The second level separator to be used to separate values within a single field separated by the primary separator.
@@ -26,6 +26,15 @@ public class OrderedGenesOutputWriter extends FileOutputWriter {
 
 
     public OrderedGenesOutputWriter(Path path, List<Gene> priority, ValuesSeparator separator) {
+        this(path, priority.iterator(), separator);
+    }
+
+    /**
+     * @param path path of file for data to be written to
+     * @param priority the {@link Gene}{@code s} in priority order (consumed while writing)
+     * @param separator separates the genes
+     */
+    public OrderedGenesOutputWriter(Path path, Iterator<Gene> priority, ValuesSeparator separator) {
         super(path);
         this.priority = requireNonNull(priority);
         this.separator = requireNonNull(separator);
@@ -33,14 +42,16 @@ public class OrderedGenesOutputWriter extends FileOutputWriter {
 
     @Override
     public void run() throws IOException {
-        BufferedWriter writer = getWriter();
-
-        // Writes all genes except last one (with added separator).
-        for(int i = 0; i < priority.size()-1; i++) {
-            writer.write(priority.get(i).getSymbol() + separator);
+        CharBufferWriter writer = getWriter();
+
+        // Writes all genes with a separator before each gene except the first one.
+        while(priority.hasNext()) {
+            writer.write(priority.next().getSymbol());
+            if(priority.hasNext()) {
+                writer.write(separator);
+            }
+            itemWritten();
         }
-        // Writes last gene (without added separator).
-        writer.write(priority.get(priority.size()-1).getSymbol());
 
         closeWriter();
     }
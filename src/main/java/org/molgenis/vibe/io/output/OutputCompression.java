@@ -0,0 +1,96 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Defines how output files are compressed. Data is compressed while it is written, so the output does not need to be
+ * stored in memory first.
+ */
+public enum OutputCompression implements EnumTypeDefiner {
+    NONE("none", "") {
+        @Override
+        public OutputStream wrap(OutputStream outputStream) {
+            return outputStream;
+        }
+    },
+    GZIP("gzip", ".gz") {
+        @Override
+        public OutputStream wrap(OutputStream outputStream) throws IOException {
+            return new GzipOutputStream(outputStream, Deflater.DEFAULT_COMPRESSION);
+        }
+    },
+    /**
+     * Gzip using the fastest compression level: larger files than {@link #GZIP}, but several times faster to write.
+     */
+    GZIP_FAST("gzip_fast", ".gz") {
+        @Override
+        public OutputStream wrap(OutputStream outputStream) throws IOException {
+            return new GzipOutputStream(outputStream, Deflater.BEST_SPEED);
+        }
+    };
+
+    /**
+     * Size of the buffer used by the compressor.
+     */
+    private static final int COMPRESSION_BUFFER_SIZE = 65536;
+
+    private String id;
+
+    /**
+     * The file extension of files using this compression.
+     */
+    private String fileExtension;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    OutputCompression(String id, String fileExtension) {
+        this.id = id;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * @param outputStream the {@link OutputStream} to write the compressed data to
+     * @return an {@link OutputStream} that compresses the written data
+     * @throws IOException if the compression header could not be written
+     */
+    public abstract OutputStream wrap(OutputStream outputStream) throws IOException;
+
+    public static OutputCompression retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, OutputCompression.class);
+    }
+
+    /**
+     * @param fileName the name of a file
+     * @return the {@link OutputCompression} belonging to the extension of {@code fileName} ({@link #GZIP} for
+     * {@code .gz}), or {@link #NONE} if the extension does not belong to a compression
+     */
+    public static OutputCompression retrieveByFileName(String fileName) {
+        if(fileName.toLowerCase().endsWith(GZIP.getFileExtension())) {
+            return GZIP;
+        }
+        return NONE;
+    }
+
+    /**
+     * Gzip stream with a configurable compression level in which {@link #flush()} flushes all data written so far (so
+     * that readers of the file can decompress it).
+     */
+    private static class GzipOutputStream extends GZIPOutputStream {
+        GzipOutputStream(OutputStream outputStream, int level) throws IOException {
+            super(outputStream, COMPRESSION_BUFFER_SIZE, true);
+            def.setLevel(level);
+        }
+    }
+}
@@ -2,13 +2,13 @@ package org.molgenis.vibe.io.output;
 
 import org.apache.commons.lang3.StringUtils;
 import org.molgenis.vibe.formats.Gene;
-import org.molgenis.vibe.formats.GeneDiseaseCollection;
-import org.molgenis.vibe.formats.GeneDiseaseCombination;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.GeneDiseaseCombinationCursor;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -16,18 +16,18 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Writer for writing {@link Gene}{@code} to a CSV file where a single line represent a {@link Gene}. A separate {@link List}
- * defines the order of {@link Gene}{@code s} in the output file.
+ * (or {@link Iterator}) defines the order of {@link Gene}{@code s} in the output file.
  */
 public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValuesFileOutputWriter {
     /**
      * The data to be written.
      */
-    private GeneDiseaseCollection collection;
+    private GeneAggregates geneAggregates;
 
     /**
-     * The order of the {@link Gene}{@code s}.
+     * The {@link Gene}{@code s} in priority order.
      */
-    private List<Gene> priority;
+    private Iterator<Gene> priority;
 
     /**
      * Separates key-value pairs.
@@ -47,7 +47,7 @@ public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValu
     /**
      *
      * @param path path of file for data to be written to
-     * @param collection the data to be written
+     * @param geneAggregates the data to be written
      * @param priority defines the order in which the {@link Gene}{@code s} are written to the file
      * @param primarySeparator highest level values separator
      * @param keyValuePairSeparator separates different key-value pairs
@@ -55,11 +55,23 @@ public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValu
      * @param valuesSeparator separates the values from a key-value pair
      * @throws IllegalArgumentException if any separator is equal to another separator
      */
-    public ResultsPerGeneSeparatedValuesFileOutputWriter(Path path, GeneDiseaseCollection collection, List<Gene> priority,
+    public ResultsPerGeneSeparatedValuesFileOutputWriter(Path path, GeneAggregates geneAggregates, List<Gene> priority,
+                                                         ValuesSeparator primarySeparator, ValuesSeparator keyValuePairSeparator,
+                                                         ValuesSeparator keyValueSeparator, ValuesSeparator valuesSeparator) {
+        this(path, geneAggregates, priority.iterator(), primarySeparator, keyValuePairSeparator, keyValueSeparator,
+                valuesSeparator);
+    }
+
+    /**
+     * Same as {@link #ResultsPerGeneSeparatedValuesFileOutputWriter(Path, GeneAggregates, List, ValuesSeparator, ValuesSeparator, ValuesSeparator, ValuesSeparator)},
+     * but the {@link Gene}{@code s} are consumed from an {@link Iterator} while writing, so they can be written while the
+     * ordering is still in progress.
+     */
+    public ResultsPerGeneSeparatedValuesFileOutputWriter(Path path, GeneAggregates geneAggregates, Iterator<Gene> priority,
                                                          ValuesSeparator primarySeparator, ValuesSeparator keyValuePairSeparator,
                                                          ValuesSeparator keyValueSeparator, ValuesSeparator valuesSeparator) {
         super(path, primarySeparator);
-        this.collection = requireNonNull(collection);
+        this.geneAggregates = requireNonNull(geneAggregates);
         this.priority = requireNonNull(priority);
         this.keyValuePairSeparator = requireNonNull(keyValuePairSeparator);
         this.keyValueSeparator = requireNonNull(keyValueSeparator);
@@ -78,7 +90,8 @@ public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValu
     }
 
     public void run() throws IOException {
-        BufferedWriter writer = getWriter();
+        CharBufferWriter writer = getWriter();
+        ValuesSeparator separator = getSeparator();
 
         // Writes header.
         writer.write("gene" + getSeparator() + "diseases" + getSeparator() + "highest GDA score" +
@@ -86,27 +99,22 @@ public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValu
         writer.newLine();
 
         // Goes through all ordered genes.
-        for(Gene gene : priority) {
+        while(priority.hasNext()) {
+            Gene gene = priority.next();
             // Writes gene symbol to file.
-            writer.write(gene.getSymbol() + getSeparator());
-
-            // Stores the highest DisGeNET score for this gene.
-            double highestScore = 0;
+            writer.write(gene.getSymbol());
+            writer.write(separator);
 
             // Used for key-value pair separator.
             boolean firstDisease = true;
 
             // Processes/writes gene data.
-            for(GeneDiseaseCombination gdc : collection.getByGene(gene)) {
-                // Selects highest DisGeNET score available for the gene.
-                if(gdc.getDisgenetScore() > highestScore) {
-                    highestScore = gdc.getDisgenetScore();
-                }
-
+            GeneDiseaseCombinationCursor gdc = geneAggregates.getGeneDiseaseCollection().cursorByGene(gene);
+            while(gdc.next()) {
                 // Checks whether this is the first disease. If not, adds a key-value pair separator before the next
                 // disease data is written.
                 if(!firstDisease) {
-                    writer.write(keyValuePairSeparator.toString());
+                    writer.write(keyValuePairSeparator);
                 } else {
                     firstDisease = false;
                 }
@@ -122,11 +130,32 @@ public class ResultsPerGeneSeparatedValuesFileOutputWriter extends SeparatedValu
 //                }
             }
 
-            writer.write(getSeparator() + Double.toString(highestScore) + getSeparator() +
-                    gene.getDiseaseSpecificityIndex() + getSeparator() + gene.getDiseasePleiotropyIndex());
+            // Writes the highest DisGeNET score available for the gene.
+            writer.write(separator);
+            writer.writeDouble(geneAggregates.getMaxScore(geneAggregates.indexOf(gene)));
+
+            // Writes the DSI and DPI.
+            writer.write(separator);
+            writeIndex(writer, gene.getDiseaseSpecificityIndex());
+            writer.write(separator);
+            writeIndex(writer, gene.getDiseasePleiotropyIndex());
             writer.newLine();
+            itemWritten();
         }
 
         closeWriter();
     }
+
+    /**
+     * @param writer the writer to write the {@code index} with
+     * @param index a DSI or DPI (written as {@code null} if not available)
+     * @throws IOException if writing failed
+     */
+    private void writeIndex(CharBufferWriter writer, Double index) throws IOException {
+        if(index == null) {
+            writer.write("null");
+        } else {
+            writer.writeDouble(index);
+        }
+    }
 }
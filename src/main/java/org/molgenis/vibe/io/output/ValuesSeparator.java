@@ -17,12 +17,22 @@ public enum ValuesSeparator {
      */
     private String separator;
 
+    /**
+     * The separator character (all separators consist of a single character).
+     */
+    private char character;
+
     public String getSeparator() {
         return separator;
     }
 
+    public char getCharacter() {
+        return character;
+    }
+
     ValuesSeparator(String separator) {
         this.separator = separator;
+        this.character = separator.charAt(0);
     }
 
     @Override
@@ -0,0 +1,154 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDFS;
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.net.URI;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Compact copy of the {@code rdfs:subClassOf} relations between all {@link Phenotype}{@code s} within an ontology
+ * model. The model is only scanned once, after which the indices built on top of it (such as the
+ * {@link PhenotypeInformationContentIndex} and {@link PhenotypeNeighbourhoodIndex}) traverse the relations without
+ * touching the model.</p>
+ *
+ * <p>Each term gets an index (in order of first occurrence) and its direct parents and children are stored as {@code int}
+ * arrays of these indices.</p>
+ */
+public class PhenotypeGraph {
+    private static final String PHENOTYPE_URI_PREFIX = "http://purl.obolibrary.org/obo/HP_";
+
+    private static final int[] NO_TERMS = new int[0];
+
+    /**
+     * The index of each {@link Phenotype}.
+     */
+    private Map<Phenotype, Integer> indices = new HashMap<>();
+
+    /**
+     * The {@link Phenotype} per index.
+     */
+    private Phenotype[] phenotypes;
+
+    /**
+     * The direct parent indices per index.
+     */
+    private int[][] parents;
+
+    /**
+     * The direct child indices per index.
+     */
+    private int[][] children;
+
+    /**
+     * Builds the graph from all {@code rdfs:subClassOf} relations between phenotypes in the {@code model}.
+     * @param model the model containing the phenotype ontology
+     */
+    public PhenotypeGraph(Model model) {
+        requireNonNull(model);
+
+        List<Phenotype> phenotypeList = new ArrayList<>();
+        List<List<Integer>> parentLists = new ArrayList<>();
+        List<List<Integer>> childLists = new ArrayList<>();
+        StmtIterator statements = model.listStatements(null, RDFS.subClassOf, (RDFNode) null);
+        try {
+            while(statements.hasNext()) {
+                Statement statement = statements.next();
+                Resource subject = statement.getSubject();
+                RDFNode object = statement.getObject();
+                if(!isPhenotype(subject) || !object.isURIResource() || !isPhenotype(object.asResource())) {
+                    continue;
+                }
+                int child = getOrAddTerm(subject.getURI(), phenotypeList, parentLists, childLists);
+                int parent = getOrAddTerm(object.asResource().getURI(), phenotypeList, parentLists, childLists);
+                if(child != parent) {
+                    parentLists.get(child).add(parent);
+                    childLists.get(parent).add(child);
+                }
+            }
+        } finally {
+            statements.close();
+        }
+
+        phenotypes = phenotypeList.toArray(new Phenotype[0]);
+        parents = toArrays(parentLists);
+        children = toArrays(childLists);
+    }
+
+    private static boolean isPhenotype(Resource resource) {
+        return resource.isURIResource() && resource.getURI().startsWith(PHENOTYPE_URI_PREFIX);
+    }
+
+    private int getOrAddTerm(String uri, List<Phenotype> phenotypeList, List<List<Integer>> parentLists,
+                             List<List<Integer>> childLists) {
+        Phenotype phenotype = new Phenotype(URI.create(uri));
+        Integer index = indices.get(phenotype);
+        if(index == null) {
+            index = phenotypeList.size();
+            indices.put(phenotype, index);
+            phenotypeList.add(phenotype);
+            parentLists.add(new ArrayList<>(2));
+            childLists.add(new ArrayList<>(2));
+        }
+        return index;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for(int i = 0; i < arrays.length; i++) {
+            List<Integer> list = lists.get(i);
+            if(list.isEmpty()) {
+                arrays[i] = NO_TERMS;
+            } else {
+                arrays[i] = new int[list.size()];
+                for(int j = 0; j < arrays[i].length; j++) {
+                    arrays[i][j] = list.get(j);
+                }
+            }
+        }
+        return arrays;
+    }
+
+    /**
+     * @return the number of {@link Phenotype}{@code s} in the graph
+     */
+    public int size() {
+        return phenotypes.length;
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the index for
+     * @return the index of the {@code phenotype}, or {@code -1} if not present
+     */
+    public int indexOf(Phenotype phenotype) {
+        Integer index = indices.get(phenotype);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param index the index of a {@link Phenotype}
+     * @return the {@link Phenotype}
+     */
+    public Phenotype getPhenotype(int index) {
+        return phenotypes[index];
+    }
+
+    /**
+     * @param index the index of a {@link Phenotype}
+     * @return the indices of the direct parents (must not be modified)
+     */
+    public int[] getParents(int index) {
+        return parents[index];
+    }
+
+    /**
+     * @param index the index of a {@link Phenotype}
+     * @return the indices of the direct children (must not be modified)
+     */
+    public int[] getChildren(int index) {
+        return children[index];
+    }
+}
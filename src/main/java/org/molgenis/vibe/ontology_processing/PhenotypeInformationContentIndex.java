@@ -0,0 +1,176 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Precomputed information content (IC) and ancestors for all {@link Phenotype}{@code s} within an ontology model,
+ * used for semantic similarity calculations.</p>
+ *
+ * <p>As no phenotype annotation corpus is available, the intrinsic IC is used: {@code -ln(n / N)} where {@code n} is the
+ * number of descendants of a term (including itself) and {@code N} the total number of terms. The root therefore has an
+ * IC of 0 and leaves have the highest IC.</p>
+ *
+ * <p>Terms are indexed in order of decreasing IC and the ancestors of each term (including itself) are stored as a sorted
+ * {@code int} array of these indices. The first index shared by the ancestors of 2 terms is therefore their most
+ * informative common ancestor (MICA), which is found by a single merge-like pass over both arrays. As terms only have a
+ * few dozen ancestors, this is both faster and far smaller than a bitset over all terms per term.</p>
+ */
+public class PhenotypeInformationContentIndex {
+    /**
+     * The index of each {@link Phenotype}.
+     */
+    private Map<Phenotype, Integer> indices = new HashMap<>();
+
+    /**
+     * The IC per index (descending).
+     */
+    private double[] informationContents;
+
+    /**
+     * The ancestor indices (including the term itself, ascending) per index.
+     */
+    private int[][] ancestors;
+
+    /**
+     * Builds the index from all {@code rdfs:subClassOf} relations between phenotypes in the {@code model}.
+     * @param model the model containing the phenotype ontology
+     */
+    public PhenotypeInformationContentIndex(Model model) {
+        this(new PhenotypeGraph(model));
+    }
+
+    /**
+     * Builds the index from the relations between phenotypes in the {@code graph}.
+     * @param graph the {@link PhenotypeGraph} of the phenotype ontology
+     */
+    public PhenotypeInformationContentIndex(PhenotypeGraph graph) {
+        requireNonNull(graph);
+        int termCount = graph.size();
+
+        // Retrieves the ancestors per term and counts the number of descendants per term (using the graph indices).
+        BitSet[] temporaryAncestors = new BitSet[termCount];
+        int[] descendantCounts = new int[termCount];
+        for(int i = 0; i < termCount; i++) {
+            BitSet termAncestors = collectAncestors(i, graph, temporaryAncestors);
+            for(int j = termAncestors.nextSetBit(0); j >= 0; j = termAncestors.nextSetBit(j + 1)) {
+                descendantCounts[j]++;
+            }
+        }
+
+        // Reindexes the terms by decreasing IC (fewer descendants is more informative).
+        Integer[] order = new Integer[termCount];
+        for(int i = 0; i < termCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> descendantCounts[i1] != descendantCounts[i2] ?
+                Integer.compare(descendantCounts[i1], descendantCounts[i2]) : Integer.compare(i1, i2));
+        int[] newIndices = new int[termCount];
+        for(int i = 0; i < termCount; i++) {
+            newIndices[order[i]] = i;
+        }
+
+        informationContents = new double[termCount];
+        ancestors = new int[termCount][];
+        for(int i = 0; i < termCount; i++) {
+            int temporaryIndex = order[i];
+            indices.put(graph.getPhenotype(temporaryIndex), i);
+            informationContents[i] = -Math.log((double) descendantCounts[temporaryIndex] / termCount);
+
+            BitSet termAncestors = temporaryAncestors[temporaryIndex];
+            int[] ancestorIndices = new int[termAncestors.cardinality()];
+            int position = 0;
+            for(int j = termAncestors.nextSetBit(0); j >= 0; j = termAncestors.nextSetBit(j + 1)) {
+                ancestorIndices[position++] = newIndices[j];
+            }
+            Arrays.sort(ancestorIndices);
+            ancestors[i] = ancestorIndices;
+        }
+    }
+
+    /**
+     * Retrieves the ancestors of a term (including itself), storing the result of each visited term in {@code ancestors}.
+     * Cycles (which should not occur in an ontology) are ignored.
+     */
+    private static BitSet collectAncestors(int term, PhenotypeGraph graph, BitSet[] ancestors) {
+        if(ancestors[term] == null) {
+            BitSet termAncestors = new BitSet();
+            termAncestors.set(term);
+            ancestors[term] = termAncestors; // Set before traversing so that cycles terminate.
+            for(int parent : graph.getParents(term)) {
+                termAncestors.or(collectAncestors(parent, graph, ancestors));
+            }
+        }
+        return ancestors[term];
+    }
+
+    /**
+     * @return the number of indexed {@link Phenotype}{@code s}
+     */
+    public int size() {
+        return informationContents.length;
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the index for
+     * @return the index of the {@code phenotype}, or {@code -1} if not present
+     */
+    public int indexOf(Phenotype phenotype) {
+        Integer index = indices.get(phenotype);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param index the index of a {@link Phenotype}
+     * @return the IC of the {@link Phenotype}
+     */
+    public double getInformationContent(int index) {
+        return informationContents[index];
+    }
+
+    /**
+     * @param index1 the index of the first {@link Phenotype}
+     * @param index2 the index of the second {@link Phenotype}
+     * @return the index of the most informative common ancestor, or {@code -1} if none exists
+     */
+    public int getMostInformativeCommonAncestor(int index1, int index2) {
+        int[] ancestors1 = ancestors[index1];
+        int[] ancestors2 = ancestors[index2];
+        int i = 0;
+        int j = 0;
+        while(i < ancestors1.length && j < ancestors2.length) {
+            if(ancestors1[i] == ancestors2[j]) {
+                return ancestors1[i];
+            } else if(ancestors1[i] < ancestors2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index1 the index of the first {@link Phenotype}
+     * @param index2 the index of the second {@link Phenotype}
+     * @return the Resnik similarity: the IC of the most informative common ancestor (or {@code 0} if none exists)
+     */
+    public double getResnikSimilarity(int index1, int index2) {
+        int mica = getMostInformativeCommonAncestor(index1, index2);
+        return mica < 0 ? 0 : informationContents[mica];
+    }
+
+    /**
+     * @param index1 the index of the first {@link Phenotype}
+     * @param index2 the index of the second {@link Phenotype}
+     * @return the Lin similarity: the Resnik similarity scaled between 0 and 1 by the IC of both terms
+     */
+    public double getLinSimilarity(int index1, int index2) {
+        double summedInformationContent = informationContents[index1] + informationContents[index2];
+        return summedInformationContent == 0 ? 0 : 2 * getResnikSimilarity(index1, index2) / summedInformationContent;
+    }
+}
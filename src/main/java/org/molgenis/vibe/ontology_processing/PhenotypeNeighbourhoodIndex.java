@@ -0,0 +1,102 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Counts how many phenotypes a {@link PhenotypesRetriever} would return without traversing the ontology model itself,
+ * using the relations of a {@link PhenotypeGraph}.</p>
+ *
+ * <p>Counting the phenotypes within a distance is a breadth-first search over at most all terms (a few milliseconds for
+ * the complete HPO) instead of a traversal through the {@link org.apache.jena.ontology.OntModel} per phenotype.</p>
+ */
+public class PhenotypeNeighbourhoodIndex {
+    private final PhenotypeGraph graph;
+
+    /**
+     * Builds the index from all {@code rdfs:subClassOf} relations between phenotypes in the {@code model}.
+     * @param model the model containing the phenotype ontology
+     */
+    public PhenotypeNeighbourhoodIndex(Model model) {
+        this(new PhenotypeGraph(model));
+    }
+
+    /**
+     * @param graph the {@link PhenotypeGraph} of the phenotype ontology
+     */
+    public PhenotypeNeighbourhoodIndex(PhenotypeGraph graph) {
+        this.graph = requireNonNull(graph);
+    }
+
+    /**
+     * @return the number of indexed {@link Phenotype}{@code s}
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * Counts the distinct phenotypes a {@link PhenotypesRetriever} created by {@code factory} would return for the
+     * given phenotypes, for each distance up to {@code maxDistance}. Phenotypes that are not present in the ontology
+     * are counted as themselves.
+     * @param phenotypes the input phenotypes
+     * @param factory the {@link PhenotypesRetrieverFactory} defining the relations that are followed
+     * @param maxDistance the maximum distance
+     * @return the cumulative number of phenotypes per distance (index {@code d} contains the number of phenotypes
+     * within distance {@code d}), with a length of {@code maxDistance + 1} (or less, if no phenotypes are added beyond
+     * the last distance)
+     * @throws IllegalArgumentException if {@code maxDistance} is negative
+     */
+    public int[] countPerDistance(Collection<Phenotype> phenotypes, PhenotypesRetrieverFactory factory, int maxDistance) {
+        if(maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must be 0 or higher");
+        }
+        BitSet visited = new BitSet(graph.size());
+        List<Integer> current = new ArrayList<>();
+        int unknown = 0;
+        for(Phenotype phenotype : phenotypes) {
+            int index = graph.indexOf(phenotype);
+            if(index < 0) {
+                unknown++;
+            } else if(!visited.get(index)) {
+                visited.set(index);
+                current.add(index);
+            }
+        }
+
+        // No more than size() levels can contain new terms, regardless of maxDistance.
+        int[] counts = new int[Math.min(maxDistance, graph.size()) + 1];
+        int count = unknown + current.size();
+        counts[0] = count;
+        int distance = 1;
+        for(; distance < counts.length; distance++) {
+            List<Integer> next = new ArrayList<>();
+            for(int term : current) {
+                addUnvisited(graph.getChildren(term), visited, next);
+                if(factory == PhenotypesRetrieverFactory.DISTANCE) {
+                    addUnvisited(graph.getParents(term), visited, next);
+                }
+            }
+            if(next.isEmpty()) {
+                break;
+            }
+            count += next.size();
+            counts[distance] = count;
+            current = next;
+        }
+        return distance == counts.length ? counts : Arrays.copyOf(counts, distance);
+    }
+
+    private static void addUnvisited(int[] terms, BitSet visited, List<Integer> next) {
+        for(int term : terms) {
+            if(!visited.get(term)) {
+                visited.set(term);
+                next.add(term);
+            }
+        }
+    }
+}
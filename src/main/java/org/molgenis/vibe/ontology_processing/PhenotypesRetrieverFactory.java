@@ -3,6 +3,8 @@ package org.molgenis.vibe.ontology_processing;
 import org.apache.jena.ontology.OntModel;
 import org.molgenis.vibe.formats.EnumTypeDefiner;
 import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
 
 import java.util.Collection;
 
@@ -40,6 +42,29 @@ public enum PhenotypesRetrieverFactory implements EnumTypeDefiner {
 
     public abstract PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance);
 
+    /**
+     * Creates the {@link PhenotypeNetworkCollection} for the input phenotypes of a single run (or patient/request).
+     * @param factory the {@link PhenotypesRetrieverFactory} used for retrieving the associated phenotypes, or
+     *                {@code null} if each input {@link Phenotype} should be its own network (distance 0)
+     * @param model the ontology model (can be {@code null} if {@code factory} is {@code null})
+     * @param inputPhenotypes the input {@link Phenotype}{@code s}
+     * @param distance the maximum distance (ignored if {@code factory} is {@code null})
+     * @return a {@link PhenotypeNetworkCollection} with a {@link PhenotypeNetwork} per input {@link Phenotype}
+     */
+    public static PhenotypeNetworkCollection createPhenotypeNetworkCollection(PhenotypesRetrieverFactory factory, OntModel model,
+                                                                              Collection<Phenotype> inputPhenotypes, int distance) {
+        if(factory != null) {
+            PhenotypesRetriever retriever = factory.create(model, inputPhenotypes, distance);
+            retriever.run();
+            return retriever.getPhenotypeNetworkCollection();
+        }
+        PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypeNetworkCollection();
+        for(Phenotype phenotype : inputPhenotypes) {
+            phenotypeNetworkCollection.add(new PhenotypeNetwork(phenotype));
+        }
+        return phenotypeNetworkCollection;
+    }
+
     public static PhenotypesRetrieverFactory retrieve(String name) {
         return EnumTypeDefiner.retrieve(name, PhenotypesRetrieverFactory.class);
     }
@@ -6,7 +6,12 @@ import org.apache.commons.cli.*;
 import org.apache.commons.lang3.StringUtils;
 import org.molgenis.vibe.exceptions.InvalidStringFormatException;
 import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.io.output.OutputCompression;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.molgenis.vibe.rdf_processing.DisgenetLookupCache;
+import org.molgenis.vibe.service.AdmissionPolicy;
+import org.molgenis.vibe.service.PrioritizationHttpServer;
+import org.molgenis.vibe.service.PrioritizationResultCache;
 
 import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
@@ -14,6 +19,7 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command line options parser.
@@ -77,6 +83,79 @@ public class CommandLineOptionsParser extends OptionsParser {
                 .argName("HPO ID")
                 .build());
 
+        options.addOption(Option.builder("c")
+                .longOpt("cohort")
+                .desc("A cohort manifest: a file with per line a patient id followed by the HPO ids of that patient " +
+                        "(separated by tabs, spaces or commas). All patients are processed in a single run and -o " +
+                        "defines the directory in which an output file is written per patient (named after the " +
+                        "patient id). Cannot be combined with -p.")
+                .hasArg()
+                .argName("FILE")
+                .build());
+
+        options.addOption(Option.builder("r")
+                .longOpt("workers")
+                .desc("The number of patients from -c (or requests with -d) that are processed concurrently (default: " +
+                        "number of processors).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("e")
+                .longOpt("stage-workers")
+                .desc("The number of workers for each stage of processing -c, separated by commas: phenotype " +
+                        "expansion, DisGeNET retrieval and writing (such as 2,8,2). The stages of different patients " +
+                        "overlap. Cannot be combined with -r (which uses the same number for each stage).")
+                .hasArg()
+                .argName("NUMBERS")
+                .build());
+
+        options.addOption(Option.builder("d")
+                .longOpt("daemon")
+                .desc("Runs as an HTTP service on the given port, keeping the TDB and HPO ontology (if -w is given) " +
+                        "loaded. The phenotypes and other settings are given per request, such as: " +
+                        "/prioritize?phenotype=hp:0000001&retriever=children&distance=2&prioritizer=dsi&format=regular&top=100")
+                .hasArg()
+                .argName("PORT")
+                .build());
+
+        options.addOption(Option.builder("q")
+                .longOpt("queue")
+                .desc("The maximum number of requests waiting to be processed with -d (default: " +
+                        PrioritizationHttpServer.DEFAULT_QUEUE_CAPACITY + "). Further requests are rejected.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("i")
+                .longOpt("result-ttl")
+                .desc("The number of seconds the results of -d are kept for identical requests (default: " +
+                        TimeUnit.MILLISECONDS.toSeconds(PrioritizationResultCache.DEFAULT_TTL_MILLIS) + "). Identical " +
+                        "requests received at the same time are processed once. Use 0 to process each request.")
+                .hasArg()
+                .argName("SECONDS")
+                .build());
+
+        options.addOption(Option.builder("y")
+                .longOpt("budget")
+                .desc("The maximum estimated number of gene-disease associations of a request with -d (the number of " +
+                        "phenotypes after retrieving associated phenotypes times the mean number of gene-disease " +
+                        "associations per phenotype). Requests over the budget are handled according to -f. Use 0 " +
+                        "to not check requests (default).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("f")
+                .longOpt("over-budget")
+                .desc("What to do with requests over the budget of -y (default: " + AdmissionPolicy.QUEUE.getId() +
+                        "): " + AdmissionPolicy.REJECT.getId() + " (respond with 422), " + AdmissionPolicy.QUEUE.getId() +
+                        " (process them one at a time next to the other requests) or " +
+                        AdmissionPolicy.DOWNGRADE.getId() + " (lower the distance till within budget).")
+                .hasArg()
+                .argName("NAME")
+                .build());
+
         options.addOption(Option.builder("w")
                 .longOpt("ontology")
                 .desc("The Human Phenotype Ontology file (.owl).")
@@ -116,14 +195,24 @@ public class CommandLineOptionsParser extends OptionsParser {
 
         options.addOption(Option.builder("s")
                 .longOpt("sort")
-                .desc("The output sorting algorithm to be used:" + System.lineSeparator() +
+                .desc("The output sorting algorithm to be used. Can be given multiple times, in which case all " +
+                        "algorithms are run in parallel and each writes its own output file (with the algorithm name " +
+                        "added to the -o file name):" + System.lineSeparator() +
                         String.format(argumentOptionsFormat, "gda_max", "Sorts genes based on highest") +
                         String.format(argumentOptionsFormat, "", "gene-disease association score") +
                         String.format(argumentOptionsFormat, "", "(DEFAULT).") +
                         String.format(argumentOptionsFormat, "dsi", "Sorts genes based on highest Disease") +
                         String.format(argumentOptionsFormat, "", "Specificity Index.") +
                         String.format(argumentOptionsFormat, "dpi", "Sorts genes based on lowest Disease") +
-                        String.format(argumentOptionsFormat, "", "Pleiotropy Index."))
+                        String.format(argumentOptionsFormat, "", "Pleiotropy Index.") +
+                        String.format(argumentOptionsFormat, "composite", "Combines highest gene-disease association") +
+                        String.format(argumentOptionsFormat, "", "score, Disease Specificity Index and") +
+                        String.format(argumentOptionsFormat, "", "distance of matched phenotypes to the") +
+                        String.format(argumentOptionsFormat, "", "input phenotypes.") +
+                        String.format(argumentOptionsFormat, "resnik", "Sorts genes based on highest") +
+                        String.format(argumentOptionsFormat, "", "best-match-average Resnik similarity") +
+                        String.format(argumentOptionsFormat, "", "between the input phenotypes and") +
+                        String.format(argumentOptionsFormat, "", "disease phenotypes (requires -w)."))
                 .hasArg()
                 .argName("NAME")
                 .build());
@@ -132,13 +221,83 @@ public class CommandLineOptionsParser extends OptionsParser {
                 .longOpt("simple-output")
                 .desc("Simple output format (file only contains separated gene symbols)")
                 .build());
+
+        options.addOption(Option.builder("b")
+                .longOpt("binary-output")
+                .desc("Binary columnar output format (for reading by other tools, see BinaryColumnarFileReader).")
+                .build());
+
+        options.addOption(Option.builder("j")
+                .longOpt("json-output")
+                .desc("JSON lines output format (one gene per line, including the sources and evidence per disease).")
+                .build());
+
+        options.addOption(Option.builder("z")
+                .longOpt("compress")
+                .desc("Compresses the output (the compression extension is added to -o if missing). By default, an -o " +
+                        "ending with .gz is compressed using gzip:" + System.lineSeparator() +
+                        String.format(argumentOptionsFormat, "gzip", "Gzip compression.") +
+                        String.format(argumentOptionsFormat, "gzip_fast", "Faster gzip compression (larger files).") +
+                        String.format(argumentOptionsFormat, "none", "No compression."))
+                .hasArg()
+                .argName("NAME")
+                .build());
+
+        options.addOption(Option.builder("k")
+                .longOpt("top")
+                .desc("Only writes the given number of genes with the highest priority.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("x")
+                .longOpt("off-heap")
+                .desc("Stores the gene-disease associations outside of the Java heap (reduces garbage collection for large results).")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("interactive")
+                .desc("After writing the output, reads changes to the -p phenotypes from stdin and rewrites the output " +
+                        "after each line (such as '+hp:0000001 -hp:0000002' to add and remove a phenotype). Only the " +
+                        "added phenotypes are queried. An empty line stops the application. Cannot be combined with " +
+                        "-x.")
+                .build());
+
+        options.addOption(Option.builder("a")
+                .longOpt("cache")
+                .desc("The maximum size of the DisGeNET lookups that are cached and shared between the patients of -c " +
+                        "(or the requests of -d), in query result rows (default: " + DisgenetLookupCache.DEFAULT_MAX_WEIGHT +
+                        "). Use 0 to disable the cache.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("u")
+                .longOpt("warm-up")
+                .desc("Warms up the query engine with representative queries for the given number of milliseconds " +
+                        "before processing the patients of -c (or accepting the requests of -d), so that the first " +
+                        "ones are not slower than later ones (default: 0, no warm-up).")
+                .hasArg()
+                .argName("MILLISECONDS")
+                .build());
+
+        options.addOption(Option.builder("g")
+                .longOpt("threads")
+                .desc("The type of threads on which the workers of -c (or -d) and multiple -s run:" + System.lineSeparator() +
+                        String.format(argumentOptionsFormat, "platform", "Operating system threads (default).") +
+                        String.format(argumentOptionsFormat, "virtual", "Virtual threads (Java 21 or higher), allows " +
+                                "a high number of workers waiting for DisGeNET data."))
+                .hasArg()
+                .argName("NAME")
+                .build());
     }
 
     /**
      * Prints the help message to stdout.
      */
     public static void printHelpMessage() {
-        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] -t <FILE> [-w <FILE> -n <NAME> -m <NUMBER>] -o <FILE> [-s <NAME>] [-l] -p <HPO ID> [-p <HPO ID>]...";
+        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] -t <FILE> [-w <FILE> -n <NAME> -m <NUMBER>] -o <FILE> [-s <NAME>]... [-k <NUMBER>] [-z <NAME>] [-l | -b | -j] [-x] [-g <NAME>] (-p <HPO ID> [-p <HPO ID>]... [--interactive] | -c <FILE> [-r <NUMBER> | -e <NUMBERS>] [-a <NUMBER>] [-u <MILLISECONDS>])" +
+                System.lineSeparator() + "       java -jar vibe-with-dependencies.jar [-v] -t <FILE> [-w <FILE>] -d <PORT> [-r <NUMBER>] [-q <NUMBER>] [-i <SECONDS>] [-a <NUMBER>] [-u <MILLISECONDS>] [-g <NAME>] [-x]";
         String helpHeader = "";
         String helpFooter = "Molgenis VIBE";
 
@@ -201,6 +360,21 @@ public class CommandLineOptionsParser extends OptionsParser {
             missing.add("-t");
         }
 
+        // OPTIONAL: Service mode (all other settings are given per request).
+        if(commandLine.hasOption("d")) {
+            digestServiceCommandLine(errors);
+            processMissingAndErrors(missing, errors);
+            return; // IMPORTANT: Does not process any other arguments from this point.
+        } else if(commandLine.hasOption("q")) {
+            errors.add("Missing -d: -q requires -d.");
+        } else if(commandLine.hasOption("i")) {
+            errors.add("Missing -d: -i requires -d.");
+        } else if(commandLine.hasOption("y")) {
+            errors.add("Missing -d: -y requires -d.");
+        } else if(commandLine.hasOption("f")) {
+            errors.add("Missing -d: -f requires -d.");
+        }
+
         // OPTIONAL: HPO ontology file.
         if(commandLine.hasOption("w")) {
             // -w defines RunMode.
@@ -245,26 +419,91 @@ public class CommandLineOptionsParser extends OptionsParser {
             }
         }
 
-        // REQUIRED: Phenotypes.
+        // REQUIRED (or -p): Cohort.
+        if(commandLine.hasOption("c")) {
+            // -c defines RunMode (together with -w).
+            if(commandLine.hasOption("w")) {
+                setRunMode(RunMode.COHORT_GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES);
+            } else {
+                setRunMode(RunMode.COHORT_GENES_FOR_PHENOTYPES);
+            }
+            try {
+                setCohort(commandLine.getOptionValue("c"));
+            } catch(InvalidPathException | IOException e) {
+                errors.add(e.getMessage());
+            }
+            if(commandLine.hasOption("p")) {
+                errors.add("-p and -c cannot be combined.");
+            }
+
+            // OPTIONAL: Number of workers (per stage).
+            if(commandLine.hasOption("r") && commandLine.hasOption("e")) {
+                errors.add("-r and -e cannot be combined.");
+            } else if(commandLine.hasOption("r")) {
+                try {
+                    setWorkers(commandLine.getOptionValue("r"));
+                } catch(NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            } else if(commandLine.hasOption("e")) {
+                try {
+                    setStageWorkers(commandLine.getOptionValue("e"));
+                } catch(NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+        } else {
+            if(commandLine.hasOption("r")) {
+                errors.add("Missing -c or -d: -r requires -c or -d.");
+            }
+            if(commandLine.hasOption("e")) {
+                errors.add("Missing -c: -e requires -c.");
+            }
+        }
+
+        // REQUIRED (unless -c): Phenotypes.
         if(commandLine.hasOption("p")) {
             try {
                 setPhenotypes(commandLine.getOptionValues("p")); // throws InvalidStringFormatException (IllegalArgumentException)
             } catch(InvalidStringFormatException e) {
                 errors.add(e.getMessage());
             }
-        } else {
+        } else if(!commandLine.hasOption("c")) {
             missing.add("-p");
         }
 
         // REQUIRED: Output file.
         if(commandLine.hasOption("o")) {
             try {
-                setOutputFile(commandLine.getOptionValue("o"));
-            } catch(InvalidPathException | FileAlreadyExistsException e) {
+                String outputFile = commandLine.getOptionValue("o");
+                // OPTIONAL: Compression (otherwise based on the output file extension).
+                if(commandLine.hasOption("z")) {
+                    setOutputCompression(commandLine.getOptionValue("z"));
+                    // With -c, -o is a directory (the extension is added to each patient file instead).
+                    if(!commandLine.hasOption("c") &&
+                            !outputFile.toLowerCase().endsWith(getOutputCompression().getFileExtension())) {
+                        outputFile += getOutputCompression().getFileExtension();
+                    }
+                } else if(!commandLine.hasOption("c")) {
+                    setOutputCompression(OutputCompression.retrieveByFileName(outputFile));
+                }
+                setOutputFile(outputFile);
+            } catch(InvalidPathException | FileAlreadyExistsException | EnumConstantNotPresentException e) {
                 errors.add(e.getMessage());
             }
-            if(commandLine.hasOption("l")) {
+            int outputFormats = (commandLine.hasOption("l") ? 1 : 0) + (commandLine.hasOption("b") ? 1 : 0) +
+                    (commandLine.hasOption("j") ? 1 : 0);
+            if(outputFormats > 1) {
+                errors.add("-l, -b and -j cannot be combined.");
+            } else if(commandLine.hasOption("l")) {
                 setFileOutputWriterFactory(FileOutputWriterFactory.SIMPLE);
+            } else if(commandLine.hasOption("b")) {
+                setFileOutputWriterFactory(FileOutputWriterFactory.BINARY);
+                if(getOutputCompression() != OutputCompression.NONE) {
+                    errors.add("-b cannot be compressed (binary output files are memory-mapped when read).");
+                }
+            } else if(commandLine.hasOption("j")) {
+                setFileOutputWriterFactory(FileOutputWriterFactory.JSON_LINES);
             } else {
                 setFileOutputWriterFactory(FileOutputWriterFactory.REGULAR);
             }
@@ -272,10 +511,15 @@ public class CommandLineOptionsParser extends OptionsParser {
             missing.add("-o");
         }
 
-        // OPTIONAL: Sorting algorithm.
+        // OPTIONAL: Sorting algorithm(s).
         if(commandLine.hasOption("s")) {
             try {
-                setGenePrioritizerFactory(commandLine.getOptionValue("s"));
+                setGenePrioritizerFactories(commandLine.getOptionValues("s"));
+                for(GenePrioritizerFactory factory : getGenePrioritizerFactories()) {
+                    if(factory.requiresInformationContentIndex() && !commandLine.hasOption("w")) {
+                        errors.add("Missing -w: -s " + factory.getId() + " requires -w.");
+                    }
+                }
             } catch(EnumConstantNotPresentException e) {
                 errors.add(e.getMessage());
             }
@@ -283,7 +527,198 @@ public class CommandLineOptionsParser extends OptionsParser {
             setGenePrioritizerFactory(GenePrioritizerFactory.HIGHEST_DISGENET_SCORE);
         }
 
-        // Processes missing and errors and throws an Exception if any errors were present.
+        // Each sorting algorithm writes to its own file if multiple are given (and with -c each patient as well).
+        if(getOutputFile() != null && getCohort() != null && getFileOutputWriterFactory() != null) {
+            try {
+                checkCohortOutputFiles();
+            } catch(FileAlreadyExistsException e) {
+                errors.add(e.getMessage());
+            }
+        } else if(getOutputFile() != null && getGenePrioritizerFactories().size() > 1) {
+            try {
+                checkOutputFiles();
+            } catch(FileAlreadyExistsException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Number of genes with the highest priority to write.
+        if(commandLine.hasOption("k")) {
+            try {
+                setTopGenes(commandLine.getOptionValue("k"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Off-heap storage.
+        if(commandLine.hasOption("x")) {
+            setOffHeapStorage(true);
+        }
+
+        // OPTIONAL: Reading changes to the input phenotypes after the output is written.
+        if(commandLine.hasOption("interactive")) {
+            if(!commandLine.hasOption("p")) {
+                errors.add("Missing -p: --interactive requires -p.");
+            } else if(commandLine.hasOption("x")) {
+                errors.add("--interactive cannot be combined with -x.");
+            } else {
+                setInteractive(true);
+            }
+        }
+
+        // OPTIONAL: Size of the lookup cache shared between patients/requests.
+        if(commandLine.hasOption("a") && !commandLine.hasOption("c")) {
+            errors.add("Missing -c or -d: -a requires -c or -d.");
+        } else if(commandLine.hasOption("a")) {
+            try {
+                setLookupCacheSize(commandLine.getOptionValue("a"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Warm-up before processing the patients.
+        if(commandLine.hasOption("u") && !commandLine.hasOption("c")) {
+            errors.add("Missing -c or -d: -u requires -c or -d.");
+        } else if(commandLine.hasOption("u")) {
+            try {
+                setWarmUpBudget(commandLine.getOptionValue("u"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Type of threads the patients (or multiple prioritizers) are processed on.
+        if(commandLine.hasOption("g") && !commandLine.hasOption("c") && getGenePrioritizerFactories().size() < 2) {
+            errors.add("Missing -c, -d or multiple -s: -g requires -c, -d or multiple -s.");
+        } else if(commandLine.hasOption("g")) {
+            try {
+                setExecutorFactory(commandLine.getOptionValue("g"));
+            } catch(EnumConstantNotPresentException | UnsupportedOperationException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        processMissingAndErrors(missing, errors);
+    }
+
+    /**
+     * Digests the parsed command line arguments for {@link RunMode#SERVICE} (after the generic arguments are digested).
+     * @param errors the list to add errors to
+     * @throws InvalidPathException if user-input which should be a file/directory could not be converted to {@link Path}
+     */
+    private void digestServiceCommandLine(List<String> errors) throws InvalidPathException {
+        setRunMode(RunMode.SERVICE);
+        try {
+            setServicePort(commandLine.getOptionValue("d"));
+        } catch(NumberFormatException e) {
+            errors.add(e.getMessage());
+        }
+
+        // OPTIONAL: HPO ontology file (required for requests with a retriever or a prioritizer using the ontology).
+        if(commandLine.hasOption("w")) {
+            try {
+                setHpoOntology(commandLine.getOptionValue("w"));
+            } catch(InvalidPathException | IOException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Number of workers & queue size.
+        if(commandLine.hasOption("r")) {
+            try {
+                setWorkers(commandLine.getOptionValue("r"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if(commandLine.hasOption("q")) {
+            try {
+                setServiceQueueCapacity(commandLine.getOptionValue("q"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Time results are kept for identical requests.
+        if(commandLine.hasOption("i")) {
+            try {
+                setResultTtl(commandLine.getOptionValue("i"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Budget for the estimated cost of a request.
+        if(commandLine.hasOption("y")) {
+            try {
+                setAdmissionBudget(commandLine.getOptionValue("y"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if(commandLine.hasOption("f")) {
+            if(!commandLine.hasOption("y")) {
+                errors.add("Missing -y: -f requires -y.");
+            }
+            try {
+                setAdmissionPolicy(commandLine.getOptionValue("f"));
+            } catch(EnumConstantNotPresentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Off-heap storage.
+        if(commandLine.hasOption("x")) {
+            setOffHeapStorage(true);
+        }
+
+        // OPTIONAL: Size of the lookup cache shared between patients/requests.
+        if(commandLine.hasOption("a")) {
+            try {
+                setLookupCacheSize(commandLine.getOptionValue("a"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Warm-up before accepting requests.
+        if(commandLine.hasOption("u")) {
+            try {
+                setWarmUpBudget(commandLine.getOptionValue("u"));
+            } catch(NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: Type of threads the requests are processed on.
+        if(commandLine.hasOption("g")) {
+            try {
+                setExecutorFactory(commandLine.getOptionValue("g"));
+            } catch(EnumConstantNotPresentException | UnsupportedOperationException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // Settings that are given per request.
+        for(String option : new String[]{"n", "m", "p", "c", "e", "o", "s", "k", "z", "l", "b", "j"}) {
+            if(commandLine.hasOption(option)) {
+                errors.add("-" + option + " cannot be combined with -d.");
+            }
+        }
+        if(commandLine.hasOption("interactive")) {
+            errors.add("--interactive cannot be combined with -d.");
+        }
+    }
+
+    /**
+     * Processes missing and errors and throws an Exception if any errors were present.
+     * @param missing the missing arguments
+     * @param errors the errors
+     * @throws IOException if any arguments were missing or any errors were present
+     */
+    private void processMissingAndErrors(List<String> missing, List<String> errors) throws IOException {
         if(missing.size() > 0) {
             errors.add(0, "Missing arguments: " + StringUtils.join(missing, ", "));
         }
@@ -2,14 +2,24 @@ package org.molgenis.vibe.options_digestion;
 
 import org.molgenis.vibe.exceptions.InvalidStringFormatException;
 import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.CohortManifestReader;
 import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.io.output.OutputCompression;
+import org.molgenis.vibe.ontology_processing.PhenotypeNeighbourhoodIndex;
 import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.pipeline.ExecutorFactory;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.molgenis.vibe.rdf_processing.DisgenetLookupCache;
+import org.molgenis.vibe.service.AdmissionControl;
+import org.molgenis.vibe.service.AdmissionPolicy;
+import org.molgenis.vibe.service.PrioritizationHttpServer;
+import org.molgenis.vibe.service.PrioritizationResultCache;
+import org.molgenis.vibe.service.RequestCostEstimator;
 
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract class to be used for options parsing. Includes some basic validations (such as whether input arguments refer
@@ -19,6 +29,11 @@ import java.util.Set;
  * further into the application.
  */
 public abstract class OptionsParser {
+    /**
+     * The number of stages a cohort is processed in (see {@link #getStageWorkers()}).
+     */
+    public static final int COHORT_STAGES = 3;
+
     /**
      * Wether the app should run in verbose modus (extra print statements).
      */
@@ -50,10 +65,58 @@ public abstract class OptionsParser {
     private Set<Phenotype> phenotypes = new HashSet<>();
 
     /**
-     * The file to write the output to.
+     * The phenotype(s) per patient id (in cohort mode).
+     */
+    private Map<String, Set<Phenotype>> cohort;
+
+    /**
+     * The port to listen on (in service mode).
+     */
+    private Integer servicePort;
+
+    /**
+     * The maximum number of requests waiting to be processed (in service mode).
+     */
+    private int serviceQueueCapacity = PrioritizationHttpServer.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * The time in seconds completed results are kept for identical requests (in service mode). If 0, each request is
+     * processed.
+     */
+    private long resultTtl = TimeUnit.MILLISECONDS.toSeconds(PrioritizationResultCache.DEFAULT_TTL_MILLIS);
+
+    /**
+     * The maximum estimated number of gene-disease associations of a request that is processed directly (in service
+     * mode). If 0, requests are not checked.
+     */
+    private long admissionBudget = 0;
+
+    /**
+     * What is done with requests exceeding the {@link #admissionBudget}.
+     */
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.QUEUE;
+
+    /**
+     * The number of patients (in cohort mode) or requests (in service mode) that are processed concurrently.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of workers per cohort stage (phenotype expansion, DisGeNET retrieval and writing). If {@code null},
+     * each stage uses {@link #workers}.
+     */
+    private int[] stageWorkers;
+
+    /**
+     * The file to write the output to (in cohort mode the directory to write the output files to).
      */
     private Path outputFile;
 
+    /**
+     * How the output file(s) should be compressed.
+     */
+    private OutputCompression outputCompression = OutputCompression.NONE;
+
     /**
      * Defines the {@link org.molgenis.vibe.io.output.FileOutputWriter} to be used.
      */
@@ -71,9 +134,42 @@ public abstract class OptionsParser {
     private Integer ontologyMaxDistance;
 
     /**
-     * Sets the gene prioritizer to be used.
+     * Sets the gene prioritizer(s) to be used (in input order). If multiple are given, each writes its own output file.
+     */
+    private List<GenePrioritizerFactory> genePrioritizerFactories = new ArrayList<>();
+
+    /**
+     * If set, the maximum number of genes with the highest priority to be written to the output.
      */
-    private GenePrioritizerFactory genePrioritizerFactory;
+    private Integer topGenes;
+
+    /**
+     * Whether the gene-disease associations should be stored outside of the Java heap.
+     */
+    private boolean offHeapStorage = false;
+
+    /**
+     * Whether changes to the input phenotypes are read from stdin after the output is written (see
+     * {@link RunMode#updateInteractively}).
+     */
+    private boolean interactive = false;
+
+    /**
+     * The maximum weight of the DisGeNET lookups cached between patients (in cohort mode) or requests (in service mode).
+     * If 0, nothing is cached.
+     */
+    private long lookupCacheSize = DisgenetLookupCache.DEFAULT_MAX_WEIGHT;
+
+    /**
+     * The time in milliseconds spent on warming up the query engine before processing a cohort (or accepting requests
+     * in service mode). If 0, no warm-up is done.
+     */
+    private long warmUpBudget = 0;
+
+    /**
+     * Creates the threads of the workers processing a cohort (or requests in service mode).
+     */
+    private ExecutorFactory executorFactory = ExecutorFactory.PLATFORM;
 
     public boolean isVerbose() {
         return verbose;
@@ -216,6 +312,233 @@ public abstract class OptionsParser {
         addPhenotype(new Phenotype(phenotype));
     }
 
+    /**
+     * @return an unmodifiable {@link Map} with the {@link Phenotype}{@code s} per patient id (in manifest order), or
+     * {@code null} if not in cohort mode
+     */
+    public Map<String, Set<Phenotype>> getCohort() {
+        return cohort == null ? null : Collections.unmodifiableMap(cohort);
+    }
+
+    /**
+     * @param cohortManifest a {@link String} containing the path to the cohort manifest
+     * @throws InvalidPathException if {@link Paths#get(String, String...)}} fails to convert a {@link String} to {@link Path}
+     * @throws IOException see {@link #setCohort(Path)}
+     */
+    protected void setCohort(String cohortManifest) throws InvalidPathException, IOException {
+        setCohort(Paths.get(cohortManifest));
+    }
+
+    /**
+     * @param cohortManifest the cohort manifest to read (see {@link CohortManifestReader})
+     * @throws IOException if {@code cohortManifest} is not a readable file, is not a valid manifest or contains no patients
+     */
+    protected void setCohort(Path cohortManifest) throws IOException {
+        if(!checkIfPathIsReadableFile(cohortManifest)) {
+            throw new IOException(cohortManifest.getFileName() + " is not a readable file.");
+        }
+        Map<String, Set<Phenotype>> cohort = new CohortManifestReader(cohortManifest).read();
+        if(cohort.isEmpty()) {
+            throw new IOException(cohortManifest.getFileName() + " does not contain any patients.");
+        }
+        this.cohort = cohort;
+    }
+
+    public Integer getServicePort() {
+        return servicePort;
+    }
+
+    /**
+     * @param servicePort a {@link String} containing the port to listen on
+     * @throws NumberFormatException if {@code servicePort} is not a valid port number
+     */
+    protected void setServicePort(String servicePort) throws NumberFormatException {
+        setServicePort(Integer.parseInt(servicePort));
+    }
+
+    /**
+     * @param servicePort the port to listen on ({@code 0} selects a free port)
+     * @throws NumberFormatException if {@code servicePort} is not a valid port number
+     */
+    protected void setServicePort(int servicePort) throws NumberFormatException {
+        if(servicePort < 0 || servicePort > 65535) {
+            throw new NumberFormatException("The port must be between 0 and 65535.");
+        }
+        this.servicePort = servicePort;
+    }
+
+    public int getServiceQueueCapacity() {
+        return serviceQueueCapacity;
+    }
+
+    /**
+     * @param serviceQueueCapacity a {@link String} containing the maximum number of requests waiting to be processed
+     * @throws NumberFormatException if {@code serviceQueueCapacity} is not a positive number
+     */
+    protected void setServiceQueueCapacity(String serviceQueueCapacity) throws NumberFormatException {
+        setServiceQueueCapacity(Integer.parseInt(serviceQueueCapacity));
+    }
+
+    /**
+     * @param serviceQueueCapacity the maximum number of requests waiting to be processed
+     * @throws NumberFormatException if {@code serviceQueueCapacity} is not a positive number
+     */
+    protected void setServiceQueueCapacity(int serviceQueueCapacity) throws NumberFormatException {
+        if(serviceQueueCapacity < 1) {
+            throw new NumberFormatException("The queue size must be 1 or higher.");
+        }
+        this.serviceQueueCapacity = serviceQueueCapacity;
+    }
+
+    public long getResultTtl() {
+        return resultTtl;
+    }
+
+    /**
+     * @param resultTtl a {@link String} containing the time in seconds completed results are kept
+     * @throws NumberFormatException if {@code resultTtl} is not a number or negative
+     */
+    protected void setResultTtl(String resultTtl) throws NumberFormatException {
+        setResultTtl(Long.parseLong(resultTtl));
+    }
+
+    /**
+     * @param resultTtl the time in seconds completed results are kept (see {@link PrioritizationResultCache}), 0 to
+     *                  process each request
+     * @throws NumberFormatException if {@code resultTtl} is negative
+     */
+    protected void setResultTtl(long resultTtl) throws NumberFormatException {
+        if(resultTtl < 0) {
+            throw new NumberFormatException("The result time must be 0 or higher.");
+        }
+        this.resultTtl = resultTtl;
+    }
+
+    /**
+     * @return a new {@link PrioritizationResultCache} keeping results for {@link #getResultTtl()}, or {@code null} if
+     * each request should be processed
+     */
+    public PrioritizationResultCache createResultCache() {
+        return resultTtl == 0 ? null : new PrioritizationResultCache(TimeUnit.SECONDS.toMillis(resultTtl),
+                PrioritizationResultCache.DEFAULT_MAX_SIZE);
+    }
+
+    public long getAdmissionBudget() {
+        return admissionBudget;
+    }
+
+    /**
+     * @param admissionBudget a {@link String} containing the maximum estimated number of gene-disease associations of a
+     *                        request
+     * @throws NumberFormatException if {@code admissionBudget} is not a number or negative
+     */
+    protected void setAdmissionBudget(String admissionBudget) throws NumberFormatException {
+        setAdmissionBudget(Long.parseLong(admissionBudget));
+    }
+
+    /**
+     * @param admissionBudget the maximum estimated number of gene-disease associations of a request (see
+     *                        {@link AdmissionControl}), 0 to not check requests
+     * @throws NumberFormatException if {@code admissionBudget} is negative
+     */
+    protected void setAdmissionBudget(long admissionBudget) throws NumberFormatException {
+        if(admissionBudget < 0) {
+            throw new NumberFormatException("The budget must be 0 or higher.");
+        }
+        this.admissionBudget = admissionBudget;
+    }
+
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * @param name the {@link String} describing the {@link AdmissionPolicy} to be used
+     * @throws EnumConstantNotPresentException if no {@link AdmissionPolicy} exists with the given {@code name}
+     */
+    protected void setAdmissionPolicy(String name) throws EnumConstantNotPresentException {
+        setAdmissionPolicy(AdmissionPolicy.retrieve(name));
+    }
+
+    protected void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        this.admissionPolicy = admissionPolicy;
+    }
+
+    /**
+     * @param neighbourhoodIndex the HPO ontology relations used for estimating requests, can be {@code null} if no
+     *                           ontology is loaded
+     * @return a new {@link AdmissionControl} with the {@link #getAdmissionBudget()} and {@link #getAdmissionPolicy()},
+     * or {@code null} if requests should not be checked
+     */
+    public AdmissionControl createAdmissionControl(PhenotypeNeighbourhoodIndex neighbourhoodIndex) {
+        return admissionBudget == 0 ? null : new AdmissionControl(new RequestCostEstimator(neighbourhoodIndex),
+                admissionBudget, admissionPolicy);
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @param workers a {@link String} containing the number of patients (or requests) to process concurrently
+     * @throws NumberFormatException if {@code workers} is not a positive number
+     */
+    protected void setWorkers(String workers) throws NumberFormatException {
+        setWorkers(Integer.parseInt(workers));
+    }
+
+    /**
+     * @param workers the number of patients (or requests) to process concurrently
+     * @throws NumberFormatException if {@code workers} is not a positive number
+     */
+    protected void setWorkers(int workers) throws NumberFormatException {
+        if(workers < 1) {
+            throw new NumberFormatException("The number of workers must be 1 or higher.");
+        }
+        this.workers = workers;
+    }
+
+    /**
+     * @return the number of workers for each cohort stage: phenotype expansion, DisGeNET retrieval and writing (default:
+     * {@link #getWorkers()} for each stage)
+     */
+    public int[] getStageWorkers() {
+        if(stageWorkers == null) {
+            return new int[]{workers, workers, workers};
+        }
+        return stageWorkers.clone();
+    }
+
+    /**
+     * @param stageWorkers a {@link String} containing the comma-separated number of workers for each cohort stage
+     * @throws NumberFormatException if {@code stageWorkers} does not consist of {@link #COHORT_STAGES} positive numbers
+     */
+    protected void setStageWorkers(String stageWorkers) throws NumberFormatException {
+        String[] values = stageWorkers.split(",", -1);
+        int[] numbers = new int[values.length];
+        for(int i = 0; i < values.length; i++) {
+            numbers[i] = Integer.parseInt(values[i].trim());
+        }
+        setStageWorkers(numbers);
+    }
+
+    /**
+     * @param stageWorkers the number of workers for each cohort stage
+     * @throws NumberFormatException if {@code stageWorkers} does not consist of {@link #COHORT_STAGES} positive numbers
+     */
+    protected void setStageWorkers(int... stageWorkers) throws NumberFormatException {
+        if(stageWorkers.length != COHORT_STAGES) {
+            throw new NumberFormatException("The number of workers must be given for each of the " + COHORT_STAGES +
+                    " stages (phenotype expansion, DisGeNET retrieval and writing).");
+        }
+        for(int stageWorker : stageWorkers) {
+            if(stageWorker < 1) {
+                throw new NumberFormatException("The number of workers must be 1 or higher.");
+            }
+        }
+        this.stageWorkers = stageWorkers.clone();
+    }
+
     public Path getOutputFile() {
         return outputFile;
     }
@@ -230,6 +553,22 @@ public abstract class OptionsParser {
         this.outputFile = outputFile;
     }
 
+    public OutputCompression getOutputCompression() {
+        return outputCompression;
+    }
+
+    protected void setOutputCompression(OutputCompression outputCompression) {
+        this.outputCompression = outputCompression;
+    }
+
+    /**
+     * @param name the {@link String} describing the {@link OutputCompression} to be used
+     * @throws EnumConstantNotPresentException if {@code name} is not an accepted possibility.
+     */
+    protected void setOutputCompression(String name) throws EnumConstantNotPresentException {
+        this.outputCompression = OutputCompression.retrieve(name);
+    }
+
     public FileOutputWriterFactory getFileOutputWriterFactory() {
         return fileOutputWriterFactory;
     }
@@ -267,12 +606,23 @@ public abstract class OptionsParser {
         this.ontologyMaxDistance = ontologyMaxDistance;
     }
 
+    /**
+     * @return the first selected {@link GenePrioritizerFactory}, or {@code null} if none was selected
+     */
     public GenePrioritizerFactory getGenePrioritizerFactory() {
-        return genePrioritizerFactory;
+        return genePrioritizerFactories.isEmpty() ? null : genePrioritizerFactories.get(0);
+    }
+
+    /**
+     * @return an unmodifiable {@link List} of all selected {@link GenePrioritizerFactory}{@code s} (in input order)
+     */
+    public List<GenePrioritizerFactory> getGenePrioritizerFactories() {
+        return Collections.unmodifiableList(genePrioritizerFactories);
     }
 
     protected void setGenePrioritizerFactory(GenePrioritizerFactory genePrioritizerFactory) {
-        this.genePrioritizerFactory = genePrioritizerFactory;
+        genePrioritizerFactories = new ArrayList<>();
+        genePrioritizerFactories.add(genePrioritizerFactory);
     }
 
     /**
@@ -281,7 +631,220 @@ public abstract class OptionsParser {
      * @throws EnumConstantNotPresentException if {@code name} is not an accepted possibility.
      */
     protected void setGenePrioritizerFactory(String name) throws EnumConstantNotPresentException {
-        this.genePrioritizerFactory = GenePrioritizerFactory.retrieve(name);
+        setGenePrioritizerFactory(GenePrioritizerFactory.retrieve(name));
+    }
+
+    /**
+     * @param names the {@link String}{@code s} describing the {@link org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer}{@code s}
+     *              to be used (duplicates are ignored)
+     * @throws EnumConstantNotPresentException if any of the {@code names} is not an accepted possibility.
+     */
+    protected void setGenePrioritizerFactories(String[] names) throws EnumConstantNotPresentException {
+        Set<GenePrioritizerFactory> factories = new LinkedHashSet<>();
+        for(String name : names) {
+            factories.add(GenePrioritizerFactory.retrieve(name));
+        }
+        genePrioritizerFactories = new ArrayList<>(factories);
+    }
+
+    /**
+     * If only a single {@link GenePrioritizerFactory} is selected, this is the {@link #getOutputFile()}. Otherwise the
+     * {@link GenePrioritizerFactory#getId()} is added to the file name (before the extension) so that each prioritizer
+     * writes to its own file.
+     * @param genePrioritizerFactory the {@link GenePrioritizerFactory} to retrieve the output file for
+     * @return the {@link Path} to write the output of {@code genePrioritizerFactory} to
+     */
+    public Path getOutputFile(GenePrioritizerFactory genePrioritizerFactory) {
+        if(genePrioritizerFactories.size() <= 1) {
+            return outputFile;
+        }
+        return addToFileName(outputFile, "_" + genePrioritizerFactory.getId());
+    }
+
+    /**
+     * In cohort mode, each patient writes to a file named after the patient id in the {@link #getOutputFile()} directory.
+     * The extension depends on the {@link #getFileOutputWriterFactory()} and {@link #getOutputCompression()}. As with
+     * {@link #getOutputFile(GenePrioritizerFactory)}, the {@link GenePrioritizerFactory#getId()} is added to the file
+     * name if multiple are selected.
+     * @param patientId the id of the patient
+     * @param genePrioritizerFactory the {@link GenePrioritizerFactory} to retrieve the output file for
+     * @return the {@link Path} to write the output of {@code genePrioritizerFactory} for {@code patientId} to
+     */
+    public Path getOutputFile(String patientId, GenePrioritizerFactory genePrioritizerFactory) {
+        Path file = outputFile.resolve(patientId + fileOutputWriterFactory.getFileExtension() +
+                outputCompression.getFileExtension());
+        if(genePrioritizerFactories.size() <= 1) {
+            return file;
+        }
+        return addToFileName(file, "_" + genePrioritizerFactory.getId());
+    }
+
+    /**
+     * @param path the {@link Path} to adjust
+     * @param addition the text to add to the file name (before the extension if present, a compression extension such as
+     *                 {@code .gz} is skipped)
+     * @return a {@link Path} in the same directory with the adjusted file name
+     */
+    static Path addToFileName(Path path, String addition) {
+        String fileName = path.getFileName().toString();
+        String compressionExtension = OutputCompression.retrieveByFileName(fileName).getFileExtension();
+        if(!compressionExtension.isEmpty() && fileName.length() > compressionExtension.length()) {
+            String uncompressedFileName = fileName.substring(0, fileName.length() - compressionExtension.length());
+            return path.resolveSibling(addToFileName(Paths.get(uncompressedFileName), addition).getFileName() +
+                    fileName.substring(uncompressedFileName.length()));
+        }
+        int extensionStart = fileName.lastIndexOf('.');
+        if(extensionStart <= 0) {
+            return path.resolveSibling(fileName + addition);
+        }
+        return path.resolveSibling(fileName.substring(0, extensionStart) + addition + fileName.substring(extensionStart));
+    }
+
+    /**
+     * @throws FileAlreadyExistsException if any of the output files (see {@link #getOutputFile(GenePrioritizerFactory)})
+     * already exists
+     */
+    protected void checkOutputFiles() throws FileAlreadyExistsException {
+        for(GenePrioritizerFactory factory : genePrioritizerFactories) {
+            Path file = getOutputFile(factory);
+            if(checkIfPathIsReadableFile(file)) {
+                throw new FileAlreadyExistsException(file.getFileName() + " already exists.");
+            }
+        }
+    }
+
+    /**
+     * @throws FileAlreadyExistsException if any of the cohort output files (see
+     * {@link #getOutputFile(String, GenePrioritizerFactory)}) already exists
+     */
+    protected void checkCohortOutputFiles() throws FileAlreadyExistsException {
+        for(String patientId : cohort.keySet()) {
+            for(GenePrioritizerFactory factory : genePrioritizerFactories) {
+                Path file = getOutputFile(patientId, factory);
+                if(checkIfPathIsReadableFile(file)) {
+                    throw new FileAlreadyExistsException(file.getFileName() + " already exists.");
+                }
+            }
+        }
+    }
+
+    public Integer getTopGenes() {
+        return topGenes;
+    }
+
+    /**
+     * @param topGenes a {@link String} containing the number of genes to be written to the output
+     * @throws NumberFormatException if {@code topGenes} is not a positive number
+     */
+    protected void setTopGenes(String topGenes) throws NumberFormatException {
+        setTopGenes(Integer.parseInt(topGenes));
+    }
+
+    /**
+     * @param topGenes the number of genes to be written to the output
+     * @throws NumberFormatException if {@code topGenes} is not a positive number
+     */
+    protected void setTopGenes(int topGenes) throws NumberFormatException {
+        if(topGenes < 1) {
+            throw new NumberFormatException("The number of top genes must be 1 or higher.");
+        }
+        this.topGenes = topGenes;
+    }
+
+    public boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    protected void setOffHeapStorage(boolean offHeapStorage) {
+        this.offHeapStorage = offHeapStorage;
+    }
+
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    protected void setInteractive(boolean interactive) {
+        this.interactive = interactive;
+    }
+
+    public long getLookupCacheSize() {
+        return lookupCacheSize;
+    }
+
+    /**
+     * @param lookupCacheSize a {@link String} containing the maximum weight of the cached DisGeNET lookups
+     * @throws NumberFormatException if {@code lookupCacheSize} is not a number or negative
+     */
+    protected void setLookupCacheSize(String lookupCacheSize) throws NumberFormatException {
+        setLookupCacheSize(Long.parseLong(lookupCacheSize));
+    }
+
+    /**
+     * @param lookupCacheSize the maximum weight of the cached DisGeNET lookups (see {@link DisgenetLookupCache}), 0 to
+     *                        disable caching
+     * @throws NumberFormatException if {@code lookupCacheSize} is negative
+     */
+    protected void setLookupCacheSize(long lookupCacheSize) throws NumberFormatException {
+        if(lookupCacheSize < 0) {
+            throw new NumberFormatException("The cache size must be 0 or higher.");
+        }
+        this.lookupCacheSize = lookupCacheSize;
+    }
+
+    /**
+     * @return a new {@link DisgenetLookupCache} of {@link #getLookupCacheSize()}, or {@code null} if caching is disabled
+     */
+    public DisgenetLookupCache createLookupCache() {
+        return lookupCacheSize == 0 ? null : new DisgenetLookupCache(lookupCacheSize);
+    }
+
+    public long getWarmUpBudget() {
+        return warmUpBudget;
+    }
+
+    /**
+     * @param warmUpBudget a {@link String} containing the warm-up time in milliseconds
+     * @throws NumberFormatException if {@code warmUpBudget} is not a number or negative
+     */
+    protected void setWarmUpBudget(String warmUpBudget) throws NumberFormatException {
+        setWarmUpBudget(Long.parseLong(warmUpBudget));
+    }
+
+    /**
+     * @param warmUpBudget the warm-up time in milliseconds (see {@link org.molgenis.vibe.rdf_processing.QueryEngineWarmUp}),
+     *                     0 to disable the warm-up
+     * @throws NumberFormatException if {@code warmUpBudget} is negative
+     */
+    protected void setWarmUpBudget(long warmUpBudget) throws NumberFormatException {
+        if(warmUpBudget < 0) {
+            throw new NumberFormatException("The warm-up time must be 0 or higher.");
+        }
+        this.warmUpBudget = warmUpBudget;
+    }
+
+    public ExecutorFactory getExecutorFactory() {
+        return executorFactory;
+    }
+
+    /**
+     * @param name the {@link String} describing the {@link ExecutorFactory} to be used
+     * @throws EnumConstantNotPresentException if no {@link ExecutorFactory} exists with the given {@code name}
+     * @throws UnsupportedOperationException if the {@link ExecutorFactory} is not available on the running JVM
+     */
+    protected void setExecutorFactory(String name) throws EnumConstantNotPresentException, UnsupportedOperationException {
+        setExecutorFactory(ExecutorFactory.retrieve(name));
+    }
+
+    /**
+     * @param executorFactory the {@link ExecutorFactory} to be used
+     * @throws UnsupportedOperationException if the {@code executorFactory} is not available on the running JVM
+     */
+    protected void setExecutorFactory(ExecutorFactory executorFactory) throws UnsupportedOperationException {
+        if(!executorFactory.isAvailable()) {
+            throw new UnsupportedOperationException("The " + executorFactory.getId() + " threads are not available " +
+                    "on this Java version (" + System.getProperty("java.version") + ").");
+        }
+        this.executorFactory = executorFactory;
     }
 
     /**
@@ -296,6 +859,10 @@ public abstract class OptionsParser {
             if (disgenetDataDir == null || disgenetRdfVersion == null) {
                 return false;
             }
+            // The service receives all other settings per request.
+            if(runMode.equals(RunMode.SERVICE)) {
+                return servicePort != null;
+            }
             // Check if an output file was given.
             if (outputFile == null) {
                 return false;
@@ -305,23 +872,14 @@ public abstract class OptionsParser {
                 return false;
             }
             // Checks whether a gene prioritizer was selected.
-            if(genePrioritizerFactory == null) {
+            if(genePrioritizerFactories.isEmpty()) {
                 return false;
             }
             // Check config specific settings are set.
             switch (runMode) {
                 // Additional checks if related HPOs need to be retrieved.
                 case GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES:
-                    // Check if a factory for related HPO retrieval was set.
-                    if(phenotypesRetrieverFactory == null) {
-                        return false;
-                    }
-                    // Check if HPO ontology data is set.
-                    if (hpoOntology == null) {
-                        return false;
-                    }
-                    // Check if a max distance for related HPO retrieval was set.
-                    if(ontologyMaxDistance == null) {
+                    if(!checkAssociatedPhenotypesConfig()) {
                         return false;
                     }
                     // NO BREAK: continues!!!
@@ -332,12 +890,43 @@ public abstract class OptionsParser {
                     if (phenotypes.size() == 0) {
                         return false;
                     }
+                    break;
+
+                // Additional checks if related HPOs need to be retrieved for each patient.
+                case COHORT_GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES:
+                    if(!checkAssociatedPhenotypesConfig()) {
+                        return false;
+                    }
+                    // NO BREAK: continues!!!
+
+                // Checks for cohort mode.
+                case COHORT_GENES_FOR_PHENOTYPES:
+                    // Check if there are any patients.
+                    if(cohort == null || cohort.isEmpty()) {
+                        return false;
+                    }
             }
         }
 
         return true;
     }
 
+    /**
+     * @return {@code true} if the variables required for retrieving related HPOs are set, {@code false} if not
+     */
+    private boolean checkAssociatedPhenotypesConfig() {
+        // Check if a factory for related HPO retrieval was set.
+        if(phenotypesRetrieverFactory == null) {
+            return false;
+        }
+        // Check if HPO ontology data is set.
+        if (hpoOntology == null) {
+            return false;
+        }
+        // Check if a max distance for related HPO retrieval was set.
+        return ontologyMaxDistance != null;
+    }
+
     /**
      * Checks if a given {@link Path} is an existing readable file.
      * @param path {@link Path}
@@ -1,19 +1,50 @@
 package org.molgenis.vibe.options_digestion;
 
 import org.apache.jena.ext.com.google.common.base.Stopwatch;
-import org.molgenis.vibe.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.formats.BiologicalEntityDelta;
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.GeneDiseaseCollectionView;
 import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
 import org.molgenis.vibe.io.OntologyModelFilesReader;
 import org.molgenis.vibe.io.output.FileOutputWriter;
 import org.molgenis.vibe.io.ModelReader;
 import org.molgenis.vibe.io.TripleStoreDbReader;
-import org.molgenis.vibe.ontology_processing.PhenotypesRetriever;
+import org.molgenis.vibe.ontology_processing.PhenotypeGraph;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
+import org.molgenis.vibe.ontology_processing.PhenotypeNeighbourhoodIndex;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.pipeline.StagedPipeline;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerContext;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
 import org.molgenis.vibe.query_output_digestion.prioritization.Prioritizer;
+import org.molgenis.vibe.rdf_processing.DisgenetLookupCache;
 import org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.GenesRetriever;
+import org.molgenis.vibe.rdf_processing.IncrementalGenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.OffHeapGenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.QueryEngineWarmUp;
+import org.molgenis.vibe.service.PrioritizationHttpServer;
+import org.molgenis.vibe.service.PrioritizationService;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.*;
 
 /**
  * Describes what the application should do.
@@ -28,22 +59,104 @@ public enum RunMode {
         @Override
         protected void runMode() throws IOException {
             OntologyModelFilesReader ontologyReader = loadPhenotypeOntology();
-            PhenotypesRetriever hpoRetriever = retrieveAssociatedPhenotypes(ontologyReader);
+            PhenotypeInformationContentIndex informationContentIndex = null;
+            if(requiresInformationContentIndex()) {
+                informationContentIndex = indexPhenotypeOntology(loadPhenotypeGraph(ontologyReader));
+            }
+            PhenotypeNetworkCollection phenotypeNetworkCollection = retrieveAssociatedPhenotypes(ontologyReader);
             ModelReader disgenetReader = loadDisgenetDatabase();
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDisgenetData(disgenetReader, hpoRetriever.getPhenotypeNetworkCollection().getPhenotypes());
-            Prioritizer prioritizer = orderGenes(geneDiseaseCollection);
-            writeToFile(geneDiseaseCollection, prioritizer);
+            GenesRetriever genesForPhenotypeRetriever = retrieveDisgenetData(disgenetReader, phenotypeNetworkCollection.getPhenotypes());
+            GeneAggregates geneAggregates = aggregateGeneData(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+            orderGenesAndWriteToFiles(geneAggregates, genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(),
+                    phenotypeNetworkCollection, informationContentIndex);
+            if(getAppOptions().isInteractive()) {
+                updateInteractively((IncrementalGenesForPhenotypeRetriever) genesForPhenotypeRetriever,
+                        phenotypeNetworkCollection, ontologyReader, informationContentIndex);
+            }
         }
     }, GENES_FOR_PHENOTYPES("Retrieves genes for input phenotypes.") {
         @Override
         protected void runMode() throws Exception {
             ModelReader disgenetReader = loadDisgenetDatabase();
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDisgenetData(disgenetReader, getAppOptions().getPhenotypes());
-            Prioritizer prioritizer = orderGenes(geneDiseaseCollection);
-            writeToFile(geneDiseaseCollection, prioritizer);
+            GenesRetriever genesForPhenotypeRetriever = retrieveDisgenetData(disgenetReader, getAppOptions().getPhenotypes());
+            GeneAggregates geneAggregates = aggregateGeneData(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+            PhenotypeNetworkCollection phenotypeNetworkCollection = createPhenotypeNetworkCollection(null, getAppOptions().getPhenotypes());
+            orderGenesAndWriteToFiles(geneAggregates, genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(),
+                    phenotypeNetworkCollection, null);
+            if(getAppOptions().isInteractive()) {
+                updateInteractively((IncrementalGenesForPhenotypeRetriever) genesForPhenotypeRetriever,
+                        phenotypeNetworkCollection, null, null);
+            }
+        }
+    }, COHORT_GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES("Retrieves genes for the input phenotypes and phenotypes associated to input phenotypes of each patient in a cohort.") {
+        @Override
+        protected void runMode() throws IOException {
+            OntologyModelFilesReader ontologyReader = loadPhenotypeOntology();
+            PhenotypeInformationContentIndex informationContentIndex = null;
+            if(requiresInformationContentIndex()) {
+                informationContentIndex = indexPhenotypeOntology(loadPhenotypeGraph(ontologyReader));
+            }
+            ModelReader disgenetReader = loadDisgenetDatabase();
+            processCohort(ontologyReader, disgenetReader, informationContentIndex);
+        }
+    }, COHORT_GENES_FOR_PHENOTYPES("Retrieves genes for the input phenotypes of each patient in a cohort.") {
+        @Override
+        protected void runMode() throws IOException {
+            ModelReader disgenetReader = loadDisgenetDatabase();
+            processCohort(null, disgenetReader, null);
+        }
+    }, SERVICE("Runs an HTTP service that retrieves and prioritizes genes for the input phenotypes of each request.") {
+        @Override
+        protected void runMode() throws Exception {
+            OntologyModelFilesReader ontologyReader = null;
+            PhenotypeGraph phenotypeGraph = null;
+            PhenotypeInformationContentIndex informationContentIndex = null;
+            if(getAppOptions().getHpoOntology() != null) {
+                ontologyReader = loadPhenotypeOntology();
+                // Shared by the information content index and the admission control.
+                phenotypeGraph = loadPhenotypeGraph(ontologyReader);
+                informationContentIndex = indexPhenotypeOntology(phenotypeGraph);
+            }
+            ModelReader disgenetReader = loadDisgenetDatabase();
+
+            PrioritizationService service = new PrioritizationService(disgenetReader, ontologyReader,
+                    informationContentIndex, getAppOptions().isOffHeapStorage());
+            service.setLookupCache(getAppOptions().createLookupCache());
+            service.setResultCache(getAppOptions().createResultCache());
+            if(getAppOptions().getAdmissionBudget() > 0) {
+                service.setAdmissionControl(getAppOptions().createAdmissionControl(
+                        phenotypeGraph == null ? null : new PhenotypeNeighbourhoodIndex(phenotypeGraph)));
+            }
+            PrioritizationHttpServer server = new PrioritizationHttpServer(service,
+                    new InetSocketAddress(getAppOptions().getServicePort()), getAppOptions().getWorkers(),
+                    getAppOptions().getServiceQueueCapacity(), getAppOptions().getExecutorFactory());
+            server.setVerbose(getAppOptions().isVerbose());
+            // Requests that are being processed are finished before the application exits.
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(SERVICE_SHUTDOWN_TIMEOUT_SECONDS)));
+            server.start();
+            System.out.println("Listening on port " + server.getAddress().getPort() + " (" + getAppOptions().getWorkers() +
+                    " workers, " + getAppOptions().getExecutorFactory().getId() + " threads). Example: http://localhost:" + server.getAddress().getPort() +
+                    PrioritizationHttpServer.PRIORITIZE_PATH + "?phenotype=hp:0000001");
+            if(getAppOptions().getWarmUpBudget() > 0) {
+                // Requests are rejected till the warm-up is finished.
+                getAppOptions().printVerbose("# Warming up the query engine.");
+                printWarmUp(server.warmUp(getAppOptions().getWarmUpBudget()));
+                System.out.println("Ready.");
+            }
+            printElapsedTime();
         }
     };
 
+    /**
+     * The maximum time to wait for running requests when the {@link #SERVICE} is stopped.
+     */
+    private static final int SERVICE_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The maximum number of patients waiting in front of each cohort stage (limits the intermediate results in memory).
+     */
+    private static final int COHORT_STAGE_QUEUE_CAPACITY = 16;
+
     protected OntologyModelFilesReader loadPhenotypeOntology() {
         getAppOptions().printVerbose("# Preparing HPO dataset.");
         OntologyModelFilesReader ontologyReader = new OntologyModelFilesReader(getAppOptions().getHpoOntology().toString());
@@ -52,16 +165,31 @@ public enum RunMode {
         return ontologyReader;
     }
 
-    protected PhenotypesRetriever retrieveAssociatedPhenotypes(OntologyModelFilesReader ontologyReader) {
+    protected PhenotypeGraph loadPhenotypeGraph(OntologyModelFilesReader ontologyReader) {
+        getAppOptions().printVerbose("# Indexing HPO relations.");
+        PhenotypeGraph phenotypeGraph = new PhenotypeGraph(ontologyReader.getModel());
+        getAppOptions().printVerbose("Indexed number of phenotypes: " + phenotypeGraph.size());
+        printElapsedTime();
+
+        return phenotypeGraph;
+    }
+
+    protected PhenotypeInformationContentIndex indexPhenotypeOntology(PhenotypeGraph phenotypeGraph) {
+        getAppOptions().printVerbose("# Calculating HPO information content.");
+        PhenotypeInformationContentIndex informationContentIndex = new PhenotypeInformationContentIndex(phenotypeGraph);
+        printElapsedTime();
+
+        return informationContentIndex;
+    }
+
+    protected PhenotypeNetworkCollection retrieveAssociatedPhenotypes(OntologyModelFilesReader ontologyReader) {
         getAppOptions().printVerbose("# " + getAppOptions().getPhenotypesRetrieverFactory().getDescription());
-        PhenotypesRetriever hpoRetriever = getAppOptions().getPhenotypesRetrieverFactory().create(
-                ontologyReader.getModel(), getAppOptions().getPhenotypes(), getAppOptions().getOntologyMaxDistance()
-        );
-        hpoRetriever.run();
-        getAppOptions().printVerbose("Retrieved number of phenotypes: " + hpoRetriever.getPhenotypeNetworkCollection().getPhenotypes().size());
+        PhenotypeNetworkCollection phenotypeNetworkCollection = createPhenotypeNetworkCollection(ontologyReader,
+                getAppOptions().getPhenotypes());
+        getAppOptions().printVerbose("Retrieved number of phenotypes: " + phenotypeNetworkCollection.getPhenotypes().size());
         printElapsedTime();
 
-        return hpoRetriever;
+        return phenotypeNetworkCollection;
     }
 
     protected ModelReader loadDisgenetDatabase() throws IOException {
@@ -72,31 +200,427 @@ public enum RunMode {
         return disgenetReader;
     }
 
-    protected GeneDiseaseCollection retrieveDisgenetData(ModelReader disgenetReader, Set<Phenotype> phenotypes) {
+    /**
+     * Runs a {@link QueryEngineWarmUp} for {@link OptionsParser#getWarmUpBudget()} on the current thread (which needs
+     * reading access to the {@code disgenetReader}) and prints its results.
+     * @param ontologyReader can be {@code null} if no associated phenotypes need to be retrieved
+     */
+    protected void warmUpQueryEngine(ModelReader disgenetReader, OntologyModelFilesReader ontologyReader) {
+        getAppOptions().printVerbose("# Warming up the query engine.");
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(disgenetReader, getAppOptions().getWarmUpBudget());
+        if(ontologyReader != null) {
+            warmUp.setPhenotypesRetrieval(ontologyReader, getAppOptions().getOntologyMaxDistance(),
+                    getAppOptions().getPhenotypesRetrieverFactory());
+        }
+        warmUp.setOffHeapStorage(getAppOptions().isOffHeapStorage());
+        warmUp.run();
+        printWarmUp(warmUp);
+        printElapsedTime();
+    }
+
+    protected void printWarmUp(QueryEngineWarmUp warmUp) {
+        if(warmUp.getSampleSize() == 0) {
+            System.out.println("Warm-up skipped: no phenotypes found in the DisGeNET dataset.");
+            return;
+        }
+        System.out.println(String.format("Warm-up: %d iterations (%d phenotypes) in %d ms, first iteration %.1f ms " +
+                        "cold and %.1f ms warm (%.0f%% faster).", warmUp.getIterations(), warmUp.getSampleSize(),
+                TimeUnit.NANOSECONDS.toMillis(warmUp.getDurationNanos()), warmUp.getColdNanos() / 1e6,
+                warmUp.getWarmNanos() / 1e6, 100 * warmUp.getLatencyReduction()));
+    }
+
+    protected GenesRetriever retrieveDisgenetData(ModelReader disgenetReader, Set<Phenotype> phenotypes) {
         getAppOptions().printVerbose("# Retrieving data from DisGeNET dataset.");
-        GenesForPhenotypeRetriever genesForPhenotypeRetriever = new GenesForPhenotypeRetriever(
-                disgenetReader, phenotypes
-        );
+        GenesRetriever genesForPhenotypeRetriever = createGenesForPhenotypeRetriever(disgenetReader, phenotypes);
         genesForPhenotypeRetriever.run();
         printElapsedTime();
 
-        return genesForPhenotypeRetriever.getGeneDiseaseCollection();
+        return genesForPhenotypeRetriever;
     }
 
-    protected Prioritizer orderGenes(GeneDiseaseCollection geneDiseaseCollection) {
-        getAppOptions().printVerbose("# Ordering genes based on priority.");
-        GenePrioritizer prioritizer = getAppOptions().getGenePrioritizerFactory().create(geneDiseaseCollection);
-        prioritizer.run();
+    private GenesRetriever createGenesForPhenotypeRetriever(ModelReader disgenetReader, Set<Phenotype> phenotypes) {
+        if(getAppOptions().isInteractive()) {
+            return new IncrementalGenesForPhenotypeRetriever(disgenetReader, phenotypes);
+        }
+        GenesRetriever genesForPhenotypeRetriever = getAppOptions().isOffHeapStorage() ?
+                new OffHeapGenesForPhenotypeRetriever(disgenetReader, phenotypes) :
+                new GenesForPhenotypeRetriever(disgenetReader, phenotypes);
+        genesForPhenotypeRetriever.setPhenotypeDiseaseProvenance(requiresPhenotypeDiseaseCollection());
+        return genesForPhenotypeRetriever;
+    }
+
+    /**
+     * Reads changes to the input phenotypes from stdin (see {@link OptionsParser#isInteractive()}) and rewrites the
+     * output after each line, till an empty line is read. Only the phenotypes that were added to the
+     * {@code phenotypeNetworkCollection} are queried, the genes that can no longer be reached are removed without
+     * querying (see {@link IncrementalGenesForPhenotypeRetriever}).
+     * @param genesForPhenotypeRetriever the retriever that was used for the initial output
+     * @param phenotypeNetworkCollection the networks of the current input phenotypes (updated in place)
+     * @param ontologyReader can be {@code null} if no associated phenotypes need to be retrieved
+     * @param informationContentIndex can be {@code null} if none of the selected prioritizers require it
+     * @throws IOException if stdin could not be read or writing any of the files failed
+     */
+    protected void updateInteractively(IncrementalGenesForPhenotypeRetriever genesForPhenotypeRetriever,
+                                       PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                       OntologyModelFilesReader ontologyReader,
+                                       PhenotypeInformationContentIndex informationContentIndex) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        System.out.println("Enter phenotypes to add (+hp:0000001) or remove (-hp:0000001), or an empty line to stop.");
+        String line;
+        while((line = reader.readLine()) != null && !line.trim().isEmpty()) {
+            BiologicalEntityDelta<Phenotype> phenotypeDelta;
+            try {
+                phenotypeDelta = updatePhenotypeNetworks(line, phenotypeNetworkCollection, ontologyReader);
+            } catch(IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                continue;
+            }
+
+            getAppOptions().printVerbose("# Updating data from DisGeNET dataset.");
+            BiologicalEntityDelta<Gene> geneDelta = genesForPhenotypeRetriever.update(phenotypeDelta);
+            printElapsedTime();
+            GeneAggregates geneAggregates = aggregateGeneData(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+            orderGenesAndWriteToFiles(geneAggregates, genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(),
+                    phenotypeNetworkCollection, informationContentIndex);
+            System.out.println(String.format("%d phenotypes (%d added, %d removed), %d genes (%d added, %d removed).",
+                    phenotypeNetworkCollection.getPhenotypes().size(), phenotypeDelta.getAdded().size(),
+                    phenotypeDelta.getRemoved().size(), geneAggregates.getGenes().size(), geneDelta.getAdded().size(),
+                    geneDelta.getRemoved().size()));
+        }
+    }
+
+    /**
+     * Applies a line such as {@code +hp:0000001 -hp:0000002} to the input phenotypes. Nothing is changed if the line is
+     * invalid.
+     * @return the {@link Phenotype}{@code s} that were added to/removed from the {@code phenotypeNetworkCollection}
+     * @throws IllegalArgumentException if the line contains an invalid phenotype or would remove all input phenotypes
+     */
+    private BiologicalEntityDelta<Phenotype> updatePhenotypeNetworks(String line,
+                                                                     PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                                                     OntologyModelFilesReader ontologyReader) {
+        Set<Phenotype> inputPhenotypes = new HashSet<>();
+        for(PhenotypeNetwork network : phenotypeNetworkCollection.getPhenotypeNetworks()) {
+            inputPhenotypes.add(network.getSource());
+        }
+        Set<Phenotype> added = new HashSet<>();
+        Set<Phenotype> removed = new HashSet<>();
+        for(String change : line.trim().split("[\\s,]+")) {
+            if(change.length() < 2 || (change.charAt(0) != '+' && change.charAt(0) != '-')) {
+                throw new IllegalArgumentException("Invalid change (should start with + or -): " + change);
+            }
+            Phenotype phenotype = new Phenotype(change.substring(1)); // throws InvalidStringFormatException (IllegalArgumentException)
+            if(change.charAt(0) == '+' && !inputPhenotypes.contains(phenotype)) {
+                added.add(phenotype);
+            } else if(change.charAt(0) == '-' && inputPhenotypes.contains(phenotype)) {
+                removed.add(phenotype);
+            }
+        }
+        if(removed.size() == inputPhenotypes.size() && added.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 phenotype is required.");
+        }
+
+        BiologicalEntityDelta<Phenotype> phenotypeDelta = new BiologicalEntityDelta<>();
+        for(Phenotype phenotype : removed) {
+            phenotypeDelta = phenotypeDelta.merge(phenotypeNetworkCollection.removeBySource(phenotype));
+        }
+        for(Phenotype phenotype : added) {
+            PhenotypeNetwork network = createPhenotypeNetworkCollection(ontologyReader, Collections.singleton(phenotype))
+                    .getPhenotypeNetworkBySource(phenotype);
+            phenotypeDelta = phenotypeDelta.merge(phenotypeNetworkCollection.add(
+                    network == null ? new PhenotypeNetwork(phenotype) : network));
+        }
+        return phenotypeDelta;
+    }
+
+    protected GeneAggregates aggregateGeneData(GeneDiseaseCollectionView geneDiseaseCollection) {
+        getAppOptions().printVerbose("# Aggregating data per gene.");
+        GeneAggregates geneAggregates = new GeneAggregates(geneDiseaseCollection);
+        printElapsedTime();
+
+        return geneAggregates;
+    }
+
+    /**
+     * Creates the {@link PhenotypeNetworkCollection} for the given input phenotypes (see
+     * {@link PhenotypesRetrieverFactory#createPhenotypeNetworkCollection(PhenotypesRetrieverFactory, org.apache.jena.ontology.OntModel, java.util.Collection, int)}).
+     * @param ontologyReader can be {@code null} if no associated phenotypes need to be retrieved (each input
+     *                       {@link Phenotype} is its own network)
+     * @param phenotypes the input {@link Phenotype}{@code s}
+     * @return a {@link PhenotypeNetworkCollection}
+     */
+    protected PhenotypeNetworkCollection createPhenotypeNetworkCollection(OntologyModelFilesReader ontologyReader,
+                                                                          Set<Phenotype> phenotypes) {
+        if(ontologyReader == null) {
+            return PhenotypesRetrieverFactory.createPhenotypeNetworkCollection(null, null, phenotypes, 0);
+        }
+        return PhenotypesRetrieverFactory.createPhenotypeNetworkCollection(getAppOptions().getPhenotypesRetrieverFactory(),
+                ontologyReader.getModel(), phenotypes, getAppOptions().getOntologyMaxDistance());
+    }
+
+    /**
+     * @return {@code true} if any of the selected {@link GenePrioritizerFactory}{@code s} requires a
+     * {@link PhenotypeInformationContentIndex}
+     */
+    protected boolean requiresInformationContentIndex() {
+        for(GenePrioritizerFactory factory : getAppOptions().getGenePrioritizerFactories()) {
+            if(factory.requiresInformationContentIndex()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} if any of the selected {@link GenePrioritizerFactory}{@code s} uses the
+     * {@link org.molgenis.vibe.formats.PhenotypeDiseaseCollection}
+     */
+    protected boolean requiresPhenotypeDiseaseCollection() {
+        for(GenePrioritizerFactory factory : getAppOptions().getGenePrioritizerFactories()) {
+            if(factory.requiresPhenotypeDiseaseCollection()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders the genes and writes them to a file for each selected {@link GenePrioritizerFactory}. If multiple are
+     * selected, these are run in parallel (the input data is only read, so it can be shared between threads).
+     * @param informationContentIndex can be {@code null} if none of the selected prioritizers require it
+     * @throws IOException if writing any of the files failed
+     */
+    protected void orderGenesAndWriteToFiles(GeneAggregates geneAggregates, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                             PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                             PhenotypeInformationContentIndex informationContentIndex) throws IOException {
+        List<GenePrioritizerFactory> factories = getAppOptions().getGenePrioritizerFactories();
+        if(factories.size() == 1) {
+            Prioritizer<Gene> prioritizer = orderGenes(factories.get(0), geneAggregates, phenotypeDiseaseCollection,
+                    phenotypeNetworkCollection, informationContentIndex);
+            writeToFile(geneAggregates, prioritizer, getAppOptions().getOutputFile(factories.get(0)));
+            return;
+        }
+
+        getAppOptions().printVerbose("# Ordering genes and writing them to file for " + factories.size() + " prioritizers in parallel.");
+        ExecutorService executor = getAppOptions().getExecutorFactory().create("prioritizer",
+                Math.min(factories.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for(GenePrioritizerFactory factory : factories) {
+                futures.add(executor.submit(() -> {
+                    Prioritizer<Gene> prioritizer = orderGenes(factory, geneAggregates, phenotypeDiseaseCollection,
+                            phenotypeNetworkCollection, informationContentIndex);
+                    writeToFile(geneAggregates, prioritizer, getAppOptions().getOutputFile(factory));
+                    return null;
+                }));
+            }
+            for(Future<Void> future : futures) {
+                future.get();
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while ordering genes.", e);
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
         printElapsedTime();
+    }
+
+    /**
+     * @param informationContentIndex can be {@code null} if the prioritizer does not require it
+     */
+    protected Prioritizer<Gene> orderGenes(GenePrioritizerFactory genePrioritizerFactory, GeneAggregates geneAggregates,
+                                           PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                           PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                           PhenotypeInformationContentIndex informationContentIndex) {
+        getAppOptions().printVerbose("# Ordering genes based on priority (" + genePrioritizerFactory.getId() + ").");
+        Prioritizer<Gene> prioritizer = runPrioritizer(genePrioritizerFactory, geneAggregates, phenotypeDiseaseCollection,
+                phenotypeNetworkCollection, informationContentIndex);
+        printElapsedTime();
+
+        return prioritizer;
+    }
 
+    private Prioritizer<Gene> runPrioritizer(GenePrioritizerFactory genePrioritizerFactory, GeneAggregates geneAggregates,
+                                             PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                             PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                             PhenotypeInformationContentIndex informationContentIndex) {
+        GenePrioritizer prioritizer = genePrioritizerFactory.create(new GenePrioritizerContext(geneAggregates,
+                phenotypeDiseaseCollection, phenotypeNetworkCollection, informationContentIndex));
+        if(getAppOptions().getTopGenes() != null) {
+            prioritizer.setLimit(getAppOptions().getTopGenes());
+        }
+        // Genes are selected in order while writing them to file.
+        prioritizer.setStreaming(true);
+        prioritizer.run();
         return prioritizer;
     }
 
-    protected void writeToFile(GeneDiseaseCollection geneDiseaseCollection, Prioritizer prioritizer) throws IOException {
-        getAppOptions().printVerbose("# Writing genes to file.");
-        FileOutputWriter outputWriter = getAppOptions().getFileOutputWriterFactory().create(getAppOptions().getOutputFile(), geneDiseaseCollection, prioritizer);
+    protected void writeToFile(GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer, Path outputFile) throws IOException {
+        getAppOptions().printVerbose("# Writing genes to file: " + outputFile);
+        runOutputWriter(geneAggregates, prioritizer, outputFile);
+        printElapsedTime();
+    }
+
+    private void runOutputWriter(GeneAggregates geneAggregates, Prioritizer<Gene> prioritizer, Path outputFile) throws IOException {
+        FileOutputWriter outputWriter = getAppOptions().getFileOutputWriterFactory().create(outputFile, geneAggregates, prioritizer);
+        outputWriter.setCompression(getAppOptions().getOutputCompression());
         outputWriter.run();
+    }
+
+    /**
+     * Processes all patients from {@link OptionsParser#getCohort()} as a pipeline of stages (phenotype expansion,
+     * DisGeNET retrieval and writing) with {@link OptionsParser#getStageWorkers()} threads per stage (created by the
+     * {@link OptionsParser#getExecutorFactory()}), so that the expansion of one patient can overlap with the retrieval of
+     * another and the writing of a third. The resources are loaded once and shared by all patients (they are only read).
+     * A patient that fails does not stop the other patients from being processed. If a {@link OptionsParser#getWarmUpBudget()} is given, the query engine is warmed up first
+     * (see {@link #warmUpQueryEngine(ModelReader, OntologyModelFilesReader)}). Afterwards, a summary with the throughput
+     * and the utilization per stage is printed.
+     * @param ontologyReader can be {@code null} if no associated phenotypes need to be retrieved
+     * @param informationContentIndex can be {@code null} if none of the selected prioritizers require it
+     * @throws IOException if the output directory could not be created or any of the patients failed
+     */
+    protected void processCohort(OntologyModelFilesReader ontologyReader, ModelReader disgenetReader,
+                                 PhenotypeInformationContentIndex informationContentIndex) throws IOException {
+        Map<String, Set<Phenotype>> cohort = getAppOptions().getCohort();
+        int[] stageWorkers = getAppOptions().getStageWorkers();
+        // Shared by all patients, so each distinct phenotype/gene is only queried once.
+        DisgenetLookupCache lookupCache = getAppOptions().createLookupCache();
+        StagedPipeline<CohortPatient> pipeline = new StagedPipeline<CohortPatient>(COHORT_STAGE_QUEUE_CAPACITY)
+                .setExecutorFactory(getAppOptions().getExecutorFactory())
+                .addStage("expansion", Math.min(stageWorkers[0], cohort.size()),
+                        patient -> expandPatientPhenotypes(patient, ontologyReader))
+                .addStage("retrieval", Math.min(stageWorkers[1], cohort.size()),
+                        patient -> retrievePatientDisgenetData(patient, disgenetReader, lookupCache))
+                .addStage("writing", Math.min(stageWorkers[2], cohort.size()),
+                        patient -> writePatientFiles(patient, informationContentIndex));
+        getAppOptions().printVerbose("# Processing " + cohort.size() + " patients using " + stageWorkers[0] + "/" +
+                stageWorkers[1] + "/" + stageWorkers[2] + " workers (expansion/retrieval/writing) on " +
+                getAppOptions().getExecutorFactory().getId() + " threads.");
+        Files.createDirectories(getAppOptions().getOutputFile());
+        if(getAppOptions().getWarmUpBudget() > 0) {
+            warmUpQueryEngine(disgenetReader, ontologyReader);
+        }
+
+        List<CohortPatient> patients = new ArrayList<>();
+        for(Map.Entry<String, Set<Phenotype>> patient : cohort.entrySet()) {
+            patients.add(new CohortPatient(patient.getKey(), patient.getValue()));
+        }
+
+        Stopwatch cohortStopwatch = Stopwatch.createStarted();
+        List<String> failures = new ArrayList<>();
+        try {
+            pipeline.run(patients, new StagedPipeline.Listener<CohortPatient>() {
+                private int processed = 0;
+
+                @Override
+                public void completed(CohortPatient patient) {
+                    processed++;
+                    getAppOptions().printVerbose("Processed patient " + patient.id + " (" + processed + "/" + cohort.size() + ").");
+                }
+
+                @Override
+                public void failed(CohortPatient patient, String stageName, Throwable cause) {
+                    processed++;
+                    failures.add(patient.id);
+                    System.err.println("Failed to process patient " + patient.id + " (" + stageName + "): " + cause);
+                }
+            });
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing the cohort.", e);
+        }
+
+        long elapsedNanos = cohortStopwatch.stop().elapsed(TimeUnit.NANOSECONDS);
+        System.out.println(String.format("Processed %d patients (%d failed) in %s: %.2f patients/s.", cohort.size(),
+                failures.size(), cohortStopwatch, cohort.size() * 1e9 / Math.max(elapsedNanos, 1)));
+        // The utilization shows which stage is the bottleneck (and should get more workers).
+        for(int i = 0; i < pipeline.getStageNames().size(); i++) {
+            getAppOptions().printVerbose(String.format("Stage %s: %d workers, %.0f%% busy.", pipeline.getStageNames().get(i),
+                    pipeline.getWorkers(i), 100.0 * pipeline.getBusyNanos(i) / (pipeline.getWorkers(i) * (double) Math.max(elapsedNanos, 1))));
+        }
+        if(lookupCache != null) {
+            getAppOptions().printVerbose(String.format("DisGeNET lookup cache: %.0f%% of %d phenotype and %.0f%% of %d gene " +
+                            "lookups did not require a query (cache size: %d/%d).",
+                    100 * lookupCache.getPhenotypeHitRate(), lookupCache.getPhenotypeHits() + lookupCache.getPhenotypeMisses(),
+                    100 * lookupCache.getGeneHitRate(), lookupCache.getGeneHits() + lookupCache.getGeneMisses(),
+                    lookupCache.getWeight(), lookupCache.getMaxWeight()));
+        }
         printElapsedTime();
+
+        if(!failures.isEmpty()) {
+            throw new IOException(failures.size() + " of " + cohort.size() + " patients failed: " +
+                    String.join(", ", failures));
+        }
+    }
+
+    /**
+     * First cohort stage: retrieves the phenotypes associated to the input phenotypes of a patient.
+     * @param ontologyReader can be {@code null} if no associated phenotypes need to be retrieved
+     */
+    private void expandPatientPhenotypes(CohortPatient patient, OntologyModelFilesReader ontologyReader) {
+        patient.phenotypeNetworkCollection = createPhenotypeNetworkCollection(ontologyReader, patient.phenotypes);
+    }
+
+    /**
+     * Second cohort stage: retrieves the DisGeNET data of the phenotypes of a patient.
+     * @param lookupCache can be {@code null} to query all phenotypes/genes
+     */
+    private void retrievePatientDisgenetData(CohortPatient patient, ModelReader disgenetReader,
+                                             DisgenetLookupCache lookupCache) {
+        GenesRetriever genesForPhenotypeRetriever = createGenesForPhenotypeRetriever(disgenetReader,
+                patient.phenotypeNetworkCollection.getPhenotypes());
+        genesForPhenotypeRetriever.setCache(lookupCache);
+        disgenetReader.beginRead();
+        try {
+            genesForPhenotypeRetriever.run();
+        } finally {
+            disgenetReader.endRead();
+        }
+        patient.genesForPhenotypeRetriever = genesForPhenotypeRetriever;
+    }
+
+    /**
+     * Last cohort stage: orders the genes of a patient and writes them to a file. Each selected
+     * {@link GenePrioritizerFactory} is run in turn (patients are already processed in parallel). As the ordering is
+     * done while writing (see {@link GenePrioritizer#setStreaming(boolean)}), these are a single stage.
+     * @param informationContentIndex can be {@code null} if none of the selected prioritizers require it
+     * @throws IOException if writing any of the files failed
+     */
+    private void writePatientFiles(CohortPatient patient, PhenotypeInformationContentIndex informationContentIndex)
+            throws IOException {
+        GeneAggregates geneAggregates = new GeneAggregates(patient.genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+        for(GenePrioritizerFactory factory : getAppOptions().getGenePrioritizerFactories()) {
+            Prioritizer<Gene> prioritizer = runPrioritizer(factory, geneAggregates,
+                    patient.genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(),
+                    patient.phenotypeNetworkCollection, informationContentIndex);
+            runOutputWriter(geneAggregates, prioritizer, getAppOptions().getOutputFile(patient.id, factory));
+        }
+        // Written patients are only needed for reporting.
+        patient.phenotypeNetworkCollection = null;
+        patient.genesForPhenotypeRetriever = null;
+    }
+
+    /**
+     * A patient of a cohort together with the results of the stages it went through.
+     */
+    private static class CohortPatient {
+        private final String id;
+        private final Set<Phenotype> phenotypes;
+        private PhenotypeNetworkCollection phenotypeNetworkCollection;
+        private GenesRetriever genesForPhenotypeRetriever;
+
+        CohortPatient(String id, Set<Phenotype> phenotypes) {
+            this.id = id;
+            this.phenotypes = phenotypes;
+        }
     }
 
     private OptionsParser appOptions;
@@ -0,0 +1,132 @@
+package org.molgenis.vibe.pipeline;
+
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Creates the {@link ExecutorService}{@code s} on which workers run (such as the stages of a {@link StagedPipeline} or
+ * the requests of the {@link org.molgenis.vibe.service.PrioritizationHttpServer}).</p>
+ *
+ * <p>DisGeNET retrieval mostly waits for TDB page reads. With {@link #PLATFORM} threads, each waiting worker occupies an
+ * operating system thread (and its stack), which limits the number of requests that can be in flight. {@link #VIRTUAL}
+ * threads are parked instead while waiting, so thousands of them can be used. As the build targets Java 8, virtual
+ * threads are created through reflection and are only available when running on Java 21 or higher (see
+ * {@link #isAvailable()}).</p>
+ */
+public enum ExecutorFactory implements EnumTypeDefiner {
+    PLATFORM("platform") {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        /**
+         * @return a fixed pool of {@code threads} daemon threads
+         */
+        @Override
+        public ExecutorService create(String name, int threads) {
+            if(threads < 1) {
+                throw new IllegalArgumentException("threads must be 1 or higher");
+            }
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    },
+    VIRTUAL("virtual") {
+        @Override
+        public boolean isAvailable() {
+            return VIRTUAL_THREADS_AVAILABLE;
+        }
+
+        /**
+         * @return an {@link ExecutorService} starting a new virtual thread for each task ({@code threads} is only
+         * validated: the number of concurrent tasks is defined by the caller)
+         * @throws UnsupportedOperationException if virtual threads are not available
+         */
+        @Override
+        public ExecutorService create(String name, int threads) {
+            if(threads < 1) {
+                throw new IllegalArgumentException("threads must be 1 or higher");
+            }
+            if(!VIRTUAL_THREADS_AVAILABLE) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or higher (running: " +
+                        System.getProperty("java.version") + ").");
+            }
+            try {
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, virtualThreadFactory(name));
+            } catch(ReflectiveOperationException e) {
+                throw new UnsupportedOperationException("Could not create virtual threads.", e);
+            }
+        }
+    };
+
+    /**
+     * Whether the running JVM supports virtual threads (without preview features).
+     */
+    private static final boolean VIRTUAL_THREADS_AVAILABLE = checkVirtualThreads();
+
+    private String id;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    ExecutorFactory(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return whether the running JVM supports this type of threads
+     */
+    public abstract boolean isAvailable();
+
+    /**
+     * @param name the prefix of the thread names (followed by a number)
+     * @param threads the number of tasks that are expected to run concurrently
+     * @return a new {@link ExecutorService} (to be shut down by the caller)
+     * @throws IllegalArgumentException if {@code threads} is lower than 1
+     */
+    public abstract ExecutorService create(String name, int threads);
+
+    public static ExecutorFactory retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, ExecutorFactory.class);
+    }
+
+    private static boolean checkVirtualThreads() {
+        try {
+            virtualThreadFactory("check");
+            return true;
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            // Not present (before Java 19) or a preview feature that is not enabled (Java 19 and 20).
+            return false;
+        }
+    }
+
+    /**
+     * Equivalent to {@code Thread.ofVirtual().name(name + "-", 1).factory()}.
+     */
+    private static ThreadFactory virtualThreadFactory(String name) throws ReflectiveOperationException {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch(InvocationTargetException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.molgenis.vibe.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Processes items through a sequence of {@link Stage}{@code s}, where each stage has its own number of worker threads
+ * and bounded queues are placed between the stages. This allows stages that use different resources (such as CPU, disk
+ * reads or disk writes) to overlap: while item N is in the second stage, item N+1 can already be in the first stage and
+ * item N-1 in the third stage.</p>
+ *
+ * <p>The bounded queues limit the number of items that are in between stages, so a fast stage blocks instead of
+ * accumulating items (and their memory) in front of a slower stage. An item for which a stage fails skips the remaining
+ * stages.</p>
+ *
+ * <p>The workers run on threads created by an {@link ExecutorFactory} (see {@link #setExecutorFactory(ExecutorFactory)}),
+ * so that stages that mostly wait (such as reading from disk) can use many cheap virtual threads.</p>
+ *
+ * @param <T> the type of the items, which are passed from stage to stage (and can hold the intermediate results)
+ */
+public class StagedPipeline<T> {
+    /**
+     * A single step of the pipeline.
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface Stage<T> {
+        /**
+         * @param item the item to process
+         * @throws Exception if processing failed (the item skips the remaining stages)
+         */
+        void process(T item) throws Exception;
+    }
+
+    /**
+     * Is notified (on the thread that calls {@link #run(Collection, Listener)}) once an item left the pipeline.
+     * @param <T> the type of the items
+     */
+    public interface Listener<T> {
+        void completed(T item);
+
+        /**
+         * @param item the item that failed
+         * @param stageName the name of the stage that failed
+         * @param cause why the stage failed
+         */
+        void failed(T item, String stageName, Throwable cause);
+    }
+
+    private List<StageDefinition<T>> stages = new ArrayList<>();
+
+    /**
+     * The maximum number of items waiting in front of each stage.
+     */
+    private int queueCapacity;
+
+    private ExecutorFactory executorFactory = ExecutorFactory.PLATFORM;
+
+    /**
+     * @param queueCapacity the maximum number of items waiting in front of each stage
+     * @throws IllegalArgumentException if {@code queueCapacity} is lower than 1
+     */
+    public StagedPipeline(int queueCapacity) {
+        if(queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be 1 or higher");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param executorFactory creates the threads of the workers (default: {@link ExecutorFactory#PLATFORM})
+     * @return this {@link StagedPipeline}
+     * @throws UnsupportedOperationException if the {@code executorFactory} is not available on the running JVM
+     */
+    public StagedPipeline<T> setExecutorFactory(ExecutorFactory executorFactory) {
+        if(!executorFactory.isAvailable()) {
+            throw new UnsupportedOperationException("Executor " + executorFactory.getId() + " is not available.");
+        }
+        this.executorFactory = executorFactory;
+        return this;
+    }
+
+    public ExecutorFactory getExecutorFactory() {
+        return executorFactory;
+    }
+
+    /**
+     * Adds a stage after the already added stages.
+     * @param name the name of the stage (used for the thread names and failures)
+     * @param workers the number of threads processing items in this stage
+     * @param stage the processing done in this stage
+     * @return this {@link StagedPipeline}
+     * @throws IllegalArgumentException if {@code workers} is lower than 1
+     */
+    public StagedPipeline<T> addStage(String name, int workers, Stage<T> stage) {
+        if(workers < 1) {
+            throw new IllegalArgumentException("workers must be 1 or higher");
+        }
+        stages.add(new StageDefinition<>(requireNonNull(name), workers, requireNonNull(stage)));
+        return this;
+    }
+
+    /**
+     * @return the names of the stages (in order)
+     */
+    public List<String> getStageNames() {
+        List<String> names = new ArrayList<>();
+        for(StageDefinition<T> stage : stages) {
+            names.add(stage.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @param stageIndex the index of the stage (see {@link #getStageNames()})
+     * @return the number of worker threads of the stage
+     */
+    public int getWorkers(int stageIndex) {
+        return stages.get(stageIndex).workers;
+    }
+
+    /**
+     * @param stageIndex the index of the stage (see {@link #getStageNames()})
+     * @return the total time the workers of the stage spent on processing items (excluding waiting for items or for space
+     * in the next queue), summed over the workers
+     */
+    public long getBusyNanos(int stageIndex) {
+        return stages.get(stageIndex).busyNanos.get();
+    }
+
+    /**
+     * Processes all {@code items} through the stages and blocks till each of them completed or failed.
+     * @param items the items to process (in order of entering the pipeline)
+     * @param listener notified per item once it left the pipeline
+     * @throws InterruptedException if interrupted while waiting (all workers are stopped)
+     * @throws IllegalStateException if no stages were added
+     */
+    public void run(Collection<T> items, Listener<T> listener) throws InterruptedException {
+        if(stages.isEmpty()) {
+            throw new IllegalStateException("The pipeline has no stages.");
+        }
+        requireNonNull(listener);
+
+        List<BlockingQueue<Job<T>>> queues = new ArrayList<>();
+        for(int i = 0; i < stages.size(); i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        // Unbounded as it is drained by the calling thread (which never blocks the stages).
+        BlockingQueue<Job<T>> finished = new LinkedBlockingQueue<>();
+
+        List<ExecutorService> executors = new ArrayList<>();
+        try {
+            for(int i = 0; i < stages.size(); i++) {
+                StageDefinition<T> stage = stages.get(i);
+                BlockingQueue<Job<T>> input = queues.get(i);
+                BlockingQueue<Job<T>> output = i + 1 < stages.size() ? queues.get(i + 1) : finished;
+                ExecutorService executor = executorFactory.create("pipeline-" + stage.name, stage.workers);
+                executors.add(executor);
+                for(int j = 0; j < stage.workers; j++) {
+                    executor.execute(() -> runWorker(stage, input, output));
+                }
+            }
+
+            // Fed from a separate thread so that completed items are reported while items are still entering.
+            ExecutorService feeder = executorFactory.create("pipeline-feeder", 1);
+            executors.add(feeder);
+            feeder.execute(() -> {
+                try {
+                    for(T item : items) {
+                        queues.get(0).put(new Job<>(item));
+                    }
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            for(int i = 0; i < items.size(); i++) {
+                Job<T> job = finished.take();
+                if(job.failure == null) {
+                    listener.completed(job.item);
+                } else {
+                    listener.failed(job.item, job.failedStage, job.failure);
+                }
+            }
+        } finally {
+            for(ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private void runWorker(StageDefinition<T> stage, BlockingQueue<Job<T>> input, BlockingQueue<Job<T>> output) {
+        try {
+            while(!Thread.currentThread().isInterrupted()) {
+                Job<T> job = input.take();
+                if(job.failure == null) {
+                    long start = System.nanoTime();
+                    try {
+                        stage.stage.process(job.item);
+                    } catch(InterruptedException e) {
+                        throw e;
+                    } catch(Throwable e) {
+                        job.failure = e;
+                        job.failedStage = stage.name;
+                    } finally {
+                        stage.busyNanos.addAndGet(System.nanoTime() - start);
+                    }
+                }
+                output.put(job);
+            }
+        } catch(InterruptedException e) {
+            // Pipeline is stopped.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StageDefinition<T> {
+        private final String name;
+        private final int workers;
+        private final Stage<T> stage;
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        StageDefinition(String name, int workers, Stage<T> stage) {
+            this.name = name;
+            this.workers = workers;
+            this.stage = stage;
+        }
+    }
+
+    /**
+     * An item with its processing state.
+     */
+    private static class Job<T> {
+        private final T item;
+        private Throwable failure;
+        private String failedStage;
+
+        Job(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.molgenis.vibe.query_output_digestion.prioritization;
 
 import org.molgenis.vibe.formats.Gene;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 
@@ -18,6 +17,11 @@ public class DiseasePleiotropyIndexGenePrioritizer extends GenePrioritizer {
     @Override
     public void run() {
         // Sorts the genes with lowest disease pleiotropy index first.
-        getPriority().sort(Comparator.comparingDouble(Gene::getDiseasePleiotropyIndex));
+        List<Gene> genes = getPriority();
+        double[] values = new double[genes.size()];
+        for(int i = 0; i < genes.size(); i++) {
+            values[i] = genes.get(i).getDiseasePleiotropyIndex();
+        }
+        orderByValues(values, false);
     }
 }
@@ -0,0 +1,72 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The data a {@link GenePrioritizerFactory} can create a {@link GenePrioritizer} from. Only the {@link GeneAggregates}
+ * are always present, the rest is only needed by some {@link GenePrioritizerFactory}{@code s} (see
+ * {@link GenePrioritizerFactory#requiresPhenotypeDiseaseCollection()} and
+ * {@link GenePrioritizerFactory#requiresInformationContentIndex()}).
+ */
+public class GenePrioritizerContext {
+    private final GeneAggregates geneAggregates;
+
+    /**
+     * Through which diseases the genes were found for each phenotype ({@code null} if not retrieved).
+     */
+    private final PhenotypeDiseaseCollection phenotypeDiseaseCollection;
+
+    /**
+     * The phenotypes with their distance to the input phenotypes ({@code null} if not available).
+     */
+    private final PhenotypeNetworkCollection phenotypeNetworkCollection;
+
+    /**
+     * The precomputed information content of the phenotype ontology ({@code null} if no ontology was loaded).
+     */
+    private final PhenotypeInformationContentIndex informationContentIndex;
+
+    public GeneAggregates getGeneAggregates() {
+        return geneAggregates;
+    }
+
+    public PhenotypeDiseaseCollection getPhenotypeDiseaseCollection() {
+        return phenotypeDiseaseCollection;
+    }
+
+    public PhenotypeNetworkCollection getPhenotypeNetworkCollection() {
+        return phenotypeNetworkCollection;
+    }
+
+    public PhenotypeInformationContentIndex getInformationContentIndex() {
+        return informationContentIndex;
+    }
+
+    /**
+     * @param geneAggregates the per-gene data
+     */
+    public GenePrioritizerContext(GeneAggregates geneAggregates) {
+        this(geneAggregates, null, null, null);
+    }
+
+    /**
+     * @param geneAggregates the per-gene data
+     * @param phenotypeDiseaseCollection through which diseases the genes were found for each phenotype (can be
+     *                                   {@code null})
+     * @param phenotypeNetworkCollection the phenotypes with their distance to the input phenotypes (can be {@code null})
+     * @param informationContentIndex the precomputed information content of the phenotype ontology (can be {@code null})
+     */
+    public GenePrioritizerContext(GeneAggregates geneAggregates, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                  PhenotypeNetworkCollection phenotypeNetworkCollection,
+                                  PhenotypeInformationContentIndex informationContentIndex) {
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.phenotypeDiseaseCollection = phenotypeDiseaseCollection;
+        this.phenotypeNetworkCollection = phenotypeNetworkCollection;
+        this.informationContentIndex = informationContentIndex;
+    }
+}
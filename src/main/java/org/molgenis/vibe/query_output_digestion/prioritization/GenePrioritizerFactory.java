@@ -1,25 +1,74 @@
 package org.molgenis.vibe.query_output_digestion.prioritization;
 
 import org.molgenis.vibe.formats.EnumTypeDefiner;
-import org.molgenis.vibe.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the {@link GenePrioritizer}{@code s} from a {@link GenePrioritizerContext}. Factories that need more than the
+ * {@link GeneAggregates} state so through {@link #requiresPhenotypeDiseaseCollection()} and
+ * {@link #requiresInformationContentIndex()}.
+ */
 public enum GenePrioritizerFactory implements EnumTypeDefiner{
     HIGHEST_DISGENET_SCORE("gda_max") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
-             return new HighestSingleDisgenetScoreGenePrioritizer(geneDiseaseCollection);
+        public GenePrioritizer create(GenePrioritizerContext context) {
+             return new HighestSingleDisgenetScoreGenePrioritizer(context.getGeneAggregates());
         }
     },
     DISEASE_SPECIFICITY_INDEX("dsi") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
-            return new DiseaseSpecificityIndexGenePrioritizer(geneDiseaseCollection.getGenes());
+        public GenePrioritizer create(GenePrioritizerContext context) {
+            return new DiseaseSpecificityIndexGenePrioritizer(new ArrayList<>(context.getGeneAggregates().getGenes()));
         }
     },
     DISEASE_PLEIOTROPY_INDEX("dpi") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
-            return new DiseasePleiotropyIndexGenePrioritizer(geneDiseaseCollection.getGenes());
+        public GenePrioritizer create(GenePrioritizerContext context) {
+            return new DiseasePleiotropyIndexGenePrioritizer(new ArrayList<>(context.getGeneAggregates().getGenes()));
+        }
+    },
+    PHENOTYPE_DISTANCE_WEIGHTED("composite") {
+        @Override
+        public GenePrioritizer create(GenePrioritizerContext context) {
+            return new PhenotypeDistanceWeightedGenePrioritizer(context.getGeneAggregates(),
+                    require(context.getPhenotypeDiseaseCollection(), "PhenotypeDiseaseCollection"),
+                    require(context.getPhenotypeNetworkCollection(), "PhenotypeNetworkCollection"));
+        }
+
+        @Override
+        public boolean requiresPhenotypeDiseaseCollection() {
+            return true;
+        }
+    },
+    RESNIK_SIMILARITY("resnik") {
+        @Override
+        public GenePrioritizer create(GenePrioritizerContext context) {
+            // The input phenotypes are the sources of the networks.
+            List<Phenotype> inputPhenotypes = new ArrayList<>();
+            for(PhenotypeNetwork network : require(context.getPhenotypeNetworkCollection(), "PhenotypeNetworkCollection")
+                    .getPhenotypeNetworks()) {
+                inputPhenotypes.add(network.getSource());
+            }
+            return new ResnikSimilarityGenePrioritizer(context.getGeneAggregates(),
+                    require(context.getPhenotypeDiseaseCollection(), "PhenotypeDiseaseCollection"), inputPhenotypes,
+                    require(context.getInformationContentIndex(), "PhenotypeInformationContentIndex"));
+        }
+
+        @Override
+        public boolean requiresInformationContentIndex() {
+            return true;
+        }
+
+        @Override
+        public boolean requiresPhenotypeDiseaseCollection() {
+            return true;
         }
     };
 
@@ -34,7 +83,38 @@ public enum GenePrioritizerFactory implements EnumTypeDefiner{
         this.id = id;
     }
 
-    public abstract GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection);
+    /**
+     * @param context the data to prioritize the genes with
+     * @return a {@link GenePrioritizer}
+     * @throws IllegalArgumentException if the {@code context} misses data required by this factory
+     */
+    public abstract GenePrioritizer create(GenePrioritizerContext context);
+
+    /**
+     * @return {@code value}
+     * @throws IllegalArgumentException if {@code value} is {@code null}
+     */
+    <T> T require(T value, String name) {
+        if(value == null) {
+            throw new IllegalArgumentException(getId() + " requires a " + name);
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the {@link GenePrioritizer} can only be created with a {@link PhenotypeInformationContentIndex}
+     */
+    public boolean requiresInformationContentIndex() {
+        return false;
+    }
+
+    /**
+     * @return {@code true} if the {@link GenePrioritizer} uses the {@link PhenotypeDiseaseCollection} (so that the
+     * per-phenotype provenance needs to be retrieved)
+     */
+    public boolean requiresPhenotypeDiseaseCollection() {
+        return false;
+    }
 
     public static GenePrioritizerFactory retrieve(String name) {
         return EnumTypeDefiner.retrieve(name, GenePrioritizerFactory.class);
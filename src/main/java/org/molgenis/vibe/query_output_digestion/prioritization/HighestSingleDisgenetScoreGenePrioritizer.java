@@ -1,7 +1,8 @@
 package org.molgenis.vibe.query_output_digestion.prioritization;
 
 import org.molgenis.vibe.formats.Gene;
-import org.molgenis.vibe.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.GeneDiseaseCollectionView;
 import org.molgenis.vibe.formats.GeneDiseaseCombination;
 
 import java.util.*;
@@ -16,38 +17,28 @@ public class HighestSingleDisgenetScoreGenePrioritizer extends GenePrioritizer {
     /**
      * The data to be used for creating a priority order.
      */
-    private GeneDiseaseCollection geneDiseaseCollection;
+    private GeneAggregates geneAggregates;
 
-    public HighestSingleDisgenetScoreGenePrioritizer(GeneDiseaseCollection geneDiseaseCollection) {
-        super(geneDiseaseCollection.getGenes());
-        this.geneDiseaseCollection = requireNonNull(geneDiseaseCollection);
+    public HighestSingleDisgenetScoreGenePrioritizer(GeneDiseaseCollectionView geneDiseaseCollection) {
+        this(new GeneAggregates(geneDiseaseCollection));
+    }
+
+    public HighestSingleDisgenetScoreGenePrioritizer(GeneAggregates geneAggregates) {
+        super(new ArrayList<>(geneAggregates.getGenes()));
+        this.geneAggregates = requireNonNull(geneAggregates);
     }
 
     @Override
     public void run() {
         List<Gene> genes = getPriority();
-        Map<Gene, Double> highestGeneScores = new HashMap<>();
-
-        // Goes through all genes.
-        for(Gene gene : genes) {
-            double scoreForGene = 0;
-            Set<GeneDiseaseCombination> combinationsForGene = geneDiseaseCollection.getByGene(gene);
-            // Goes through all disease combinations for a single gene.
-            for(GeneDiseaseCombination combination : combinationsForGene) {
-                // Stores highest DisGeNET gene-disease score for that gene.
-                if(combination.getDisgenetScore() > scoreForGene) {
-                    scoreForGene = combination.getDisgenetScore();
-                }
-            }
-
-            // Stores the gene with its highest score in a HashMap.
-            highestGeneScores.put(gene, scoreForGene);
-        }
 
-        // Sorts the gene list based on the highest gene-disease score per gene.
-        Collections.sort(genes, Comparator.comparingDouble(highestGeneScores::get).reversed());
+        // Retrieves the highest gene-disease score for each gene (in the current order).
+        double[] highestGeneScores = new double[genes.size()];
+        for(int i = 0; i < genes.size(); i++) {
+            highestGeneScores[i] = geneAggregates.getMaxScore(geneAggregates.indexOf(genes.get(i)));
+        }
 
-        // Updates the priority order.
-        setPriority(genes);
+        // Orders the gene list based on the highest gene-disease score per gene.
+        orderByValues(highestGeneScores, true);
     }
 }
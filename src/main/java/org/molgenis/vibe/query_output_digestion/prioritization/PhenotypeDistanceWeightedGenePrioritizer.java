@@ -0,0 +1,128 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.*;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generates a priority order for {@link Gene}{@code s} based on a composite score combining:
+ * <ul>
+ *     <li>the highest {@link GeneDiseaseCombination#getDisgenetScore()} of the {@link Gene}</li>
+ *     <li>the {@link Gene#getDiseaseSpecificityIndex()}</li>
+ *     <li>the phenotype match: for each distinct {@link Phenotype} through which the {@link Gene} was found (using the
+ *     {@link PhenotypeDiseaseCollection} provenance) {@code 1 / (1 + distance)} is added, where distance is the
+ *     {@link PhenotypeNetworkCollection#getMinimumDistance(Phenotype)} to an input phenotype. This sum is divided by
+ *     the highest sum among all {@link Gene}{@code s}.</li>
+ * </ul>
+ * All 3 values range from 0 to 1 and contribute equally to the composite score. Genes found through phenotypes that
+ * are close to (or are) the input phenotypes therefore rank higher than genes only found through distant phenotypes.
+ */
+public class PhenotypeDistanceWeightedGenePrioritizer extends GenePrioritizer {
+    private static final double GDA_SCORE_WEIGHT = 1.0 / 3;
+    private static final double DSI_WEIGHT = 1.0 / 3;
+    private static final double PHENOTYPE_MATCH_WEIGHT = 1.0 / 3;
+
+    private GeneAggregates geneAggregates;
+
+    /**
+     * Through which {@link Disease}{@code s} the {@link Gene}{@code s} were found for each {@link Phenotype}.
+     */
+    private PhenotypeDiseaseCollection phenotypeDiseaseCollection;
+
+    /**
+     * The {@link PhenotypeNetwork}{@code s} defining the distance of each {@link Phenotype} to the input phenotypes.
+     */
+    private PhenotypeNetworkCollection phenotypeNetworkCollection;
+
+    public PhenotypeDistanceWeightedGenePrioritizer(GeneAggregates geneAggregates,
+                                                    PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                                    PhenotypeNetworkCollection phenotypeNetworkCollection) {
+        super(new ArrayList<>(geneAggregates.getGenes()));
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.phenotypeDiseaseCollection = requireNonNull(phenotypeDiseaseCollection);
+        this.phenotypeNetworkCollection = requireNonNull(phenotypeNetworkCollection);
+    }
+
+    @Override
+    public void run() {
+        List<Gene> genes = getPriority();
+        int geneCount = genes.size();
+
+        // Collects the input values as primitive arrays.
+        double[] gdaScores = new double[geneCount];
+        double[] diseaseSpecificityIndices = new double[geneCount];
+        double[] phenotypeMatches = calculatePhenotypeMatches(genes);
+        for(int i = 0; i < geneCount; i++) {
+            Gene gene = genes.get(i);
+            gdaScores[i] = geneAggregates.getMaxScore(geneAggregates.indexOf(gene));
+            diseaseSpecificityIndices[i] = gene.getDiseaseSpecificityIndex();
+        }
+
+        double highestPhenotypeMatch = 0;
+        for(double phenotypeMatch : phenotypeMatches) {
+            highestPhenotypeMatch = Math.max(highestPhenotypeMatch, phenotypeMatch);
+        }
+
+        double[] scores = new double[geneCount];
+        calculateScores(gdaScores, diseaseSpecificityIndices, phenotypeMatches,
+                highestPhenotypeMatch > 0 ? 1 / highestPhenotypeMatch : 0, scores);
+        orderByValues(scores, true);
+    }
+
+    /**
+     * Calculates the composite scores. A plain loop over primitive arrays without branches or allocations, so that it
+     * can be vectorized by the JIT compiler.
+     * @param gdaScores highest DisGeNET score per gene
+     * @param diseaseSpecificityIndices DSI per gene
+     * @param phenotypeMatches phenotype match sum per gene
+     * @param phenotypeMatchNormalization multiplier to scale the phenotype matches between 0 and 1
+     * @param scores the output array
+     */
+    static void calculateScores(double[] gdaScores, double[] diseaseSpecificityIndices, double[] phenotypeMatches,
+                                double phenotypeMatchNormalization, double[] scores) {
+        double phenotypeMatchFactor = PHENOTYPE_MATCH_WEIGHT * phenotypeMatchNormalization;
+        for(int i = 0; i < scores.length; i++) {
+            scores[i] = GDA_SCORE_WEIGHT * gdaScores[i] +
+                    DSI_WEIGHT * diseaseSpecificityIndices[i] +
+                    phenotypeMatchFactor * phenotypeMatches[i];
+        }
+    }
+
+    /**
+     * Calculates the (not normalized) phenotype match per {@link Gene}.
+     * @param genes the {@link Gene}{@code s} to calculate the phenotype match for
+     * @return the summed weights of the distinct {@link Phenotype}{@code s} per {@link Gene} (same order as {@code genes})
+     */
+    private double[] calculatePhenotypeMatches(List<Gene> genes) {
+        // Indexes the phenotypes and calculates their weight once.
+        Map<Phenotype, Integer> phenotypeIndices = new HashMap<>();
+        List<Phenotype> phenotypes = new ArrayList<>(phenotypeDiseaseCollection.getPhenotypes());
+        double[] phenotypeWeights = new double[phenotypes.size()];
+        for(int i = 0; i < phenotypes.size(); i++) {
+            phenotypeIndices.put(phenotypes.get(i), i);
+            int distance = phenotypeNetworkCollection.getMinimumDistance(phenotypes.get(i));
+            phenotypeWeights[i] = distance < 0 ? 0 : 1.0 / (1 + distance);
+        }
+
+        // Stores for each phenotype the last gene it was counted for, so that each phenotype is only counted once per gene.
+        int[] lastCountedGene = new int[phenotypes.size()];
+        Arrays.fill(lastCountedGene, -1);
+
+        double[] phenotypeMatches = new double[genes.size()];
+        for(int i = 0; i < genes.size(); i++) {
+            GeneDiseaseCombinationCursor cursor = geneAggregates.getGeneDiseaseCollection().cursorByGene(genes.get(i));
+            while(cursor.next()) {
+                for(PhenotypeDiseaseCombination combination : phenotypeDiseaseCollection.getByDisease(cursor.getDisease())) {
+                    int phenotypeIndex = phenotypeIndices.get(combination.getPhenotype());
+                    if(lastCountedGene[phenotypeIndex] != i) {
+                        lastCountedGene[phenotypeIndex] = i;
+                        phenotypeMatches[i] += phenotypeWeights[phenotypeIndex];
+                    }
+                }
+            }
+        }
+        return phenotypeMatches;
+    }
+}
@@ -2,9 +2,7 @@ package org.molgenis.vibe.query_output_digestion.prioritization;
 
 import org.molgenis.vibe.formats.BiologicalEntity;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static java.util.Objects.requireNonNull;
 
@@ -18,14 +16,102 @@ public abstract class Prioritizer<T extends BiologicalEntity> {
      */
     private List<T> data;
 
+    /**
+     * The maximum number of items the priority order should contain.
+     */
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Whether ordering should be postponed till the items are retrieved through {@link #getPriorityIterator()}.
+     */
+    private boolean streaming = false;
+
+    /**
+     * If {@link #streaming}, the comparator (by index in {@link #data}) defining the order that still needs to be applied.
+     */
+    private IndexComparator pendingComparator;
+
+    /**
+     * Whether the priority order was handed out as a single-use {@link HeapIterator} (in which case the order is not
+     * stored).
+     */
+    private boolean streamed = false;
+
+    /**
+     * @return the data in priority order (if {@link #isStreaming()}, the remaining ordering is done first)
+     * @throws IllegalStateException if the priority order was already streamed through {@link #getPriorityIterator()}
+     */
     public List<T> getPriority() {
+        checkNotStreamed();
+        if(pendingComparator != null) {
+            List<T> ordered = new ArrayList<>(Math.min(limit, data.size()));
+            for(Iterator<T> iterator = new HeapIterator(pendingComparator); iterator.hasNext(); ) {
+                ordered.add(iterator.next());
+            }
+            pendingComparator = null;
+            data = ordered;
+        }
         return data;
     }
 
+    /**
+     * If {@link #isStreaming()} (and {@link #getPriority()} was not called yet), the items are selected one by one from
+     * a heap while iterating, so the first items are available without ordering all data and no ordered copy of the
+     * data is created. As the order is not stored, this can only be done once. Otherwise iterates over
+     * {@link #getPriority()}.
+     * @return an {@link Iterator} returning the items in priority order (at most {@link #getLimit()} items)
+     * @throws IllegalStateException if the priority order was already streamed through {@link #getPriorityIterator()}
+     */
+    public Iterator<T> getPriorityIterator() {
+        checkNotStreamed();
+        if(pendingComparator == null) {
+            return data.iterator();
+        }
+        IndexComparator comparator = pendingComparator;
+        pendingComparator = null;
+        streamed = true;
+        return new HeapIterator(comparator);
+    }
+
+    private void checkNotStreamed() {
+        if(streamed) {
+            throw new IllegalStateException("the priority order was already streamed and is not stored");
+        }
+    }
+
     protected void setPriority(List<T> data) {
         this.data = data;
     }
 
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of items the priority order should contain. Should be set before {@link #run()}.
+     * @param limit the number of items with the highest priority to keep
+     * @throws IllegalArgumentException if {@code limit} is lower than 1
+     */
+    public void setLimit(int limit) {
+        if(limit < 1) {
+            throw new IllegalArgumentException("limit must be 1 or higher");
+        }
+        this.limit = limit;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether the ordering should be postponed till the items are retrieved through {@link #getPriorityIterator()}.
+     * Should be set before {@link #run()}.
+     * @param streaming {@code true} to postpone ordering, {@code false} to order during {@link #run()}
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public Prioritizer(List<T> data) {
         this.data = requireNonNull(data);
     }
@@ -35,4 +121,233 @@ public abstract class Prioritizer<T extends BiologicalEntity> {
     }
 
     public abstract void run();
+
+    /**
+     * Orders the data using the {@code comparator} and keeps only the first {@link #getLimit()} items. If the limit is
+     * lower than the number of items, the first items are selected using a bounded heap so that only these have to be
+     * sorted. Items that are equal according to the {@code comparator} keep their original order (same as a stable
+     * sort of all items).
+     * @param comparator defines the priority order (first item has the highest priority)
+     */
+    protected void order(Comparator<? super T> comparator) {
+        if(streaming) {
+            List<T> items = data;
+            pendingComparator = (index1, index2) -> comparator.compare(items.get(index1), items.get(index2));
+            return;
+        }
+        if(limit >= data.size()) {
+            data.sort(comparator);
+            return;
+        }
+        reorder(selectTop((index1, index2) -> comparator.compare(data.get(index1), data.get(index2))));
+    }
+
+    /**
+     * Orders the data based on a primitive value per item and keeps only the first {@link #getLimit()} items. Sorting
+     * is done on an array of indices comparing the {@code values} directly, so no objects are created per comparison.
+     * Items with equal values keep their original order.
+     * @param values the value for each item in {@link #getPriority()} (same order)
+     * @param descending {@code true} if the item with the highest value should be first, {@code false} if the item with
+     *                   the lowest value should be first
+     * @throws IllegalArgumentException if the number of {@code values} differs from the number of items
+     */
+    protected void orderByValues(double[] values, boolean descending) {
+        if(values.length != data.size()) {
+            throw new IllegalArgumentException("the number of values differs from the number of items");
+        }
+        IndexComparator comparator = descending ?
+                (index1, index2) -> Double.compare(values[index2], values[index1]) :
+                (index1, index2) -> Double.compare(values[index1], values[index2]);
+
+        if(streaming) {
+            pendingComparator = comparator;
+        } else if(limit >= data.size()) {
+            int[] indices = new int[data.size()];
+            for(int i = 0; i < indices.length; i++) {
+                indices[i] = i;
+            }
+            mergeSort(indices, new int[indices.length], 0, indices.length, comparator);
+            reorder(indices);
+        } else {
+            reorder(selectTop(comparator));
+        }
+    }
+
+    /**
+     * Replaces the data with the items at the given indices (in that order).
+     * @param indices indices within the current data
+     */
+    private void reorder(int[] indices) {
+        List<T> ordered = new ArrayList<>(indices.length);
+        for(int index : indices) {
+            ordered.add(data.get(index));
+        }
+        data = ordered;
+    }
+
+    /**
+     * Selects the first {@link #getLimit()} items using a bounded heap.
+     * @param comparator compares 2 items by their index
+     * @return the indices of the selected items in priority order
+     */
+    private int[] selectTop(IndexComparator comparator) {
+        IndexComparator stableComparator = stable(comparator);
+
+        // Max-heap (according to the priority order) of the indices of the best items found so far.
+        int[] heap = new int[limit];
+        for(int i = 0; i < limit; i++) {
+            heap[i] = i;
+            siftUp(heap, i, stableComparator);
+        }
+        for(int i = limit; i < data.size(); i++) {
+            if(stableComparator.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, 0, limit, stableComparator);
+            }
+        }
+
+        // Removes the lowest priority item from the heap till it is empty, filling the result from the back.
+        int[] selected = new int[limit];
+        for(int heapSize = limit; heapSize > 0; heapSize--) {
+            selected[heapSize - 1] = heap[0];
+            heap[0] = heap[heapSize - 1];
+            siftDown(heap, 0, heapSize - 1, stableComparator);
+        }
+        return selected;
+    }
+
+    private static void siftUp(int[] heap, int position, IndexComparator comparator) {
+        while(position > 0) {
+            int parent = (position - 1) / 2;
+            if(comparator.compare(heap[position], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, position, parent);
+            position = parent;
+        }
+    }
+
+    /**
+     * Ties are broken by index so that the original order is kept.
+     */
+    private static IndexComparator stable(IndexComparator comparator) {
+        return (index1, index2) -> {
+            int result = comparator.compare(index1, index2);
+            return result != 0 ? result : Integer.compare(index1, index2);
+        };
+    }
+
+    private static void siftDown(int[] heap, int position, int heapSize, IndexComparator comparator) {
+        while(true) {
+            int largest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if(left < heapSize && comparator.compare(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if(right < heapSize && comparator.compare(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if(largest == position) {
+                return;
+            }
+            swap(heap, position, largest);
+            position = largest;
+        }
+    }
+
+    /**
+     * Stable merge sort of {@code indices} between {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    private static void mergeSort(int[] indices, int[] buffer, int from, int to, IndexComparator comparator) {
+        if(to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(indices, buffer, from, middle, comparator);
+        mergeSort(indices, buffer, middle, to, comparator);
+        if(comparator.compare(indices[middle - 1], indices[middle]) <= 0) {
+            return; // Already in order.
+        }
+
+        System.arraycopy(indices, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for(int i = from; i < to; i++) {
+            if(right >= to || (left < middle && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                indices[i] = buffer[left++];
+            } else {
+                indices[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * Returns the items in priority order by repeatedly removing the item with the highest priority from a heap
+     * containing the indices of all items. Building the heap takes linear time, after which each item takes
+     * logarithmic time.
+     */
+    private class HeapIterator implements Iterator<T> {
+        private List<T> items = data;
+
+        /**
+         * Heap in which the item with the highest priority is at the root.
+         */
+        private int[] heap;
+
+        private int heapSize;
+
+        /**
+         * The number of items that can still be returned (based on the {@link #limit}).
+         */
+        private int remaining;
+
+        private IndexComparator heapComparator;
+
+        HeapIterator(IndexComparator comparator) {
+            // The sift methods place the highest item at the root, so the priority order is reversed.
+            IndexComparator stableComparator = stable(comparator);
+            heapComparator = (index1, index2) -> stableComparator.compare(index2, index1);
+
+            heapSize = items.size();
+            remaining = Math.min(limit, heapSize);
+            heap = new int[heapSize];
+            for(int i = 0; i < heapSize; i++) {
+                heap[i] = i;
+            }
+            for(int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, i, heapSize, heapComparator);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, 0, heapSize, heapComparator);
+            remaining--;
+            return items.get(index);
+        }
+    }
+
+    /**
+     * Compares 2 items by their index.
+     */
+    private interface IndexComparator {
+        int compare(int index1, int index2);
+    }
 }
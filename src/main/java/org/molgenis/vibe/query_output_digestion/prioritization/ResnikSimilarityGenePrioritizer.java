@@ -0,0 +1,149 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Generates a priority order for {@link Gene}{@code s} based on the semantic similarity between the input
+ * {@link Phenotype}{@code s} and the phenotype profiles of the {@link Disease}{@code s} of each {@link Gene}.</p>
+ *
+ * <p>The phenotype profile of a {@link Disease} consists of the {@link Phenotype}{@code s} through which it was found
+ * (the {@link PhenotypeDiseaseCollection} provenance). A profile is compared to the input phenotypes using the
+ * best-match-average Resnik similarity: the mean of the best match for each input phenotype and the mean of the best
+ * match for each profile phenotype are averaged. The score of a {@link Gene} is the highest score among its
+ * {@link Disease}{@code s}.</p>
+ *
+ * <p>The similarity between a profile {@link Phenotype} and each input phenotype is only calculated once, as the same
+ * phenotypes (and diseases) are shared by many genes.</p>
+ */
+public class ResnikSimilarityGenePrioritizer extends GenePrioritizer {
+    private GeneAggregates geneAggregates;
+
+    /**
+     * Through which {@link Disease}{@code s} the {@link Gene}{@code s} were found for each {@link Phenotype}.
+     */
+    private PhenotypeDiseaseCollection phenotypeDiseaseCollection;
+
+    /**
+     * The indices of the input {@link Phenotype}{@code s} present in the {@link #informationContentIndex}.
+     */
+    private int[] inputIndices;
+
+    private PhenotypeInformationContentIndex informationContentIndex;
+
+    /**
+     * The similarity to each input {@link Phenotype} (same order as {@link #inputIndices}) per profile {@link Phenotype}.
+     */
+    private Map<Phenotype, double[]> phenotypeSimilarities = new HashMap<>();
+
+    /**
+     * The best-match-average score per {@link Disease}.
+     */
+    private Map<Disease, Double> diseaseScores = new HashMap<>();
+
+    public ResnikSimilarityGenePrioritizer(GeneAggregates geneAggregates,
+                                           PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                           Collection<Phenotype> inputPhenotypes,
+                                           PhenotypeInformationContentIndex informationContentIndex) {
+        super(new ArrayList<>(geneAggregates.getGenes()));
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.phenotypeDiseaseCollection = requireNonNull(phenotypeDiseaseCollection);
+        this.informationContentIndex = requireNonNull(informationContentIndex);
+
+        // Input phenotypes that are not part of the ontology can never match, so they are ignored.
+        List<Integer> indices = new ArrayList<>();
+        for(Phenotype phenotype : new LinkedHashSet<>(requireNonNull(inputPhenotypes))) {
+            int index = informationContentIndex.indexOf(phenotype);
+            if(index >= 0) {
+                indices.add(index);
+            }
+        }
+        inputIndices = new int[indices.size()];
+        for(int i = 0; i < inputIndices.length; i++) {
+            inputIndices[i] = indices.get(i);
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Gene> genes = getPriority();
+        double[] scores = new double[genes.size()];
+        for(int i = 0; i < genes.size(); i++) {
+            GeneDiseaseCombinationCursor cursor = geneAggregates.getGeneDiseaseCollection().cursorByGene(genes.get(i));
+            while(cursor.next()) {
+                scores[i] = Math.max(scores[i], getDiseaseScore(cursor.getDisease()));
+            }
+        }
+        orderByValues(scores, true);
+    }
+
+    private double getDiseaseScore(Disease disease) {
+        Double score = diseaseScores.get(disease);
+        if(score == null) {
+            List<double[]> profileSimilarities = new ArrayList<>();
+            for(PhenotypeDiseaseCombination combination : phenotypeDiseaseCollection.getByDisease(disease)) {
+                double[] similarities = getPhenotypeSimilarities(combination.getPhenotype());
+                if(similarities != null) {
+                    profileSimilarities.add(similarities);
+                }
+            }
+            score = calculateBestMatchAverage(profileSimilarities, inputIndices.length);
+            diseaseScores.put(disease, score);
+        }
+        return score;
+    }
+
+    /**
+     * @param phenotype a profile {@link Phenotype}
+     * @return the similarity to each input phenotype, or {@code null} if the {@code phenotype} is not part of the ontology
+     */
+    private double[] getPhenotypeSimilarities(Phenotype phenotype) {
+        if(phenotypeSimilarities.containsKey(phenotype)) {
+            return phenotypeSimilarities.get(phenotype);
+        }
+
+        double[] similarities = null;
+        int index = informationContentIndex.indexOf(phenotype);
+        if(index >= 0) {
+            similarities = new double[inputIndices.length];
+            for(int i = 0; i < inputIndices.length; i++) {
+                similarities[i] = informationContentIndex.getResnikSimilarity(inputIndices[i], index);
+            }
+        }
+        phenotypeSimilarities.put(phenotype, similarities);
+        return similarities;
+    }
+
+    /**
+     * Calculates the best-match-average of a similarity matrix.
+     * @param profileSimilarities per profile phenotype the similarity to each input phenotype
+     * @param inputCount the number of input phenotypes
+     * @return the best-match-average, or {@code 0} if there are no profile or input phenotypes
+     */
+    static double calculateBestMatchAverage(List<double[]> profileSimilarities, int inputCount) {
+        if(profileSimilarities.isEmpty() || inputCount == 0) {
+            return 0;
+        }
+
+        double[] bestInputMatches = new double[inputCount];
+        double profileMatchSum = 0;
+        for(double[] similarities : profileSimilarities) {
+            double bestProfileMatch = 0;
+            for(int i = 0; i < inputCount; i++) {
+                bestProfileMatch = Math.max(bestProfileMatch, similarities[i]);
+                bestInputMatches[i] = Math.max(bestInputMatches[i], similarities[i]);
+            }
+            profileMatchSum += bestProfileMatch;
+        }
+
+        double inputMatchSum = 0;
+        for(double bestInputMatch : bestInputMatches) {
+            inputMatchSum += bestInputMatch;
+        }
+        return (inputMatchSum / inputCount + profileMatchSum / profileSimilarities.size()) / 2;
+    }
+}
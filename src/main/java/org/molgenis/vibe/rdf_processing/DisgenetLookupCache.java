@@ -0,0 +1,305 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.graph.Node;
+import org.molgenis.vibe.formats.Disease;
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.Source;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Stores the DisGeNET query results per {@link Phenotype} (the {@link Gene}{@code s} and the disease {@link URI}{@code s}
+ * through which they were found) and per {@link Gene} (its gene-disease associations), so that multiple
+ * {@link GenesRetriever}{@code s} (such as the patients of a cohort or the requests of a service) only
+ * query the database for the phenotypes and genes that were not retrieved before. As patients often share
+ * (associated) phenotypes and genes, the number of queried items grows with the number of distinct phenotypes/genes
+ * instead of with the number of patients.</p>
+ *
+ * <p>The cache is bounded by a weight (roughly the number of stored query result rows): if it is exceeded, the least
+ * recently used entries are removed. The hit rates are available through {@link #getPhenotypeHits()},
+ * {@link #getPhenotypeMisses()}, {@link #getGeneHits()} and {@link #getGeneMisses()}.</p>
+ *
+ * <p>The database is expected not to change while the cache is in use. This class is thread-safe: the stored
+ * {@link Gene}{@code s} and {@link Disease}{@code s} are shared between the retrievers (they are not modified after
+ * creation).</p>
+ */
+public class DisgenetLookupCache {
+    /**
+     * The default maximum weight (tens of megabytes).
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+
+    /**
+     * The maximum total weight of the stored entries.
+     */
+    private final long maxWeight;
+
+    /**
+     * The total weight of the stored entries.
+     */
+    private long weight = 0;
+
+    /**
+     * Entries per phenotype/gene {@link URI} (these never overlap) in least recently used order.
+     */
+    private final LinkedHashMap<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * All available {@link Source}{@code s} (the same for each retriever).
+     */
+    private volatile Map<URI, Source> sources;
+
+    private final AtomicLong phenotypeHits = new AtomicLong();
+    private final AtomicLong phenotypeMisses = new AtomicLong();
+    private final AtomicLong geneHits = new AtomicLong();
+    private final AtomicLong geneMisses = new AtomicLong();
+
+    public DisgenetLookupCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight the maximum total weight of the stored entries
+     * @throws IllegalArgumentException if {@code maxWeight} is lower than 1
+     */
+    public DisgenetLookupCache(long maxWeight) {
+        if(maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be 1 or higher");
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getPhenotypeHits() {
+        return phenotypeHits.get();
+    }
+
+    public long getPhenotypeMisses() {
+        return phenotypeMisses.get();
+    }
+
+    public long getGeneHits() {
+        return geneHits.get();
+    }
+
+    public long getGeneMisses() {
+        return geneMisses.get();
+    }
+
+    /**
+     * @return the fraction of phenotype lookups that did not require a query ({@link Double#NaN} if none were done)
+     */
+    public double getPhenotypeHitRate() {
+        return hitRate(phenotypeHits.get(), phenotypeMisses.get());
+    }
+
+    /**
+     * @return the fraction of gene lookups that did not require a query ({@link Double#NaN} if none were done)
+     */
+    public double getGeneHitRate() {
+        return hitRate(geneHits.get(), geneMisses.get());
+    }
+
+    private static double hitRate(long hits, long misses) {
+        return hits + misses == 0 ? Double.NaN : hits / (double) (hits + misses);
+    }
+
+    /**
+     * @return the {@link Source}{@code s} (unmodifiable), or {@code null} if not stored yet
+     */
+    Map<URI, Source> getSources() {
+        return sources;
+    }
+
+    void putSources(Map<URI, Source> sources) {
+        this.sources = Collections.unmodifiableMap(new HashMap<>(sources));
+    }
+
+    /**
+     * @param phenotypeUri the {@link URI} of a {@link Phenotype}
+     * @param withDiseases whether the entry should contain the diseases through which the genes were found
+     * @return the stored entry, or {@code null} if the phenotype needs to be queried
+     */
+    synchronized PhenotypeEntry getPhenotype(URI phenotypeUri, boolean withDiseases) {
+        PhenotypeEntry entry = (PhenotypeEntry) entries.get(phenotypeUri);
+        if(entry != null && withDiseases && entry.getDiseaseUris() == null) {
+            entry = null;
+        }
+        (entry == null ? phenotypeMisses : phenotypeHits).incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * @param phenotypeUri the {@link URI} of a {@link Phenotype}
+     * @param genes the {@link Gene}{@code s} found for the phenotype
+     * @param diseaseUris the {@link URI}{@code s} of the diseases through which the {@code genes} were found, or
+     *                    {@code null} if these were not queried
+     */
+    void putPhenotype(URI phenotypeUri, Collection<Gene> genes, Collection<URI> diseaseUris) {
+        put(phenotypeUri, new PhenotypeEntry(genes.toArray(new Gene[0]),
+                diseaseUris == null ? null : diseaseUris.toArray(new URI[0])));
+    }
+
+    /**
+     * @param geneUri the {@link URI} of a {@link Gene}
+     * @return the stored entry, or {@code null} if the gene needs to be queried
+     */
+    synchronized GeneEntry getGene(URI geneUri) {
+        Entry entry = entries.get(geneUri);
+        (entry == null ? geneMisses : geneHits).incrementAndGet();
+        return (GeneEntry) entry;
+    }
+
+    void putGene(URI geneUri, GeneEntry entry) {
+        put(geneUri, entry);
+    }
+
+    private synchronized void put(URI uri, Entry entry) {
+        if(entry.getWeight() > maxWeight) {
+            return; // Would remove everything else.
+        }
+        Entry previous = entries.put(uri, entry);
+        if(previous != null) {
+            weight -= previous.getWeight();
+        }
+        weight += entry.getWeight();
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(weight > maxWeight) {
+            weight -= iterator.next().getWeight();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all entries (the statistics are kept).
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        sources = null;
+    }
+
+    private abstract static class Entry {
+        /**
+         * @return the weight of the entry: the number of stored values (and 1 for the entry itself)
+         */
+        abstract int getWeight();
+    }
+
+    /**
+     * The query results of a single {@link Phenotype}.
+     */
+    static class PhenotypeEntry extends Entry {
+        private final Gene[] genes;
+        private final URI[] diseaseUris;
+
+        PhenotypeEntry(Gene[] genes, URI[] diseaseUris) {
+            this.genes = genes;
+            this.diseaseUris = diseaseUris;
+        }
+
+        Gene[] getGenes() {
+            return genes;
+        }
+
+        /**
+         * @return the disease {@link URI}{@code s}, or {@code null} if these were not queried
+         */
+        URI[] getDiseaseUris() {
+            return diseaseUris;
+        }
+
+        @Override
+        int getWeight() {
+            return 1 + genes.length + (diseaseUris == null ? 0 : diseaseUris.length);
+        }
+    }
+
+    /**
+     * The gene-disease associations of a single {@link Gene} (one row per association source, the same as the query
+     * results).
+     */
+    static class GeneEntry extends Entry {
+        private final Disease[] diseases;
+        private final double[] scores;
+        private final URI[] sourceUris;
+
+        /**
+         * {@code null} values for rows without evidence.
+         */
+        private final Node[] evidence;
+
+        private GeneEntry(Disease[] diseases, double[] scores, URI[] sourceUris, Node[] evidence) {
+            this.diseases = diseases;
+            this.scores = scores;
+            this.sourceUris = sourceUris;
+            this.evidence = evidence;
+        }
+
+        int size() {
+            return diseases.length;
+        }
+
+        Disease getDisease(int index) {
+            return diseases[index];
+        }
+
+        double getScore(int index) {
+            return scores[index];
+        }
+
+        URI getSourceUri(int index) {
+            return sourceUris[index];
+        }
+
+        Node getEvidence(int index) {
+            return evidence[index];
+        }
+
+        @Override
+        int getWeight() {
+            return 1 + diseases.length;
+        }
+    }
+
+    /**
+     * Collects the rows of a {@link GeneEntry} while querying.
+     */
+    static class GeneEntryBuilder {
+        private final List<Disease> diseases = new ArrayList<>();
+        private final List<Double> scores = new ArrayList<>();
+        private final List<URI> sourceUris = new ArrayList<>();
+        private final List<Node> evidence = new ArrayList<>();
+
+        void add(Disease disease, double score, URI sourceUri, Node evidence) {
+            diseases.add(disease);
+            scores.add(score);
+            sourceUris.add(sourceUri);
+            this.evidence.add(evidence);
+        }
+
+        GeneEntry build() {
+            double[] scoreArray = new double[scores.size()];
+            for(int i = 0; i < scoreArray.length; i++) {
+                scoreArray[i] = scores.get(i);
+            }
+            return new GeneEntry(diseases.toArray(new Disease[0]), scoreArray, sourceUris.toArray(new URI[0]),
+                    evidence.toArray(new Node[0]));
+        }
+    }
+}
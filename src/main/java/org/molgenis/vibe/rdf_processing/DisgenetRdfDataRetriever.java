@@ -2,7 +2,8 @@ package org.molgenis.vibe.rdf_processing;
 
 import static java.util.Objects.requireNonNull;
 
-import org.apache.jena.query.QuerySolution;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.molgenis.vibe.formats.Source;
 import org.molgenis.vibe.io.ModelReader;
 import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
@@ -17,13 +18,26 @@ import java.util.Map;
  * Retrieves data for further usage from the DisGeNET database.
  */
 public abstract class DisgenetRdfDataRetriever {
+    private static final Var SOURCE = Var.alloc("source");
+    private static final Var SOURCE_TITLE = Var.alloc("sourceTitle");
+    private static final Var SOURCE_LEVEL = Var.alloc("sourceLevel");
+
     private ModelReader modelReader;
+
+    /**
+     * Converts query result values into canonical objects (shared among all retrievers).
+     */
+    private NodeInterner nodeInterner = NodeInterner.getShared();
     private Map<URI,Source> sources = new HashMap<>();
 
     protected ModelReader getModelReader() {
         return modelReader;
     }
 
+    protected NodeInterner getNodeInterner() {
+        return nodeInterner;
+    }
+
     /**
      * Requires {@link #retrieveSources()} to be run first!
      * @param uri
@@ -55,12 +69,12 @@ public abstract class DisgenetRdfDataRetriever {
                 DisgenetQueryStringGenerator.getSources());
 
         while(query.hasNext()) {
-            QuerySolution result = query.next();
+            Binding result = query.nextBinding();
 
-            URI sourceUri = URI.create(result.get("source").asResource().getURI());
+            URI sourceUri = nodeInterner.getUri(result.get(SOURCE));
             sources.put(sourceUri,
-                    new Source(result.get("sourceTitle").asLiteral().getString(),
-                            result.get("sourceLevel").asResource().getURI(),
+                    new Source(nodeInterner.getString(result.get(SOURCE_TITLE)),
+                            result.get(SOURCE_LEVEL).getURI(),
                             sourceUri)
             );
         }
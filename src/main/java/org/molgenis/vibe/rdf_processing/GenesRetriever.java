@@ -0,0 +1,402 @@
+package org.molgenis.vibe.rdf_processing;
+
+import static java.util.Objects.requireNonNull;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Retrieves all required information for further processing regarding the genes belonging to given phenotypes.
+ * Subclasses define how the gene-disease associations are stored (see
+ * {@link #storeGeneDiseaseAssociation(Gene, Disease, double, Source, Node)}) and expose them through
+ * {@link #getGeneDiseaseCollectionView()}.
+ *
+ * If {@link #setPhenotypeDiseaseProvenance(boolean)} is enabled, a {@link PhenotypeDiseaseCollection} is created as
+ * well that stores through which {@link Disease}{@code s} the {@link Gene}{@code s} were found for each
+ * {@link Phenotype} (the provenance). As this requires a query result for each phenotype-disease-gene combination
+ * instead of one per gene, it is disabled by default.
+ */
+public abstract class GenesRetriever extends DisgenetRdfDataRetriever {
+    private static final Var HPO = Var.alloc("hpo");
+    private static final Var GENE = Var.alloc("gene");
+    private static final Var GENE_ID = Var.alloc("geneId");
+    private static final Var GENE_TITLE = Var.alloc("geneTitle");
+    private static final Var GENE_SYMBOL_TITLE = Var.alloc("geneSymbolTitle");
+    private static final Var DSI_VALUE = Var.alloc("dsiValue");
+    private static final Var DPI_VALUE = Var.alloc("dpiValue");
+    private static final Var DISEASE = Var.alloc("disease");
+    private static final Var DISEASE_ID = Var.alloc("diseaseId");
+    private static final Var DISEASE_TITLE = Var.alloc("diseaseTitle");
+    private static final Var GDA_SCORE_NUMBER = Var.alloc("gdaScoreNumber");
+    private static final Var GDA_SOURCE = Var.alloc("gdaSource");
+    private static final Var EVIDENCE = Var.alloc("evidence");
+
+    /**
+     * The {@link Phenotype}{@code s} to be processed.
+     */
+    private Set<Phenotype> phenotypes;
+
+    /**
+     * {@link Gene}{@code s} storage for further processing.
+     */
+    private Set<Gene> genes = new HashSet<>();
+
+    /**
+     * {@link Gene}{@code s} storage for easy retrieval.
+     */
+    private Map<URI, Gene> genesByUri = new HashMap<>();
+
+    /**
+     * {@link Disease}{@code s} storage for easy retrieval.
+     */
+    private Map<URI, Disease> diseasesByUri = new HashMap<>();
+
+    /**
+     * Which {@link Disease}{@code s} were found for which {@link Phenotype}.
+     */
+    private PhenotypeDiseaseCollection phenotypeDiseaseCollection = new PhenotypeDiseaseCollection();
+
+    /**
+     * If set, only the {@link Phenotype}{@code s}/{@link Gene}{@code s} that are not stored in it are queried.
+     */
+    private DisgenetLookupCache cache;
+
+    /**
+     * Whether the {@link #phenotypeDiseaseCollection} should be filled.
+     */
+    private boolean phenotypeDiseaseProvenance = false;
+
+    protected Set<Phenotype> getPhenotypes() {
+        return phenotypes;
+    }
+
+    protected Set<Gene> getGenes() {
+        return genes;
+    }
+
+    protected Map<URI, Gene> getGenesByUri() {
+        return genesByUri;
+    }
+
+    /**
+     * @return the retrieved gene-disease associations as read-only view
+     */
+    public abstract GeneDiseaseCollectionView getGeneDiseaseCollectionView();
+
+    /**
+     * @return which {@link Disease}{@code s} were found for which {@link Phenotype} (empty if
+     * {@link #isPhenotypeDiseaseProvenance()} is disabled)
+     */
+    public PhenotypeDiseaseCollection getPhenotypeDiseaseCollection() {
+        return phenotypeDiseaseCollection;
+    }
+
+    public GenesRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader);
+        this.phenotypes = requireNonNull(phenotypes);
+    }
+
+    /**
+     * @param cache a {@link DisgenetLookupCache} shared with other retrievers on the same database, or {@code null} to
+     *              query everything
+     */
+    public void setCache(DisgenetLookupCache cache) {
+        this.cache = cache;
+    }
+
+    public boolean isPhenotypeDiseaseProvenance() {
+        return phenotypeDiseaseProvenance;
+    }
+
+    /**
+     * @param phenotypeDiseaseProvenance whether to store through which {@link Disease}{@code s} the
+     *                                   {@link Gene}{@code s} were found for each {@link Phenotype} (required by
+     *                                   prioritizers using the {@link #getPhenotypeDiseaseCollection()})
+     */
+    public void setPhenotypeDiseaseProvenance(boolean phenotypeDiseaseProvenance) {
+        this.phenotypeDiseaseProvenance = phenotypeDiseaseProvenance;
+    }
+
+    @Override
+    public void run() {
+        retrieveSources();
+        retrieveForPhenotypes(phenotypes);
+    }
+
+    @Override
+    protected void retrieveSources() {
+        if(cache == null) {
+            super.retrieveSources();
+            return;
+        }
+        Map<URI, Source> cachedSources = cache.getSources();
+        if(cachedSources == null) {
+            super.retrieveSources();
+            cache.putSources(getSources());
+        } else {
+            getSources().putAll(cachedSources);
+        }
+    }
+
+    /**
+     * Retrieves the {@link Gene}{@code s} (and their gene-disease associations) for the given {@link Phenotype}{@code s}
+     * and adds them to the already stored data.
+     * @param phenotypesToRetrieve the {@link Phenotype}{@code s} to query the database for
+     * @return the {@link Gene}{@code s} that were not stored yet
+     */
+    protected Set<Gene> retrieveForPhenotypes(Set<Phenotype> phenotypesToRetrieve) {
+        Map<Phenotype, Set<URI>> diseaseUrisByPhenotype = new HashMap<>();
+        Set<Gene> newGenes = retrieveGenes(phenotypesToRetrieve, diseaseUrisByPhenotype);
+        if(!newGenes.isEmpty()) {
+            retrieveGdasWithDiseases(newGenes);
+        }
+        storePhenotypeDiseaseCombinations(diseaseUrisByPhenotype);
+        return newGenes;
+    }
+
+    /**
+     * Retrieves the {@link Gene}{@code s} for the given {@link Phenotype}{@code s}.
+     * @param phenotypesToRetrieve the {@link Phenotype}{@code s} to query the database for
+     * @param diseaseUrisByPhenotype is filled with the {@link URI}{@code s} of the diseases through which genes were
+     *                               found per {@link Phenotype} (if {@link #phenotypeDiseaseProvenance} is enabled)
+     * @return the {@link Gene}{@code s} that were not stored yet
+     */
+    private Set<Gene> retrieveGenes(Set<Phenotype> phenotypesToRetrieve, Map<Phenotype, Set<URI>> diseaseUrisByPhenotype) {
+        NodeInterner interner = getNodeInterner();
+        Set<Gene> newGenes = new HashSet<>();
+
+        // Only queries the phenotypes that are not cached.
+        Set<Phenotype> phenotypesToQuery = phenotypesToRetrieve;
+        Map<Phenotype, Set<Gene>> queriedGenesByPhenotype = null;
+        if(cache != null) {
+            phenotypesToQuery = new HashSet<>();
+            for(Phenotype phenotype : phenotypesToRetrieve) {
+                DisgenetLookupCache.PhenotypeEntry entry = cache.getPhenotype(phenotype.getUri(), phenotypeDiseaseProvenance);
+                if(entry == null) {
+                    phenotypesToQuery.add(phenotype);
+                } else {
+                    storeCachedPhenotype(phenotype, entry, diseaseUrisByPhenotype, newGenes);
+                }
+            }
+            if(phenotypesToQuery.isEmpty()) {
+                return newGenes;
+            }
+            queriedGenesByPhenotype = new HashMap<>();
+        }
+
+        // Uses the given Phenotype instances instead of creating a new one for each result.
+        Map<URI, Phenotype> phenotypesByUri = new HashMap<>();
+        for(Phenotype phenotype : phenotypesToQuery) {
+            phenotypesByUri.put(phenotype.getUri(), phenotype);
+        }
+
+        // Only returns a result per phenotype (and disease) when this is needed.
+        QueryRunner query;
+        if(phenotypeDiseaseProvenance) {
+            query = new QueryRunner(getModelReader().getModel(),
+                    DisgenetQueryStringGenerator.getGenesWithDiseasesForPhenotypes(phenotypesToQuery));
+        } else if(queriedGenesByPhenotype != null) {
+            query = new QueryRunner(getModelReader().getModel(),
+                    DisgenetQueryStringGenerator.getGenesPerPhenotype(phenotypesToQuery));
+        } else {
+            query = new QueryRunner(getModelReader().getModel(),
+                    DisgenetQueryStringGenerator.getGenesForPhenotypes(phenotypesToQuery));
+        }
+
+        while(query.hasNext()) {
+            Binding result = query.nextBinding();
+
+            Phenotype phenotype = null;
+            if(phenotypeDiseaseProvenance || queriedGenesByPhenotype != null) {
+                URI phenotypeUri = interner.getUri(result.get(HPO));
+                phenotype = phenotypesByUri.get(phenotypeUri);
+                if(phenotype == null) {
+                    phenotype = new Phenotype(phenotypeUri);
+                    phenotypesByUri.put(phenotypeUri, phenotype);
+                }
+            }
+
+            // Stores through which disease a gene was found for a phenotype.
+            if(phenotypeDiseaseProvenance) {
+                diseaseUrisByPhenotype.computeIfAbsent(phenotype, k -> new HashSet<>())
+                        .add(interner.getUri(result.get(DISEASE)));
+            }
+
+            // Stores the gene if it was not stored yet.
+            URI geneUri = interner.getUri(result.get(GENE));
+            Gene gene = genesByUri.get(geneUri);
+            if(gene == null) {
+                String geneId = interner.getString(result.get(GENE_ID));
+                String geneTitle = interner.getString(result.get(GENE_TITLE));
+                String geneSymbol = interner.getString(result.get(GENE_SYMBOL_TITLE));
+                double diseaseSpecificityIndex = interner.getDouble(result.get(DSI_VALUE));
+                double diseasePleiotropyIndex = interner.getDouble(result.get(DPI_VALUE));
+
+                gene = new Gene(geneId, geneTitle, geneSymbol, diseaseSpecificityIndex, diseasePleiotropyIndex, geneUri);
+                genes.add(gene);
+                genesByUri.put(geneUri, gene);
+                newGenes.add(gene);
+            }
+            if(queriedGenesByPhenotype != null) {
+                queriedGenesByPhenotype.computeIfAbsent(phenotype, k -> new HashSet<>()).add(gene);
+            }
+        }
+
+        query.close();
+
+        // Phenotypes without results are cached as well (so they are not queried again).
+        if(queriedGenesByPhenotype != null) {
+            for(Phenotype phenotype : phenotypesToQuery) {
+                cache.putPhenotype(phenotype.getUri(),
+                        queriedGenesByPhenotype.getOrDefault(phenotype, Collections.emptySet()),
+                        phenotypeDiseaseProvenance ?
+                                diseaseUrisByPhenotype.getOrDefault(phenotype, Collections.emptySet()) : null);
+            }
+        }
+        return newGenes;
+    }
+
+    /**
+     * Stores the cached query results of a {@link Phenotype} the same way as {@link #retrieveGenes(Set, Map)} stores
+     * queried results.
+     */
+    private void storeCachedPhenotype(Phenotype phenotype, DisgenetLookupCache.PhenotypeEntry entry,
+                                      Map<Phenotype, Set<URI>> diseaseUrisByPhenotype, Set<Gene> newGenes) {
+        if(phenotypeDiseaseProvenance && entry.getDiseaseUris().length > 0) {
+            diseaseUrisByPhenotype.computeIfAbsent(phenotype, k -> new HashSet<>())
+                    .addAll(Arrays.asList(entry.getDiseaseUris()));
+        }
+        for(Gene gene : entry.getGenes()) {
+            if(!genesByUri.containsKey(gene.getUri())) {
+                genes.add(gene);
+                genesByUri.put(gene.getUri(), gene);
+                newGenes.add(gene);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the gene-disease associations for the given {@link Gene}{@code s}. As these {@link Gene}{@code s} are
+     * not stored yet, all found gene-disease combinations are new.
+     * @param genesToRetrieve the {@link Gene}{@code s} to query the database for
+     */
+    private void retrieveGdasWithDiseases(Set<Gene> genesToRetrieve) {
+        // Only queries the genes that are not cached.
+        Set<Gene> genesToQuery = genesToRetrieve;
+        Map<Gene, DisgenetLookupCache.GeneEntryBuilder> queriedEntries = null;
+        if(cache != null) {
+            genesToQuery = new HashSet<>();
+            for(Gene gene : genesToRetrieve) {
+                DisgenetLookupCache.GeneEntry entry = cache.getGene(gene.getUri());
+                if(entry == null) {
+                    genesToQuery.add(gene);
+                } else {
+                    storeCachedGene(gene, entry);
+                }
+            }
+            if(genesToQuery.isEmpty()) {
+                return;
+            }
+            queriedEntries = new HashMap<>();
+            for(Gene gene : genesToQuery) {
+                queriedEntries.put(gene, new DisgenetLookupCache.GeneEntryBuilder());
+            }
+        }
+
+        NodeInterner interner = getNodeInterner();
+        QueryRunner query = new QueryRunner(getModelReader().getModel(),
+                DisgenetQueryStringGenerator.getGdasWithDiseasesForGenes(genesToQuery));
+
+        while(query.hasNext()) {
+            Binding result = query.nextBinding();
+
+            // Check if disease is already stored, and if not, stores it (using URI as key).
+            URI diseaseUri = interner.getUri(result.get(DISEASE));
+            Disease disease = diseasesByUri.get(diseaseUri);
+
+            if(disease == null) {
+                disease = new Disease(interner.getString(result.get(DISEASE_ID)),
+                        interner.getString(result.get(DISEASE_TITLE)),
+                        diseaseUri);
+
+                diseasesByUri.put(diseaseUri, disease);
+            }
+
+            // Retrieves gene.
+            Gene gene = genesByUri.get(interner.getUri(result.get(GENE)));
+
+            // Retrieves source belonging to match. If this causes an error, this might indicate a corrupt database (as
+            // retrieveSources() should retrieve all possible sources available).
+            URI sourceUri = interner.getUri(result.get(GDA_SOURCE));
+            Source source = getSources().get(sourceUri);
+
+            double score = interner.getDouble(result.get(GDA_SCORE_NUMBER));
+            Node evidence = result.get(EVIDENCE);
+            storeGeneDiseaseAssociation(gene, disease, score, source, evidence);
+            if(queriedEntries != null) {
+                queriedEntries.get(gene).add(disease, score, sourceUri, evidence);
+            }
+        }
+
+        query.close();
+
+        // Genes without gene-disease associations are cached as well (so they are not queried again).
+        if(queriedEntries != null) {
+            for(Map.Entry<Gene, DisgenetLookupCache.GeneEntryBuilder> entry : queriedEntries.entrySet()) {
+                cache.putGene(entry.getKey().getUri(), entry.getValue().build());
+            }
+        }
+    }
+
+    /**
+     * Stores the cached gene-disease associations of a {@link Gene} the same way as
+     * {@link #retrieveGdasWithDiseases(Set)} stores queried results.
+     */
+    private void storeCachedGene(Gene gene, DisgenetLookupCache.GeneEntry entry) {
+        for(int i = 0; i < entry.size(); i++) {
+            Disease disease = diseasesByUri.get(entry.getDisease(i).getUri());
+            if(disease == null) {
+                disease = entry.getDisease(i);
+                diseasesByUri.put(disease.getUri(), disease);
+            }
+            storeGeneDiseaseAssociation(gene, disease, entry.getScore(i), getSources().get(entry.getSourceUri(i)),
+                    entry.getEvidence(i));
+        }
+    }
+
+    /**
+     * Stores a single gene-disease association result (queried or cached).
+     * @param gene the {@link Gene}
+     * @param disease the {@link Disease}
+     * @param score the DisGeNET score belonging to the gene-disease association
+     * @param source the {@link Source} the gene-disease association was found in
+     * @param evidence the evidence {@link Node}, or {@code null} if the result has no evidence
+     */
+    protected abstract void storeGeneDiseaseAssociation(Gene gene, Disease disease, double score, Source source, Node evidence);
+
+    /**
+     * Stores the phenotype-disease provenance. Done after the gene-disease associations are retrieved so that the same
+     * {@link Disease} instances (containing all information) are used.
+     * @param diseaseUrisByPhenotype the disease {@link URI}{@code s} found per {@link Phenotype}
+     */
+    private void storePhenotypeDiseaseCombinations(Map<Phenotype, Set<URI>> diseaseUrisByPhenotype) {
+        for(Map.Entry<Phenotype, Set<URI>> entry : diseaseUrisByPhenotype.entrySet()) {
+            for(URI diseaseUri : entry.getValue()) {
+                Disease disease = diseasesByUri.get(diseaseUri);
+                // Only occurs if the disease misses information required by the gene-disease association query.
+                if(disease == null) {
+                    disease = new Disease(diseaseUri);
+                }
+                phenotypeDiseaseCollection.add(new PhenotypeDiseaseCombination(entry.getKey(), disease));
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+
+import java.util.*;
+
+/**
+ * A {@link GenesForPhenotypeRetriever} that, after an initial {@link #run()}, can be updated when the input
+ * {@link Phenotype}{@code s} change (for example when a clinician adds or removes a few HPO terms). Only the added
+ * {@link Phenotype}{@code s} are queried and only the {@link Gene}{@code s} that were not known before have their
+ * gene-disease associations retrieved. For removed {@link Phenotype}{@code s}, the stored provenance
+ * ({@link #getPhenotypeDiseaseCollection()}) is used to find which {@link Gene}{@code s} are not reachable anymore, so
+ * that no querying is needed at all.
+ *
+ * The {@link GeneDiseaseCollection} returned by {@link #getGeneDiseaseCollection()} is updated in place.
+ */
+public class IncrementalGenesForPhenotypeRetriever extends GenesForPhenotypeRetriever {
+    public IncrementalGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader, new HashSet<>(phenotypes));
+        setPhenotypeDiseaseProvenance(true); // Required for finding the genes that should be removed.
+    }
+
+    /**
+     * Updates the stored data so that it reflects {@code phenotypes} as input.
+     * @param phenotypes the new input {@link Phenotype}{@code s}
+     * @return the {@link Gene}{@code s} that were added/removed
+     */
+    public BiologicalEntityDelta<Gene> update(Set<Phenotype> phenotypes) {
+        Set<Phenotype> added = new HashSet<>(phenotypes);
+        added.removeAll(getPhenotypes());
+        Set<Phenotype> removed = new HashSet<>(getPhenotypes());
+        removed.removeAll(phenotypes);
+
+        return update(new BiologicalEntityDelta<>(added, removed));
+    }
+
+    /**
+     * Updates the stored data with the given change in input {@link Phenotype}{@code s} (such as returned by
+     * {@link PhenotypeNetworkCollection#add(PhenotypeNetwork)}). Added {@link Phenotype}{@code s} that are already
+     * stored and removed {@link Phenotype}{@code s} that are not stored are ignored.
+     * @param phenotypeDelta the added/removed {@link Phenotype}{@code s}
+     * @return the {@link Gene}{@code s} that were added/removed
+     */
+    public BiologicalEntityDelta<Gene> update(BiologicalEntityDelta<Phenotype> phenotypeDelta) {
+        Set<Gene> removedGenes = removePhenotypes(phenotypeDelta.getRemoved());
+        Set<Gene> addedGenes = addPhenotypes(phenotypeDelta.getAdded());
+
+        return new BiologicalEntityDelta<>(new HashSet<>(), removedGenes).merge(
+                new BiologicalEntityDelta<>(addedGenes, new HashSet<>()));
+    }
+
+    /**
+     * Queries the database for the {@link Phenotype}{@code s} that are not stored yet.
+     * @param phenotypesToAdd the {@link Phenotype}{@code s} to add
+     * @return the {@link Gene}{@code s} that were not stored before
+     */
+    private Set<Gene> addPhenotypes(Set<Phenotype> phenotypesToAdd) {
+        Set<Phenotype> newPhenotypes = new HashSet<>(phenotypesToAdd);
+        newPhenotypes.removeAll(getPhenotypes());
+        if(newPhenotypes.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        getPhenotypes().addAll(newPhenotypes);
+        return retrieveForPhenotypes(newPhenotypes);
+    }
+
+    /**
+     * Removes the {@link Phenotype}{@code s} and all {@link Gene}{@code s} (with their gene-disease associations) that
+     * can not be reached through any of the remaining {@link Phenotype}{@code s}.
+     * @param phenotypesToRemove the {@link Phenotype}{@code s} to remove
+     * @return the {@link Gene}{@code s} that were removed
+     */
+    private Set<Gene> removePhenotypes(Set<Phenotype> phenotypesToRemove) {
+        PhenotypeDiseaseCollection phenotypeDiseaseCollection = getPhenotypeDiseaseCollection();
+        GeneDiseaseCollection geneDiseaseCollection = getGeneDiseaseCollection();
+
+        // Removes the provenance belonging to the phenotypes and collects the diseases that might have become unreachable.
+        Set<Disease> affectedDiseases = new HashSet<>();
+        for(Phenotype phenotype : phenotypesToRemove) {
+            if(!getPhenotypes().remove(phenotype)) {
+                continue;
+            }
+            for(PhenotypeDiseaseCombination combination : new ArrayList<>(phenotypeDiseaseCollection.getByPhenotype(phenotype))) {
+                affectedDiseases.add(combination.getDisease());
+                phenotypeDiseaseCollection.remove(combination);
+            }
+        }
+
+        // Only genes associated to an affected disease can have become unreachable.
+        Set<Gene> candidateGenes = new HashSet<>();
+        for(Disease disease : affectedDiseases) {
+            if(!phenotypeDiseaseCollection.getByDisease(disease).isEmpty()) {
+                continue; // Disease is still reachable through another phenotype.
+            }
+            for(GeneDiseaseCombination gdc : geneDiseaseCollection.getByDisease(disease)) {
+                candidateGenes.add(gdc.getGene());
+            }
+        }
+
+        // A gene is still reachable if any of its diseases is still linked to a remaining phenotype.
+        Set<Gene> removedGenes = new HashSet<>();
+        for(Gene gene : candidateGenes) {
+            boolean reachable = false;
+            for(GeneDiseaseCombination gdc : geneDiseaseCollection.getByGene(gene)) {
+                if(!phenotypeDiseaseCollection.getByDisease(gdc.getDisease()).isEmpty()) {
+                    reachable = true;
+                    break;
+                }
+            }
+
+            if(!reachable) {
+                for(GeneDiseaseCombination gdc : new ArrayList<>(geneDiseaseCollection.getByGene(gene))) {
+                    geneDiseaseCollection.remove(gdc);
+                }
+                getGenes().remove(gene);
+                getGenesByUri().remove(gene.getUri());
+                removedGenes.add(gene);
+            }
+        }
+
+        return removedGenes;
+    }
+}
@@ -0,0 +1,125 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.graph.Node;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Converts Apache Jena {@link Node}{@code s} into canonical Java objects. Query results contain the same few thousand
+ * resources (genes, diseases, sources) over and over again. Instead of creating a new {@link URI} for every
+ * result row, the first conversion is stored and returned for every following occurrence of the same {@link Node}.
+ *
+ * The TDB hands out cached {@link Node} instances, so in most cases the lookup is resolved through the reference
+ * comparison done by the map before falling back to {@link Node#equals(Object)} (which only compares the already
+ * hashed label). Either way, no objects are created for repeated values.
+ *
+ * A single {@link #getShared()} instance is available so that all retrievers within a JVM share the same canonical
+ * objects. This class is thread-safe without locking (lookups of already stored {@link URI}{@code s} are plain
+ * {@link ConcurrentHashMap} reads), so concurrent retrievers do not serialize on it. The pool is bounded by a maximum
+ * number of {@link URI}{@code s}: when it is full, it is cleared before storing the next one (so a long running service
+ * does not keep every resource it ever queried, while the resources that repeat are stored again on their next
+ * occurrence). Evidence (mostly unique publication URIs) should therefore not be interned, as it would only fill the
+ * pool with resources that do not repeat.
+ */
+public final class NodeInterner {
+    /**
+     * The default maximum number of stored {@link URI}{@code s} (a few megabytes, more than the number of genes,
+     * diseases and sources in DisGeNET combined).
+     */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    /**
+     * The instance shared by all retrievers.
+     */
+    private static final NodeInterner SHARED = new NodeInterner();
+
+    /**
+     * The maximum number of stored {@link URI}{@code s}.
+     */
+    private final int maxSize;
+
+    /**
+     * Canonical {@link URI}{@code s} per resource {@link Node}.
+     */
+    private final ConcurrentHashMap<Node, URI> uris = new ConcurrentHashMap<>();
+
+    public static NodeInterner getShared() {
+        return SHARED;
+    }
+
+    public NodeInterner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the maximum number of stored {@link URI}{@code s}
+     * @throws IllegalArgumentException if {@code maxSize} is lower than 1
+     */
+    public NodeInterner(int maxSize) {
+        if(maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be 1 or higher");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Retrieves the canonical {@link URI} belonging to a resource {@link Node}.
+     * @param node a {@link Node} for which {@link Node#isURI()} is {@code true}
+     * @return the {@link URI} of the {@code node}
+     * @throws UnsupportedOperationException if {@code node} is not an URI node
+     */
+    public URI getUri(Node node) {
+        URI uri = uris.get(requireNonNull(node));
+        if(uri != null) {
+            return uri;
+        }
+        // Only misses check the size: concurrent misses might briefly exceed maxSize by the number of threads.
+        if(uris.size() >= maxSize) {
+            uris.clear();
+        }
+        uri = URI.create(node.getURI());
+        URI stored = uris.putIfAbsent(node, uri);
+        return stored == null ? uri : stored;
+    }
+
+    /**
+     * Retrieves the lexical form of a literal {@link Node}. The {@link String} is the one stored within the
+     * {@link Node} itself, so no copy is made.
+     * @param node a {@link Node} for which {@link Node#isLiteral()} is {@code true}
+     * @return the lexical form of {@code node}
+     */
+    public String getString(Node node) {
+        return node.getLiteralLexicalForm();
+    }
+
+    /**
+     * Retrieves the numeric value of a literal {@link Node} (parsed once by Apache Jena and cached within the {@link Node}).
+     * @param node a {@link Node} for which {@link Node#isLiteral()} is {@code true} and which has a numeric datatype
+     * @return the value as {@code double}
+     * @throws ClassCastException if the literal is not numeric
+     */
+    public double getDouble(Node node) {
+        return ((Number) node.getLiteralValue()).doubleValue();
+    }
+
+    /**
+     * @return the number of stored canonical {@link URI}{@code s}
+     */
+    public int size() {
+        return uris.size();
+    }
+
+    /**
+     * Removes all stored canonical objects.
+     */
+    public void clear() {
+        uris.clear();
+    }
+}
@@ -0,0 +1,59 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.graph.Node;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+
+import java.util.Set;
+
+/**
+ * A {@link GenesRetriever} that stores the gene-disease associations in an
+ * {@link OffHeapGeneDiseaseCollection} instead of creating {@link GeneDiseaseCombination}{@code s}. The query results
+ * are directly written to an {@link OffHeapGeneDiseaseCollection.Builder} (evidence is not converted into
+ * {@link java.net.URI}{@code s} at all), so even during retrieval the gene-disease associations are not stored on the
+ * Java heap.
+ *
+ * Use {@link #getGeneDiseaseCollectionView()} to retrieve the results. As the {@link OffHeapGeneDiseaseCollection} is
+ * read-only, this retriever can only be run once.
+ */
+public class OffHeapGenesForPhenotypeRetriever extends GenesRetriever {
+    /**
+     * Collects the gene-disease associations while querying.
+     */
+    private OffHeapGeneDiseaseCollection.Builder builder = new OffHeapGeneDiseaseCollection.Builder();
+
+    /**
+     * The final output (available after {@link #run()}).
+     */
+    private OffHeapGeneDiseaseCollection offHeapGeneDiseaseCollection;
+
+    public OffHeapGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader, phenotypes);
+    }
+
+    /**
+     * @return the {@link OffHeapGeneDiseaseCollection}, or {@code null} if {@link #run()} was not called yet
+     */
+    @Override
+    public OffHeapGeneDiseaseCollection getGeneDiseaseCollectionView() {
+        return offHeapGeneDiseaseCollection;
+    }
+
+    /**
+     * @throws IllegalStateException if called more than once
+     */
+    @Override
+    public void run() {
+        if(offHeapGeneDiseaseCollection != null) {
+            throw new IllegalStateException("an off-heap retriever can only be run once");
+        }
+        super.run();
+        offHeapGeneDiseaseCollection = builder.build();
+        builder = null;
+    }
+
+    @Override
+    protected void storeGeneDiseaseAssociation(Gene gene, Disease disease, double score, Source source, Node evidence) {
+        builder.add(gene, disease, score, source, evidence == null ? null : evidence.getURI());
+    }
+}
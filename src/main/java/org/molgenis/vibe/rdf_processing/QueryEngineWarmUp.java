@@ -0,0 +1,224 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.OntologyModelFilesReader;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetriever;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+
+import java.net.URI;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Runs representative requests before the first real one, so that their latency does not include the one-time costs
+ * of a fresh JVM (class loading, the query optimizer setup, JIT compilation and filling the TDB caches). Each iteration
+ * retrieves the DisGeNET data of {@link #PHENOTYPES_PER_ITERATION} phenotypes present in the dataset (after retrieving
+ * their associated phenotypes, if an ontology is set) the same way a request does.</p>
+ *
+ * <p>Iterations are started until the budget is used up. Afterwards, the first iteration is repeated, so that
+ * {@link #getColdNanos()} and {@link #getWarmNanos()} show how much the warm-up reduced the latency of a first request
+ * (see {@link #getLatencyReduction()}).</p>
+ *
+ * <p>The DisGeNET dataset is queried on the calling thread, which therefore needs reading access (see
+ * {@link ModelReader#beginRead()}). The results are not stored in any {@link DisgenetLookupCache}.</p>
+ */
+public class QueryEngineWarmUp {
+    /**
+     * The number of phenotypes retrieved from the dataset to be used for the iterations.
+     */
+    public static final int SAMPLE_SIZE = 30;
+
+    /**
+     * The number of phenotypes per iteration (a typical patient).
+     */
+    public static final int PHENOTYPES_PER_ITERATION = 3;
+
+    private static final Var HPO = Var.alloc("hpo");
+
+    private ModelReader disgenetReader;
+
+    private long budgetNanos;
+
+    /**
+     * Can be {@code null}, in which case no associated phenotypes are retrieved.
+     */
+    private OntologyModelFilesReader ontologyReader;
+
+    /**
+     * Used in turn per iteration.
+     */
+    private PhenotypesRetrieverFactory[] phenotypesRetrieverFactories;
+
+    private int maxDistance;
+
+    /**
+     * Whether the gene-disease associations should be stored outside of the Java heap.
+     */
+    private boolean offHeapStorage = false;
+
+    private int sampleSize = 0;
+    private int iterations = 0;
+    private long durationNanos = 0;
+    private long coldNanos = 0;
+    private long warmNanos = 0;
+
+    /**
+     * @param disgenetReader the DisGeNET dataset
+     * @param budgetMillis the time after which no new iterations are started
+     * @throws IllegalArgumentException if {@code budgetMillis} is lower than 1
+     */
+    public QueryEngineWarmUp(ModelReader disgenetReader, long budgetMillis) {
+        if(budgetMillis < 1) {
+            throw new IllegalArgumentException("budgetMillis must be 1 or higher");
+        }
+        this.disgenetReader = requireNonNull(disgenetReader);
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    /**
+     * Enables retrieving the associated phenotypes in each iteration.
+     * @param ontologyReader the HPO ontology
+     * @param maxDistance the maximum distance used by the {@code factories}
+     * @param factories the {@link PhenotypesRetrieverFactory}{@code s} to use (in turn per iteration)
+     */
+    public void setPhenotypesRetrieval(OntologyModelFilesReader ontologyReader, int maxDistance,
+                                       PhenotypesRetrieverFactory... factories) {
+        if(factories.length == 0) {
+            throw new IllegalArgumentException("At least 1 factory is required.");
+        }
+        this.ontologyReader = requireNonNull(ontologyReader);
+        this.maxDistance = maxDistance;
+        this.phenotypesRetrieverFactories = factories;
+    }
+
+    public void setOffHeapStorage(boolean offHeapStorage) {
+        this.offHeapStorage = offHeapStorage;
+    }
+
+    /**
+     * @return the number of phenotypes used (0 if the dataset did not contain any, in which case no iterations are run)
+     */
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * @return the number of iterations within the budget (excluding the repeated first iteration)
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the total time of the warm-up
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the time of the first iteration, including selecting the phenotypes (which initializes the query engine,
+     * the same as a first request would)
+     */
+    public long getColdNanos() {
+        return coldNanos;
+    }
+
+    /**
+     * @return the time of the first iteration when repeated after the warm-up
+     */
+    public long getWarmNanos() {
+        return warmNanos;
+    }
+
+    /**
+     * @return the fraction of the first iteration time saved by the warm-up ({@link Double#NaN} if no iterations were run)
+     */
+    public double getLatencyReduction() {
+        return iterations == 0 ? Double.NaN : 1 - warmNanos / (double) coldNanos;
+    }
+
+    /**
+     * Runs the warm-up (can only be run once).
+     */
+    public void run() {
+        if(durationNanos > 0) {
+            throw new IllegalStateException("Warm-up was already run.");
+        }
+        long startNanos = System.nanoTime();
+        List<Set<Phenotype>> phenotypeSets = selectPhenotypeSets();
+
+        if(!phenotypeSets.isEmpty()) {
+            runIteration(phenotypeSets.get(0), 0);
+            coldNanos = System.nanoTime() - startNanos;
+            iterations++;
+
+            while(System.nanoTime() - startNanos < budgetNanos) {
+                runIteration(phenotypeSets.get(iterations % phenotypeSets.size()), iterations);
+                iterations++;
+            }
+
+            long warmStartNanos = System.nanoTime();
+            runIteration(phenotypeSets.get(0), 0);
+            warmNanos = System.nanoTime() - warmStartNanos;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return the phenotypes from the dataset divided into sets of {@link #PHENOTYPES_PER_ITERATION}
+     */
+    private List<Set<Phenotype>> selectPhenotypeSets() {
+        List<Set<Phenotype>> phenotypeSets = new ArrayList<>();
+        QueryRunner query = new QueryRunner(disgenetReader.getModel(), DisgenetQueryStringGenerator.getPhenotypes(SAMPLE_SIZE));
+        Set<Phenotype> phenotypes = new HashSet<>();
+        while(query.hasNext()) {
+            Binding result = query.nextBinding();
+            phenotypes.add(new Phenotype(URI.create(result.get(HPO).getURI())));
+            sampleSize++;
+            if(phenotypes.size() == PHENOTYPES_PER_ITERATION) {
+                phenotypeSets.add(phenotypes);
+                phenotypes = new HashSet<>();
+            }
+        }
+        query.close();
+
+        if(!phenotypes.isEmpty()) {
+            phenotypeSets.add(phenotypes);
+        }
+        return phenotypeSets;
+    }
+
+    private void runIteration(Set<Phenotype> phenotypes, int iteration) {
+        Set<Phenotype> retrievalPhenotypes = phenotypes;
+        if(ontologyReader != null) {
+            // Phenotypes that are not present in the ontology can not be traversed.
+            Set<Phenotype> ontologyPhenotypes = new HashSet<>();
+            for(Phenotype phenotype : phenotypes) {
+                if(ontologyReader.getModel().getOntClass(phenotype.getUri().toString()) != null) {
+                    ontologyPhenotypes.add(phenotype);
+                }
+            }
+            if(!ontologyPhenotypes.isEmpty()) {
+                PhenotypesRetriever hpoRetriever = phenotypesRetrieverFactories[iteration % phenotypesRetrieverFactories.length]
+                        .create(ontologyReader.getModel(), ontologyPhenotypes, maxDistance);
+                hpoRetriever.run();
+                retrievalPhenotypes = new HashSet<>(phenotypes);
+                retrievalPhenotypes.addAll(hpoRetriever.getPhenotypeNetworkCollection().getPhenotypes());
+            }
+        }
+
+        GenesRetriever genesForPhenotypeRetriever = offHeapStorage ?
+                new OffHeapGenesForPhenotypeRetriever(disgenetReader, retrievalPhenotypes) :
+                new GenesForPhenotypeRetriever(disgenetReader, retrievalPhenotypes);
+        genesForPhenotypeRetriever.run();
+        new GeneAggregates(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+    }
+}
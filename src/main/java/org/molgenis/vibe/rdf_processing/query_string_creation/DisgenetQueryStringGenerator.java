@@ -56,13 +56,42 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
             "} \n";
 
     /**
-     * <p>Retrieves the genes belonging to certain HPO phenotypes.</p>
+     * <p>Retrieves HPO phenotypes that are present in the dataset (used for warming up the query engine).</p>
+     *
+     * <br />after [0]: the maximum number of phenotypes
+     */
+    private static final String PHENOTYPES = "SELECT ?hpo \n" +
+            "WHERE { \n" +
+            "?hpo rdf:type sio:SIO_010056 . \n" +
+            "FILTER(STRSTARTS(STR(?hpo), \"http://purl.obolibrary.org/obo/HP_\")) \n" +
+            "} \n" +
+            "LIMIT ";
+
+    /**
+     * <p>Selects the gene data for {@link #GENES_FOR_PHENOTYPES}.</p>
+     */
+    private static final String GENES_FOR_PHENOTYPES_SELECT = "SELECT DISTINCT ?gene ?geneId ?geneTitle ?geneSymbolTitle ?dsiValue ?dpiValue \n";
+
+    /**
+     * <p>Selects the gene data for {@link #GENES_FOR_PHENOTYPES} together with the HPO term for which the gene was
+     * found.</p>
+     */
+    private static final String GENES_PER_PHENOTYPE_SELECT = "SELECT DISTINCT ?hpo ?gene ?geneId ?geneTitle ?geneSymbolTitle ?dsiValue ?dpiValue \n";
+
+    /**
+     * <p>Selects the gene data for {@link #GENES_FOR_PHENOTYPES} together with the HPO term and the disease through
+     * which the gene was found (so that it is known which genes/diseases were retrieved for which HPO term).</p>
+     */
+    private static final String GENES_WITH_DISEASES_FOR_PHENOTYPES_SELECT = "SELECT DISTINCT ?hpo ?disease ?gene ?geneId ?geneTitle ?geneSymbolTitle ?dsiValue ?dpiValue \n";
+
+    /**
+     * <p>Retrieves the genes belonging to certain HPO phenotypes (requires one of the SELECT {@link String}{@code s}
+     * above to be prepended).</p>
      *
      * <br />between [0] and [1]: the HPO terms (URIs) to filter on (see {@link #createValuesStringForUris(Set)}
      * <br />between [1] and [2]: the gene-disease association type (see {@link DisgenetAssociationType})
      */
-    private static final String[] GENES_FOR_PHENOTYPES = {"SELECT DISTINCT ?gene ?geneId ?geneTitle ?geneSymbolTitle ?dsiValue ?dpiValue \n" +
-            "WHERE { \n" +
+    private static final String[] GENES_FOR_PHENOTYPES = {"WHERE { \n" +
             "VALUES ?hpo ", " \n" + // [0] -> [1]
             "?hpo rdf:type sio:SIO_010056 . \n" +
             "{ \n" +
@@ -122,9 +151,39 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
         return new QueryString(PREFIXES + SOURCES);
     }
 
+    /**
+     * @param limit the maximum number of phenotypes to retrieve
+     * @return a {@link QueryString} retrieving the {@code ?hpo} {@link URI}{@code s} of phenotypes in the dataset
+     */
+    public static QueryString getPhenotypes(int limit) {
+        return new QueryString(PREFIXES + PHENOTYPES + limit);
+    }
+
     public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes) {
-        return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) + GENES_FOR_PHENOTYPES[1] +
-        DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
+        return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES_SELECT + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) +
+                GENES_FOR_PHENOTYPES[1] + DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
+    }
+
+    /**
+     * Same as {@link #getGenesForPhenotypes(Set)}, but each result also contains the {@code ?hpo} for which the gene
+     * was found. A gene can therefore be returned multiple times.
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve genes for
+     * @return a {@link QueryString}
+     */
+    public static QueryString getGenesPerPhenotype(Set<Phenotype> phenotypes) {
+        return new QueryString(PREFIXES + GENES_PER_PHENOTYPE_SELECT + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) +
+                GENES_FOR_PHENOTYPES[1] + DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
+    }
+
+    /**
+     * Same as {@link #getGenesForPhenotypes(Set)}, but each result also contains the {@code ?hpo} and {@code ?disease}
+     * through which the gene was found. A gene can therefore be returned multiple times.
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve genes for
+     * @return a {@link QueryString}
+     */
+    public static QueryString getGenesWithDiseasesForPhenotypes(Set<Phenotype> phenotypes) {
+        return new QueryString(PREFIXES + GENES_WITH_DISEASES_FOR_PHENOTYPES_SELECT + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) +
+                GENES_FOR_PHENOTYPES[1] + DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
     }
 
     public static QueryString getGdasWithDiseasesForGenes(Set<Gene> genes) {
@@ -3,6 +3,7 @@ package org.molgenis.vibe.rdf_processing.querying;
 import org.apache.jena.atlas.lib.Closeable;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
 
 import java.util.Iterator;
@@ -47,6 +48,16 @@ public class QueryRunner implements Closeable, Iterator {
         return results.next();
     }
 
+    /**
+     * Retrieves the next result as {@link Binding}. Unlike {@link #next()}, no {@link org.apache.jena.rdf.model.RDFNode}
+     * wrappers are created when retrieving values, so this is preferred when iterating over large numbers of results.
+     * @return the next {@link Binding}
+     * @see ResultSet#nextBinding()
+     */
+    public Binding nextBinding() {
+        return results.nextBinding();
+    }
+
     @Override
     public void close() {
         qexec.close();
@@ -4,6 +4,7 @@ import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSetFactory;
 import org.apache.jena.query.ResultSetRewindable;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
 
 /**
@@ -36,6 +37,11 @@ public class QueryRunnerRewindable extends QueryRunner {
         return resultSetRewindable.next();
     }
 
+    @Override
+    public Binding nextBinding() {
+        return resultSetRewindable.nextBinding();
+    }
+
     public void reset() {
         resultSetRewindable.reset();
     }
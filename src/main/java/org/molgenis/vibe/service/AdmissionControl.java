@@ -0,0 +1,168 @@
+package org.molgenis.vibe.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Decides before processing whether a {@link PrioritizationRequest} fits within a budget of estimated gene-disease
+ * associations (see {@link RequestCostEstimator}). A single request with phenotypes near the root of the HPO and a high
+ * maximum distance can expand to most of the ontology, retrieving a large part of DisGeNET and occupying a worker (and
+ * a lot of memory) for a long time. Requests within the budget are accepted, the others are handled according to the
+ * {@link AdmissionPolicy}.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class AdmissionControl {
+    private final RequestCostEstimator estimator;
+
+    private final long budget;
+
+    private final AdmissionPolicy policy;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong downgraded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param estimator estimates the cost of requests
+     * @param budget the maximum estimated number of gene-disease associations of a request that is accepted directly
+     * @param policy what to do with requests exceeding the {@code budget}
+     * @throws IllegalArgumentException if {@code budget} is lower than 1
+     */
+    public AdmissionControl(RequestCostEstimator estimator, long budget, AdmissionPolicy policy) {
+        if(budget < 1) {
+            throw new IllegalArgumentException("budget must be 1 or higher");
+        }
+        this.estimator = requireNonNull(estimator);
+        this.budget = budget;
+        this.policy = requireNonNull(policy);
+    }
+
+    public RequestCostEstimator getEstimator() {
+        return estimator;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public AdmissionPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getQueued() {
+        return queued.get();
+    }
+
+    public long getDowngraded() {
+        return downgraded.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @param request the {@link PrioritizationRequest} to decide on (should be valid, see
+     *                {@link PrioritizationService#validate(PrioritizationRequest)})
+     * @return the decision, with the request to process
+     */
+    public Admission admit(PrioritizationRequest request) {
+        int[] phenotypeCounts = estimator.countPhenotypes(request);
+        long cost = estimator.estimate(phenotypeCounts[phenotypeCounts.length - 1]);
+        if(cost <= budget) {
+            accepted.incrementAndGet();
+            return new Admission(Decision.ACCEPTED, request, cost, null);
+        }
+
+        switch(policy) {
+            case QUEUE:
+                queued.incrementAndGet();
+                return new Admission(Decision.QUEUED, request, cost, null);
+            case DOWNGRADE:
+                // The last count is already over budget (and distances beyond it do not add phenotypes).
+                for(int distance = phenotypeCounts.length - 2; distance >= 0; distance--) {
+                    long downgradedCost = estimator.estimate(phenotypeCounts[distance]);
+                    if(downgradedCost <= budget) {
+                        downgraded.incrementAndGet();
+                        return new Admission(Decision.DOWNGRADED, request.withMaxDistance(distance), downgradedCost, null);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        rejected.incrementAndGet();
+        return new Admission(Decision.REJECTED, request, cost, "Request too expensive: an estimated " + cost +
+                " gene-disease associations for " + phenotypeCounts[phenotypeCounts.length - 1] +
+                " phenotypes exceeds the budget of " + budget + ". Please use fewer or more specific phenotypes" +
+                (request.getPhenotypesRetrieverFactory() == null ? "." : " or a lower distance."));
+    }
+
+    public enum Decision {
+        /**
+         * Within the budget.
+         */
+        ACCEPTED,
+        /**
+         * Over the budget, to be processed separately (see {@link AdmissionPolicy#QUEUE}).
+         */
+        QUEUED,
+        /**
+         * Over the budget, to be processed with a lower maximum distance (see {@link AdmissionPolicy#DOWNGRADE}).
+         */
+        DOWNGRADED,
+        /**
+         * Over the budget, not to be processed.
+         */
+        REJECTED
+    }
+
+    /**
+     * The result of {@link #admit(PrioritizationRequest)}.
+     */
+    public static class Admission {
+        private final Decision decision;
+        private final PrioritizationRequest request;
+        private final long estimatedCost;
+        private final String message;
+
+        Admission(Decision decision, PrioritizationRequest request, long estimatedCost, String message) {
+            this.decision = decision;
+            this.request = request;
+            this.estimatedCost = estimatedCost;
+            this.message = message;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        /**
+         * @return the request to process (with a lower maximum distance if {@link Decision#DOWNGRADED})
+         */
+        public PrioritizationRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * @return the estimated number of gene-disease associations of {@link #getRequest()}
+         */
+        public long getEstimatedCost() {
+            return estimatedCost;
+        }
+
+        /**
+         * @return why the request was rejected, {@code null} if not {@link Decision#REJECTED}
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
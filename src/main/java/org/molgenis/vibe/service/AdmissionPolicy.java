@@ -0,0 +1,36 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+
+/**
+ * What {@link AdmissionControl} does with a {@link PrioritizationRequest} of which the estimated cost exceeds the budget.
+ */
+public enum AdmissionPolicy implements EnumTypeDefiner {
+    /**
+     * The request is not processed.
+     */
+    REJECT("reject"),
+    /**
+     * The request is processed separately from the other requests, one expensive request at a time.
+     */
+    QUEUE("queue"),
+    /**
+     * The request is processed with the highest maximum distance for which the estimated cost is within the budget.
+     */
+    DOWNGRADE("downgrade");
+
+    private String id;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    AdmissionPolicy(String id) {
+        this.id = id;
+    }
+
+    public static AdmissionPolicy retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, AdmissionPolicy.class);
+    }
+}
@@ -0,0 +1,106 @@
+package org.molgenis.vibe.service;
+
+import java.util.concurrent.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Non-blocking API for embedding the prioritization in other JVM services: each submitted
+ * {@link PrioritizationRequest} is processed by a {@link PrioritizationService} on the given {@link Executor} and
+ * completes a {@link CompletableFuture}, so the calling thread is never blocked (the number of requests processed
+ * concurrently is defined by the {@link Executor}). The resources of the {@link PrioritizationService} are shared by all
+ * requests.</p>
+ *
+ * <p>A request can be stopped through {@link CompletableFuture#cancel(boolean)} or a timeout (see
+ * {@link #submit(PrioritizationRequest, long, TimeUnit)}). The future is completed directly, while processing stops at
+ * the next step (see {@link PrioritizationService#process(PrioritizationRequest, java.util.function.BooleanSupplier)})
+ * instead of interrupting the thread (which could leave the DisGeNET dataset in an unusable state). Requests that are
+ * stopped before being started are skipped.</p>
+ *
+ * <p>The {@link Executor} and {@link PrioritizationService} are owned by the caller: {@link #close()} only stops the
+ * timeouts.</p>
+ */
+public class AsyncPrioritizationService implements AutoCloseable {
+    private PrioritizationService service;
+
+    private Executor executor;
+
+    /**
+     * Completes the futures of requests that take too long.
+     */
+    private ScheduledExecutorService timeoutScheduler;
+
+    /**
+     * @param service the {@link PrioritizationService} processing the requests
+     * @param executor the {@link Executor} on which the requests are processed (should not run tasks on the calling
+     *                 thread, as the calling thread would then be blocked)
+     */
+    public AsyncPrioritizationService(PrioritizationService service, Executor executor) {
+        this.service = requireNonNull(service);
+        this.executor = requireNonNull(executor);
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prioritization-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a request without a timeout.
+     * @param request the {@link PrioritizationRequest} to process
+     * @return a {@link CompletableFuture} that is completed with the {@link PrioritizationResult}, or exceptionally with
+     * an {@link IllegalArgumentException} (invalid request), a {@link RejectedExecutionException} (not accepted by the
+     * {@link Executor}) or the exception thrown while processing
+     */
+    public CompletableFuture<PrioritizationResult> submit(PrioritizationRequest request) {
+        requireNonNull(request);
+        CompletableFuture<PrioritizationResult> future = new CompletableFuture<>();
+        try {
+            service.validate(request);
+            executor.execute(() -> process(request, future));
+        } catch(IllegalArgumentException | RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Submits a request that is completed exceptionally with a {@link TimeoutException} if no result is available within
+     * the given time (including the time waiting for the {@link Executor}).
+     * @param request the {@link PrioritizationRequest} to process
+     * @param timeout the maximum time till the result should be available
+     * @param unit the unit of {@code timeout}
+     * @return see {@link #submit(PrioritizationRequest)}
+     */
+    public CompletableFuture<PrioritizationResult> submit(PrioritizationRequest request, long timeout, TimeUnit unit) {
+        CompletableFuture<PrioritizationResult> future = submit(request);
+        if(!future.isDone()) {
+            ScheduledFuture<?> timer = timeoutScheduler.schedule(() -> future.completeExceptionally(
+                    new TimeoutException("No result within " + timeout + " " + unit.toString().toLowerCase() + ".")),
+                    timeout, unit);
+            future.whenComplete((result, throwable) -> timer.cancel(false));
+        }
+        return future;
+    }
+
+    private void process(PrioritizationRequest request, CompletableFuture<PrioritizationResult> future) {
+        // Cancelled or timed out while waiting.
+        if(future.isDone()) {
+            return;
+        }
+        try {
+            future.complete(service.process(request, future::isDone));
+        } catch(Throwable e) {
+            // Completes the future whatever happens, so that callers never wait indefinitely.
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the timeouts of submitted requests (the {@link Executor} and {@link PrioritizationService} are not closed).
+     */
+    @Override
+    public void close() {
+        timeoutScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,490 @@
+package org.molgenis.vibe.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.molgenis.vibe.io.output.CharBufferWriter;
+import org.molgenis.vibe.io.output.FileOutputWriter;
+import org.molgenis.vibe.io.output.JsonGenerator;
+import org.molgenis.vibe.pipeline.ExecutorFactory;
+import org.molgenis.vibe.rdf_processing.DisgenetLookupCache;
+import org.molgenis.vibe.rdf_processing.QueryEngineWarmUp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>Serves a {@link PrioritizationService} over HTTP (using the JDK {@link HttpServer}):</p>
+ * <ul>
+ *     <li>{@code GET /prioritize?phenotype=hp:0000001&...}: the ordered genes in the requested format (see
+ *     {@link PrioritizationRequest#parse(String)} for the parameters)</li>
+ *     <li>{@code GET /status}: JSON with whether the server is ready, the number of processed requests, their mean
+ *     latency, the latency of the first request, the results of the {@link PrioritizationService#getWarmUp()} (if run)
+ *     and the hit rates of the {@link PrioritizationService#getLookupCache()} and
+ *     {@link PrioritizationService#getResultCache()} (if used) and the decisions of the
+ *     {@link PrioritizationService#getAdmissionControl()} (if used)</li>
+ * </ul>
+ *
+ * <p>Requests are processed by a fixed number of workers. Requests that cannot be processed directly wait in a bounded
+ * queue; if the queue is full, the request is rejected with {@code 503 Service Unavailable} so that clients can retry
+ * later instead of the server accumulating work it cannot keep up with. While warming up (see {@link #warmUp(long)}),
+ * prioritization requests are rejected the same way.</p>
+ *
+ * <p>The threads of the workers are created by an {@link ExecutorFactory}. With {@link ExecutorFactory#VIRTUAL} threads,
+ * each accepted request gets its own virtual thread (waiting requests are parked instead of queued), so a high number of
+ * workers does not require as many operating system threads.</p>
+ *
+ * <p>If the {@link PrioritizationService} has an {@link AdmissionControl}, each request is checked against its budget
+ * by the worker that picks it up (estimating the cost requires traversing the ontology, which should not block the
+ * thread accepting the connections). Requests over the budget are rejected with {@code 422 Unprocessable Entity}, processed with a
+ * lower distance (given in {@link #DOWNGRADED_DISTANCE_HEADER}) or processed one at a time by a separate worker (with
+ * its own queue of the same capacity), so that expensive requests cannot occupy all workers.</p>
+ *
+ * <p>Each prioritization response contains the time spent in the queue (including the admission check,
+ * {@link #QUEUE_TIME_HEADER}) and the time spent on
+ * retrieving and ordering the genes ({@link #PROCESSING_TIME_HEADER}) in milliseconds.</p>
+ */
+public class PrioritizationHttpServer {
+    public static final String PRIORITIZE_PATH = "/prioritize";
+    public static final String STATUS_PATH = "/status";
+
+    public static final String QUEUE_TIME_HEADER = "X-Queue-Time-Ms";
+    public static final String PROCESSING_TIME_HEADER = "X-Processing-Time-Ms";
+    public static final String DOWNGRADED_DISTANCE_HEADER = "X-Downgraded-Distance";
+
+    /**
+     * Default maximum number of requests waiting to be processed.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    private PrioritizationService service;
+
+    private HttpServer server;
+
+    private ExecutorService workers;
+
+    /**
+     * Processes the requests queued by the {@link AdmissionControl} (see {@link AdmissionPolicy#QUEUE}) one at a time.
+     */
+    private ExecutorService expensiveWorker;
+
+    private ExecutorFactory executorFactory;
+
+    private int workerCount;
+
+    private int queueCapacity;
+
+    /**
+     * Limits the number of requests that are processed concurrently to the {@link #workerCount} (regardless of the
+     * number of threads created by the {@link #executorFactory}).
+     */
+    private Semaphore processingPermits;
+
+    /**
+     * The number of accepted requests that are queued or being processed.
+     */
+    private AtomicInteger pendingRequests = new AtomicInteger();
+
+    /**
+     * The number of requests that are being processed.
+     */
+    private AtomicInteger activeRequests = new AtomicInteger();
+
+    /**
+     * The number of accepted requests that are queued or being processed by the {@link #expensiveWorker}.
+     */
+    private AtomicInteger pendingExpensiveRequests = new AtomicInteger();
+
+    private boolean verbose = false;
+
+    /**
+     * {@code false} while warming up.
+     */
+    private volatile boolean ready = true;
+
+    private AtomicLong completedRequests = new AtomicLong();
+    private AtomicLong failedRequests = new AtomicLong();
+    private AtomicLong rejectedRequests = new AtomicLong();
+
+    /**
+     * Total latency (from receiving the request till the response is written) of the completed requests.
+     */
+    private AtomicLong totalLatencyNanos = new AtomicLong();
+
+    /**
+     * Latency of the first completed request ({@code -1} if none yet), to compare with the warm-up.
+     */
+    private AtomicLong firstLatencyNanos = new AtomicLong(-1);
+
+    /**
+     * Uses {@link ExecutorFactory#PLATFORM} threads.
+     * @see #PrioritizationHttpServer(PrioritizationService, InetSocketAddress, int, int, ExecutorFactory)
+     */
+    public PrioritizationHttpServer(PrioritizationService service, InetSocketAddress address, int workerCount,
+                                    int queueCapacity) throws IOException {
+        this(service, address, workerCount, queueCapacity, ExecutorFactory.PLATFORM);
+    }
+
+    /**
+     * @param service the {@link PrioritizationService} to serve
+     * @param address the address to listen on (port {@code 0} selects a free port, see {@link #getAddress()})
+     * @param workerCount the number of requests that are processed concurrently
+     * @param queueCapacity the maximum number of requests waiting to be processed
+     * @param executorFactory creates the threads of the workers
+     * @throws IOException if the server could not be bound to the {@code address}
+     * @throws IllegalArgumentException if {@code workerCount} or {@code queueCapacity} is lower than 1
+     * @throws UnsupportedOperationException if the {@code executorFactory} is not available on the running JVM
+     */
+    public PrioritizationHttpServer(PrioritizationService service, InetSocketAddress address, int workerCount,
+                                    int queueCapacity, ExecutorFactory executorFactory) throws IOException {
+        if(workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be 1 or higher");
+        }
+        if(queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be 1 or higher");
+        }
+        this.service = requireNonNull(service);
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.executorFactory = requireNonNull(executorFactory);
+        processingPermits = new Semaphore(workerCount);
+        workers = executorFactory.create("service-worker", workerCount);
+        expensiveWorker = ExecutorFactory.PLATFORM.create("service-expensive", 1);
+
+        server = HttpServer.create(requireNonNull(address), 0);
+        // Handlers only parse the request and hand it over to the workers, so the dispatcher thread suffices.
+        server.createContext(PRIORITIZE_PATH, this::handlePrioritize);
+        server.createContext(STATUS_PATH, this::handleStatus);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Warms up the {@link PrioritizationService} (see {@link PrioritizationService#warmUp(long)}) on a worker and waits
+     * till it is finished. If the server was already started, it is not ready in the meantime.
+     * @param budgetMillis the time after which no new warm-up iterations are started
+     * @return the finished warm-up
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if the warm-up failed
+     */
+    public QueryEngineWarmUp warmUp(long budgetMillis) throws InterruptedException, ExecutionException {
+        ready = false;
+        try {
+            return workers.submit(() -> service.warmUp(budgetMillis)).get();
+        } finally {
+            ready = true;
+        }
+    }
+
+    /**
+     * Stops accepting requests, waits for the requests that are being processed (at most {@code timeoutSeconds}) and
+     * closes the {@link PrioritizationService}.
+     * @param timeoutSeconds the maximum time to wait for running requests
+     */
+    public void stop(int timeoutSeconds) {
+        server.stop(0);
+        workers.shutdown();
+        expensiveWorker.shutdown();
+        try {
+            long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            workers.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+            expensiveWorker.awaitTermination(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+        expensiveWorker.shutdownNow();
+        service.close();
+    }
+
+    private void handlePrioritize(HttpExchange exchange) throws IOException {
+        long receivedNanos = System.nanoTime();
+        if(!"GET".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Only GET is supported.");
+            return;
+        }
+        if(!PRIORITIZE_PATH.equals(exchange.getRequestURI().getPath())) {
+            sendText(exchange, 404, "Not found.");
+            return;
+        }
+
+        if(!ready) {
+            rejectedRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendText(exchange, 503, "Warming up, please try again later.");
+            return;
+        }
+
+        PrioritizationRequest request;
+        try {
+            request = PrioritizationRequest.parse(exchange.getRequestURI().getRawQuery());
+            service.validate(request);
+        } catch(IllegalArgumentException e) {
+            sendText(exchange, 400, e.getMessage());
+            return;
+        }
+
+        boolean accepted = pendingRequests.incrementAndGet() <= workerCount + queueCapacity;
+        if(accepted) {
+            try {
+                workers.execute(() -> processWhenPermitted(exchange, request, receivedNanos));
+            } catch(RejectedExecutionException e) {
+                accepted = false;
+            }
+        }
+        if(!accepted) {
+            pendingRequests.decrementAndGet();
+            rejectedRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendText(exchange, 503, "Too many requests, please try again later.");
+        }
+    }
+
+    /**
+     * Queues a request that is over the budget of the {@link AdmissionControl} for the {@link #expensiveWorker}.
+     */
+    private void queueExpensive(HttpExchange exchange, PrioritizationRequest request, long receivedNanos) throws IOException {
+        boolean accepted = pendingExpensiveRequests.incrementAndGet() <= queueCapacity;
+        if(accepted) {
+            try {
+                expensiveWorker.execute(() -> {
+                    try {
+                        process(exchange, request, receivedNanos);
+                    } finally {
+                        pendingExpensiveRequests.decrementAndGet();
+                    }
+                });
+            } catch(RejectedExecutionException e) {
+                accepted = false;
+            }
+        }
+        if(!accepted) {
+            pendingExpensiveRequests.decrementAndGet();
+            rejectedRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendText(exchange, 503, "Too many expensive requests, please try again later.");
+        }
+    }
+
+    /**
+     * Waits till less than {@link #workerCount} requests are processed before admitting (see {@link #admit(HttpExchange,
+     * PrioritizationRequest, long)}) and processing the request.
+     */
+    private void processWhenPermitted(HttpExchange exchange, PrioritizationRequest request, long receivedNanos) {
+        try {
+            processingPermits.acquire();
+        } catch(InterruptedException e) {
+            // Server is stopped.
+            pendingRequests.decrementAndGet();
+            failedRequests.incrementAndGet();
+            exchange.close();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        activeRequests.incrementAndGet();
+        try {
+            PrioritizationRequest admittedRequest = admit(exchange, request, receivedNanos);
+            if(admittedRequest != null) {
+                process(exchange, admittedRequest, receivedNanos);
+            }
+        } finally {
+            activeRequests.decrementAndGet();
+            pendingRequests.decrementAndGet();
+            processingPermits.release();
+        }
+    }
+
+    /**
+     * Checks the request against the {@link AdmissionControl} of the {@link #service} (if present). Runs on a worker, as
+     * estimating the cost of a request traverses the ontology.
+     * @return the request to be processed by the current worker (possibly downgraded), or {@code null} if the request
+     * was rejected or handed over to the {@link #expensiveWorker}
+     */
+    private PrioritizationRequest admit(HttpExchange exchange, PrioritizationRequest request, long receivedNanos) {
+        AdmissionControl admissionControl = service.getAdmissionControl();
+        if(admissionControl == null) {
+            return request;
+        }
+        try {
+            AdmissionControl.Admission admission;
+            try {
+                admission = admissionControl.admit(request);
+            } catch(RuntimeException e) {
+                failedRequests.incrementAndGet();
+                sendText(exchange, 500, "Failed to process request: " + e);
+                return null;
+            }
+            switch(admission.getDecision()) {
+                case REJECTED:
+                    sendText(exchange, 422, admission.getMessage());
+                    return null;
+                case QUEUED:
+                    queueExpensive(exchange, request, receivedNanos);
+                    return null;
+                case DOWNGRADED:
+                    exchange.getResponseHeaders().set(DOWNGRADED_DISTANCE_HEADER,
+                            Integer.toString(admission.getRequest().getMaxDistance()));
+                    return admission.getRequest();
+                default:
+                    return request;
+            }
+        } catch(IOException e) {
+            // Writing the response failed (such as the client disconnecting).
+            failedRequests.incrementAndGet();
+            exchange.close();
+            return null;
+        }
+    }
+
+    private void process(HttpExchange exchange, PrioritizationRequest request, long receivedNanos) {
+        long startNanos = System.nanoTime();
+        int status = 200;
+        boolean succeeded = false;
+        try {
+            FileOutputWriter writer;
+            try {
+                writer = service.prepare(request);
+            } catch(RuntimeException e) {
+                status = 500;
+                sendText(exchange, status, "Failed to process request: " + e);
+                return;
+            }
+            long preparedNanos = System.nanoTime();
+
+            String contentType = request.getFileOutputWriterFactory().getContentType();
+            if(contentType.startsWith("text/")) {
+                contentType += "; charset=utf-8";
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.getResponseHeaders().set(QUEUE_TIME_HEADER, Long.toString(toMillis(startNanos - receivedNanos)));
+            exchange.getResponseHeaders().set(PROCESSING_TIME_HEADER, Long.toString(toMillis(preparedNanos - startNanos)));
+            exchange.sendResponseHeaders(status, 0); // Length unknown: chunked.
+            writer.setOutputStream(exchange.getResponseBody());
+            writer.run();
+
+            succeeded = true;
+            long latencyNanos = System.nanoTime() - receivedNanos;
+            firstLatencyNanos.compareAndSet(-1, latencyNanos);
+            completedRequests.incrementAndGet();
+            totalLatencyNanos.addAndGet(latencyNanos);
+        } catch(IOException e) {
+            // Writing the response failed (such as the client disconnecting).
+            status = -1;
+        } finally {
+            if(!succeeded) {
+                failedRequests.incrementAndGet();
+            }
+            exchange.close();
+            if(verbose) {
+                System.out.println(exchange.getRequestURI() + " " + (status < 0 ? "aborted" : status) + " in " +
+                        toMillis(System.nanoTime() - receivedNanos) + " ms (queue " + toMillis(startNanos - receivedNanos) + " ms)");
+            }
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        long completed = completedRequests.get();
+        int active = activeRequests.get();
+        long firstLatency = firstLatencyNanos.get();
+        StringWriter stringWriter = new StringWriter();
+        try(CharBufferWriter writer = new CharBufferWriter(stringWriter)) {
+            JsonGenerator generator = new JsonGenerator(writer).beginObject()
+                    .name("ready").value(ready)
+                    .name("workers").value(workerCount)
+                    .name("queueCapacity").value(queueCapacity)
+                    .name("executor").value(executorFactory.getId())
+                    .name("queued").value(Math.max(pendingRequests.get() - active, 0))
+                    .name("active").value(active)
+                    .name("completed").value(completed)
+                    .name("failed").value(failedRequests.get())
+                    .name("rejected").value(rejectedRequests.get())
+                    .name("meanLatencyMs").value(completed == 0 ? Double.NaN :
+                            totalLatencyNanos.get() / (completed * 1_000_000.0))
+                    .name("firstLatencyMs").value(firstLatency < 0 ? Double.NaN : firstLatency / 1_000_000.0);
+            QueryEngineWarmUp warmUp = service.getWarmUp();
+            if(warmUp != null) {
+                generator.name("warmUp").beginObject()
+                        .name("iterations").value(warmUp.getIterations())
+                        .name("durationMs").value(toMillis(warmUp.getDurationNanos()))
+                        .name("coldMs").value(warmUp.getColdNanos() / 1_000_000.0)
+                        .name("warmMs").value(warmUp.getWarmNanos() / 1_000_000.0)
+                        .endObject();
+            }
+            DisgenetLookupCache lookupCache = service.getLookupCache();
+            if(lookupCache != null) {
+                generator.name("cache").beginObject()
+                        .name("phenotypeHitRate").value(lookupCache.getPhenotypeHitRate())
+                        .name("geneHitRate").value(lookupCache.getGeneHitRate())
+                        .name("size").value(lookupCache.getWeight())
+                        .name("maxSize").value(lookupCache.getMaxWeight())
+                        .endObject();
+            }
+            PrioritizationResultCache resultCache = service.getResultCache();
+            if(resultCache != null) {
+                generator.name("results").beginObject()
+                        .name("hitRate").value(resultCache.getHitRate())
+                        .name("hits").value(resultCache.getHits())
+                        .name("coalesced").value(resultCache.getCoalesced())
+                        .name("misses").value(resultCache.getMisses())
+                        .name("size").value(resultCache.getSize())
+                        .name("maxSize").value(resultCache.getMaxSize())
+                        .name("ttlMs").value(resultCache.getTtlMillis())
+                        .endObject();
+            }
+            AdmissionControl admissionControl = service.getAdmissionControl();
+            if(admissionControl != null) {
+                generator.name("admission").beginObject()
+                        .name("budget").value(admissionControl.getBudget())
+                        .name("policy").value(admissionControl.getPolicy().getId())
+                        .name("rowsPerPhenotype").value(admissionControl.getEstimator().getRowsPerPhenotype())
+                        .name("accepted").value(admissionControl.getAccepted())
+                        .name("queued").value(admissionControl.getQueued())
+                        .name("downgraded").value(admissionControl.getDowngraded())
+                        .name("rejected").value(admissionControl.getRejected())
+                        .name("expensivePending").value(pendingExpensiveRequests.get())
+                        .endObject();
+            }
+            generator.endObject();
+        }
+        byte[] body = stringWriter.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try(OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try(OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
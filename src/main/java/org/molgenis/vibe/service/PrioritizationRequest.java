@@ -0,0 +1,230 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>A single gene prioritization request for the {@link PrioritizationService}. Equivalent to the command line options
+ * of a single run:</p>
+ * <ul>
+ *     <li>{@code phenotype}: HPO id (required, can be given multiple times)</li>
+ *     <li>{@code retriever}: {@link PhenotypesRetrieverFactory} id for retrieving associated phenotypes (optional,
+ *     requires {@code distance})</li>
+ *     <li>{@code distance}: the maximum distance for the {@code retriever}</li>
+ *     <li>{@code prioritizer}: {@link GenePrioritizerFactory} id (default: {@code gda_max})</li>
+ *     <li>{@code format}: {@link FileOutputWriterFactory} id (default: {@code regular})</li>
+ *     <li>{@code top}: the number of genes with the highest priority to return (optional)</li>
+ * </ul>
+ */
+public class PrioritizationRequest {
+    private Set<Phenotype> phenotypes;
+
+    /**
+     * If {@code null}, only the input {@link #phenotypes} are used.
+     */
+    private PhenotypesRetrieverFactory phenotypesRetrieverFactory;
+
+    private int maxDistance;
+
+    private GenePrioritizerFactory genePrioritizerFactory = GenePrioritizerFactory.HIGHEST_DISGENET_SCORE;
+
+    private FileOutputWriterFactory fileOutputWriterFactory = FileOutputWriterFactory.REGULAR;
+
+    /**
+     * If set, the maximum number of genes with the highest priority to be written.
+     */
+    private Integer topGenes;
+
+    public Set<Phenotype> getPhenotypes() {
+        return phenotypes;
+    }
+
+    public PhenotypesRetrieverFactory getPhenotypesRetrieverFactory() {
+        return phenotypesRetrieverFactory;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public GenePrioritizerFactory getGenePrioritizerFactory() {
+        return genePrioritizerFactory;
+    }
+
+    public FileOutputWriterFactory getFileOutputWriterFactory() {
+        return fileOutputWriterFactory;
+    }
+
+    public Integer getTopGenes() {
+        return topGenes;
+    }
+
+    /**
+     * @param phenotypes the input {@link Phenotype}{@code s}
+     * @throws IllegalArgumentException if {@code phenotypes} is empty
+     */
+    public PrioritizationRequest(Set<Phenotype> phenotypes) {
+        if(requireNonNull(phenotypes).isEmpty()) {
+            throw new IllegalArgumentException("At least 1 phenotype is required.");
+        }
+        this.phenotypes = phenotypes;
+    }
+
+    /**
+     * @param phenotypesRetrieverFactory the {@link PhenotypesRetrieverFactory} for retrieving associated phenotypes
+     * @param maxDistance the maximum distance to be used
+     */
+    public void setPhenotypesRetrieverFactory(PhenotypesRetrieverFactory phenotypesRetrieverFactory, int maxDistance) {
+        this.phenotypesRetrieverFactory = requireNonNull(phenotypesRetrieverFactory);
+        this.maxDistance = maxDistance;
+    }
+
+    public void setGenePrioritizerFactory(GenePrioritizerFactory genePrioritizerFactory) {
+        this.genePrioritizerFactory = requireNonNull(genePrioritizerFactory);
+    }
+
+    public void setFileOutputWriterFactory(FileOutputWriterFactory fileOutputWriterFactory) {
+        this.fileOutputWriterFactory = requireNonNull(fileOutputWriterFactory);
+    }
+
+    /**
+     * @param topGenes the number of genes to be written
+     * @throws IllegalArgumentException if {@code topGenes} is not a positive number
+     */
+    public void setTopGenes(int topGenes) {
+        if(topGenes < 1) {
+            throw new IllegalArgumentException("The number of top genes must be 1 or higher.");
+        }
+        this.topGenes = topGenes;
+    }
+
+    /**
+     * @param maxDistance the maximum distance of the copy
+     * @return a copy of this request with a different maximum distance (used by {@link AdmissionControl})
+     */
+    PrioritizationRequest withMaxDistance(int maxDistance) {
+        PrioritizationRequest copy = new PrioritizationRequest(phenotypes);
+        copy.phenotypesRetrieverFactory = phenotypesRetrieverFactory;
+        copy.maxDistance = maxDistance;
+        copy.genePrioritizerFactory = genePrioritizerFactory;
+        copy.fileOutputWriterFactory = fileOutputWriterFactory;
+        copy.topGenes = topGenes;
+        return copy;
+    }
+
+    /**
+     * Creates a {@link PrioritizationRequest} from a URL query (such as
+     * {@code phenotype=hp:0000001&phenotype=hp:0000002&prioritizer=dsi}).
+     * @param rawQuery the URL-encoded query, can be {@code null}
+     * @return a {@link PrioritizationRequest}
+     * @throws IllegalArgumentException if the query contains unknown or invalid parameters
+     */
+    public static PrioritizationRequest parse(String rawQuery) {
+        Map<String, List<String>> parameters = parseQuery(rawQuery);
+
+        Set<Phenotype> phenotypes = new HashSet<>();
+        for(String phenotype : getValues(parameters, "phenotype")) {
+            phenotypes.add(new Phenotype(phenotype)); // throws InvalidStringFormatException (IllegalArgumentException)
+        }
+        PrioritizationRequest request = new PrioritizationRequest(phenotypes);
+
+        String retriever = getSingleValue(parameters, "retriever");
+        String distance = getSingleValue(parameters, "distance");
+        if(retriever != null) {
+            if(distance == null) {
+                throw new IllegalArgumentException("Missing distance: retriever requires distance.");
+            }
+            request.setPhenotypesRetrieverFactory(retrieve("retriever", PhenotypesRetrieverFactory.class, retriever),
+                    parseInt("distance", distance));
+        } else if(distance != null) {
+            throw new IllegalArgumentException("Missing retriever: distance requires retriever.");
+        }
+
+        String prioritizer = getSingleValue(parameters, "prioritizer");
+        if(prioritizer != null) {
+            request.setGenePrioritizerFactory(retrieve("prioritizer", GenePrioritizerFactory.class, prioritizer));
+        }
+        String format = getSingleValue(parameters, "format");
+        if(format != null) {
+            request.setFileOutputWriterFactory(retrieve("format", FileOutputWriterFactory.class, format));
+        }
+        String top = getSingleValue(parameters, "top");
+        if(top != null) {
+            request.setTopGenes(parseInt("top", top));
+        }
+
+        parameters.keySet().removeAll(Arrays.asList("phenotype", "retriever", "distance", "prioritizer", "format", "top"));
+        if(!parameters.isEmpty()) {
+            throw new IllegalArgumentException("Unknown parameters: " + String.join(", ", parameters.keySet()));
+        }
+        return request;
+    }
+
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        if(rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for(String parameter : rawQuery.split("&")) {
+            if(parameter.isEmpty()) {
+                continue;
+            }
+            int separator = parameter.indexOf('=');
+            String name = decode(separator < 0 ? parameter : parameter.substring(0, separator));
+            String value = separator < 0 ? "" : decode(parameter.substring(separator + 1));
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, "UTF-8");
+        } catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e); // UTF-8 is always supported.
+        }
+    }
+
+    private static List<String> getValues(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * @return the value of parameter {@code name}, or {@code null} if not present
+     * @throws IllegalArgumentException if the parameter is given multiple times
+     */
+    private static String getSingleValue(Map<String, List<String>> parameters, String name) {
+        List<String> values = getValues(parameters, name);
+        if(values.size() > 1) {
+            throw new IllegalArgumentException(name + " can only be given once.");
+        }
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch(NumberFormatException e) {
+            throw new InvalidStringFormatException(name + " is not a number: " + value);
+        }
+    }
+
+    private static <T extends Enum<T> & EnumTypeDefiner> T retrieve(String name, Class<T> type, String id) {
+        try {
+            return EnumTypeDefiner.retrieve(id, type);
+        } catch(EnumConstantNotPresentException e) {
+            throw new IllegalArgumentException("Unknown " + name + ": " + id);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
+import org.molgenis.vibe.io.output.FileOutputWriter;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The ordered genes for a {@link PrioritizationRequest} together with the data the order is based on. The order is
+ * determined on creation and nothing is modified afterwards, so a {@link PrioritizationResult} can be read (and written
+ * multiple times) from any thread.
+ */
+public class PrioritizationResult {
+    private final PrioritizationRequest request;
+    private final PhenotypeNetworkCollection phenotypeNetworkCollection;
+    private final PhenotypeDiseaseCollection phenotypeDiseaseCollection;
+    private final GeneAggregates geneAggregates;
+    private final GenePrioritizer prioritizer;
+    private final List<Gene> priority;
+    private final long processingNanos;
+
+    /**
+     * @param prioritizer a {@link GenePrioritizer} that was run without streaming
+     */
+    PrioritizationResult(PrioritizationRequest request, PhenotypeNetworkCollection phenotypeNetworkCollection,
+                         PhenotypeDiseaseCollection phenotypeDiseaseCollection, GeneAggregates geneAggregates,
+                         GenePrioritizer prioritizer, long processingNanos) {
+        if(prioritizer.isStreaming()) {
+            throw new IllegalArgumentException("prioritizer must not be streaming");
+        }
+        this.request = requireNonNull(request);
+        this.phenotypeNetworkCollection = requireNonNull(phenotypeNetworkCollection);
+        this.phenotypeDiseaseCollection = requireNonNull(phenotypeDiseaseCollection);
+        this.geneAggregates = requireNonNull(geneAggregates);
+        this.prioritizer = prioritizer;
+        this.priority = Collections.unmodifiableList(prioritizer.getPriority());
+        this.processingNanos = processingNanos;
+    }
+
+    /**
+     * @param request a request resulting in the same genes (such as one differing only in output format)
+     * @return a {@link PrioritizationResult} sharing the data of this one, for {@code request}
+     */
+    PrioritizationResult withRequest(PrioritizationRequest request) {
+        if(request == this.request) {
+            return this;
+        }
+        return new PrioritizationResult(request, phenotypeNetworkCollection, phenotypeDiseaseCollection, geneAggregates,
+                prioritizer, processingNanos);
+    }
+
+    public PrioritizationRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the input phenotypes together with the associated phenotypes that were used
+     */
+    public PhenotypeNetworkCollection getPhenotypeNetworkCollection() {
+        return phenotypeNetworkCollection;
+    }
+
+    /**
+     * @return through which diseases the genes were found for each phenotype
+     */
+    public PhenotypeDiseaseCollection getPhenotypeDiseaseCollection() {
+        return phenotypeDiseaseCollection;
+    }
+
+    /**
+     * @return the aggregated gene-disease association data per gene
+     */
+    public GeneAggregates getGeneAggregates() {
+        return geneAggregates;
+    }
+
+    /**
+     * @return the genes in priority order (at most {@link PrioritizationRequest#getTopGenes()}), unmodifiable
+     */
+    public List<Gene> getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the time spent on retrieving and ordering the genes
+     */
+    public long getProcessingNanos() {
+        return processingNanos;
+    }
+
+    /**
+     * Writes the ordered genes in the format of {@link PrioritizationRequest#getFileOutputWriterFactory()}.
+     * @param outputStream the output to write to (closed afterwards)
+     * @throws IOException if writing failed
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        FileOutputWriter writer = createWriter();
+        writer.setOutputStream(requireNonNull(outputStream));
+        writer.run();
+    }
+
+    /**
+     * @return a {@link FileOutputWriter} writing the ordered genes in the format of
+     * {@link PrioritizationRequest#getFileOutputWriterFactory()} (only needs an output before it is run)
+     */
+    FileOutputWriter createWriter() {
+        return request.getFileOutputWriterFactory().create(null, geneAggregates, prioritizer);
+    }
+}
@@ -0,0 +1,293 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Shares the {@link PrioritizationResult}{@code s} of identical {@link PrioritizationRequest}{@code s} (see
+ * {@link #createKey(PrioritizationRequest)}), as the same phenotypes are often requested multiple times within a short
+ * time (such as re-analyses and refreshed user interfaces):</p>
+ * <ul>
+ *     <li>Concurrent identical requests are coalesced: only the first one is processed, the others wait for its result
+ *     (see {@link #getCoalesced()}).</li>
+ *     <li>Completed results are kept for a fixed time (see {@link #getTtlMillis()}), so identical requests within that
+ *     time are not processed again (see {@link #getHits()}). The number of kept results is bounded: if exceeded, the
+ *     oldest ones are removed.</li>
+ * </ul>
+ *
+ * <p>Failed requests are not kept. If the processing request is cancelled (see
+ * {@link PrioritizationService#process(PrioritizationRequest, BooleanSupplier)}), a waiting request that was not
+ * cancelled itself is processed instead. The database is expected not to change while the cache is in use. This class
+ * is thread-safe.</p>
+ */
+public class PrioritizationResultCache {
+    /**
+     * The default time completed results are kept.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    /**
+     * The default maximum number of completed results kept.
+     */
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    /**
+     * How often a waiting request checks whether it was cancelled.
+     */
+    private static final long CANCELLED_CHECK_INTERVAL_MILLIS = 50;
+
+    private final long ttlNanos;
+
+    private final int maxSize;
+
+    /**
+     * Returns the current time in nanoseconds (replaceable for testing).
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The requests that are being processed.
+     */
+    private final Map<String, CompletableFuture<PrioritizationResult>> inFlight = new HashMap<>();
+
+    /**
+     * The completed results in order of completion (which is also the order of expiry).
+     */
+    private final LinkedHashMap<String, CompletedResult> completed = new LinkedHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PrioritizationResultCache() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param ttlMillis the time completed results are kept (0 to only coalesce concurrent requests)
+     * @param maxSize the maximum number of completed results kept
+     * @throws IllegalArgumentException if {@code ttlMillis} is negative or {@code maxSize} is lower than 1
+     */
+    public PrioritizationResultCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::nanoTime);
+    }
+
+    PrioritizationResultCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        if(ttlMillis < 0) {
+            throw new IllegalArgumentException("ttlMillis must be 0 or higher");
+        }
+        if(maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be 1 or higher");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public long getTtlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of completed results that are kept (including expired results that were not removed yet)
+     */
+    public synchronized int getSize() {
+        return completed.size();
+    }
+
+    /**
+     * @return the number of requests answered with a kept result
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests that waited for an identical request that was being processed
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of requests that were processed
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the fraction of requests that did not need to be processed ({@link Double#NaN} if none yet)
+     */
+    public double getHitRate() {
+        long shared = hits.get() + coalesced.get();
+        return shared / (double) (shared + misses.get());
+    }
+
+    /**
+     * Removes all completed results (requests that are being processed are still coalesced).
+     */
+    public synchronized void clear() {
+        completed.clear();
+    }
+
+    /**
+     * Returns the result of an identical request that is kept or being processed, or otherwise processes the request.
+     * @param request the {@link PrioritizationRequest} to get the result for
+     * @param cancelled checked while processing or waiting
+     * @param processor processes the request (only called if no identical request is kept or being processed), given
+     *                  a cancellation check
+     * @return the result, for {@code request} (see {@link PrioritizationResult#getRequest()})
+     * @throws CancellationException if {@code cancelled} returned {@code true}
+     */
+    PrioritizationResult get(PrioritizationRequest request, BooleanSupplier cancelled,
+                             Function<BooleanSupplier, PrioritizationResult> processor) {
+        String key = createKey(request);
+        while(true) {
+            CompletableFuture<PrioritizationResult> flight;
+            boolean processing = false;
+            synchronized(this) {
+                removeExpired();
+                CompletedResult completedResult = completed.get(key);
+                if(completedResult != null) {
+                    hits.incrementAndGet();
+                    return completedResult.result.withRequest(request);
+                }
+                flight = inFlight.get(key);
+                if(flight == null) {
+                    flight = new CompletableFuture<>();
+                    inFlight.put(key, flight);
+                    processing = true;
+                }
+            }
+
+            if(processing) {
+                misses.incrementAndGet();
+                return process(key, flight, cancelled, processor);
+            }
+            coalesced.incrementAndGet();
+            try {
+                return await(flight, cancelled).withRequest(request);
+            } catch(CancellationException e) {
+                if(cancelled.getAsBoolean()) {
+                    throw e;
+                }
+                // The processing request was cancelled instead of this one, so this one is processed (or waits for
+                // another one that already took over).
+                coalesced.decrementAndGet();
+            }
+        }
+    }
+
+    private PrioritizationResult process(String key, CompletableFuture<PrioritizationResult> flight,
+                                         BooleanSupplier cancelled,
+                                         Function<BooleanSupplier, PrioritizationResult> processor) {
+        try {
+            PrioritizationResult result = processor.apply(cancelled);
+            synchronized(this) {
+                inFlight.remove(key);
+                if(ttlNanos > 0) {
+                    completed.put(key, new CompletedResult(result, clock.getAsLong() + ttlNanos));
+                    if(completed.size() > maxSize) {
+                        Iterator<CompletedResult> iterator = completed.values().iterator();
+                        iterator.next();
+                        iterator.remove();
+                    }
+                }
+            }
+            flight.complete(result);
+            return result;
+        } catch(RuntimeException | Error e) {
+            synchronized(this) {
+                inFlight.remove(key);
+            }
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for an identical request that is being processed.
+     */
+    private static PrioritizationResult await(CompletableFuture<PrioritizationResult> flight, BooleanSupplier cancelled) {
+        while(true) {
+            if(cancelled.getAsBoolean()) {
+                throw new CancellationException("Request was cancelled.");
+            }
+            try {
+                return flight.get(CANCELLED_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch(TimeoutException e) {
+                // Checks cancellation again.
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for an identical request.");
+            } catch(ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if(e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Should be called while synchronized.
+     */
+    private void removeExpired() {
+        long now = clock.getAsLong();
+        Iterator<CompletedResult> iterator = completed.values().iterator();
+        while(iterator.hasNext() && iterator.next().expiryNanos - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Creates a key that is equal for requests resulting in the same genes in the same order: the sorted phenotypes, the
+     * retriever and distance (if any), the prioritizer and the number of top genes. The output format is not part of the
+     * key, as the same result can be written in any format.
+     * @param request the {@link PrioritizationRequest} to create a key for
+     * @return the key
+     */
+    static String createKey(PrioritizationRequest request) {
+        Set<String> phenotypes = new TreeSet<>();
+        for(Phenotype phenotype : request.getPhenotypes()) {
+            phenotypes.add(phenotype.getUri().toString());
+        }
+        StringBuilder key = new StringBuilder(String.join(",", phenotypes));
+        if(request.getPhenotypesRetrieverFactory() != null) {
+            key.append('|').append(request.getPhenotypesRetrieverFactory().getId()).append(':').append(request.getMaxDistance());
+        } else {
+            key.append("|-");
+        }
+        key.append('|').append(request.getGenePrioritizerFactory().getId());
+        key.append('|').append(request.getTopGenes() == null ? "-" : request.getTopGenes().toString());
+        return key.toString();
+    }
+
+    private static class CompletedResult {
+        private final PrioritizationResult result;
+        private final long expiryNanos;
+
+        CompletedResult(PrioritizationResult result, long expiryNanos) {
+            this.result = result;
+            this.expiryNanos = expiryNanos;
+        }
+    }
+}
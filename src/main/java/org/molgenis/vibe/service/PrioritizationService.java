@@ -0,0 +1,294 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.GeneAggregates;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.OntologyModelFilesReader;
+import org.molgenis.vibe.io.output.FileOutputWriter;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerContext;
+import org.molgenis.vibe.rdf_processing.DisgenetLookupCache;
+import org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.GenesRetriever;
+import org.molgenis.vibe.rdf_processing.OffHeapGenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.QueryEngineWarmUp;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Processes {@link PrioritizationRequest}{@code s} against resources that are loaded once (the DisGeNET dataset and
+ * optionally the HPO ontology). The resources are only read, so requests can be processed concurrently (see
+ * {@link AsyncPrioritizationService} for processing them without blocking the calling thread).
+ */
+public class PrioritizationService {
+    /**
+     * The maximum distance used for retrieving associated phenotypes during the warm-up (see {@link #warmUp(long)}).
+     */
+    private static final int WARM_UP_MAX_DISTANCE = 1;
+
+    private ModelReader disgenetReader;
+
+    /**
+     * Can be {@code null}, in which case only requests without associated phenotypes retrieval are supported.
+     */
+    private OntologyModelFilesReader ontologyReader;
+
+    /**
+     * Can be {@code null}, in which case only requests with prioritizers that do not require it are supported.
+     */
+    private PhenotypeInformationContentIndex informationContentIndex;
+
+    /**
+     * Whether the gene-disease associations should be stored outside of the Java heap.
+     */
+    private boolean offHeapStorage;
+
+    /**
+     * Can be {@code null}, in which case each request queries all its phenotypes/genes.
+     */
+    private DisgenetLookupCache lookupCache;
+
+    /**
+     * Can be {@code null}, in which case each request is processed (and identical concurrent requests are not coalesced).
+     */
+    private PrioritizationResultCache resultCache;
+
+    /**
+     * Can be {@code null}, in which case requests are not checked against a cost budget.
+     */
+    private AdmissionControl admissionControl;
+
+    /**
+     * {@code null} if no warm-up was run.
+     */
+    private volatile QueryEngineWarmUp warmUp;
+
+    /**
+     * @param disgenetReader the DisGeNET dataset
+     * @param ontologyReader the HPO ontology, can be {@code null}
+     * @param informationContentIndex the HPO information content, can be {@code null}
+     * @param offHeapStorage whether the gene-disease associations should be stored outside of the Java heap
+     */
+    public PrioritizationService(ModelReader disgenetReader, OntologyModelFilesReader ontologyReader,
+                                 PhenotypeInformationContentIndex informationContentIndex, boolean offHeapStorage) {
+        this.disgenetReader = requireNonNull(disgenetReader);
+        this.ontologyReader = ontologyReader;
+        this.informationContentIndex = informationContentIndex;
+        this.offHeapStorage = offHeapStorage;
+    }
+
+    public DisgenetLookupCache getLookupCache() {
+        return lookupCache;
+    }
+
+    /**
+     * @param lookupCache a {@link DisgenetLookupCache} shared by all requests, or {@code null} to query all
+     *                    phenotypes/genes of each request
+     */
+    public void setLookupCache(DisgenetLookupCache lookupCache) {
+        this.lookupCache = lookupCache;
+    }
+
+    public PrioritizationResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * @param resultCache a {@link PrioritizationResultCache} shared by all requests, or {@code null} to process each
+     *                    request
+     */
+    public void setResultCache(PrioritizationResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * @param admissionControl an {@link AdmissionControl} for callers to check requests with before processing them
+     *                         (its {@link RequestCostEstimator} learns from the processed requests), or {@code null}
+     */
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * @return the finished warm-up, or {@code null} if none was run
+     */
+    public QueryEngineWarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Runs a {@link QueryEngineWarmUp} (retrieving associated phenotypes with each {@link PhenotypesRetrieverFactory}
+     * in turn if an HPO ontology was loaded), so that the first requests are processed as fast as later ones.
+     * @param budgetMillis the time after which no new warm-up iterations are started
+     * @return the finished warm-up (also available through {@link #getWarmUp()})
+     */
+    public QueryEngineWarmUp warmUp(long budgetMillis) {
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(disgenetReader, budgetMillis);
+        if(ontologyReader != null) {
+            warmUp.setPhenotypesRetrieval(ontologyReader, WARM_UP_MAX_DISTANCE, PhenotypesRetrieverFactory.values());
+        }
+        warmUp.setOffHeapStorage(offHeapStorage);
+        disgenetReader.beginRead();
+        try {
+            warmUp.run();
+        } finally {
+            disgenetReader.endRead();
+        }
+        this.warmUp = warmUp;
+        return warmUp;
+    }
+
+    /**
+     * Checks whether a {@link PrioritizationRequest} can be processed with the loaded resources.
+     * @param request the {@link PrioritizationRequest} to check
+     * @throws IllegalArgumentException if the {@code request} requires a resource that was not loaded
+     */
+    public void validate(PrioritizationRequest request) {
+        if(request.getPhenotypesRetrieverFactory() != null && ontologyReader == null) {
+            throw new IllegalArgumentException("retriever requires the service to be started with an HPO ontology.");
+        }
+        if(request.getGenePrioritizerFactory().requiresInformationContentIndex() && informationContentIndex == null) {
+            throw new IllegalArgumentException("prioritizer " + request.getGenePrioritizerFactory().getId() +
+                    " requires the service to be started with an HPO ontology.");
+        }
+    }
+
+    /**
+     * Retrieves and orders the genes for a {@link PrioritizationRequest}. The ordering is done while writing (unless a
+     * {@link #getResultCache()} is set, in which case the result is shared with identical requests), so the returned
+     * {@link FileOutputWriter} only needs an output (see {@link FileOutputWriter#setOutputStream(java.io.OutputStream)})
+     * before it is run.
+     * @param request the {@link PrioritizationRequest} to process
+     * @return a {@link FileOutputWriter} that writes the ordered genes in the requested format
+     * @throws IllegalArgumentException see {@link #validate(PrioritizationRequest)}
+     */
+    public FileOutputWriter prepare(PrioritizationRequest request) {
+        validate(request);
+        if(resultCache != null) {
+            return process(request).createWriter();
+        }
+        PhenotypeNetworkCollection phenotypeNetworkCollection = retrievePhenotypes(request);
+        GenesRetriever genesForPhenotypeRetriever = retrieveGenes(request, phenotypeNetworkCollection);
+        GeneAggregates geneAggregates = new GeneAggregates(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+
+        // Genes are selected in order while writing them.
+        GenePrioritizer prioritizer = orderGenes(request, geneAggregates, genesForPhenotypeRetriever, phenotypeNetworkCollection, true);
+        return request.getFileOutputWriterFactory().create(null, geneAggregates, prioritizer);
+    }
+
+    /**
+     * Same as {@link #process(PrioritizationRequest, BooleanSupplier)}, without cancellation.
+     */
+    public PrioritizationResult process(PrioritizationRequest request) {
+        return process(request, () -> false);
+    }
+
+    /**
+     * Retrieves and orders the genes for a {@link PrioritizationRequest}. Unlike {@link #prepare(PrioritizationRequest)},
+     * all genes are ordered before returning, so the {@link PrioritizationResult} can be used from any thread. If a
+     * {@link #getResultCache()} is set, the result of an identical request is used if available.
+     * @param request the {@link PrioritizationRequest} to process
+     * @param cancelled checked between the processing steps (phenotype retrieval, DisGeNET retrieval and ordering)
+     * @return the ordered genes
+     * @throws IllegalArgumentException see {@link #validate(PrioritizationRequest)}
+     * @throws CancellationException if {@code cancelled} returned {@code true}
+     */
+    public PrioritizationResult process(PrioritizationRequest request, BooleanSupplier cancelled) {
+        validate(request);
+        if(resultCache != null) {
+            return resultCache.get(request, cancelled, processCancelled -> processUncached(request, processCancelled));
+        }
+        return processUncached(request, cancelled);
+    }
+
+    private PrioritizationResult processUncached(PrioritizationRequest request, BooleanSupplier cancelled) {
+        long startNanos = System.nanoTime();
+        checkCancelled(cancelled);
+        PhenotypeNetworkCollection phenotypeNetworkCollection = retrievePhenotypes(request);
+        checkCancelled(cancelled);
+        GenesRetriever genesForPhenotypeRetriever = retrieveGenes(request, phenotypeNetworkCollection);
+        checkCancelled(cancelled);
+        GeneAggregates geneAggregates = new GeneAggregates(genesForPhenotypeRetriever.getGeneDiseaseCollectionView());
+        GenePrioritizer prioritizer = orderGenes(request, geneAggregates, genesForPhenotypeRetriever, phenotypeNetworkCollection, false);
+
+        return new PrioritizationResult(request, phenotypeNetworkCollection,
+                genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(), geneAggregates, prioritizer,
+                System.nanoTime() - startNanos);
+    }
+
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if(cancelled.getAsBoolean()) {
+            throw new CancellationException("Request was cancelled.");
+        }
+    }
+
+    /**
+     * @return the input phenotypes of the {@code request} together with their associated phenotypes (if requested)
+     */
+    private PhenotypeNetworkCollection retrievePhenotypes(PrioritizationRequest request) {
+        // validate() ensures the ontology is available if a retriever is requested.
+        return PhenotypesRetrieverFactory.createPhenotypeNetworkCollection(request.getPhenotypesRetrieverFactory(),
+                ontologyReader == null ? null : ontologyReader.getModel(), request.getPhenotypes(), request.getMaxDistance());
+    }
+
+    private GenesRetriever retrieveGenes(PrioritizationRequest request,
+                                                     PhenotypeNetworkCollection phenotypeNetworkCollection) {
+        GenesRetriever genesForPhenotypeRetriever = createGenesForPhenotypeRetriever(
+                phenotypeNetworkCollection.getPhenotypes());
+        genesForPhenotypeRetriever.setCache(lookupCache);
+        genesForPhenotypeRetriever.setPhenotypeDiseaseProvenance(
+                request.getGenePrioritizerFactory().requiresPhenotypeDiseaseCollection());
+        disgenetReader.beginRead();
+        try {
+            genesForPhenotypeRetriever.run();
+        } finally {
+            disgenetReader.endRead();
+        }
+        if(admissionControl != null) {
+            admissionControl.getEstimator().observe(phenotypeNetworkCollection.getPhenotypes().size(),
+                    genesForPhenotypeRetriever.getGeneDiseaseCollectionView().size());
+        }
+        return genesForPhenotypeRetriever;
+    }
+
+    private GenePrioritizer orderGenes(PrioritizationRequest request, GeneAggregates geneAggregates,
+                                       GenesRetriever genesForPhenotypeRetriever,
+                                       PhenotypeNetworkCollection phenotypeNetworkCollection, boolean streaming) {
+        GenePrioritizer prioritizer = request.getGenePrioritizerFactory().create(new GenePrioritizerContext(geneAggregates,
+                genesForPhenotypeRetriever.getPhenotypeDiseaseCollection(), phenotypeNetworkCollection,
+                informationContentIndex));
+        if(request.getTopGenes() != null) {
+            prioritizer.setLimit(request.getTopGenes());
+        }
+        prioritizer.setStreaming(streaming);
+        prioritizer.run();
+        return prioritizer;
+    }
+
+    private GenesRetriever createGenesForPhenotypeRetriever(Set<Phenotype> phenotypes) {
+        if(offHeapStorage) {
+            return new OffHeapGenesForPhenotypeRetriever(disgenetReader, phenotypes);
+        }
+        return new GenesForPhenotypeRetriever(disgenetReader, phenotypes);
+    }
+
+    /**
+     * Closes the loaded resources. Can be called from any thread (such as a shutdown hook).
+     */
+    public void close() {
+        // The reader might have been created by a different thread, while closing requires reading access.
+        disgenetReader.beginRead();
+        disgenetReader.close();
+    }
+}
@@ -0,0 +1,96 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.ontology_processing.PhenotypeNeighbourhoodIndex;
+
+/**
+ * <p>Estimates the cost of a {@link PrioritizationRequest} before it is processed, as the number of gene-disease
+ * associations that need to be retrieved from DisGeNET (which dominates both the processing time and the memory usage):
+ * the number of phenotypes after retrieving the associated phenotypes multiplied by the mean number of gene-disease
+ * associations per phenotype.</p>
+ *
+ * <p>The number of phenotypes is counted using a {@link PhenotypeNeighbourhoodIndex}, which only takes milliseconds even
+ * for phenotypes near the root of the HPO. The mean number of gene-disease associations per phenotype is learned from the
+ * processed requests (see {@link #observe(int, int)}), starting from {@link #PRIOR_ROWS_PER_PHENOTYPE} so that the
+ * estimates are usable before the first request is processed. This class is thread-safe.</p>
+ */
+public class RequestCostEstimator {
+    /**
+     * The assumed number of gene-disease associations per phenotype before any requests were observed.
+     */
+    public static final double PRIOR_ROWS_PER_PHENOTYPE = 20;
+
+    /**
+     * The weight of {@link #PRIOR_ROWS_PER_PHENOTYPE}, as a number of phenotypes.
+     */
+    private static final long PRIOR_PHENOTYPES = 1000;
+
+    /**
+     * Can be {@code null}, in which case only requests without associated phenotypes retrieval can be estimated.
+     */
+    private final PhenotypeNeighbourhoodIndex neighbourhoodIndex;
+
+    private long observedPhenotypes;
+    private long observedRows;
+
+    /**
+     * @param neighbourhoodIndex the HPO ontology relations, can be {@code null} if requests cannot retrieve associated
+     *                           phenotypes
+     */
+    public RequestCostEstimator(PhenotypeNeighbourhoodIndex neighbourhoodIndex) {
+        this.neighbourhoodIndex = neighbourhoodIndex;
+    }
+
+    /**
+     * @param request the {@link PrioritizationRequest} to count the phenotypes of
+     * @return the cumulative number of phenotypes per maximum distance (index {@code d} is the number of phenotypes
+     * with a maximum distance of {@code d}), or only the number of input phenotypes if the request does not retrieve
+     * associated phenotypes. Distances beyond the end of the array do not add phenotypes.
+     * @throws IllegalStateException if the request retrieves associated phenotypes while no
+     * {@link PhenotypeNeighbourhoodIndex} is available
+     */
+    public int[] countPhenotypes(PrioritizationRequest request) {
+        if(request.getPhenotypesRetrieverFactory() == null) {
+            return new int[]{request.getPhenotypes().size()};
+        }
+        if(neighbourhoodIndex == null) {
+            throw new IllegalStateException("Estimating associated phenotypes requires an HPO ontology.");
+        }
+        return neighbourhoodIndex.countPerDistance(request.getPhenotypes(), request.getPhenotypesRetrieverFactory(),
+                Math.max(request.getMaxDistance(), 0));
+    }
+
+    /**
+     * @param phenotypes the number of phenotypes
+     * @return the estimated number of gene-disease associations retrieved for that number of phenotypes
+     */
+    public synchronized long estimate(int phenotypes) {
+        return Math.round(phenotypes * getRowsPerPhenotype());
+    }
+
+    /**
+     * @param request the {@link PrioritizationRequest} to estimate
+     * @return the estimated number of gene-disease associations retrieved for the {@code request}
+     * @see #countPhenotypes(PrioritizationRequest)
+     */
+    public long estimate(PrioritizationRequest request) {
+        int[] counts = countPhenotypes(request);
+        return estimate(counts[counts.length - 1]);
+    }
+
+    /**
+     * @return the current mean number of gene-disease associations per phenotype
+     */
+    public synchronized double getRowsPerPhenotype() {
+        return (PRIOR_ROWS_PER_PHENOTYPE * PRIOR_PHENOTYPES + observedRows) / (PRIOR_PHENOTYPES + observedPhenotypes);
+    }
+
+    /**
+     * Updates the mean number of gene-disease associations per phenotype with a processed request.
+     * @param phenotypes the number of phenotypes of the processed request (including associated phenotypes)
+     * @param rows the number of gene-disease associations retrieved for those phenotypes
+     */
+    public synchronized void observe(int phenotypes, int rows) {
+        observedPhenotypes += phenotypes;
+        observedRows += rows;
+    }
+}
@@ -0,0 +1,59 @@
+package org.molgenis.vibe.formats;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class GeneAggregatesTester {
+    private Gene[] genes = new Gene[]{new Gene("ncbigene:0"), new Gene("ncbigene:1")};
+    private Disease[] diseases = new Disease[]{new Disease("umls:C0000000"), new Disease("umls:C0000001")};
+    private Source source1 = new Source("ORPHANET");
+    private Source source2 = new Source("BEFREE");
+
+    private GeneAggregates geneAggregates;
+
+    @BeforeClass
+    public void beforeClass() {
+        GeneDiseaseCombination gdc1 = new GeneDiseaseCombination(genes[0], diseases[0], 0.2);
+        gdc1.add(source1);
+        gdc1.add(source1);
+        gdc1.add(source2);
+
+        GeneDiseaseCombination gdc2 = new GeneDiseaseCombination(genes[0], diseases[1], 0.6);
+        gdc2.add(source1);
+
+        GeneDiseaseCombination gdc3 = new GeneDiseaseCombination(genes[1], diseases[1], 0.3);
+        gdc3.add(source2);
+
+        geneAggregates = new GeneAggregates(new GeneDiseaseCollection(new HashSet<>(Arrays.asList(gdc1, gdc2, gdc3))));
+    }
+
+    @Test
+    public void testScores() {
+        int index = geneAggregates.indexOf(genes[0]);
+        Assert.assertEquals(geneAggregates.getMaxScore(index), 0.6);
+        Assert.assertEquals(geneAggregates.getSumScore(index), 0.8, 1e-9);
+        Assert.assertEquals(geneAggregates.getMeanScore(index), 0.4, 1e-9);
+    }
+
+    @Test
+    public void testCounts() {
+        int index0 = geneAggregates.indexOf(genes[0]);
+        int index1 = geneAggregates.indexOf(genes[1]);
+        Assert.assertEquals(geneAggregates.getGdaCount(index0), 2);
+        Assert.assertEquals(geneAggregates.getDiseaseCount(index1), 1);
+        Assert.assertEquals(geneAggregates.getSourceCount(index0, source1), 3);
+        Assert.assertEquals(geneAggregates.getSourceCount(index0, source2), 1);
+        Assert.assertEquals(geneAggregates.getSourceCount(index1, source1), 0);
+    }
+
+    @Test
+    public void testGeneIndices() {
+        Assert.assertEquals(geneAggregates.size(), 2);
+        Assert.assertEquals(new HashSet<>(geneAggregates.getGenes()), new HashSet<>(Arrays.asList(genes)));
+        Assert.assertEquals(geneAggregates.getGene(geneAggregates.indexOf(genes[1])), genes[1]);
+        Assert.assertEquals(geneAggregates.indexOf(new Gene("ncbigene:2")), -1);
+    }
+}
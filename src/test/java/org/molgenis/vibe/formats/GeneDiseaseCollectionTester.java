@@ -91,4 +91,24 @@ public class GeneDiseaseCollectionTester {
         Assert.assertEquals(collection.getByGene(gdcs[2].getGene()), expectedGene);
         Assert.assertEquals(collection.getByDisease(gdcs[2].getDisease()), expectedDisease);
     }
+
+    @Test
+    public void testRemoveLastCombinationOfGene() {
+        collection.addAll(Arrays.asList(gdcs));
+        collection.remove(gdcs[0]);
+        collection.remove(gdcs[1]);
+
+        Assert.assertFalse(collection.getGenes().contains(gdcs[0].getGene()));
+        Assert.assertFalse(collection.getDiseases().contains(gdcs[0].getDisease()));
+        Assert.assertTrue(collection.getByGene(gdcs[0].getGene()).isEmpty());
+    }
+
+    @Test
+    public void testRemoveAllRemovesEmptyKeys() {
+        collection.addAll(Arrays.asList(gdcs));
+        collection.removeAll(Arrays.asList(gdcs[0], gdcs[1], gdcs[2]));
+
+        Assert.assertEquals(collection.getGenes(), new HashSet<>(Arrays.asList(gdcs[3].getGene())));
+        Assert.assertEquals(collection.getDiseases(), new HashSet<>(Arrays.asList(gdcs[3].getDisease())));
+    }
 }
@@ -0,0 +1,108 @@
+package org.molgenis.vibe.formats;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class OffHeapGeneDiseaseCollectionTester {
+    private Gene[] genes = new Gene[]{new Gene("ncbigene:0"), new Gene("ncbigene:1"), new Gene("ncbigene:2")};
+    private Disease[] diseases = new Disease[]{new Disease("umls:C0000000"), new Disease("umls:C0000001")};
+    private Source source1 = new Source("ORPHANET");
+    private Source source2 = new Source("BEFREE");
+
+    private GeneDiseaseCollection heapCollection;
+    private OffHeapGeneDiseaseCollection offHeapCollection;
+
+    @BeforeClass
+    public void beforeClass() {
+        GeneDiseaseCombination gdc1 = new GeneDiseaseCombination(genes[0], diseases[0], 0.5);
+        gdc1.add(source1, URI.create("http://pubmed1.id"));
+        gdc1.add(source1, URI.create("http://pubmed2.id"));
+        gdc1.add(source2);
+
+        GeneDiseaseCombination gdc2 = new GeneDiseaseCombination(genes[0], diseases[1], 0.7);
+        gdc2.add(source2);
+        gdc2.add(source2, URI.create("http://pubmed3.id"));
+
+        GeneDiseaseCombination gdc3 = new GeneDiseaseCombination(genes[2], diseases[1], 0.1);
+        gdc3.add(source1);
+
+        heapCollection = new GeneDiseaseCollection(new HashSet<>(Arrays.asList(gdc1, gdc2, gdc3)));
+        offHeapCollection = new OffHeapGeneDiseaseCollection.Builder().addAll(heapCollection).build();
+    }
+
+    @Test
+    public void testGenesDiseasesAndSize() {
+        Assert.assertEquals(offHeapCollection.getGenes(), heapCollection.getGenes());
+        Assert.assertEquals(offHeapCollection.getDiseases(), heapCollection.getDiseases());
+        Assert.assertEquals(offHeapCollection.size(), 3);
+    }
+
+    @Test
+    public void testCursorByGeneEqualsHeapCollection() {
+        for(Gene gene : genes) {
+            Assert.assertEquals(readCursor(offHeapCollection.cursorByGene(gene)), readCursor(heapCollection.cursorByGene(gene)));
+        }
+    }
+
+    @Test
+    public void testCursorEqualsHeapCollection() {
+        Assert.assertEquals(readCursor(offHeapCollection.cursor()), readCursor(heapCollection.cursor()));
+    }
+
+    @Test
+    public void testEvidenceOrderIsKept() {
+        GeneDiseaseCombinationCursor cursor = offHeapCollection.cursorByGene(genes[0]);
+        while(cursor.next()) {
+            if(cursor.getDisease().equals(diseases[0])) {
+                for(int i = 0; i < cursor.getSourceCount(); i++) {
+                    if(cursor.getSource(i).equals(source1)) {
+                        Assert.assertEquals(cursor.getEvidenceCount(i), 2);
+                        Assert.assertEquals(cursor.getEvidence(i, 0), URI.create("http://pubmed1.id"));
+                        Assert.assertEquals(cursor.getEvidence(i, 1), URI.create("http://pubmed2.id"));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownGeneHasNoResults() {
+        Assert.assertFalse(offHeapCollection.cursorByGene(new Gene("ncbigene:3")).next());
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void testReadingBeforeNext() {
+        offHeapCollection.cursorByGene(genes[2]).getGene();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBuilderCanOnlyBuildOnce() {
+        OffHeapGeneDiseaseCollection.Builder builder = new OffHeapGeneDiseaseCollection.Builder();
+        builder.build();
+        builder.build();
+    }
+
+    /**
+     * Converts all combinations of a cursor into comparable {@link String}{@code s}.
+     */
+    private Set<String> readCursor(GeneDiseaseCombinationCursor cursor) {
+        Set<String> combinations = new HashSet<>();
+        while(cursor.next()) {
+            Map<Source, String> sourceData = new TreeMap<>(Comparator.comparing(Source::getName));
+            for(int i = 0; i < cursor.getSourceCount(); i++) {
+                List<URI> evidence = new ArrayList<>();
+                for(int j = 0; j < cursor.getEvidenceCount(i); j++) {
+                    evidence.add(cursor.getEvidence(i, j));
+                }
+                sourceData.put(cursor.getSource(i), cursor.getCountForSource(i) + ":" + evidence);
+            }
+            combinations.add(cursor.getGene().getId() + "-" + cursor.getDisease().getId() + "-" +
+                    cursor.getDisgenetScore() + "-" + sourceData);
+        }
+        return combinations;
+    }
+}
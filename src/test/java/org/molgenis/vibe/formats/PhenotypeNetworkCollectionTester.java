@@ -0,0 +1,109 @@
+package org.molgenis.vibe.formats;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class PhenotypeNetworkCollectionTester {
+    private final Phenotype[] phenotypes= new Phenotype[]{
+            new Phenotype("hp:0000000"),
+            new Phenotype("hp:0000001"),
+            new Phenotype("hp:0000002"),
+            new Phenotype("hp:0000003"),
+            new Phenotype("hp:0000004")
+    };
+    private PhenotypeNetwork network1;
+    private PhenotypeNetwork network2;
+    private PhenotypeNetworkCollection collection;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        // network1: 0 (source), 2 (distance 1), 3 (distance 2)
+        network1 = new PhenotypeNetwork(phenotypes[0]);
+        network1.add(phenotypes[2], 1);
+        network1.add(phenotypes[3], 2);
+
+        // network2: 1 (source), 3 (distance 1), 4 (distance 1)
+        network2 = new PhenotypeNetwork(phenotypes[1]);
+        network2.add(phenotypes[3], 1);
+        network2.add(phenotypes[4], 1);
+
+        collection = new PhenotypeNetworkCollection();
+    }
+
+    @Test
+    public void testAddDelta() {
+        BiologicalEntityDelta<Phenotype> delta1 = collection.add(network1);
+        BiologicalEntityDelta<Phenotype> delta2 = collection.add(network2);
+
+        Assert.assertEquals(delta1.getAdded(), new HashSet<>(Arrays.asList(phenotypes[0], phenotypes[2], phenotypes[3])));
+        Assert.assertEquals(delta2.getAdded(), new HashSet<>(Arrays.asList(phenotypes[1], phenotypes[4])));
+        Assert.assertTrue(delta2.getRemoved().isEmpty());
+        Assert.assertEquals(collection.getPhenotypes(), new HashSet<>(Arrays.asList(phenotypes)));
+    }
+
+    @Test
+    public void testReferenceCountsAndDistances() {
+        collection.add(network1);
+        collection.add(network2);
+
+        Assert.assertEquals(collection.getReferenceCount(phenotypes[3]), 2);
+        Assert.assertEquals(collection.getReferenceCount(phenotypes[4]), 1);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[3]), 1);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[0]), 0);
+    }
+
+    @Test
+    public void testRemoveDelta() {
+        collection.add(network1);
+        collection.add(network2);
+        BiologicalEntityDelta<Phenotype> delta = collection.removeBySource(phenotypes[1]);
+
+        Assert.assertEquals(delta.getRemoved(), new HashSet<>(Arrays.asList(phenotypes[1], phenotypes[4])));
+        Assert.assertTrue(delta.getAdded().isEmpty());
+        Assert.assertEquals(collection.getPhenotypes(), new HashSet<>(Arrays.asList(phenotypes[0], phenotypes[2], phenotypes[3])));
+        // Distance of phenotype 3 should be updated to the distance within network1.
+        Assert.assertEquals(collection.getReferenceCount(phenotypes[3]), 1);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[3]), 2);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[4]), -1);
+    }
+
+    @Test
+    public void testRemoveKeepsSharedMinimumDistance() {
+        PhenotypeNetwork network3 = new PhenotypeNetwork(phenotypes[2]);
+        network3.add(phenotypes[3], 1);
+        collection.add(network1);
+        collection.add(network2);
+        collection.add(network3);
+
+        collection.removeBySource(phenotypes[1]);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[3]), 1);
+        collection.removeBySource(phenotypes[2]);
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[3]), 2);
+    }
+
+    @Test
+    public void testRemoveNetwork() {
+        collection.add(network1);
+        Assert.assertFalse(collection.remove(network2));
+        Assert.assertTrue(collection.remove(network1));
+        Assert.assertTrue(collection.getPhenotypes().isEmpty());
+    }
+
+    @Test
+    public void testReplaceNetworkWithSameSource() {
+        collection.add(network1);
+
+        PhenotypeNetwork replacement = new PhenotypeNetwork(phenotypes[0]);
+        replacement.add(phenotypes[3], 1);
+        replacement.add(phenotypes[4], 2);
+        BiologicalEntityDelta<Phenotype> delta = collection.add(replacement);
+
+        Assert.assertEquals(delta.getAdded(), new HashSet<>(Collections.singletonList(phenotypes[4])));
+        Assert.assertEquals(delta.getRemoved(), new HashSet<>(Collections.singletonList(phenotypes[2])));
+        Assert.assertEquals(collection.getMinimumDistance(phenotypes[3]), 1);
+        Assert.assertEquals(collection.getReferenceCount(phenotypes[0]), 1);
+    }
+}
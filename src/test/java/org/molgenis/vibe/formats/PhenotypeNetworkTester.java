@@ -4,6 +4,7 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.net.URI;
 import java.util.*;
 
 public class PhenotypeNetworkTester {
@@ -52,7 +53,58 @@ public class PhenotypeNetworkTester {
         Assert.assertEquals(phenotypeNetwork.getDistance(phenotypes[1]), 3);
     }
 
-    //todo: more tests
+    @Test
+    public void testUnorderedAdding() {
+        phenotypeNetwork.add(phenotypes[4], 1);
+        phenotypeNetwork.add(phenotypes[2], 2);
+        phenotypeNetwork.add(phenotypes[3], 1);
+
+        Assert.assertEquals(phenotypeNetwork.size(), 4);
+        Assert.assertTrue(phenotypeNetwork.contains(phenotypes[2]));
+        Assert.assertFalse(phenotypeNetwork.contains(phenotypes[1]));
+        Assert.assertEquals(phenotypeNetwork.getDistance(phenotypes[4]), 1);
+        Assert.assertEquals(phenotypeNetwork.getDistance(phenotypes[1]), -1);
+
+        // Positions are ordered on id.
+        for(int i = 0; i < phenotypeNetwork.size(); i++) {
+            Phenotype phenotype = phenotypeNetwork.getPhenotypeAt(i);
+            Assert.assertEquals(phenotypeNetwork.getDistanceAt(i), phenotypeNetwork.getDistance(phenotype));
+        }
+        Assert.assertEquals(phenotypeNetwork.getPhenotypeAt(0), phenotypes[0]);
+        Assert.assertEquals(phenotypeNetwork.getPhenotypeAt(3), phenotypes[4]);
+    }
+
+    @Test
+    public void testEqualityIndependentOfAddOrder() {
+        PhenotypeNetwork otherNetwork = new PhenotypeNetwork(phenotypes[0]);
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[2], 2);
+        otherNetwork.add(phenotypes[2], 2);
+        otherNetwork.add(phenotypes[1], 1);
+
+        Assert.assertEquals(phenotypeNetwork, otherNetwork);
+        Assert.assertEquals(phenotypeNetwork.hashCode(), otherNetwork.hashCode());
+    }
+
+    @Test
+    public void testStoredInstancesReturned() {
+        Phenotype uriPhenotype = new Phenotype(URI.create("http://purl.obolibrary.org/obo/HP_0000003"));
+        phenotypeNetwork.add(uriPhenotype, 2);
+        phenotypeNetwork.add(new Phenotype("hp:0000003"), 1);
+
+        Assert.assertSame(phenotypeNetwork.getPhenotypeAt(1), uriPhenotype);
+        Assert.assertEquals(phenotypeNetwork.getDistanceAt(1), 1);
+    }
+
+    @Test
+    public void testGetByMissingDistance() {
+        Assert.assertTrue(phenotypeNetwork.getByDistance(5).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOtherPhenotypeWithDistanceZero() {
+        phenotypeNetwork.add(phenotypes[1], 0);
+    }
 
     private void addExpectedPhenotypesUsingDistance(int[] phenotypePositions, int distance) {
         HashSet<Phenotype> phenotypesForDistance = new HashSet<>();
@@ -0,0 +1,66 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class CohortManifestReaderTester {
+    private Path file;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        file = Files.createTempFile("vibe", ".tsv");
+    }
+
+    @AfterMethod
+    public void afterMethod() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private Map<String, Set<Phenotype>> read(String... lines) throws IOException {
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return new CohortManifestReader(file).read();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        Map<String, Set<Phenotype>> cohort = read(
+                "# patient\tphenotypes",
+                "patient2\thp:0000001,HP:0000002",
+                "",
+                "patient.1 hp:0000003 , hp:0000001"
+        );
+
+        Assert.assertEquals(new ArrayList<>(cohort.keySet()), Arrays.asList("patient2", "patient.1"));
+        Assert.assertEquals(cohort.get("patient2"), new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"))));
+        Assert.assertEquals(cohort.get("patient.1"), new HashSet<>(Arrays.asList(new Phenotype("hp:0000003"), new Phenotype("hp:0000001"))));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".* line 2: duplicate patient id: patient1")
+    public void testDuplicatePatient() throws IOException {
+        read("patient1\thp:0000001", "patient1\thp:0000002");
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".* line 1: invalid patient id: \\.\\./patient1")
+    public void testInvalidPatientId() throws IOException {
+        read("../patient1\thp:0000001");
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".* line 1: no phenotypes for patient patient1")
+    public void testPatientWithoutPhenotypes() throws IOException {
+        read("patient1");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidPhenotype() throws IOException {
+        read("patient1\thp:1");
+    }
+}
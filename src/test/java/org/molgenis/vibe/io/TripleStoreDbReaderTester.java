@@ -0,0 +1,95 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.pipeline.ExecutorFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uses a new (empty) TDB, as only the transaction handling is tested.
+ */
+public class TripleStoreDbReaderTester {
+    private Path dir;
+
+    private TripleStoreDbReader reader;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        dir = Files.createTempDirectory("vibe-tdb");
+        reader = new TripleStoreDbReader(dir);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        reader.close();
+        File[] files = dir.toFile().listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        dir.toFile().delete();
+    }
+
+    @Test
+    public void testReadOnCreatingThread() {
+        reader.beginRead();
+        reader.beginRead();
+        Assert.assertTrue(reader.getModel().isEmpty());
+        reader.endRead();
+        reader.endRead();
+
+        // The transaction started by the constructor is still usable.
+        Assert.assertTrue(reader.getModel().isEmpty());
+    }
+
+    @Test
+    public void testReadOnPlatformThreads() throws Exception {
+        readConcurrently(ExecutorFactory.PLATFORM);
+    }
+
+    @Test
+    public void testReadOnVirtualThreads() throws Exception {
+        if(!ExecutorFactory.VIRTUAL.isAvailable()) {
+            throw new SkipException("Virtual threads are not available.");
+        }
+        readConcurrently(ExecutorFactory.VIRTUAL);
+    }
+
+    private void readConcurrently(ExecutorFactory executorFactory) throws Exception {
+        ExecutorService executor = executorFactory.create("reader", 4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for(int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> {
+                    reader.beginRead();
+                    try {
+                        // Nested, such as a retriever that is used within a request.
+                        reader.beginRead();
+                        reader.endRead();
+                        return reader.getModel().isEmpty();
+                    } finally {
+                        reader.endRead();
+                    }
+                }));
+            }
+            for(Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.BinaryColumnarFileReader;
+import org.molgenis.vibe.io.output.BinaryColumnarFileOutputWriter.Section;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class BinaryColumnarFileOutputWriterTester {
+    private Path file;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        file = Files.createTempFile("vibe", ".bin");
+    }
+
+    @AfterMethod
+    public void afterMethod() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:22"),
+                new Gene("ncbigene:333", "name3", "symbol1", 0.7, 0.3, URI.create("http://identifiers.org/ncbigene/333"))
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C1", "disease1", URI.create("http://linkedlifedata.com/resource/umls/id/C1")),
+                new Disease("umls:C2", "disease2", URI.create("http://linkedlifedata.com/resource/umls/id/C2")),
+                new Disease("umls:C3")
+        };
+
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>( Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.4),
+                new GeneDiseaseCombination(genes[0], diseases[1], 0.6),
+                new GeneDiseaseCombination(genes[1], diseases[1], 0.2),
+                new GeneDiseaseCombination(genes[2], diseases[2], 0.9)
+        )));
+
+        // Writes in a different order than the input.
+        List<Gene> priority = Arrays.asList(genes[2], genes[0], genes[1]);
+        new BinaryColumnarFileOutputWriter(file, new GeneAggregates(geneDiseaseCollection), priority).run();
+
+        BinaryColumnarFileReader reader = new BinaryColumnarFileReader(file);
+        Assert.assertEquals(reader.getGeneCount(), 3);
+        Assert.assertEquals(reader.getDiseaseCount(), 3);
+
+        Assert.assertEquals(reader.getGeneId(0), 333);
+        Assert.assertEquals(reader.getGeneSymbol(0), "symbol1");
+        Assert.assertEquals(reader.getHighestScore(0), 0.9);
+        Assert.assertEquals(reader.getDiseaseSpecificityIndex(0), 0.7);
+        Assert.assertEquals(reader.getDiseasePleiotropyIndex(0), 0.3);
+        Assert.assertEquals(reader.getDiseaseCount(0), 1);
+        Assert.assertEquals(reader.getDiseaseId(reader.getDiseaseIndex(0, 0)), "umls:C3");
+        Assert.assertNull(reader.getDiseaseName(reader.getDiseaseIndex(0, 0)));
+
+        Assert.assertEquals(reader.getGeneId(1), 1);
+        Assert.assertEquals(reader.getHighestScore(1), 0.6);
+        Assert.assertEquals(reader.getDiseaseCount(1), 2);
+        Set<String> diseaseNames = new HashSet<>();
+        for(int i = 0; i < reader.getDiseaseCount(1); i++) {
+            diseaseNames.add(reader.getDiseaseName(reader.getDiseaseIndex(1, i)));
+        }
+        Assert.assertEquals(diseaseNames, new HashSet<>(Arrays.asList("disease1", "disease2")));
+
+        Assert.assertNull(reader.getGeneSymbol(2));
+        Assert.assertTrue(Double.isNaN(reader.getDiseaseSpecificityIndex(2)));
+        Assert.assertEquals(reader.getDiseaseName(reader.getDiseaseIndex(2, 0)), "disease2");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadInvalidFile() throws IOException {
+        Files.write(file, new byte[200]);
+        new BinaryColumnarFileReader(file);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadTruncatedFile() throws IOException {
+        writeSingleGene();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        new BinaryColumnarFileReader(file);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadCorruptSectionOffset() throws IOException {
+        writeSingleGene();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        // Points the DISEASE_LIST section beyond the end of the file.
+        bytes.putLong(20 + Section.DISEASE_LIST.ordinal() * 8, Integer.MAX_VALUE);
+        Files.write(file, bytes.array());
+        new BinaryColumnarFileReader(file);
+    }
+
+    private void writeSingleGene() throws IOException {
+        Gene gene = new Gene("ncbigene:1");
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>(Collections.singletonList(
+                new GeneDiseaseCombination(gene, new Disease("umls:C1"), 0.4)
+        )));
+        new BinaryColumnarFileOutputWriter(file, new GeneAggregates(geneDiseaseCollection),
+                Collections.singletonList(gene)).run();
+    }
+}
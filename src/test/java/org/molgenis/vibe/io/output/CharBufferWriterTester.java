@@ -0,0 +1,67 @@
+package org.molgenis.vibe.io.output;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class CharBufferWriterTester {
+    private String writeDouble(double value) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter);
+        writer.writeDouble(value);
+        writer.close();
+        return stringWriter.toString();
+    }
+
+    @Test
+    public void testWriteDoubleEqualToDoubleToString() throws IOException {
+        double[] values = new double[]{0, -0.0, 1, 0.5, 0.98, 0.9385, 0.1257, 0.001, 0.0001, 123.456, 999.9999, 1000,
+                12345678.9, 0.1 + 0.2, 1.0 / 3, -0.75, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+        for(double value : values) {
+            Assert.assertEquals(writeDouble(value), Double.toString(value), "value: " + value);
+        }
+    }
+
+    @Test
+    public void testWriteDoubleWithFourDecimals() throws IOException {
+        // Values as found in DisGeNET (scores, DSI & DPI).
+        Random random = new Random(0);
+        for(int i = 0; i < 10000; i++) {
+            double value = random.nextInt(10001) / 10000.0;
+            Assert.assertEquals(writeDouble(value), Double.toString(value), "value: " + value);
+        }
+    }
+
+    @Test
+    public void testWriteLong() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter);
+        writer.writeLong(0);
+        writer.write(ValuesSeparator.COMMA);
+        writer.writeLong(-1234567890123L);
+        writer.write(ValuesSeparator.COMMA);
+        writer.writeLong(Long.MIN_VALUE);
+        writer.close();
+        Assert.assertEquals(stringWriter.toString(), "0,-1234567890123," + Long.MIN_VALUE);
+    }
+
+    @Test
+    public void testSmallBuffer() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter, 4);
+        writer.write("abcdefghij");
+        writer.write(ValuesSeparator.TAB);
+        writer.write(new char[]{'k', 'l', 'm', 'n', 'o'}, 1, 2);
+        writer.writeDouble(0.9385);
+        writer.close();
+        Assert.assertEquals(stringWriter.toString(), "abcdefghij\tlm0.9385");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBufferSize() {
+        new CharBufferWriter(new StringWriter(), 0);
+    }
+}
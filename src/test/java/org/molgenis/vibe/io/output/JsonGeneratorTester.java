@@ -0,0 +1,51 @@
+package org.molgenis.vibe.io.output;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class JsonGeneratorTester {
+    @Test
+    public void testNestedStructure() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter);
+        new JsonGenerator(writer).beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value(0.5).value("x").nullValue().beginArray().endArray().endArray()
+                .name("c").beginObject().endObject()
+                .name("d").value((Double) null)
+                .name("e").value(Double.NaN)
+                .name("f").value(true)
+                .endObject();
+        writer.close();
+
+        Assert.assertEquals(stringWriter.toString(), "{\"a\":1,\"b\":[0.5,\"x\",null,[]],\"c\":{},\"d\":null,\"e\":null,\"f\":true}");
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter);
+        new JsonGenerator(writer).value("a\"b\\c\nd\te\u0001f/\u00e9");
+        writer.close();
+
+        Assert.assertEquals(stringWriter.toString(), "\"a\\\"b\\\\c\\nd\\te\\u0001f/\u00e9\"");
+    }
+
+    @Test
+    public void testNewLine() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CharBufferWriter writer = new CharBufferWriter(stringWriter);
+        new JsonGenerator(writer).beginObject().endObject().newLine().beginObject().endObject().newLine();
+        writer.close();
+
+        Assert.assertEquals(stringWriter.toString(), "{}" + System.lineSeparator() + "{}" + System.lineSeparator());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testNewLineWithinObject() throws IOException {
+        new JsonGenerator(new CharBufferWriter(new StringWriter())).beginObject().newLine();
+    }
+}
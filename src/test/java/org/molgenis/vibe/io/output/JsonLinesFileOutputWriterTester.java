@@ -0,0 +1,60 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.formats.*;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class JsonLinesFileOutputWriterTester {
+    private Path file;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        file = Files.createTempFile("vibe", ".jsonl");
+    }
+
+    @AfterMethod
+    public void afterMethod() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:22")
+        };
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C1", "disease \"1\"", URI.create("http://linkedlifedata.com/resource/umls/id/C1")),
+                new Disease("umls:C2")
+        };
+        Source source = new Source("CTD_human", Source.Level.CURATED, URI.create("http://rdf.disgenet.org/v5.0.0/void/CTD_human"));
+
+        GeneDiseaseCombination gdc1 = new GeneDiseaseCombination(genes[0], diseases[0], 0.4);
+        gdc1.add(source, URI.create("http://identifiers.org/pubmed/1"));
+        gdc1.add(source);
+        GeneDiseaseCombination gdc2 = new GeneDiseaseCombination(genes[1], diseases[1], 0.2);
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>(Arrays.asList(gdc1, gdc2)));
+
+        new JsonLinesFileOutputWriter(file, new GeneAggregates(geneDiseaseCollection),
+                Arrays.asList(genes[1], genes[0])).run();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Assert.assertEquals(lines, Arrays.asList(
+                "{\"gene\":\"ncbigene:22\",\"symbol\":null,\"highestScore\":0.2,\"dsi\":null,\"dpi\":null,\"diseases\":[" +
+                        "{\"id\":\"umls:C2\",\"name\":null,\"score\":0.2,\"sources\":[]}]}",
+                "{\"gene\":\"ncbigene:1\",\"symbol\":\"symbol1\",\"highestScore\":0.4,\"dsi\":0.5,\"dpi\":0.1,\"diseases\":[" +
+                        "{\"id\":\"umls:C1\",\"name\":\"disease \\\"1\\\"\",\"score\":0.4,\"sources\":[" +
+                        "{\"name\":\"CTD_human\",\"level\":\"curated\",\"count\":2," +
+                        "\"evidence\":[\"http://identifiers.org/pubmed/1\"]}]}]}"
+        ));
+    }
+}
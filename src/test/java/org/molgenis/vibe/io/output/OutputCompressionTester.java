@@ -0,0 +1,75 @@
+package org.molgenis.vibe.io.output;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public class OutputCompressionTester {
+    private static final String TEXT = "ncbigene:1\t0.5\tumls:C0000001\n";
+
+    private static String decompress(byte[] bytes) throws IOException {
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+            StringBuilder stringBuilder = new StringBuilder();
+            String line;
+            while((line = reader.readLine()) != null) {
+                stringBuilder.append(line).append("\n");
+            }
+            return stringBuilder.toString();
+        }
+    }
+
+    @Test
+    public void testRetrieveByFileName() {
+        Assert.assertEquals(OutputCompression.retrieveByFileName("output.tsv.gz"), OutputCompression.GZIP);
+        Assert.assertEquals(OutputCompression.retrieveByFileName("output.TSV.GZ"), OutputCompression.GZIP);
+        Assert.assertEquals(OutputCompression.retrieveByFileName("output.tsv"), OutputCompression.NONE);
+    }
+
+    @Test
+    public void testGzipRoundTrip() throws IOException {
+        for(OutputCompression compression : new OutputCompression[]{OutputCompression.GZIP, OutputCompression.GZIP_FAST}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try(OutputStream outputStream = compression.wrap(bytes)) {
+                for(int i = 0; i < 1000; i++) {
+                    outputStream.write(TEXT.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            StringBuilder expected = new StringBuilder();
+            for(int i = 0; i < 1000; i++) {
+                expected.append(TEXT);
+            }
+            Assert.assertEquals(decompress(bytes.toByteArray()), expected.toString(), compression.getId());
+            Assert.assertTrue(bytes.size() < expected.length(), compression.getId());
+        }
+    }
+
+    @Test
+    public void testFlushedDataIsReadable() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream outputStream = OutputCompression.GZIP.wrap(bytes);
+        outputStream.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+
+        // The stream is not finished yet, but the flushed data should already be readable.
+        try(InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            byte[] buffer = new byte[TEXT.length()];
+            int read = 0;
+            while(read < buffer.length) {
+                read += inputStream.read(buffer, read, buffer.length - read);
+            }
+            Assert.assertEquals(new String(buffer, StandardCharsets.UTF_8), TEXT);
+        }
+        outputStream.close();
+    }
+
+    @Test
+    public void testNoneDoesNotWrap() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Assert.assertSame(OutputCompression.NONE.wrap(bytes), bytes);
+    }
+}
@@ -0,0 +1,142 @@
+package org.molgenis.vibe.io.output;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.ext.com.google.common.base.Stopwatch;
+import org.molgenis.vibe.formats.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compares the throughput of the {@link ResultsPerGeneSeparatedValuesFileOutputWriter} (which writes into a reusable
+ * {@code char} buffer) with the previous implementation (string concatenation written to a {@link BufferedWriter}), and
+ * with the {@link JsonLinesFileOutputWriter}.
+ */
+public class OutputWritersSpeedComparison {
+    private static final String SYS_OUT_FORMAT = "%16s|%10s|%10s|%10s|%10s%n";
+    private static final int SPACER_REPEAT = 60;
+    private static final int TEST_REPEATS = 3;
+    private static final int GENE_COUNT = 200000;
+    private static final int DISEASES_PER_GENE = 3;
+
+    private GeneAggregates geneAggregates;
+    private List<Gene> priority;
+    private Path directory;
+
+    @BeforeClass(groups = {"benchmarking"})
+    public void beforeClass() throws IOException {
+        Random random = new Random(0);
+        Set<GeneDiseaseCombination> combinations = new HashSet<>();
+        for(int i = 0; i < GENE_COUNT; i++) {
+            Gene gene = new Gene("ncbigene:" + i, "name" + i, "SYMBOL" + i, random.nextInt(10001) / 10000.0,
+                    random.nextInt(10001) / 10000.0, URI.create("http://identifiers.org/ncbigene/" + i));
+            for(int j = 0; j < DISEASES_PER_GENE; j++) {
+                int diseaseId = random.nextInt(1000000);
+                Disease disease = new Disease("umls:C" + diseaseId, "Disease " + diseaseId,
+                        URI.create("http://linkedlifedata.com/resource/umls/id/C" + diseaseId));
+                combinations.add(new GeneDiseaseCombination(gene, disease, random.nextInt(10001) / 10000.0));
+            }
+        }
+        geneAggregates = new GeneAggregates(new GeneDiseaseCollection(combinations));
+        priority = geneAggregates.getGenes();
+        directory = Files.createTempDirectory("vibe_benchmark");
+    }
+
+    @AfterClass(groups = {"benchmarking"})
+    public void afterClass() throws IOException {
+        for(Path path : Files.newDirectoryStream(directory)) {
+            Files.delete(path);
+        }
+        Files.delete(directory);
+    }
+
+    @Test(groups = {"benchmarking"})
+    public void benchmarkWriters() throws IOException {
+        printHeader();
+        printResults("concatenation", runLegacyWriter());
+        printResults("char buffer", runWriter());
+        printResults("json lines", runJsonLinesWriter());
+        printFooter();
+    }
+
+    private String[] runWriter() throws IOException {
+        String[] times = new String[TEST_REPEATS];
+        for(int i = 0; i < TEST_REPEATS; i++) {
+            Path path = directory.resolve("buffer_" + i + ".tsv");
+            Stopwatch timer = Stopwatch.createStarted();
+            new ResultsPerGeneSeparatedValuesFileOutputWriter(path, geneAggregates, priority, ValuesSeparator.TAB,
+                    ValuesSeparator.VERTICAL_LINE, ValuesSeparator.COLON, ValuesSeparator.COMMA).run();
+            times[i] = timer.stop().toString();
+        }
+        return times;
+    }
+
+    private String[] runJsonLinesWriter() throws IOException {
+        String[] times = new String[TEST_REPEATS];
+        for(int i = 0; i < TEST_REPEATS; i++) {
+            Path path = directory.resolve("json_lines_" + i + ".jsonl");
+            Stopwatch timer = Stopwatch.createStarted();
+            new JsonLinesFileOutputWriter(path, geneAggregates, priority).run();
+            times[i] = timer.stop().toString();
+        }
+        return times;
+    }
+
+    /**
+     * Writes the same output as the previous implementation of {@link ResultsPerGeneSeparatedValuesFileOutputWriter#run()}.
+     */
+    private String[] runLegacyWriter() throws IOException {
+        String[] times = new String[TEST_REPEATS];
+        for(int i = 0; i < TEST_REPEATS; i++) {
+            Path path = directory.resolve("legacy_" + i + ".tsv");
+            Stopwatch timer = Stopwatch.createStarted();
+            try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                ValuesSeparator separator = ValuesSeparator.TAB;
+                writer.write("gene" + separator + "diseases" + separator + "highest GDA score" + separator + "DSI" +
+                        separator + "DPI");
+                writer.newLine();
+                for(Gene gene : priority) {
+                    writer.write(gene.getSymbol() + separator);
+                    boolean firstDisease = true;
+                    GeneDiseaseCombinationCursor gdc = geneAggregates.getGeneDiseaseCollection().cursorByGene(gene);
+                    while(gdc.next()) {
+                        if(!firstDisease) {
+                            writer.write(ValuesSeparator.VERTICAL_LINE.toString());
+                        } else {
+                            firstDisease = false;
+                        }
+                        writer.write(gdc.getDisease().getName());
+                    }
+                    double highestScore = geneAggregates.getMaxScore(geneAggregates.indexOf(gene));
+                    writer.write(separator + Double.toString(highestScore) + separator +
+                            gene.getDiseaseSpecificityIndex() + separator + gene.getDiseasePleiotropyIndex());
+                    writer.newLine();
+                }
+            }
+            times[i] = timer.stop().toString();
+        }
+        return times;
+    }
+
+    private void printResults(String name, String[] times) {
+        System.out.format(SYS_OUT_FORMAT, name, priority.size(), times[0], times[1], times[2]);
+    }
+
+    private void printHeader() {
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+        System.out.format(SYS_OUT_FORMAT, "writer", "genes", "time1", "time2", "time3");
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+    }
+
+    private void printFooter() {
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+    }
+}
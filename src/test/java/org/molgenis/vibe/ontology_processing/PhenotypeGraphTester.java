@@ -0,0 +1,60 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Uses the ontology of {@link PhenotypeInformationContentIndexTester}.
+ */
+public class PhenotypeGraphTester {
+    private PhenotypeGraph graph;
+
+    @BeforeClass
+    public void beforeClass() {
+        graph = new PhenotypeGraph(PhenotypeInformationContentIndexTester.createModel());
+    }
+
+    private int indexOf(String id) {
+        return graph.indexOf(new Phenotype(id));
+    }
+
+    private static Object[] toObjects(int[] indices) {
+        Object[] objects = new Object[indices.length];
+        for(int i = 0; i < indices.length; i++) {
+            objects[i] = indices[i];
+        }
+        return objects;
+    }
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(graph.size(), 6);
+    }
+
+    @Test
+    public void testPhenotypeByIndex() {
+        Assert.assertEquals(graph.getPhenotype(indexOf("hp:0000004")), new Phenotype("hp:0000004"));
+    }
+
+    @Test
+    public void testParentsAndChildren() {
+        Assert.assertEquals(graph.getParents(indexOf("hp:0000004")), new int[]{indexOf("hp:0000002")});
+        // Ordered by the statements in the model.
+        Assert.assertEqualsNoOrder(toObjects(graph.getChildren(indexOf("hp:0000002"))),
+                new Object[]{indexOf("hp:0000004"), indexOf("hp:0000005")});
+        Assert.assertEquals(graph.getParents(indexOf("hp:0000001")), new int[0]);
+        Assert.assertEquals(graph.getChildren(indexOf("hp:0000006")), new int[0]);
+    }
+
+    @Test
+    public void testNonPhenotypeParentIgnored() {
+        Assert.assertEquals(graph.getParents(indexOf("hp:0000006")), new int[]{indexOf("hp:0000003")});
+    }
+
+    @Test
+    public void testUnknownPhenotype() {
+        Assert.assertEquals(indexOf("hp:0000007"), -1);
+    }
+}
@@ -0,0 +1,88 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Uses the ontology:
+ * <pre>
+ * 0000001
+ * +-- 0000002
+ * |   +-- 0000004
+ * |   +-- 0000005
+ * +-- 0000003
+ *     +-- 0000006
+ * </pre>
+ */
+public class PhenotypeInformationContentIndexTester {
+    private static final double DELTA = 1e-9;
+
+    private PhenotypeInformationContentIndex index;
+
+    /**
+     * Creates a minimal model containing only the subclass relations (and an ignored non-phenotype term).
+     */
+    public static Model createModel() {
+        Model model = ModelFactory.createDefaultModel();
+        addSubClass(model, "HP_0000002", "HP_0000001");
+        addSubClass(model, "HP_0000003", "HP_0000001");
+        addSubClass(model, "HP_0000004", "HP_0000002");
+        addSubClass(model, "HP_0000005", "HP_0000002");
+        addSubClass(model, "HP_0000006", "HP_0000003");
+        addSubClass(model, "HP_0000006", "UPHENO_0000001");
+        return model;
+    }
+
+    private static void addSubClass(Model model, String child, String parent) {
+        model.add(model.createResource("http://purl.obolibrary.org/obo/" + child), RDFS.subClassOf,
+                model.createResource("http://purl.obolibrary.org/obo/" + parent));
+    }
+
+    private int indexOf(String id) {
+        return index.indexOf(new Phenotype(id));
+    }
+
+    @BeforeClass
+    public void beforeClass() {
+        index = new PhenotypeInformationContentIndex(createModel());
+    }
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(index.size(), 6);
+        Assert.assertEquals(index.indexOf(new Phenotype("hp:0000007")), -1);
+    }
+
+    @Test
+    public void testInformationContent() {
+        Assert.assertEquals(index.getInformationContent(indexOf("hp:0000001")), 0, DELTA);
+        Assert.assertEquals(index.getInformationContent(indexOf("hp:0000002")), Math.log(2), DELTA);
+        Assert.assertEquals(index.getInformationContent(indexOf("hp:0000003")), Math.log(3), DELTA);
+        Assert.assertEquals(index.getInformationContent(indexOf("hp:0000006")), Math.log(6), DELTA);
+    }
+
+    @Test
+    public void testMostInformativeCommonAncestor() {
+        Assert.assertEquals(index.getMostInformativeCommonAncestor(indexOf("hp:0000004"), indexOf("hp:0000005")), indexOf("hp:0000002"));
+        Assert.assertEquals(index.getMostInformativeCommonAncestor(indexOf("hp:0000004"), indexOf("hp:0000006")), indexOf("hp:0000001"));
+        Assert.assertEquals(index.getMostInformativeCommonAncestor(indexOf("hp:0000006"), indexOf("hp:0000003")), indexOf("hp:0000003"));
+        Assert.assertEquals(index.getMostInformativeCommonAncestor(indexOf("hp:0000004"), indexOf("hp:0000004")), indexOf("hp:0000004"));
+    }
+
+    @Test
+    public void testResnikSimilarity() {
+        Assert.assertEquals(index.getResnikSimilarity(indexOf("hp:0000004"), indexOf("hp:0000005")), Math.log(2), DELTA);
+        Assert.assertEquals(index.getResnikSimilarity(indexOf("hp:0000004"), indexOf("hp:0000006")), 0, DELTA);
+    }
+
+    @Test
+    public void testLinSimilarity() {
+        Assert.assertEquals(index.getLinSimilarity(indexOf("hp:0000004"), indexOf("hp:0000005")), Math.log(2) / Math.log(6), DELTA);
+        Assert.assertEquals(index.getLinSimilarity(indexOf("hp:0000004"), indexOf("hp:0000004")), 1, DELTA);
+    }
+}
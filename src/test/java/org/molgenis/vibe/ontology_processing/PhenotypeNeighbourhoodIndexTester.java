@@ -0,0 +1,59 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Uses the ontology of {@link PhenotypeInformationContentIndexTester}.
+ */
+public class PhenotypeNeighbourhoodIndexTester {
+    private PhenotypeNeighbourhoodIndex index;
+
+    @BeforeClass
+    public void beforeClass() {
+        index = new PhenotypeNeighbourhoodIndex(PhenotypeInformationContentIndexTester.createModel());
+    }
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(index.size(), 6);
+    }
+
+    @Test
+    public void testChildrenStopsWhenNoneAdded() {
+        int[] counts = index.countPerDistance(Collections.singleton(new Phenotype("hp:0000002")),
+                PhenotypesRetrieverFactory.CHILDREN, 5);
+        Assert.assertEquals(counts, new int[]{1, 3});
+    }
+
+    @Test
+    public void testDistanceFollowsParentsAndChildren() {
+        int[] counts = index.countPerDistance(Collections.singleton(new Phenotype("hp:0000004")),
+                PhenotypesRetrieverFactory.DISTANCE, 3);
+        Assert.assertEquals(counts, new int[]{1, 2, 4, 5});
+    }
+
+    @Test
+    public void testOverlapAndUnknownPhenotypes() {
+        int[] counts = index.countPerDistance(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000003"),
+                new Phenotype("hp:0000007")), PhenotypesRetrieverFactory.CHILDREN, 1);
+        Assert.assertEquals(counts, new int[]{3, 5});
+    }
+
+    @Test
+    public void testZeroDistance() {
+        int[] counts = index.countPerDistance(Collections.singleton(new Phenotype("hp:0000001")),
+                PhenotypesRetrieverFactory.DISTANCE, 0);
+        Assert.assertEquals(counts, new int[]{1});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeDistance() {
+        index.countPerDistance(Collections.singleton(new Phenotype("hp:0000001")), PhenotypesRetrieverFactory.DISTANCE, -1);
+    }
+}
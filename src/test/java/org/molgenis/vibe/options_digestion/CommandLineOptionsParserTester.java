@@ -4,10 +4,13 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.UnrecognizedOptionException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.molgenis.vibe.TestData;
+import org.molgenis.vibe.pipeline.ExecutorFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
 import org.testng.Assert;
 import org.testng.annotations.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class CommandLineOptionsParserTester {
     private final String[] VALID_TDB = new String[]{"-t", TestData.TDB_MINI.getDir()};
@@ -33,6 +36,12 @@ public class CommandLineOptionsParserTester {
     private final String[] GENE_SORTING_2 = new String[]{"-s", "dsi"};
     private final String[] GENE_SORTING_3 = new String[]{"-s", "dpi"};
     private final String[] GENE_SORTING_INVALID = new String[]{"-s", "myCustomName"};
+    private final String[] GENE_SORTING_MULTIPLE = new String[]{"-s", "gda_max", "-s", "dsi", "-s", "dpi"};
+
+    private final String[] TOP_GENES = new String[]{"-k", "50"};
+    private final String[] TOP_GENES_INVALID = new String[]{"-k", "0"};
+
+    private final String[] INTERACTIVE = new String[]{"--interactive"};
 
     @Test
     public void noArguments() throws IOException, ParseException {
@@ -195,6 +204,58 @@ public class CommandLineOptionsParserTester {
         return fullArray;
     }
 
+    @Test
+    public void validSingleHpoWithTopGenes() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, TOP_GENES);
+        CommandLineOptionsParser appOptions = new CommandLineOptionsParser(args);
+
+        Assert.assertEquals(appOptions.getTopGenes(), new Integer(50));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void validSingleHpoWithInvalidTopGenes() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, TOP_GENES_INVALID);
+        testWithErrorPrint(args);
+    }
+
+    @Test
+    public void validSingleHpoWithMultipleSortAlgorithms() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, GENE_SORTING_MULTIPLE);
+        CommandLineOptionsParser appOptions = new CommandLineOptionsParser(args);
+
+        Assert.assertEquals(appOptions.getGenePrioritizerFactories(), Arrays.asList(GenePrioritizerFactory.HIGHEST_DISGENET_SCORE,
+                GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX, GenePrioritizerFactory.DISEASE_PLEIOTROPY_INDEX));
+    }
+
+    @Test
+    public void validSingleHpoWithMultipleSortAlgorithmsAndThreads() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, GENE_SORTING_MULTIPLE,
+                new String[]{"-g", "platform"});
+        CommandLineOptionsParser appOptions = new CommandLineOptionsParser(args);
+
+        Assert.assertEquals(appOptions.getExecutorFactory(), ExecutorFactory.PLATFORM);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void validSingleHpoWithThreads() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, new String[]{"-g", "platform"});
+        testWithErrorPrint(args);
+    }
+
+    @Test
+    public void validSingleHpoInteractive() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, INTERACTIVE);
+        CommandLineOptionsParser appOptions = new CommandLineOptionsParser(args);
+
+        Assert.assertTrue(appOptions.isInteractive());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void validSingleHpoInteractiveWithOffHeap() throws IOException, ParseException {
+        String[] args = stringArraysMerger(VALID_TDB, SINGLE_HPO, NON_EXISTING_OUTPUT_FILE, INTERACTIVE, new String[]{"-x"});
+        testWithErrorPrint(args);
+    }
+
     private void testWithErrorPrint(String[] args) throws IOException, ParseException {
         try {
             new CommandLineOptionsParser(args);
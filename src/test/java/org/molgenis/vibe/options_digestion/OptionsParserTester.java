@@ -0,0 +1,126 @@
+package org.molgenis.vibe.options_digestion;
+
+import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.io.output.OutputCompression;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.molgenis.vibe.service.AdmissionControl;
+import org.molgenis.vibe.service.AdmissionPolicy;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Paths;
+
+public class OptionsParserTester {
+    @Test
+    public void testAddToFileName() {
+        Assert.assertEquals(OptionsParser.addToFileName(Paths.get("dir/output.tsv"), "_dsi"), Paths.get("dir/output_dsi.tsv"));
+        Assert.assertEquals(OptionsParser.addToFileName(Paths.get("dir/output"), "_dsi"), Paths.get("dir/output_dsi"));
+        Assert.assertEquals(OptionsParser.addToFileName(Paths.get(".output"), "_dsi"), Paths.get(".output_dsi"));
+    }
+
+    @Test
+    public void testAddToFileNameCompressed() {
+        Assert.assertEquals(OptionsParser.addToFileName(Paths.get("dir/output.tsv.gz"), "_dsi"), Paths.get("dir/output_dsi.tsv.gz"));
+        Assert.assertEquals(OptionsParser.addToFileName(Paths.get("output.gz"), "_dsi"), Paths.get("output_dsi.gz"));
+    }
+
+    @Test
+    public void testOutputFileSinglePrioritizer() throws FileAlreadyExistsException {
+        OptionsParser optionsParser = new OptionsParser() {};
+        optionsParser.setOutputFile(Paths.get("output.tsv"));
+        optionsParser.setGenePrioritizerFactory(GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX);
+
+        Assert.assertEquals(optionsParser.getOutputFile(GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX), Paths.get("output.tsv"));
+    }
+
+    @Test
+    public void testOutputFileMultiplePrioritizers() throws FileAlreadyExistsException {
+        OptionsParser optionsParser = new OptionsParser() {};
+        optionsParser.setOutputFile(Paths.get("output.tsv"));
+        optionsParser.setGenePrioritizerFactories(new String[]{"gda_max", "dsi", "gda_max"});
+
+        Assert.assertEquals(optionsParser.getGenePrioritizerFactories().size(), 2);
+        Assert.assertEquals(optionsParser.getOutputFile(GenePrioritizerFactory.HIGHEST_DISGENET_SCORE), Paths.get("output_gda_max.tsv"));
+        Assert.assertEquals(optionsParser.getOutputFile(GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX), Paths.get("output_dsi.tsv"));
+    }
+
+    @Test
+    public void testCohortOutputFiles() throws FileAlreadyExistsException {
+        OptionsParser optionsParser = new OptionsParser() {};
+        optionsParser.setOutputFile(Paths.get("results"));
+        optionsParser.setFileOutputWriterFactory(FileOutputWriterFactory.REGULAR);
+        optionsParser.setOutputCompression(OutputCompression.GZIP);
+        optionsParser.setGenePrioritizerFactory(GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX);
+        Assert.assertEquals(optionsParser.getOutputFile("patient1", GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX),
+                Paths.get("results/patient1.tsv.gz"));
+
+        optionsParser.setGenePrioritizerFactories(new String[]{"gda_max", "dsi"});
+        Assert.assertEquals(optionsParser.getOutputFile("patient1", GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX),
+                Paths.get("results/patient1_dsi.tsv.gz"));
+    }
+
+    @Test
+    public void testStageWorkers() {
+        OptionsParser optionsParser = new OptionsParser() {};
+        optionsParser.setWorkers(4);
+        Assert.assertEquals(optionsParser.getStageWorkers(), new int[]{4, 4, 4});
+
+        optionsParser.setStageWorkers("2, 8,1");
+        Assert.assertEquals(optionsParser.getStageWorkers(), new int[]{2, 8, 1});
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testStageWorkersMissingStage() {
+        new OptionsParser() {}.setStageWorkers("2,8");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testStageWorkersZero() {
+        new OptionsParser() {}.setStageWorkers("2,0,1");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testWarmUpBudgetNegative() {
+        new OptionsParser() {}.setWarmUpBudget("-1");
+    }
+
+    @Test(expectedExceptions = EnumConstantNotPresentException.class)
+    public void testExecutorFactoryUnknown() {
+        new OptionsParser() {}.setExecutorFactory("green");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testResultTtlNegative() {
+        new OptionsParser() {}.setResultTtl("-1");
+    }
+
+    @Test
+    public void testResultTtlDisabled() {
+        OptionsParser optionsParser = new OptionsParser() {};
+        optionsParser.setResultTtl(0);
+        Assert.assertNull(optionsParser.createResultCache());
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testAdmissionBudgetNegative() {
+        new OptionsParser() {}.setAdmissionBudget("-1");
+    }
+
+    @Test(expectedExceptions = EnumConstantNotPresentException.class)
+    public void testAdmissionPolicyUnknown() {
+        new OptionsParser() {}.setAdmissionPolicy("ignore");
+    }
+
+    @Test
+    public void testAdmissionControl() {
+        OptionsParser optionsParser = new OptionsParser() {};
+        Assert.assertNull(optionsParser.createAdmissionControl(null));
+
+        optionsParser.setAdmissionBudget("1000");
+        optionsParser.setAdmissionPolicy("downgrade");
+        AdmissionControl admissionControl = optionsParser.createAdmissionControl(null);
+        Assert.assertEquals(admissionControl.getBudget(), 1000);
+        Assert.assertEquals(admissionControl.getPolicy(), AdmissionPolicy.DOWNGRADE);
+    }
+}
@@ -0,0 +1,68 @@
+package org.molgenis.vibe.pipeline;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutorFactoryTester {
+    @Test
+    public void testPlatform() throws Exception {
+        ExecutorService executor = ExecutorFactory.PLATFORM.create("test", 2);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(thread.getName(), "test-1");
+            Assert.assertTrue(thread.isDaemon());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtual() throws Exception {
+        if(!ExecutorFactory.VIRTUAL.isAvailable()) {
+            throw new SkipException("Virtual threads are not available.");
+        }
+        ExecutorService executor = ExecutorFactory.VIRTUAL.create("test", 1);
+        try {
+            // More tasks than threads requested, which all run concurrently.
+            int tasks = 1000;
+            CountDownLatch running = new CountDownLatch(tasks);
+            for(int i = 0; i < tasks; i++) {
+                executor.execute(() -> {
+                    running.countDown();
+                    try {
+                        running.await();
+                    } catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            Assert.assertTrue(running.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS).getName().startsWith("test-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testVirtualNotAvailable() {
+        if(ExecutorFactory.VIRTUAL.isAvailable()) {
+            throw new SkipException("Virtual threads are available.");
+        }
+        ExecutorFactory.VIRTUAL.create("test", 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoThreads() {
+        ExecutorFactory.PLATFORM.create("test", 0);
+    }
+
+    @Test
+    public void testRetrieve() {
+        Assert.assertEquals(ExecutorFactory.retrieve("Virtual"), ExecutorFactory.VIRTUAL);
+    }
+}
@@ -0,0 +1,132 @@
+package org.molgenis.vibe.pipeline;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.ext.com.google.common.base.Stopwatch;
+import org.apache.jena.sparql.core.Var;
+import org.molgenis.vibe.TestData;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.TripleStoreDbReader;
+import org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of retrieving the DisGeNET data of many patients concurrently using a fixed pool of platform
+ * threads with using virtual threads (see {@link ExecutorFactory}). Virtual threads are only compared when running on
+ * Java 21 or higher.
+ */
+public class ExecutorsSpeedComparison {
+    private static final String SYS_OUT_FORMAT = "%10s|%8s|%12s|%12s|%12s%n";
+    private static final int SPACER_REPEAT = 60;
+    private static final int TEST_REPEATS = 3;
+    private static final int PATIENTS = 1000;
+    private static final int PHENOTYPES_PER_PATIENT = 3;
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final int[] PLATFORM_WORKERS = {4, 16, 64};
+    private static final int[] VIRTUAL_WORKERS = {64, 256, 1000};
+
+    private ModelReader reader;
+    private List<Set<Phenotype>> patients;
+
+    @BeforeClass(groups = {"benchmarking"})
+    public void beforeClass() throws IOException {
+        reader = new TripleStoreDbReader(TestData.TDB_FULL.getDir());
+
+        List<Phenotype> phenotypes = new ArrayList<>();
+        QueryRunner query = new QueryRunner(reader.getModel(), DisgenetQueryStringGenerator.getPhenotypes(500));
+        while(query.hasNext()) {
+            phenotypes.add(new Phenotype(URI.create(query.nextBinding().get(Var.alloc("hpo")).getURI())));
+        }
+        query.close();
+
+        Random random = new Random(0);
+        patients = new ArrayList<>();
+        for(int i = 0; i < PATIENTS; i++) {
+            Set<Phenotype> patient = new HashSet<>();
+            for(int j = 0; j < PHENOTYPES_PER_PATIENT; j++) {
+                patient.add(phenotypes.get(random.nextInt(phenotypes.size())));
+            }
+            patients.add(patient);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() {
+        reader.close();
+    }
+
+    @Test(groups = {"benchmarking"})
+    public void benchmarkExecutors() throws InterruptedException {
+        printHeader();
+        // Not measured: fills the TDB caches and compiles the query engine.
+        runPipeline(ExecutorFactory.PLATFORM, PLATFORM_WORKERS[0]);
+        for(int workers : PLATFORM_WORKERS) {
+            printResults(ExecutorFactory.PLATFORM, workers);
+        }
+        if(ExecutorFactory.VIRTUAL.isAvailable()) {
+            for(int workers : VIRTUAL_WORKERS) {
+                printResults(ExecutorFactory.VIRTUAL, workers);
+            }
+        } else {
+            System.out.println("Virtual threads are not available (Java " + System.getProperty("java.version") + ").");
+        }
+        printFooter();
+    }
+
+    /**
+     * @return the number of patients per second
+     */
+    private double runPipeline(ExecutorFactory executorFactory, int workers) throws InterruptedException {
+        StagedPipeline<Set<Phenotype>> pipeline = new StagedPipeline<Set<Phenotype>>(QUEUE_CAPACITY)
+                .setExecutorFactory(executorFactory)
+                .addStage("retrieval", workers, phenotypes -> {
+                    reader.beginRead();
+                    try {
+                        new GenesForPhenotypeRetriever(reader, phenotypes).run();
+                    } finally {
+                        reader.endRead();
+                    }
+                });
+
+        Stopwatch timer = Stopwatch.createStarted();
+        pipeline.run(patients, new StagedPipeline.Listener<Set<Phenotype>>() {
+            @Override
+            public void completed(Set<Phenotype> item) {
+            }
+
+            @Override
+            public void failed(Set<Phenotype> item, String stageName, Throwable cause) {
+                throw new IllegalStateException(cause);
+            }
+        });
+        return patients.size() * 1e9 / Math.max(timer.stop().elapsed(TimeUnit.NANOSECONDS), 1);
+    }
+
+    private void printResults(ExecutorFactory executorFactory, int workers) throws InterruptedException {
+        String[] throughputs = new String[TEST_REPEATS];
+        for(int i = 0; i < TEST_REPEATS; i++) {
+            throughputs[i] = String.format("%.1f/s", runPipeline(executorFactory, workers));
+        }
+        System.out.format(SYS_OUT_FORMAT, executorFactory.getId(), workers, throughputs[0], throughputs[1], throughputs[2]);
+    }
+
+    private void printHeader() {
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+        System.out.format(SYS_OUT_FORMAT, "threads", "workers", "patients1", "patients2", "patients3");
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+    }
+
+    private void printFooter() {
+        System.out.format(StringUtils.repeat("-", SPACER_REPEAT) + "\n");
+    }
+}
@@ -0,0 +1,115 @@
+package org.molgenis.vibe.pipeline;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StagedPipelineTester {
+    /**
+     * Collects the results on the calling thread.
+     */
+    private static class CollectingListener implements StagedPipeline.Listener<StringBuilder> {
+        private List<String> completed = new ArrayList<>();
+        private Map<String, String> failed = new HashMap<>();
+
+        @Override
+        public void completed(StringBuilder item) {
+            completed.add(item.toString());
+        }
+
+        @Override
+        public void failed(StringBuilder item, String stageName, Throwable cause) {
+            failed.put(item.toString(), stageName + ": " + cause.getMessage());
+        }
+    }
+
+    private static List<StringBuilder> createItems(String... values) {
+        List<StringBuilder> items = new ArrayList<>();
+        for(String value : values) {
+            items.add(new StringBuilder(value));
+        }
+        return items;
+    }
+
+    @Test
+    public void testAllStagesInOrder() throws InterruptedException {
+        StagedPipeline<StringBuilder> pipeline = new StagedPipeline<StringBuilder>(1)
+                .addStage("a", 2, item -> item.append("a"))
+                .addStage("b", 3, item -> item.append("b"))
+                .addStage("c", 1, item -> item.append("c"));
+        CollectingListener listener = new CollectingListener();
+        pipeline.run(createItems("1", "2", "3", "4", "5"), listener);
+
+        Assert.assertEquals(new HashSet<>(listener.completed), new HashSet<>(Arrays.asList("1abc", "2abc", "3abc", "4abc", "5abc")));
+        Assert.assertEquals(listener.completed.size(), 5);
+        Assert.assertTrue(listener.failed.isEmpty());
+        Assert.assertEquals(pipeline.getStageNames(), Arrays.asList("a", "b", "c"));
+        Assert.assertEquals(pipeline.getWorkers(1), 3);
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        if(!ExecutorFactory.VIRTUAL.isAvailable()) {
+            throw new SkipException("Virtual threads are not available.");
+        }
+        StagedPipeline<StringBuilder> pipeline = new StagedPipeline<StringBuilder>(1)
+                .setExecutorFactory(ExecutorFactory.VIRTUAL)
+                .addStage("a", 1, item -> item.append("a"))
+                .addStage("b", 100, item -> item.append("b"));
+        CollectingListener listener = new CollectingListener();
+        pipeline.run(createItems("1", "2", "3"), listener);
+
+        Assert.assertEquals(new HashSet<>(listener.completed), new HashSet<>(Arrays.asList("1ab", "2ab", "3ab")));
+    }
+
+    @Test
+    public void testFailedItemSkipsRemainingStages() throws InterruptedException {
+        StagedPipeline<StringBuilder> pipeline = new StagedPipeline<StringBuilder>(2)
+                .addStage("a", 1, item -> item.append("a"))
+                .addStage("b", 1, item -> {
+                    if(item.charAt(0) == '2') {
+                        throw new IllegalStateException("failed");
+                    }
+                    item.append("b");
+                })
+                .addStage("c", 1, item -> item.append("c"));
+        CollectingListener listener = new CollectingListener();
+        pipeline.run(createItems("1", "2", "3"), listener);
+
+        Assert.assertEquals(listener.completed, Arrays.asList("1abc", "3abc"));
+        Assert.assertEquals(listener.failed, Collections.singletonMap("2a", "b: failed"));
+    }
+
+    /**
+     * The second item can only pass the first stage while the first item is in the second stage.
+     */
+    @Test(timeOut = 10000)
+    public void testStagesOverlap() throws InterruptedException {
+        CountDownLatch secondItemExpanded = new CountDownLatch(1);
+        StagedPipeline<StringBuilder> pipeline = new StagedPipeline<StringBuilder>(1)
+                .addStage("a", 1, item -> {
+                    if(item.charAt(0) == '2') {
+                        secondItemExpanded.countDown();
+                    }
+                })
+                .addStage("b", 1, item -> {
+                    if(item.charAt(0) == '1') {
+                        Assert.assertTrue(secondItemExpanded.await(5, TimeUnit.SECONDS));
+                    }
+                    item.append("b");
+                });
+        CollectingListener listener = new CollectingListener();
+        pipeline.run(createItems("1", "2"), listener);
+
+        Assert.assertEquals(listener.completed, Arrays.asList("1b", "2b"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testWithoutStages() throws InterruptedException {
+        new StagedPipeline<StringBuilder>(1).run(createItems("1"), new CollectingListener());
+    }
+}
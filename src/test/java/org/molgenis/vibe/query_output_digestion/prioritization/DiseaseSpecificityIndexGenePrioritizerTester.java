@@ -26,4 +26,106 @@ public class DiseaseSpecificityIndexGenePrioritizerTester {
         prioritizer.run();
         Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
     }
+
+    @Test
+    public void testOrderingWithLimit() {
+        List<Gene> genes = new ArrayList<>( Arrays.asList(
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.8, 0.2, URI.create("http://identifiers.org/ncbigene/2")),
+                new Gene("ncbigene:3", "name3", "symbol3", 0.2, 0.3, URI.create("http://identifiers.org/ncbigene/3")),
+                new Gene("ncbigene:4", "name4", "symbol4", 0.8, 0.4, URI.create("http://identifiers.org/ncbigene/4")),
+                new Gene("ncbigene:5", "name5", "symbol5", 0.6, 0.5, URI.create("http://identifiers.org/ncbigene/5"))
+        ));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes.get(1), // 0.8 first (input order kept for equal values)
+                genes.get(3), // 0.8 second
+                genes.get(4) // 0.6 third
+        ));
+
+        GenePrioritizer prioritizer = new DiseaseSpecificityIndexGenePrioritizer(genes);
+        prioritizer.setLimit(3);
+        prioritizer.run();
+        Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
+    }
+
+    @Test
+    public void testStreamingOrdering() {
+        List<Gene> genes = new ArrayList<>( Arrays.asList(
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.8, 0.2, URI.create("http://identifiers.org/ncbigene/2")),
+                new Gene("ncbigene:3", "name3", "symbol3", 0.2, 0.3, URI.create("http://identifiers.org/ncbigene/3")),
+                new Gene("ncbigene:4", "name4", "symbol4", 0.8, 0.4, URI.create("http://identifiers.org/ncbigene/4")),
+                new Gene("ncbigene:5", "name5", "symbol5", 0.6, 0.5, URI.create("http://identifiers.org/ncbigene/5"))
+        ));
+
+        GenePrioritizer expectedPrioritizer = new DiseaseSpecificityIndexGenePrioritizer(new ArrayList<>(genes));
+        expectedPrioritizer.run();
+
+        GenePrioritizer prioritizer = new DiseaseSpecificityIndexGenePrioritizer(new ArrayList<>(genes));
+        prioritizer.setStreaming(true);
+        prioritizer.run();
+
+        List<Gene> streamedPriority = new ArrayList<>();
+        prioritizer.getPriorityIterator().forEachRemaining(streamedPriority::add);
+        Assert.assertEquals(streamedPriority, expectedPrioritizer.getPriority());
+    }
+
+    @Test
+    public void testStreamingOrderingWithLimit() {
+        List<Gene> genes = new ArrayList<>( Arrays.asList(
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.8, 0.2, URI.create("http://identifiers.org/ncbigene/2")),
+                new Gene("ncbigene:3", "name3", "symbol3", 0.2, 0.3, URI.create("http://identifiers.org/ncbigene/3")),
+                new Gene("ncbigene:4", "name4", "symbol4", 0.8, 0.4, URI.create("http://identifiers.org/ncbigene/4")),
+                new Gene("ncbigene:5", "name5", "symbol5", 0.6, 0.5, URI.create("http://identifiers.org/ncbigene/5"))
+        ));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes.get(1), // 0.8 first (input order kept for equal values)
+                genes.get(3) // 0.8 second
+        ));
+
+        GenePrioritizer prioritizer = new DiseaseSpecificityIndexGenePrioritizer(genes);
+        prioritizer.setStreaming(true);
+        prioritizer.setLimit(2);
+        prioritizer.run();
+        Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testStreamingIteratorOnlyOnce() {
+        GenePrioritizer prioritizer = new DiseaseSpecificityIndexGenePrioritizer(new ArrayList<>( Arrays.asList(
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.8, 0.2, URI.create("http://identifiers.org/ncbigene/2"))
+        )));
+        prioritizer.setStreaming(true);
+        prioritizer.run();
+        prioritizer.getPriorityIterator();
+        prioritizer.getPriority();
+    }
+
+    @Test
+    public void testStreamingIteratorAfterPriority() {
+        List<Gene> genes = new ArrayList<>( Arrays.asList(
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.1, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.8, 0.2, URI.create("http://identifiers.org/ncbigene/2"))
+        ));
+        GenePrioritizer prioritizer = new DiseaseSpecificityIndexGenePrioritizer(genes);
+        prioritizer.setStreaming(true);
+        prioritizer.run();
+        List<Gene> priority = prioritizer.getPriority();
+
+        // The order is stored, so it can be iterated multiple times.
+        List<Gene> iterated = new ArrayList<>();
+        prioritizer.getPriorityIterator().forEachRemaining(iterated::add);
+        prioritizer.getPriorityIterator().forEachRemaining(iterated::add);
+        Assert.assertEquals(iterated, Arrays.asList(genes.get(1), genes.get(0), genes.get(1), genes.get(0)));
+        Assert.assertEquals(priority, Arrays.asList(genes.get(1), genes.get(0)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidLimit() {
+        new DiseaseSpecificityIndexGenePrioritizer(new ArrayList<>()).setLimit(0);
+    }
 }
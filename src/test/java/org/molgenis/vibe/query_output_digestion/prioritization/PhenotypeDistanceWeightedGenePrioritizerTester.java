@@ -0,0 +1,79 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class PhenotypeDistanceWeightedGenePrioritizerTester {
+
+    @Test
+    public void testOrdering() {
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/2")),
+                new Gene("ncbigene:3", "name3", "symbol3", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/3"))
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C1"),
+                new Disease("umls:C2"),
+                new Disease("umls:C3")
+        };
+
+        Phenotype[] phenotypes = new Phenotype[]{
+                new Phenotype("hp:0000001"),
+                new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003")
+        };
+
+        // All genes have the same GDA score and DSI.
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>( Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.5),
+                new GeneDiseaseCombination(genes[1], diseases[1], 0.5),
+                new GeneDiseaseCombination(genes[2], diseases[2], 0.5)
+        )));
+
+        // Phenotype 0 is the input (distance 0), phenotype 1 has distance 1 and phenotype 2 has distance 3.
+        PhenotypeNetwork network = new PhenotypeNetwork(phenotypes[0]);
+        network.add(phenotypes[1], 1);
+        network.add(phenotypes[2], 3);
+        PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypeNetworkCollection();
+        phenotypeNetworkCollection.add(network);
+
+        PhenotypeDiseaseCollection phenotypeDiseaseCollection = new PhenotypeDiseaseCollection(new HashSet<>( Arrays.asList(
+                new PhenotypeDiseaseCombination(phenotypes[2], diseases[0]),
+                new PhenotypeDiseaseCombination(phenotypes[0], diseases[1]),
+                new PhenotypeDiseaseCombination(phenotypes[1], diseases[2])
+        )));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes[1], // found through input phenotype
+                genes[2], // found through phenotype with distance 1
+                genes[0] // found through phenotype with distance 3
+        ));
+
+        GenePrioritizer prioritizer = GenePrioritizerFactory.PHENOTYPE_DISTANCE_WEIGHTED.create(new GenePrioritizerContext(
+                new GeneAggregates(geneDiseaseCollection), phenotypeDiseaseCollection, phenotypeNetworkCollection, null));
+        prioritizer.run();
+        Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCreateWithoutPhenotypeDiseaseCollection() {
+        GenePrioritizerFactory.PHENOTYPE_DISTANCE_WEIGHTED.create(new GenePrioritizerContext(
+                new GeneAggregates(new GeneDiseaseCollection())));
+    }
+
+    @Test
+    public void testCalculateScores() {
+        double[] scores = new double[2];
+        PhenotypeDistanceWeightedGenePrioritizer.calculateScores(new double[]{0.3, 0.9}, new double[]{0.6, 0.0},
+                new double[]{2.0, 1.0}, 0.5, scores);
+
+        Assert.assertEquals(scores[0], (0.3 + 0.6 + 1.0) / 3, 1e-9);
+        Assert.assertEquals(scores[1], (0.9 + 0.0 + 0.5) / 3, 1e-9);
+    }
+}
@@ -0,0 +1,72 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndex;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndexTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class ResnikSimilarityGenePrioritizerTester {
+    @Test
+    public void testOrdering() {
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1", "name1", "symbol1", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/1")),
+                new Gene("ncbigene:2", "name2", "symbol2", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/2")),
+                new Gene("ncbigene:3", "name3", "symbol3", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/3"))
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C1"),
+                new Disease("umls:C2"),
+                new Disease("umls:C3")
+        };
+
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>( Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.5),
+                new GeneDiseaseCombination(genes[1], diseases[1], 0.5),
+                new GeneDiseaseCombination(genes[2], diseases[2], 0.5)
+        )));
+
+        // Input phenotype is 0000004 (see PhenotypeInformationContentIndexTester for the ontology).
+        PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypeNetworkCollection();
+        phenotypeNetworkCollection.add(new PhenotypeNetwork(new Phenotype("hp:0000004")));
+
+        PhenotypeDiseaseCollection phenotypeDiseaseCollection = new PhenotypeDiseaseCollection(new HashSet<>( Arrays.asList(
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000005"), diseases[0]),
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000004"), diseases[1]),
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000006"), diseases[2])
+        )));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes[1], // disease with the input phenotype
+                genes[0], // disease with a sibling phenotype
+                genes[2] // disease only sharing the root
+        ));
+
+        GenePrioritizer prioritizer = GenePrioritizerFactory.RESNIK_SIMILARITY.create(new GenePrioritizerContext(
+                new GeneAggregates(geneDiseaseCollection), phenotypeDiseaseCollection, phenotypeNetworkCollection,
+                new PhenotypeInformationContentIndex(PhenotypeInformationContentIndexTester.createModel())));
+        prioritizer.run();
+        Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
+    }
+
+    @Test
+    public void testBestMatchAverage() {
+        // 2 profile phenotypes compared to 3 input phenotypes.
+        List<double[]> profileSimilarities = Arrays.asList(
+                new double[]{1, 0, 0},
+                new double[]{0, 2, 0}
+        );
+        // Input best matches: (1 + 2 + 0) / 3 = 1, profile best matches: (1 + 2) / 2 = 1.5
+        Assert.assertEquals(ResnikSimilarityGenePrioritizer.calculateBestMatchAverage(profileSimilarities, 3), 1.25, 1e-9);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCreateWithoutIndex() {
+        GenePrioritizerFactory.RESNIK_SIMILARITY.create(new GenePrioritizerContext(new GeneAggregates(new GeneDiseaseCollection()),
+                new PhenotypeDiseaseCollection(), new PhenotypeNetworkCollection(), null));
+    }
+}
@@ -0,0 +1,99 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.graph.NodeFactory;
+import org.molgenis.vibe.formats.Disease;
+import org.molgenis.vibe.formats.Gene;
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class DisgenetLookupCacheTester {
+    private static final Phenotype PHENOTYPE_1 = new Phenotype("hp:0000001");
+    private static final Phenotype PHENOTYPE_2 = new Phenotype("hp:0000002");
+    private static final Gene GENE_1 = new Gene("ncbigene:1", "gene 1", "G1", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/1"));
+    private static final Gene GENE_2 = new Gene("ncbigene:2", "gene 2", "G2", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/2"));
+    private static final Disease DISEASE_1 = new Disease("umls:C0000001");
+    private static final URI SOURCE_URI = URI.create("http://rdf.disgenet.org/v5.0.0/void/CTD_human");
+
+    @Test
+    public void testPhenotypeHitsAndMisses() {
+        DisgenetLookupCache cache = new DisgenetLookupCache();
+        Assert.assertTrue(Double.isNaN(cache.getPhenotypeHitRate()));
+
+        Assert.assertNull(cache.getPhenotype(PHENOTYPE_1.getUri(), true));
+        cache.putPhenotype(PHENOTYPE_1.getUri(), Arrays.asList(GENE_1, GENE_2), Collections.singleton(DISEASE_1.getUri()));
+        DisgenetLookupCache.PhenotypeEntry entry = cache.getPhenotype(PHENOTYPE_1.getUri(), true);
+
+        Assert.assertEquals(entry.getGenes(), new Gene[]{GENE_1, GENE_2});
+        Assert.assertEquals(entry.getDiseaseUris(), new URI[]{DISEASE_1.getUri()});
+        Assert.assertEquals(cache.getPhenotypeHits(), 1);
+        Assert.assertEquals(cache.getPhenotypeMisses(), 1);
+        Assert.assertEquals(cache.getPhenotypeHitRate(), 0.5);
+        Assert.assertEquals(cache.getWeight(), 4);
+    }
+
+    @Test
+    public void testPhenotypeWithoutDiseases() {
+        DisgenetLookupCache cache = new DisgenetLookupCache();
+        cache.putPhenotype(PHENOTYPE_1.getUri(), Arrays.asList(GENE_1, GENE_2), null);
+
+        Assert.assertNull(cache.getPhenotype(PHENOTYPE_1.getUri(), false).getDiseaseUris());
+        Assert.assertNull(cache.getPhenotype(PHENOTYPE_1.getUri(), true));
+        Assert.assertEquals(cache.getPhenotypeHits(), 1);
+        Assert.assertEquals(cache.getPhenotypeMisses(), 1);
+        Assert.assertEquals(cache.getWeight(), 3);
+    }
+
+    @Test
+    public void testGeneEntry() {
+        DisgenetLookupCache cache = new DisgenetLookupCache();
+        DisgenetLookupCache.GeneEntryBuilder builder = new DisgenetLookupCache.GeneEntryBuilder();
+        builder.add(DISEASE_1, 0.3, SOURCE_URI, NodeFactory.createURI("http://www.ncbi.nlm.nih.gov/pubmed/1"));
+        builder.add(DISEASE_1, 0.3, SOURCE_URI, null);
+        cache.putGene(GENE_1.getUri(), builder.build());
+        cache.putGene(GENE_2.getUri(), new DisgenetLookupCache.GeneEntryBuilder().build());
+
+        DisgenetLookupCache.GeneEntry entry = cache.getGene(GENE_1.getUri());
+        Assert.assertEquals(entry.size(), 2);
+        Assert.assertEquals(entry.getDisease(1), DISEASE_1);
+        Assert.assertEquals(entry.getScore(0), 0.3);
+        Assert.assertEquals(entry.getSourceUri(0), SOURCE_URI);
+        Assert.assertEquals(entry.getEvidence(0).getURI(), "http://www.ncbi.nlm.nih.gov/pubmed/1");
+        Assert.assertNull(entry.getEvidence(1));
+
+        // Genes without associations are cached as well.
+        Assert.assertEquals(cache.getGene(GENE_2.getUri()).size(), 0);
+        Assert.assertEquals(cache.getGeneHits(), 2);
+        Assert.assertEquals(cache.getGeneMisses(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        DisgenetLookupCache cache = new DisgenetLookupCache(6);
+        cache.putPhenotype(PHENOTYPE_1.getUri(), Arrays.asList(GENE_1, GENE_2), Collections.emptySet()); // weight 3
+        cache.putPhenotype(PHENOTYPE_2.getUri(), Collections.singleton(GENE_1), Collections.emptySet()); // weight 2
+        Assert.assertNotNull(cache.getPhenotype(PHENOTYPE_1.getUri(), true)); // PHENOTYPE_2 is least recently used
+
+        cache.putGene(GENE_1.getUri(), new DisgenetLookupCache.GeneEntryBuilder().build()); // weight 1
+        Assert.assertEquals(cache.getWeight(), 6);
+        cache.putGene(GENE_2.getUri(), new DisgenetLookupCache.GeneEntryBuilder().build()); // weight 1
+
+        Assert.assertNull(cache.getPhenotype(PHENOTYPE_2.getUri(), true));
+        Assert.assertNotNull(cache.getPhenotype(PHENOTYPE_1.getUri(), true));
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertEquals(cache.getWeight(), 5);
+    }
+
+    @Test
+    public void testEntryLargerThanCacheNotStored() {
+        DisgenetLookupCache cache = new DisgenetLookupCache(2);
+        cache.putPhenotype(PHENOTYPE_1.getUri(), Arrays.asList(GENE_1, GENE_2), Collections.emptySet());
+
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertNull(cache.getPhenotype(PHENOTYPE_1.getUri(), true));
+    }
+}
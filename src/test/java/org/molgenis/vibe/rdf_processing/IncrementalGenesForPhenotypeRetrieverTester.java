@@ -0,0 +1,87 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.TestData;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.TripleStoreDbReader;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Validates that updating an {@link IncrementalGenesForPhenotypeRetriever} yields the same output as a
+ * {@link GenesForPhenotypeRetriever} that was run with the updated {@link Phenotype}{@code s} directly.
+ *
+ * Note that these tests use data from DisGeNET (see {@link GenesForPhenotypeRetrieverTester} for more information).
+ */
+public class IncrementalGenesForPhenotypeRetrieverTester {
+    private final Phenotype phenotype1 = new Phenotype("hp:0001377");
+    private final Phenotype phenotype2 = new Phenotype("hp:0005060");
+
+    private ModelReader reader;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        reader = new TripleStoreDbReader(TestData.TDB_MINI.getDir());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() {
+        reader.close();
+    }
+
+    @Test
+    public void addPhenotype() {
+        IncrementalGenesForPhenotypeRetriever retriever = new IncrementalGenesForPhenotypeRetriever(reader, createSet(phenotype1));
+        retriever.run();
+        Set<Gene> genesBefore = new HashSet<>(retriever.getGeneDiseaseCollection().getGenes());
+
+        BiologicalEntityDelta<Gene> delta = retriever.update(createSet(phenotype1, phenotype2));
+
+        GenesForPhenotypeRetriever expected = runRetriever(createSet(phenotype1, phenotype2));
+        assertRetrieversEqual(retriever, expected);
+
+        Set<Gene> expectedAdded = new HashSet<>(expected.getGeneDiseaseCollection().getGenes());
+        expectedAdded.removeAll(genesBefore);
+        Assert.assertEquals(delta.getAdded(), expectedAdded);
+        Assert.assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void removePhenotype() {
+        IncrementalGenesForPhenotypeRetriever retriever = new IncrementalGenesForPhenotypeRetriever(reader, createSet(phenotype1, phenotype2));
+        retriever.run();
+        Set<Gene> genesBefore = new HashSet<>(retriever.getGeneDiseaseCollection().getGenes());
+
+        BiologicalEntityDelta<Gene> delta = retriever.update(createSet(phenotype2));
+
+        GenesForPhenotypeRetriever expected = runRetriever(createSet(phenotype2));
+        assertRetrieversEqual(retriever, expected);
+
+        Set<Gene> expectedRemoved = new HashSet<>(genesBefore);
+        expectedRemoved.removeAll(expected.getGeneDiseaseCollection().getGenes());
+        Assert.assertEquals(delta.getRemoved(), expectedRemoved);
+        Assert.assertTrue(delta.getAdded().isEmpty());
+    }
+
+    private GenesForPhenotypeRetriever runRetriever(Set<Phenotype> phenotypes) {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        retriever.setPhenotypeDiseaseProvenance(true);
+        retriever.run();
+        return retriever;
+    }
+
+    private void assertRetrieversEqual(GenesForPhenotypeRetriever actual, GenesForPhenotypeRetriever expected) {
+        Assert.assertEquals(actual.getGeneDiseaseCollection(), expected.getGeneDiseaseCollection());
+        Assert.assertEquals(actual.getGeneDiseaseCollection().getGenes(), expected.getGeneDiseaseCollection().getGenes());
+        Assert.assertEquals(actual.getPhenotypeDiseaseCollection(), expected.getPhenotypeDiseaseCollection());
+    }
+
+    private Set<Phenotype> createSet(Phenotype... phenotypes) {
+        return new HashSet<>(Arrays.asList(phenotypes));
+    }
+}
@@ -0,0 +1,110 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class NodeInternerTester {
+    @Test
+    public void testEqualNodesReturnSameUri() {
+        NodeInterner interner = new NodeInterner();
+        URI uri1 = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+        URI uri2 = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+
+        Assert.assertSame(uri1, uri2);
+        Assert.assertEquals(uri1, URI.create("http://identifiers.org/ncbigene/1"));
+        Assert.assertEquals(interner.size(), 1);
+    }
+
+    @Test
+    public void testDifferentNodesReturnDifferentUris() {
+        NodeInterner interner = new NodeInterner();
+        URI uri1 = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+        URI uri2 = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/2"));
+
+        Assert.assertNotEquals(uri1, uri2);
+        Assert.assertEquals(interner.size(), 2);
+    }
+
+    @Test
+    public void testClear() {
+        NodeInterner interner = new NodeInterner();
+        interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+        interner.clear();
+
+        Assert.assertEquals(interner.size(), 0);
+    }
+
+    @Test
+    public void testClearedWhenFull() {
+        NodeInterner interner = new NodeInterner(2);
+        URI uri1 = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+        interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/2"));
+        Assert.assertSame(interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1")), uri1);
+
+        interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/3"));
+        Assert.assertEquals(interner.size(), 1);
+        URI uri1Again = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/1"));
+        Assert.assertNotSame(uri1Again, uri1);
+        Assert.assertEquals(uri1Again, uri1);
+    }
+
+    @Test
+    public void testConcurrentGetUri() throws Exception {
+        NodeInterner interner = new NodeInterner();
+        int threads = 8;
+        int nodes = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<URI[]>> futures = new ArrayList<>();
+            for(int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    URI[] uris = new URI[nodes];
+                    for(int repeat = 0; repeat < 100; repeat++) {
+                        for(int j = 0; j < nodes; j++) {
+                            uris[j] = interner.getUri(NodeFactory.createURI("http://identifiers.org/ncbigene/" + j));
+                        }
+                    }
+                    return uris;
+                }));
+            }
+            start.countDown();
+
+            URI[] expected = futures.get(0).get(30, TimeUnit.SECONDS);
+            for(Future<URI[]> future : futures) {
+                URI[] uris = future.get(30, TimeUnit.SECONDS);
+                for(int j = 0; j < nodes; j++) {
+                    Assert.assertSame(uris[j], expected[j]);
+                    Assert.assertEquals(uris[j].toString(), "http://identifiers.org/ncbigene/" + j);
+                }
+            }
+            Assert.assertEquals(interner.size(), nodes);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroMaxSize() {
+        new NodeInterner(0);
+    }
+
+    @Test
+    public void testLiterals() {
+        NodeInterner interner = new NodeInterner();
+        Node string = NodeFactory.createLiteral("a title");
+        Node number = NodeFactory.createLiteral("0.5", XSDDatatype.XSDdecimal);
+
+        Assert.assertEquals(interner.getString(string), "a title");
+        Assert.assertEquals(interner.getDouble(number), 0.5);
+    }
+}
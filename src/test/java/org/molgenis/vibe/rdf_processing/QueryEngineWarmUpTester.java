@@ -0,0 +1,79 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.molgenis.vibe.io.ModelReader;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Uses an in-memory dataset only containing phenotypes (so no genes are found).
+ */
+public class QueryEngineWarmUpTester {
+    private static ModelReader createReader(int phenotypes) {
+        Model model = ModelFactory.createDefaultModel();
+        for(int i = 1; i <= phenotypes; i++) {
+            model.add(model.createResource(String.format("http://purl.obolibrary.org/obo/HP_%07d", i)), RDF.type,
+                    model.createResource("http://semanticscience.org/resource/SIO_010056"));
+        }
+        // Not an HPO phenotype.
+        model.add(model.createResource("http://linkedlifedata.com/resource/umls/id/C0000001"), RDF.type,
+                model.createResource("http://semanticscience.org/resource/SIO_010056"));
+
+        return new ModelReader() {
+            @Override
+            public Model getModel() {
+                return model;
+            }
+
+            @Override
+            public void close() {
+                model.close();
+            }
+        };
+    }
+
+    @Test
+    public void testRunsTillBudgetUsed() {
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(createReader(7), 200);
+        warmUp.run();
+
+        Assert.assertEquals(warmUp.getSampleSize(), 7);
+        Assert.assertTrue(warmUp.getIterations() >= 1);
+        Assert.assertTrue(warmUp.getDurationNanos() >= 200_000_000L);
+        Assert.assertTrue(warmUp.getColdNanos() > 0);
+        Assert.assertTrue(warmUp.getWarmNanos() > 0);
+        Assert.assertEquals(warmUp.getLatencyReduction(), 1 - warmUp.getWarmNanos() / (double) warmUp.getColdNanos());
+    }
+
+    @Test
+    public void testSampleSizeLimited() {
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(createReader(QueryEngineWarmUp.SAMPLE_SIZE + 5), 1);
+        warmUp.run();
+
+        Assert.assertEquals(warmUp.getSampleSize(), QueryEngineWarmUp.SAMPLE_SIZE);
+    }
+
+    @Test
+    public void testWithoutPhenotypes() {
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(createReader(0), 1);
+        warmUp.run();
+
+        Assert.assertEquals(warmUp.getSampleSize(), 0);
+        Assert.assertEquals(warmUp.getIterations(), 0);
+        Assert.assertTrue(Double.isNaN(warmUp.getLatencyReduction()));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testRunTwice() {
+        QueryEngineWarmUp warmUp = new QueryEngineWarmUp(createReader(1), 1);
+        warmUp.run();
+        warmUp.run();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWithoutBudget() {
+        new QueryEngineWarmUp(createReader(1), 0);
+    }
+}
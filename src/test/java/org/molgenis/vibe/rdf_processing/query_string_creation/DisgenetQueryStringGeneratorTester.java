@@ -103,6 +103,24 @@ public class DisgenetQueryStringGeneratorTester extends QueryTester {
         runQueryTest(queryString, fieldOrder, expectedOutput);
     }
 
+    @Test
+    public void testGenesPerPhenotype() {
+        Set<Phenotype> phenotypes = new HashSet<>();
+        phenotypes.add(new Phenotype(URI.create("http://purl.obolibrary.org/obo/HP_0002996")));
+
+        String[] fieldOrder = {"hpo", "gene", "geneId", "geneTitle", "geneSymbolTitle"};
+
+        List<List<String>> expectedOutput = Arrays.asList(
+                Arrays.asList("http://purl.obolibrary.org/obo/HP_0002996", "http://identifiers.org/ncbigene/1280", "ncbigene:1280", "collagen type II alpha 1 chain", "COL2A1"),
+                Arrays.asList("http://purl.obolibrary.org/obo/HP_0002996", "http://identifiers.org/ncbigene/8243", "ncbigene:8243", "structural maintenance of chromosomes 1A", "SMC1A"),
+                Arrays.asList("http://purl.obolibrary.org/obo/HP_0002996", "http://identifiers.org/ncbigene/1291", "ncbigene:1291", "collagen type VI alpha 1 chain", "COL6A1"),
+                Arrays.asList("http://purl.obolibrary.org/obo/HP_0002996", "http://identifiers.org/ncbigene/1292", "ncbigene:1292", "collagen type VI alpha 2 chain", "COL6A2")
+        );
+
+        QueryString queryString = DisgenetQueryStringGenerator.getGenesPerPhenotype(phenotypes);
+        runQueryTest(queryString, fieldOrder, expectedOutput);
+    }
+
     @Test
     public void testGdaForGenes() {
         Set<Gene> genes = new HashSet<>();
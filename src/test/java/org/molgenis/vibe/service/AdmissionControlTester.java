@@ -0,0 +1,119 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.ontology_processing.PhenotypeInformationContentIndexTester;
+import org.molgenis.vibe.ontology_processing.PhenotypeNeighbourhoodIndex;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+
+/**
+ * Uses the ontology of {@link PhenotypeInformationContentIndexTester}, in which {@code hp:0000004} with the
+ * {@link PhenotypesRetrieverFactory#DISTANCE} retriever expands to 1, 2, 4 and 5 phenotypes for distances 0 to 3. Without
+ * observed requests, each phenotype is estimated at {@link RequestCostEstimator#PRIOR_ROWS_PER_PHENOTYPE} (20)
+ * gene-disease associations.
+ */
+public class AdmissionControlTester {
+    private PhenotypeNeighbourhoodIndex neighbourhoodIndex;
+
+    @BeforeClass
+    public void beforeClass() {
+        neighbourhoodIndex = new PhenotypeNeighbourhoodIndex(PhenotypeInformationContentIndexTester.createModel());
+    }
+
+    private static PrioritizationRequest createRequest(String... phenotypes) {
+        HashSet<Phenotype> phenotypeSet = new HashSet<>();
+        for(String phenotype : phenotypes) {
+            phenotypeSet.add(new Phenotype(phenotype));
+        }
+        return new PrioritizationRequest(phenotypeSet);
+    }
+
+    private static PrioritizationRequest createExpandedRequest() {
+        PrioritizationRequest request = createRequest("hp:0000004");
+        request.setPhenotypesRetrieverFactory(PhenotypesRetrieverFactory.DISTANCE, 3);
+        return request;
+    }
+
+    private AdmissionControl.Admission admit(PrioritizationRequest request, long budget, AdmissionPolicy policy) {
+        return new AdmissionControl(new RequestCostEstimator(neighbourhoodIndex), budget, policy).admit(request);
+    }
+
+    @Test
+    public void testWithinBudget() {
+        PrioritizationRequest request = createExpandedRequest();
+        AdmissionControl.Admission admission = admit(request, 100, AdmissionPolicy.REJECT);
+
+        Assert.assertEquals(admission.getDecision(), AdmissionControl.Decision.ACCEPTED);
+        Assert.assertSame(admission.getRequest(), request);
+        Assert.assertEquals(admission.getEstimatedCost(), 100);
+    }
+
+    @Test
+    public void testQueue() {
+        PrioritizationRequest request = createExpandedRequest();
+        AdmissionControl.Admission admission = admit(request, 99, AdmissionPolicy.QUEUE);
+
+        Assert.assertEquals(admission.getDecision(), AdmissionControl.Decision.QUEUED);
+        Assert.assertSame(admission.getRequest(), request);
+    }
+
+    @Test
+    public void testReject() {
+        AdmissionControl.Admission admission = admit(createExpandedRequest(), 99, AdmissionPolicy.REJECT);
+
+        Assert.assertEquals(admission.getDecision(), AdmissionControl.Decision.REJECTED);
+        Assert.assertTrue(admission.getMessage().contains("budget of 99"));
+    }
+
+    @Test
+    public void testDowngrade() {
+        PrioritizationRequest request = createExpandedRequest();
+        request.setTopGenes(10);
+        AdmissionControl.Admission admission = admit(request, 50, AdmissionPolicy.DOWNGRADE);
+
+        Assert.assertEquals(admission.getDecision(), AdmissionControl.Decision.DOWNGRADED);
+        Assert.assertEquals(admission.getRequest().getMaxDistance(), 1);
+        Assert.assertEquals(admission.getRequest().getTopGenes(), Integer.valueOf(10));
+        Assert.assertEquals(admission.getEstimatedCost(), 40);
+        Assert.assertEquals(request.getMaxDistance(), 3);
+    }
+
+    @Test
+    public void testDowngradeNotPossible() {
+        AdmissionControl.Admission admission = admit(createExpandedRequest(), 19, AdmissionPolicy.DOWNGRADE);
+
+        Assert.assertEquals(admission.getDecision(), AdmissionControl.Decision.REJECTED);
+    }
+
+    @Test
+    public void testWithoutOntology() {
+        AdmissionControl admissionControl = new AdmissionControl(new RequestCostEstimator(null), 40, AdmissionPolicy.REJECT);
+
+        Assert.assertEquals(admissionControl.admit(createRequest("hp:0000001", "hp:0000002")).getDecision(),
+                AdmissionControl.Decision.ACCEPTED);
+        Assert.assertEquals(admissionControl.admit(createRequest("hp:0000001", "hp:0000002", "hp:0000003")).getDecision(),
+                AdmissionControl.Decision.REJECTED);
+        Assert.assertEquals(admissionControl.getAccepted(), 1);
+        Assert.assertEquals(admissionControl.getRejected(), 1);
+    }
+
+    @Test
+    public void testEstimatorLearns() {
+        RequestCostEstimator estimator = new RequestCostEstimator(neighbourhoodIndex);
+        Assert.assertEquals(estimator.estimate(createExpandedRequest()), 100);
+
+        // Equal weight to the prior: (20 + 60) / 2.
+        estimator.observe(1000, 60000);
+        Assert.assertEquals(estimator.getRowsPerPhenotype(), 40.0);
+        Assert.assertEquals(estimator.estimate(createExpandedRequest()), 200);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroBudget() {
+        new AdmissionControl(new RequestCostEstimator(neighbourhoodIndex), 0, AdmissionPolicy.QUEUE);
+    }
+}
@@ -0,0 +1,183 @@
+package org.molgenis.vibe.service;
+
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerContext;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Uses a {@link PrioritizationService} that does not need a dataset: each request results in the same 2 genes.
+ */
+public class AsyncPrioritizationServiceTester {
+    private static final Gene GENE_1 = new Gene("ncbigene:1", "gene 1", "G1", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/1"));
+    private static final Gene GENE_2 = new Gene("ncbigene:2", "gene 2", "G2", 0.5, 0.5, URI.create("http://identifiers.org/ncbigene/2"));
+
+    private ExecutorService executor;
+
+    private AsyncPrioritizationService asyncService;
+
+    /**
+     * Blocks the stub processing while not counted down.
+     */
+    private CountDownLatch processingAllowed;
+
+    private CountDownLatch processingStarted;
+
+    /**
+     * The cancellation check of the last processed request.
+     */
+    private volatile BooleanSupplier lastCancelled;
+
+    private PrioritizationService createService() {
+        ModelReader reader = new ModelReader() {
+            @Override
+            public Model getModel() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        return new PrioritizationService(reader, null, null, false) {
+            @Override
+            public PrioritizationResult process(PrioritizationRequest request, BooleanSupplier cancelled) {
+                lastCancelled = cancelled;
+                processingStarted.countDown();
+                try {
+                    processingAllowed.await();
+                } catch(InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                if(cancelled.getAsBoolean()) {
+                    throw new CancellationException();
+                }
+
+                GeneDiseaseCombination gdc1 = new GeneDiseaseCombination(GENE_1, new Disease("umls:C0000001"), 0.2);
+                GeneDiseaseCombination gdc2 = new GeneDiseaseCombination(GENE_2, new Disease("umls:C0000001"), 0.6);
+                GeneAggregates geneAggregates = new GeneAggregates(new GeneDiseaseCollection(new HashSet<>(Arrays.asList(gdc1, gdc2))));
+                GenePrioritizer prioritizer = GenePrioritizerFactory.HIGHEST_DISGENET_SCORE.create(new GenePrioritizerContext(geneAggregates));
+                prioritizer.run();
+                return new PrioritizationResult(request, new PhenotypeNetworkCollection(), new PhenotypeDiseaseCollection(),
+                        geneAggregates, prioritizer, 1);
+            }
+        };
+    }
+
+    private static PrioritizationRequest createRequest() {
+        return new PrioritizationRequest(Collections.singleton(new Phenotype("hp:0000001")));
+    }
+
+    @BeforeMethod
+    public void beforeMethod() {
+        processingAllowed = new CountDownLatch(0);
+        processingStarted = new CountDownLatch(1);
+        executor = Executors.newFixedThreadPool(2);
+        asyncService = new AsyncPrioritizationService(createService(), executor);
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        processingAllowed.countDown();
+        asyncService.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResult() throws Exception {
+        PrioritizationRequest request = createRequest();
+        request.setFileOutputWriterFactory(FileOutputWriterFactory.SIMPLE);
+        PrioritizationResult result = asyncService.submit(request).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(result.getPriority(), Arrays.asList(GENE_2, GENE_1));
+        // Can be written multiple times.
+        for(int i = 0; i < 2; i++) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            result.writeTo(outputStream);
+            Assert.assertEquals(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), "G2,G1");
+        }
+    }
+
+    @Test
+    public void testDoesNotBlockCaller() throws Exception {
+        processingAllowed = new CountDownLatch(1);
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(createRequest());
+        Assert.assertTrue(processingStarted.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(future.isDone());
+
+        processingAllowed.countDown();
+        Assert.assertEquals(future.get(10, TimeUnit.SECONDS).getPriority().size(), 2);
+    }
+
+    @Test
+    public void testInvalidRequest() {
+        PrioritizationRequest request = createRequest();
+        request.setGenePrioritizerFactory(GenePrioritizerFactory.RESNIK_SIMILARITY);
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(request);
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+        assertCause(future, IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRejected() {
+        executor.shutdown();
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(createRequest());
+
+        assertCause(future, RejectedExecutionException.class);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        processingAllowed = new CountDownLatch(1);
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(createRequest());
+        Assert.assertTrue(processingStarted.await(10, TimeUnit.SECONDS));
+
+        Assert.assertTrue(future.cancel(true));
+        Assert.assertTrue(lastCancelled.getAsBoolean());
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        processingAllowed = new CountDownLatch(1);
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(createRequest(), 50, TimeUnit.MILLISECONDS);
+
+        assertCause(future, TimeoutException.class);
+        Assert.assertTrue(processingStarted.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(lastCancelled.getAsBoolean());
+    }
+
+    @Test
+    public void testTimeoutNotReached() throws Exception {
+        CompletableFuture<PrioritizationResult> future = asyncService.submit(createRequest(), 10, TimeUnit.SECONDS);
+        Assert.assertEquals(future.get(10, TimeUnit.SECONDS).getPriority().size(), 2);
+    }
+
+    private static void assertCause(CompletableFuture<PrioritizationResult> future, Class<? extends Throwable> expected) {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail("Expected " + expected.getSimpleName());
+        } catch(ExecutionException e) {
+            Assert.assertEquals(e.getCause().getClass(), expected);
+        } catch(InterruptedException | TimeoutException e) {
+            Assert.fail("Not completed.", e);
+        }
+    }
+}
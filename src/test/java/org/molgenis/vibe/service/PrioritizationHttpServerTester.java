@@ -0,0 +1,301 @@
+package org.molgenis.vibe.service;
+
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.output.FileOutputWriter;
+import org.molgenis.vibe.pipeline.ExecutorFactory;
+import org.molgenis.vibe.rdf_processing.QueryEngineWarmUp;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the server on a free local port with a {@link PrioritizationService} that does not need a dataset.
+ */
+public class PrioritizationHttpServerTester {
+    private PrioritizationHttpServer server;
+
+    /**
+     * Blocks the stub processing while not counted down.
+     */
+    private CountDownLatch processingAllowed = new CountDownLatch(0);
+
+    private CountDownLatch processingStarted = new CountDownLatch(1);
+
+    /**
+     * Blocks the stub warm-up while not counted down.
+     */
+    private CountDownLatch warmUpAllowed = new CountDownLatch(0);
+
+    private boolean closed = false;
+
+    private PrioritizationService createService() {
+        ModelReader reader = new ModelReader() {
+            @Override
+            public Model getModel() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        };
+
+        return new PrioritizationService(reader, null, null, false) {
+            @Override
+            public QueryEngineWarmUp warmUp(long budgetMillis) {
+                try {
+                    warmUpAllowed.await();
+                } catch(InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            }
+
+            @Override
+            public FileOutputWriter prepare(PrioritizationRequest request) {
+                validate(request);
+                processingStarted.countDown();
+                try {
+                    processingAllowed.await();
+                } catch(InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return new FileOutputWriter(null) {
+                    @Override
+                    public void run() throws IOException {
+                        try(OutputStream outputStream = openOutputStream()) {
+                            outputStream.write(("genes for " + request.getPhenotypes().size()).getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    private void startServer(int workerCount, int queueCapacity) throws IOException {
+        startServer(workerCount, queueCapacity, ExecutorFactory.PLATFORM);
+    }
+
+    private void startServer(int workerCount, int queueCapacity, ExecutorFactory executorFactory) throws IOException {
+        startServer(createService(), workerCount, queueCapacity, executorFactory);
+    }
+
+    private void startServer(PrioritizationService service, int workerCount, int queueCapacity,
+                             ExecutorFactory executorFactory) throws IOException {
+        server = new PrioritizationHttpServer(service, new InetSocketAddress("localhost", 0), workerCount,
+                queueCapacity, executorFactory);
+        server.start();
+    }
+
+    /**
+     * Without an ontology, each phenotype is estimated at {@link RequestCostEstimator#PRIOR_ROWS_PER_PHENOTYPE} (20).
+     */
+    private void startServer(long budget, AdmissionPolicy policy) throws IOException {
+        PrioritizationService service = createService();
+        service.setAdmissionControl(new AdmissionControl(new RequestCostEstimator(null), budget, policy));
+        startServer(service, 1, 1, ExecutorFactory.PLATFORM);
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        processingAllowed = new CountDownLatch(0);
+        processingStarted = new CountDownLatch(1);
+        warmUpAllowed.countDown();
+        if(server != null) {
+            server.stop(1);
+            server = null;
+        }
+    }
+
+    private HttpURLConnection request(String method, String pathAndQuery) throws IOException {
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + pathAndQuery);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static String readBody(HttpURLConnection connection) throws IOException {
+        try(InputStream inputStream = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while((read = inputStream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Requests the status until it contains {@code expected} (as the statistics are updated after the response is sent).
+     */
+    private String awaitStatus(String expected) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        String status;
+        while(!(status = readBody(request("GET", "/status"))).contains(expected)) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, status);
+            Thread.sleep(10);
+        }
+        return status;
+    }
+
+    @Test
+    public void testPrioritize() throws IOException {
+        startServer(1, 1);
+        HttpURLConnection connection = request("GET", "/prioritize?phenotype=hp:0000001&phenotype=hp:0000002");
+
+        Assert.assertEquals(connection.getResponseCode(), 200);
+        Assert.assertEquals(connection.getContentType(), "text/tab-separated-values; charset=utf-8");
+        Assert.assertNotNull(connection.getHeaderField(PrioritizationHttpServer.QUEUE_TIME_HEADER));
+        Assert.assertNotNull(connection.getHeaderField(PrioritizationHttpServer.PROCESSING_TIME_HEADER));
+        Assert.assertEquals(readBody(connection), "genes for 2");
+    }
+
+    @Test
+    public void testInvalidRequest() throws IOException {
+        startServer(1, 1);
+        HttpURLConnection connection = request("GET", "/prioritize?phenotype=hp:0000001&retriever=children&distance=1");
+
+        Assert.assertEquals(connection.getResponseCode(), 400);
+        Assert.assertEquals(readBody(connection), "retriever requires the service to be started with an HPO ontology.\n");
+    }
+
+    @Test
+    public void testOverBudgetRejected() throws Exception {
+        startServer(40, AdmissionPolicy.REJECT);
+        Assert.assertEquals(request("GET", "/prioritize?phenotype=hp:0000001&phenotype=hp:0000002").getResponseCode(), 200);
+
+        HttpURLConnection connection = request("GET", "/prioritize?phenotype=hp:0000001&phenotype=hp:0000002&phenotype=hp:0000003");
+        Assert.assertEquals(connection.getResponseCode(), 422);
+        Assert.assertTrue(readBody(connection).contains("exceeds the budget of 40"));
+        awaitStatus("\"accepted\":1,\"queued\":0,\"downgraded\":0,\"rejected\":1");
+    }
+
+    @Test
+    public void testOverBudgetQueued() throws Exception {
+        startServer(20, AdmissionPolicy.QUEUE);
+        HttpURLConnection connection = request("GET", "/prioritize?phenotype=hp:0000001&phenotype=hp:0000002");
+
+        Assert.assertEquals(connection.getResponseCode(), 200);
+        Assert.assertEquals(readBody(connection), "genes for 2");
+        awaitStatus("\"queued\":1,\"downgraded\":0,\"rejected\":0,\"expensivePending\":0");
+    }
+
+    @Test
+    public void testAdmissionOnWorker() throws IOException {
+        AtomicReference<String> estimatingThread = new AtomicReference<>();
+        PrioritizationService service = createService();
+        service.setAdmissionControl(new AdmissionControl(new RequestCostEstimator(null) {
+            @Override
+            public int[] countPhenotypes(PrioritizationRequest request) {
+                estimatingThread.set(Thread.currentThread().getName());
+                return super.countPhenotypes(request);
+            }
+        }, 40, AdmissionPolicy.REJECT));
+        startServer(service, 1, 1, ExecutorFactory.PLATFORM);
+
+        Assert.assertEquals(request("GET", "/prioritize?phenotype=hp:0000001").getResponseCode(), 200);
+        Assert.assertTrue(estimatingThread.get().startsWith("service-worker"), estimatingThread.get());
+    }
+
+    @Test
+    public void testInvalidMethod() throws IOException {
+        startServer(1, 1);
+        Assert.assertEquals(request("POST", "/prioritize?phenotype=hp:0000001").getResponseCode(), 405);
+    }
+
+    @Test
+    public void testUnknownPath() throws IOException {
+        startServer(1, 1);
+        Assert.assertEquals(request("GET", "/prioritize/other?phenotype=hp:0000001").getResponseCode(), 404);
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        assertQueueFull(ExecutorFactory.PLATFORM);
+    }
+
+    @Test
+    public void testQueueFullVirtualThreads() throws Exception {
+        if(!ExecutorFactory.VIRTUAL.isAvailable()) {
+            throw new SkipException("Virtual threads are not available.");
+        }
+        assertQueueFull(ExecutorFactory.VIRTUAL);
+    }
+
+    private void assertQueueFull(ExecutorFactory executorFactory) throws Exception {
+        processingAllowed = new CountDownLatch(1);
+        startServer(1, 1, executorFactory);
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            // First request is processed (and blocked), second one waits in the queue.
+            Future<Integer> processed = clients.submit(() -> request("GET", "/prioritize?phenotype=hp:0000001").getResponseCode());
+            Assert.assertTrue(processingStarted.await(10, TimeUnit.SECONDS));
+            Future<Integer> queued = clients.submit(() -> request("GET", "/prioritize?phenotype=hp:0000002").getResponseCode());
+            awaitStatus("\"queued\":1,");
+
+            HttpURLConnection rejected = request("GET", "/prioritize?phenotype=hp:0000003");
+            Assert.assertEquals(rejected.getResponseCode(), 503);
+            Assert.assertEquals(rejected.getHeaderField("Retry-After"), "1");
+
+            processingAllowed.countDown();
+            Assert.assertEquals(processed.get(10, TimeUnit.SECONDS), Integer.valueOf(200));
+            Assert.assertEquals(queued.get(10, TimeUnit.SECONDS), Integer.valueOf(200));
+        } finally {
+            processingAllowed.countDown();
+            clients.shutdownNow();
+        }
+
+        String status = awaitStatus("\"completed\":2,\"failed\":0,\"rejected\":1,");
+        Assert.assertTrue(status.startsWith("{\"ready\":true,\"workers\":1,\"queueCapacity\":1,\"executor\":\"" +
+                executorFactory.getId() + "\","), status);
+    }
+
+    @Test
+    public void testNotReadyWhileWarmingUp() throws Exception {
+        warmUpAllowed = new CountDownLatch(1);
+        startServer(1, 1);
+        ExecutorService warmUpThread = Executors.newSingleThreadExecutor();
+        try {
+            Future<QueryEngineWarmUp> warmUp = warmUpThread.submit(() -> server.warmUp(1));
+            awaitStatus("{\"ready\":false,");
+
+            HttpURLConnection rejected = request("GET", "/prioritize?phenotype=hp:0000001");
+            Assert.assertEquals(rejected.getResponseCode(), 503);
+            Assert.assertEquals(rejected.getHeaderField("Retry-After"), "1");
+
+            warmUpAllowed.countDown();
+            warmUp.get(10, TimeUnit.SECONDS);
+        } finally {
+            warmUpAllowed.countDown();
+            warmUpThread.shutdownNow();
+        }
+
+        Assert.assertTrue(server.isReady());
+        HttpURLConnection connection = request("GET", "/prioritize?phenotype=hp:0000001");
+        Assert.assertEquals(connection.getResponseCode(), 200);
+        awaitStatus("\"firstLatencyMs\":");
+    }
+
+    @Test
+    public void testStopClosesService() throws IOException {
+        startServer(1, 1);
+        server.stop(1);
+        server = null;
+        Assert.assertTrue(closed);
+    }
+}
@@ -0,0 +1,76 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class PrioritizationRequestTester {
+    @Test
+    public void testParseDefaults() {
+        PrioritizationRequest request = PrioritizationRequest.parse("phenotype=hp:0000001&phenotype=HP%3A0000002");
+
+        Assert.assertEquals(request.getPhenotypes(), new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"))));
+        Assert.assertNull(request.getPhenotypesRetrieverFactory());
+        Assert.assertEquals(request.getGenePrioritizerFactory(), GenePrioritizerFactory.HIGHEST_DISGENET_SCORE);
+        Assert.assertEquals(request.getFileOutputWriterFactory(), FileOutputWriterFactory.REGULAR);
+        Assert.assertNull(request.getTopGenes());
+    }
+
+    @Test
+    public void testParseAll() {
+        PrioritizationRequest request = PrioritizationRequest.parse(
+                "phenotype=hp:0000001&retriever=children&distance=2&prioritizer=dsi&format=json_lines&top=5");
+
+        Assert.assertEquals(request.getPhenotypesRetrieverFactory(), PhenotypesRetrieverFactory.CHILDREN);
+        Assert.assertEquals(request.getMaxDistance(), 2);
+        Assert.assertEquals(request.getGenePrioritizerFactory(), GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX);
+        Assert.assertEquals(request.getFileOutputWriterFactory(), FileOutputWriterFactory.JSON_LINES);
+        Assert.assertEquals(request.getTopGenes(), Integer.valueOf(5));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "At least 1 phenotype is required\\.")
+    public void testParseWithoutPhenotypes() {
+        PrioritizationRequest.parse("prioritizer=dsi");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseInvalidPhenotype() {
+        PrioritizationRequest.parse("phenotype=0000001");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Missing distance: retriever requires distance\\.")
+    public void testParseRetrieverWithoutDistance() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&retriever=children");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Missing retriever: distance requires retriever\\.")
+    public void testParseDistanceWithoutRetriever() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&distance=1");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Unknown prioritizer: unknown")
+    public void testParseUnknownPrioritizer() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&prioritizer=unknown");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "top can only be given once\\.")
+    public void testParseDuplicateTop() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&top=1&top=2");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "top is not a number: a")
+    public void testParseInvalidTop() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&top=a");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Unknown parameters: output")
+    public void testParseUnknownParameter() {
+        PrioritizationRequest.parse("phenotype=hp:0000001&output=file.tsv");
+    }
+}
@@ -0,0 +1,259 @@
+package org.molgenis.vibe.service;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerContext;
+import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+public class PrioritizationResultCacheTester {
+    private ExecutorService executor;
+
+    /**
+     * The current time in nanoseconds used by the cache.
+     */
+    private long now = 0;
+
+    /**
+     * The number of times a request was processed.
+     */
+    private AtomicInteger processed;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        executor = Executors.newFixedThreadPool(2);
+        processed = new AtomicInteger();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        executor.shutdownNow();
+    }
+
+    private static PrioritizationRequest createRequest(String... phenotypes) {
+        HashSet<Phenotype> phenotypeSet = new HashSet<>();
+        for(String phenotype : phenotypes) {
+            phenotypeSet.add(new Phenotype(phenotype));
+        }
+        return new PrioritizationRequest(phenotypeSet);
+    }
+
+    private static PrioritizationResult createResult(PrioritizationRequest request) {
+        GeneDiseaseCombination gdc = new GeneDiseaseCombination(new Gene("ncbigene:1"), new Disease("umls:C0000001"), 0.2);
+        GeneAggregates geneAggregates = new GeneAggregates(new GeneDiseaseCollection(Collections.singleton(gdc)));
+        GenePrioritizer prioritizer = GenePrioritizerFactory.HIGHEST_DISGENET_SCORE.create(new GenePrioritizerContext(geneAggregates));
+        prioritizer.run();
+        return new PrioritizationResult(request, new PhenotypeNetworkCollection(), new PhenotypeDiseaseCollection(),
+                geneAggregates, prioritizer, 1);
+    }
+
+    private Function<BooleanSupplier, PrioritizationResult> processor(PrioritizationRequest request) {
+        return cancelled -> {
+            processed.incrementAndGet();
+            return createResult(request);
+        };
+    }
+
+    /**
+     * Processes the request after {@code allowed} is counted down (failing if cancelled).
+     */
+    private Function<BooleanSupplier, PrioritizationResult> blockingProcessor(PrioritizationRequest request,
+                                                                              CountDownLatch started,
+                                                                              CountDownLatch allowed) {
+        return cancelled -> {
+            processed.incrementAndGet();
+            started.countDown();
+            try {
+                allowed.await();
+            } catch(InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            if(cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            return createResult(request);
+        };
+    }
+
+    @Test
+    public void testKeyIgnoresPhenotypeOrderAndFormat() {
+        PrioritizationRequest request1 = createRequest("hp:0000001", "HP:0000002");
+        PrioritizationRequest request2 = createRequest("hp:0000002", "hp:0000001");
+        request2.setFileOutputWriterFactory(FileOutputWriterFactory.JSON_LINES);
+
+        Assert.assertEquals(PrioritizationResultCache.createKey(request1), PrioritizationResultCache.createKey(request2));
+    }
+
+    @Test
+    public void testKeyDiffersPerSetting() {
+        PrioritizationRequest retriever = createRequest("hp:0000001");
+        retriever.setPhenotypesRetrieverFactory(PhenotypesRetrieverFactory.CHILDREN, 1);
+        PrioritizationRequest distance = createRequest("hp:0000001");
+        distance.setPhenotypesRetrieverFactory(PhenotypesRetrieverFactory.CHILDREN, 2);
+        PrioritizationRequest prioritizer = createRequest("hp:0000001");
+        prioritizer.setGenePrioritizerFactory(GenePrioritizerFactory.DISEASE_SPECIFICITY_INDEX);
+        PrioritizationRequest top = createRequest("hp:0000001");
+        top.setTopGenes(10);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(
+                PrioritizationResultCache.createKey(createRequest("hp:0000001")),
+                PrioritizationResultCache.createKey(createRequest("hp:0000002")),
+                PrioritizationResultCache.createKey(retriever),
+                PrioritizationResultCache.createKey(distance),
+                PrioritizationResultCache.createKey(prioritizer),
+                PrioritizationResultCache.createKey(top))).size(), 6);
+    }
+
+    @Test
+    public void testKeptTillExpired() {
+        PrioritizationResultCache cache = new PrioritizationResultCache(1000, 10, () -> now);
+        PrioritizationRequest request1 = createRequest("hp:0000001");
+        PrioritizationResult result = cache.get(request1, () -> false, processor(request1));
+
+        now = TimeUnit.MILLISECONDS.toNanos(999);
+        PrioritizationRequest request2 = createRequest("hp:0000001");
+        request2.setFileOutputWriterFactory(FileOutputWriterFactory.SIMPLE);
+        PrioritizationResult sharedResult = cache.get(request2, () -> false, processor(request2));
+        Assert.assertEquals(processed.get(), 1);
+        Assert.assertSame(sharedResult.getRequest(), request2);
+        Assert.assertSame(sharedResult.getGeneAggregates(), result.getGeneAggregates());
+
+        now = TimeUnit.MILLISECONDS.toNanos(1000);
+        cache.get(request2, () -> false, processor(request2));
+        Assert.assertEquals(processed.get(), 2);
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 2);
+        Assert.assertEquals(cache.getHitRate(), 1 / 3.0);
+    }
+
+    @Test
+    public void testMaxSize() {
+        PrioritizationResultCache cache = new PrioritizationResultCache(1000, 2, () -> now);
+        for(String phenotype : new String[]{"hp:0000001", "hp:0000002", "hp:0000003"}) {
+            PrioritizationRequest request = createRequest(phenotype);
+            cache.get(request, () -> false, processor(request));
+        }
+        Assert.assertEquals(cache.getSize(), 2);
+
+        // Oldest one was removed.
+        PrioritizationRequest request = createRequest("hp:0000001");
+        cache.get(request, () -> false, processor(request));
+        Assert.assertEquals(processed.get(), 4);
+    }
+
+    @Test
+    public void testWithoutTtl() {
+        PrioritizationResultCache cache = new PrioritizationResultCache(0, 10, () -> now);
+        PrioritizationRequest request = createRequest("hp:0000001");
+        cache.get(request, () -> false, processor(request));
+        cache.get(request, () -> false, processor(request));
+
+        Assert.assertEquals(processed.get(), 2);
+        Assert.assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testFailureNotKept() {
+        PrioritizationResultCache cache = new PrioritizationResultCache(1000, 10, () -> now);
+        PrioritizationRequest request = createRequest("hp:0000001");
+        try {
+            cache.get(request, () -> false, cancelled -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail("Expected IllegalStateException");
+        } catch(IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "failed");
+        }
+
+        cache.get(request, () -> false, processor(request));
+        Assert.assertEquals(processed.get(), 1);
+    }
+
+    @Test
+    public void testConcurrentRequestsCoalesced() throws Exception {
+        PrioritizationResultCache cache = new PrioritizationResultCache(0, 10, () -> now);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch allowed = new CountDownLatch(1);
+        PrioritizationRequest request1 = createRequest("hp:0000001");
+        PrioritizationRequest request2 = createRequest("hp:0000001");
+
+        Future<PrioritizationResult> result1 = executor.submit(() -> cache.get(request1, () -> false,
+                blockingProcessor(request1, started, allowed)));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Future<PrioritizationResult> result2 = executor.submit(() -> cache.get(request2, () -> false, processor(request2)));
+        awaitCoalesced(cache, 1);
+
+        allowed.countDown();
+        Assert.assertSame(result1.get(10, TimeUnit.SECONDS).getRequest(), request1);
+        Assert.assertSame(result2.get(10, TimeUnit.SECONDS).getRequest(), request2);
+        Assert.assertSame(result2.get().getGeneAggregates(), result1.get().getGeneAggregates());
+        Assert.assertEquals(processed.get(), 1);
+    }
+
+    @Test
+    public void testWaitingRequestProcessedIfFirstCancelled() throws Exception {
+        PrioritizationResultCache cache = new PrioritizationResultCache(0, 10, () -> now);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch allowed = new CountDownLatch(1);
+        PrioritizationRequest request = createRequest("hp:0000001");
+
+        Future<PrioritizationResult> cancelledResult = executor.submit(() -> cache.get(request, () -> true,
+                blockingProcessor(request, started, allowed)));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Future<PrioritizationResult> result = executor.submit(() -> cache.get(request, () -> false, processor(request)));
+        awaitCoalesced(cache, 1);
+
+        allowed.countDown();
+        try {
+            cancelledResult.get(10, TimeUnit.SECONDS);
+            Assert.fail("Expected CancellationException");
+        } catch(ExecutionException e) {
+            Assert.assertEquals(e.getCause().getClass(), CancellationException.class);
+        }
+        Assert.assertNotNull(result.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(processed.get(), 2);
+    }
+
+    @Test(expectedExceptions = CancellationException.class)
+    public void testWaitingRequestCancelled() {
+        PrioritizationResultCache cache = new PrioritizationResultCache(0, 10, () -> now);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch allowed = new CountDownLatch(1);
+        PrioritizationRequest request = createRequest("hp:0000001");
+        executor.submit(() -> cache.get(request, () -> false, blockingProcessor(request, started, allowed)));
+        try {
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            cache.get(request, () -> true, processor(request));
+        } catch(InterruptedException e) {
+            Assert.fail("Interrupted.", e);
+        } finally {
+            allowed.countDown();
+        }
+    }
+
+    private static void awaitCoalesced(PrioritizationResultCache cache, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while(cache.getCoalesced() < expected) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeTtl() {
+        new PrioritizationResultCache(-1, 10);
+    }
+}